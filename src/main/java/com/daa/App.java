@@ -1,94 +1,228 @@
 package com.daa;
 
+import com.daa.model.ArrayStorage;
+import com.daa.model.CompactGraph;
 import com.daa.model.Component;
 import com.daa.model.CondensationGraph;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.MappedGraph;
+import com.daa.model.OffHeapGraph;
 import com.daa.model.TaskGraph;
+import com.daa.utils.AnalysisCache;
+import com.daa.utils.AnalysisServer;
+import com.daa.utils.BatchAnalyzer;
+import com.daa.utils.BinaryGraphFormat;
+import com.daa.utils.CsvGraphLoader;
+import com.daa.utils.EdgeListFile;
+import com.daa.utils.PartitionedAnalyzer;
+import com.daa.utils.ResultJsonWriter;
+import com.daa.utils.ShardedTaskLoader;
+import com.daa.utils.StreamingCondensationBuilder;
+import com.daa.utils.StreamingTaskLoader;
 import com.daa.utils.TaskJsonParser;
+import graph.analysis.AnalysisContext;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import graph.analysis.SensitivityAnalyzer;
+import graph.analysis.ShardedAnalyzer;
+import graph.dagsp.CompactCriticalPath;
 import graph.dagsp.DAGShortestPath;
+import graph.metrics.Instrumentation;
+import graph.metrics.MemoryFootprint;
+import graph.metrics.Metrics;
+import graph.metrics.MetricsHttpServer;
+import graph.metrics.MetricsRegistry;
+import graph.metrics.OpenMetricsExporter;
+import graph.metrics.PhaseEventMonitor;
+import graph.metrics.Phase;
+import graph.scc.SemiExternalSCC;
 import graph.scc.TarjanSCC;
-import graph.topo.TopologicalSort;
+import graph.topo.CompactTopologicalSort;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 // Main application for Assignment 4
 // Does SCC detection, topological sort, and finds critical path
 public class App {
     
     public static void main(String[] args) {
-        System.out.println("==============================================");
-        System.out.println("  Smart City DAG Scheduler - Java 21");
-        System.out.println("  SCC Detection & Path Analysis");
-        System.out.println("==============================================\n");
-        
         try {
-            // figure out which file to load
-            String filePath;
-            if (args.length > 0) {
-                filePath = args[0];
-                System.out.println("Loading tasks from: " + filePath);
-            } else {
-                filePath = "tasks.json";
-                System.out.println("No input file provided. Creating sample file: " + filePath);
-                TaskJsonParser.createSampleFile(filePath);
+            // figure out which file to load and whether to repeat
+            String filePath = null;
+            int repeat = 0;
+            boolean jfrMonitor = false;
+            String metricsJsonPath = null;
+            int metricsPort = -1;
+            String openMetricsFile = null;
+            boolean offHeap = false;
+            String edgesPath = null;
+            boolean quiet = false;
+            String outputPath = null;
+            ResultJsonWriter.Format format = null;
+            String batchInputs = null;
+            int threads = 0;
+            int servePort = -1;
+            long cacheMegabytes = 256;
+            String cacheDir = null;
+            int bottlenecks = 0;
+            int partitions = 0;
+            boolean incremental = false;
+            try {
+                for (int i = 0; i < args.length; i++) {
+                    if (args[i].equals("--repeat")) {
+                        repeat = Integer.parseInt(flagValue(args, i++));
+                    } else if (args[i].equals("--jfr-monitor")) {
+                        jfrMonitor = true;
+                    } else if (args[i].equals("--metrics-json")) {
+                        metricsJsonPath = flagValue(args, i++);
+                    } else if (args[i].equals("--metrics-port")) {
+                        metricsPort = Integer.parseInt(flagValue(args, i++));
+                    } else if (args[i].equals("--openmetrics-file")) {
+                        openMetricsFile = flagValue(args, i++);
+                    } else if (args[i].equals("--off-heap")) {
+                        offHeap = true;
+                    } else if (args[i].equals("--edges")) {
+                        edgesPath = flagValue(args, i++);
+                    } else if (args[i].equals("--batch")) {
+                        batchInputs = flagValue(args, i++);
+                    } else if (args[i].equals("--threads")) {
+                        threads = Integer.parseInt(flagValue(args, i++));
+                    } else if (args[i].equals("--serve")) {
+                        servePort = Integer.parseInt(flagValue(args, i++));
+                    } else if (args[i].equals("--cache-mb")) {
+                        cacheMegabytes = Long.parseLong(flagValue(args, i++));
+                    } else if (args[i].equals("--cache-dir")) {
+                        cacheDir = flagValue(args, i++);
+                    } else if (args[i].equals("--bottlenecks")) {
+                        bottlenecks = Integer.parseInt(flagValue(args, i++));
+                    } else if (args[i].equals("--partitions")) {
+                        partitions = Integer.parseInt(flagValue(args, i++));
+                    } else if (args[i].equals("--incremental")) {
+                        incremental = true;
+                    } else if (args[i].equals("--quiet")) {
+                        quiet = true;
+                    } else if (args[i].equals("--output")) {
+                        outputPath = flagValue(args, i++);
+                    } else if (args[i].equals("--format")) {
+                        format = ResultJsonWriter.Format.valueOf(flagValue(args, i++).toUpperCase());
+                    } else if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                    } else {
+                        filePath = args[i];
+                    }
+                }
+                if (repeat > 0 && threads > 1) {
+                    throw new IllegalArgumentException("--repeat runs single-threaded; drop --threads");
+                }
+                if (repeat > 0 && bottlenecks > 0) {
+                    throw new IllegalArgumentException("--repeat prints only latencies; drop --bottlenecks");
+                }
+            } catch (IllegalArgumentException e) {
+                // bad numbers and formats are IllegalArgumentExceptions too
+                System.err.println("Invalid arguments: " + e.getMessage());
+                printUsage();
+                System.exit(1);
+                return;
             }
             
-            // Load task graph
-            TaskGraph graph = TaskJsonParser.loadFromJson(filePath);
-            System.out.println("Task graph loaded with " + graph.size() + " tasks\n");
-            
-            // Step 1: Find Strongly Connected Components (SCC)
-            System.out.println("\n" + "=".repeat(50));
-            System.out.println("STEP 1: STRONGLY CONNECTED COMPONENTS (Tarjan)");
-            System.out.println("=".repeat(50));
-            
-            TarjanSCC tarjan = new TarjanSCC(graph);
-            List<Component> sccs = tarjan.findSCCs();
-            tarjan.printSCCs();
-            
-            
-            // Step 2: Build condensation graph (DAG from SCCs)
-            System.out.println("\n" + "=".repeat(50));
-            System.out.println("STEP 2: CONDENSATION GRAPH (DAG)");
-            System.out.println("=".repeat(50));
-            
-            Map<String, Integer> taskToComponent = tarjan.getTaskToComponentMap();
-            CondensationGraph condensationDAG = new CondensationGraph(sccs, graph);
-            condensationDAG.build(taskToComponent);
-            condensationDAG.printGraph();
+            // service mode: analyze graphs posted over HTTP until stopped
+            if (servePort >= 0) {
+                try (AnalysisServer server = AnalysisServer.start(servePort, cacheMegabytes << 20, incremental)) {
+                    System.out.println("Analysis service at http://127.0.0.1:" + server.getPort()
+                        + "/analyze, press Ctrl+C to stop");
+                    Thread.currentThread().join();
+                }
+                return;
+            }
             
-            // Step 3: Do topological sort on the DAG
-            System.out.println("\n" + "=".repeat(50));
-            System.out.println("STEP 3: TOPOLOGICAL ORDERING");
-            System.out.println("=".repeat(50));
+            // batch mode: every file in a directory or glob, one result file each
+            if (batchInputs != null) {
+                runBatch(batchInputs, outputPath != null ? outputPath : "results",
+                    format != null ? format : ResultJsonWriter.Format.JSON, threads, incremental, quiet);
+                return;
+            }
             
-            TopologicalSort topoSort = new TopologicalSort(condensationDAG);
-            topoSort.printTopologicalOrder();
+            // machine-readable mode: results as JSON on stdout or in a file, nothing else printed
+            if (quiet || outputPath != null) {
+                if (filePath == null) {
+                    throw new IOException("No input file given");
+                }
+                if (format == null) {
+                    format = outputPath != null ? ResultJsonWriter.Format.forPath(outputPath) : ResultJsonWriter.Format.JSON;
+                }
+                AnalysisCache cache = cacheDir != null ? new AnalysisCache(Path.of(cacheDir), cacheMegabytes << 20) : null;
+                analyzeToOutput(filePath, edgesPath, offHeap, outputPath, format, quiet, cache, threads);
+                return;
+            }
             
-            // Step 4: Find shortest and longest paths
-            System.out.println("\n" + "=".repeat(50));
-            System.out.println("STEP 4: PATH ANALYSIS ON DAG");
-            System.out.println("=".repeat(50));
+            System.out.println("==============================================");
+            System.out.println("  Smart City DAG Scheduler - Java 21");
+            System.out.println("  SCC Detection & Path Analysis");
+            System.out.println("==============================================\n");
             
-            DAGShortestPath pathFinder = new DAGShortestPath(condensationDAG);
+            if (filePath != null) {
+                System.out.println("Loading tasks from: " + filePath);
+            } else {
+                filePath = "tasks.json";
+                System.out.println("No input file provided. Creating sample file: " + filePath);
+                TaskJsonParser.createSampleFile(filePath);
+            }
             
-            // critical path is the longest path
-            pathFinder.printCriticalPath();
+            // optionally expose the metrics registry to scrapers while we run
+            MetricsRegistry registry = MetricsRegistry.getDefault();
+            MetricsHttpServer metricsServer = null;
+            if (metricsPort >= 0) {
+                metricsServer = MetricsHttpServer.start(registry, metricsPort);
+                System.out.println("Serving metrics at http://127.0.0.1:" + metricsServer.getPort() + "/metrics");
+            }
             
-            // also show shortest paths from first component
-            if (!sccs.isEmpty()) {
-                int sourceComponent = sccs.get(0).getId();
-                pathFinder.printShortestPaths(sourceComponent);
+            // optionally stream our own JFR phase events while the analysis runs
+            PhaseEventMonitor monitor = jfrMonitor ? PhaseEventMonitor.start() : null;
+            try {
+                if (filePath.endsWith(BinaryGraphFormat.FILE_EXTENSION) && partitions > 0) {
+                    analyzePartitioned(filePath, partitions, offHeap, bottlenecks);
+                } else if (filePath.endsWith(BinaryGraphFormat.FILE_EXTENSION)) {
+                    analyzeBinary(filePath, offHeap, bottlenecks, threads);
+                } else if (filePath.endsWith(EdgeListFile.FILE_EXTENSION)) {
+                    analyzeEdgeList(filePath, offHeap);
+                } else if (filePath.endsWith(CsvGraphLoader.FILE_EXTENSION)) {
+                    analyzeCsv(filePath, edgesPath, bottlenecks, threads);
+                } else if (Files.isDirectory(Path.of(filePath))) {
+                    analyzeShards(filePath, bottlenecks, threads);
+                } else if (repeat > 0) {
+                    runRepeated(filePath, repeat);
+                } else if (threads > 1 || bottlenecks > 0) {
+                    analyzeJson(filePath, metricsJsonPath, bottlenecks, threads);
+                } else {
+                    analyze(filePath, metricsJsonPath);
+                }
+            } finally {
+                if (monitor != null) {
+                    monitor.close();
+                }
             }
             
-            System.out.println("\n" + "=".repeat(50));
-            System.out.println("Analysis Complete!");
-            System.out.println("=".repeat(50));
+            if (openMetricsFile != null) {
+                OpenMetricsExporter.writeToFile(registry, Path.of(openMetricsFile));
+                System.out.println("OpenMetrics written to " + openMetricsFile);
+            }
+            if (metricsServer != null) {
+                System.out.println("Analysis done; still serving metrics, press Ctrl+C to stop");
+                Thread.currentThread().join();
+            }
             
         } catch (IOException e) {
             System.err.println("Error reading file: " + e.getMessage());
-            System.err.println("\nUsage: java com.daa.App [path/to/tasks.json]");
+            printUsage();
             System.exit(1);
         } catch (Exception e) {
             System.err.println("Error during analysis: " + e.getMessage());
@@ -96,4 +230,463 @@ public class App {
             System.exit(1);
         }
     }
+    
+    // The value after the flag at args[i]; a flag given last has none, and is not an input file
+    private static String flagValue(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException(args[i] + " needs a value");
+        }
+        return args[i + 1];
+    }
+    
+    private static void printUsage() {
+        System.err.println("\nUsage: java com.daa.App [path/to/tasks.json | graph.sccg | graph.edges | shard-dir/ | tasks.csv --edges edges.csv] [--repeat N] [--jfr-monitor]"
+            + " [--metrics-json out.json] [--metrics-port PORT] [--openmetrics-file out.prom] [--off-heap] [--bottlenecks N] [--threads N] [--partitions N]"
+            + " [--quiet] [--output results.json | results.ndjson] [--format json|ndjson]"
+            + " [--cache-dir DIR [--cache-mb N]]"
+            + "\n       java com.daa.App --batch DIR|GLOB [--output DIR] [--format json|ndjson] [--threads N] [--incremental] [--quiet]"
+            + "\n       java com.daa.App --serve PORT [--cache-mb N] [--incremental]");
+    }
+    
+    /**
+     * Full verbose analysis of one file: SCCs, condensation, topological
+     * order and path analysis, each with its metrics report.
+     * If metricsJsonPath is set, per-phase metrics are also written there as JSON.
+     */
+    static void analyze(String filePath, String metricsJsonPath) throws IOException {
+        Map<Phase, Metrics> phaseMetrics = new EnumMap<>(Phase.class);
+        
+        // Load task graph
+        Metrics parseMetrics = Instrumentation.newMetrics();
+        long parseStart = System.nanoTime();
+        parseMetrics.startTimer();
+        TaskGraph graph = StreamingTaskLoader.loadTaskGraph(filePath);
+        parseMetrics.stopTimer();
+        long parseNanos = System.nanoTime() - parseStart;
+        parseMetrics.recordFootprint("task_graph", MemoryFootprint.estimate(graph));
+        phaseMetrics.put(Phase.PARSE, parseMetrics);
+        System.out.println("Task graph loaded with " + graph.size() + " tasks\n");
+        System.out.println(parseMetrics.getReport());
+        
+        // Step 1: Find Strongly Connected Components (SCC)
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("STEP 1: STRONGLY CONNECTED COMPONENTS (Tarjan)");
+        System.out.println("=".repeat(50));
+        
+        // one context computes each artifact once and hands it to every step below
+        AnalysisContext context = new AnalysisContext(graph);
+        List<Component> sccs = context.getComponents();
+        Map<String, Integer> taskToComponent = context.getTaskToComponentMap();
+        TarjanSCC tarjan = context.getSCCFinder();
+        tarjan.getMetrics().recordFootprint("scc_result", MemoryFootprint.estimate(sccs, taskToComponent));
+        tarjan.printSCCs();
+        
+        
+        // Step 2: Build condensation graph (DAG from SCCs)
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("STEP 2: CONDENSATION GRAPH (DAG)");
+        System.out.println("=".repeat(50));
+        
+        CondensationGraph condensationDAG = context.getCondensation();
+        Metrics condensationMetrics = context.getPhaseMetrics().get(Phase.CONDENSATION);
+        condensationMetrics.recordFootprint("condensation_graph", MemoryFootprint.estimate(condensationDAG));
+        condensationDAG.printGraph();
+        System.out.println("\n" + condensationMetrics.getReport());
+        
+        // Step 3: Do topological sort on the DAG
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("STEP 3: TOPOLOGICAL ORDERING");
+        System.out.println("=".repeat(50));
+        
+        System.out.println("\n=== Topological Order (Kahn's Algorithm) ===");
+        System.out.println("Component Order: " + context.getTopologicalOrder());
+        System.out.println("\n=== Derived Task Order ===");
+        List<String> taskOrder = context.getTaskOrder();
+        for (int i = 0; i < taskOrder.size(); i++) {
+            System.out.printf("%d. %s%n", i + 1, taskOrder.get(i));
+        }
+        System.out.println("\n" + context.getPhaseMetrics().get(Phase.TOPO).getReport());
+        
+        // Step 4: Find shortest and longest paths
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("STEP 4: PATH ANALYSIS ON DAG");
+        System.out.println("=".repeat(50));
+        
+        // critical path is the longest path
+        DAGShortestPath pathFinder = context.getPathFinder();
+        pathFinder.printCriticalPath(context.getCriticalPath());
+        System.out.println("\n" + context.getPhaseMetrics().get(Phase.PATHS).getReport());
+        phaseMetrics.putAll(context.getPhaseMetrics());
+        if (metricsJsonPath != null) {
+            writeMetricsJson(phaseMetrics, metricsJsonPath);
+        }
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        Map<Phase, Long> phaseNanos = context.getPhaseNanos();
+        registry.record(Phase.PARSE, parseNanos, parseMetrics);
+        context.getPhaseMetrics().forEach((phase, metrics) -> registry.record(phase, phaseNanos.get(phase), metrics));
+        registry.recordAnalysis();
+        
+        // also show shortest paths from first component
+        if (!sccs.isEmpty()) {
+            int sourceComponent = sccs.get(0).getId();
+            pathFinder.printShortestPaths(sourceComponent);
+        }
+        
+        System.out.println("\n" + "=".repeat(50));
+        System.out.println("Analysis Complete!");
+        System.out.println("=".repeat(50));
+    }
+    
+    /**
+     * Load a JSON task file compactly and analyze it with the int-based
+     * pipeline, sharded over the given number of threads, then print the
+     * top bottlenecks if asked for. Prints a summary instead of every step.
+     * If metricsJsonPath is set, per-phase metrics are also written there as JSON.
+     */
+    static void analyzeJson(String filePath, String metricsJsonPath, int bottlenecks, int threads)
+            throws IOException {
+        Metrics parseMetrics = Instrumentation.newMetrics();
+        long parseStart = System.nanoTime();
+        parseMetrics.startTimer();
+        CompactGraph graph = StreamingTaskLoader.load(filePath);
+        parseMetrics.stopTimer();
+        long parseNanos = System.nanoTime() - parseStart;
+        System.out.printf("Loaded %,d tasks and %,d edges in %.3f ms%n%n",
+            graph.vertexCount(), graph.edgeCount(), parseNanos / 1_000_000.0);
+        
+        AnalysisResult result = analyzeCompact(graph, ArrayStorage.HEAP, threads);
+        System.out.println(result.getReport());
+        printBottlenecks(result, bottlenecks);
+        if (metricsJsonPath != null) {
+            Map<Phase, Metrics> phaseMetrics = new EnumMap<>(Phase.class);
+            phaseMetrics.put(Phase.PARSE, parseMetrics);
+            phaseMetrics.putAll(result.getPhaseMetrics());
+            writeMetricsJson(phaseMetrics, metricsJsonPath);
+        }
+        
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        registry.record(Phase.PARSE, parseNanos, parseMetrics);
+        registry.recordPhases(result.getPhaseMetrics());
+        registry.recordAnalysis();
+    }
+    
+    /**
+     * Analyze a binary graph file straight from its memory mapping.
+     * Prints a summary instead of every component, since these files are usually large.
+     * With offHeap the graph is copied out of the mapping into direct memory and
+     * all working arrays are allocated there too.
+     */
+    static void analyzeBinary(String filePath, boolean offHeap, int bottlenecks, int threads) throws IOException {
+        long start = System.nanoTime();
+        MappedGraph mapped = BinaryGraphFormat.map(Path.of(filePath));
+        IntGraph graph = offHeap ? OffHeapGraph.copyOf(mapped) : mapped;
+        long loaded = System.nanoTime();
+        System.out.printf("%s %,d tasks and %,d edges in %.3f ms%n%n", offHeap ? "Copied off-heap" : "Mapped",
+            graph.vertexCount(), graph.edgeCount(), (loaded - start) / 1_000_000.0);
+        
+        AnalysisResult result = analyzeCompact(graph, offHeap ? ArrayStorage.OFF_HEAP : ArrayStorage.HEAP, threads);
+        System.out.println(result.getReport());
+        printBottlenecks(result, bottlenecks);
+        
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        registry.recordPhases(result.getPhaseMetrics());
+        registry.recordAnalysis();
+    }
+    
+    /**
+     * Analyze a binary graph file with one worker process per partition,
+     * merging their SCCs and finishing the analysis in this JVM.
+     */
+    static void analyzePartitioned(String filePath, int partitions, boolean offHeap, int bottlenecks)
+            throws IOException {
+        System.out.printf("Analyzing %s in %d worker processes%n%n", filePath, partitions);
+        AnalysisResult result = new PartitionedAnalyzer(partitions)
+            .analyze(Path.of(filePath), offHeap ? ArrayStorage.OFF_HEAP : ArrayStorage.HEAP);
+        System.out.println(result.getReport());
+        printBottlenecks(result, bottlenecks);
+        
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        registry.recordPhases(result.getPhaseMetrics());
+        registry.recordAnalysis();
+    }
+    
+    /**
+     * Analyze every JSON or binary graph matched by a directory or glob in this
+     * JVM, writing one result file per input, and print aggregate throughput.
+     */
+    static void runBatch(String inputs, String outputDir, ResultJsonWriter.Format format, int threads,
+                         boolean incremental, boolean quiet)
+            throws IOException, InterruptedException {
+        List<Path> files = BatchAnalyzer.resolveInputs(inputs);
+        if (files.isEmpty()) {
+            throw new IOException("No graph files match " + inputs);
+        }
+        int cpuThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BatchAnalyzer batch = new BatchAnalyzer(2, cpuThreads, 2 * cpuThreads, incremental);
+        if (!quiet) {
+            System.out.printf("Analyzing %,d files into %s%n", files.size(), outputDir);
+        }
+        BatchAnalyzer.Summary summary = batch.run(files, BatchAnalyzer.inputBase(inputs), Path.of(outputDir), format);
+        if (!quiet || summary.failed() > 0) {
+            System.out.println(summary.getReport());
+        }
+    }
+    
+    /**
+     * Analyze any supported input with the int-based pipeline and write the
+     * results as JSON or NDJSON, to a file or, with no output path, to stdout.
+     * Unless quiet, a short summary is printed as well. With a cache, an input
+     * analyzed before is answered from it without being parsed.
+     */
+    static void analyzeToOutput(String filePath, String edgesPath, boolean offHeap, String outputPath,
+                                ResultJsonWriter.Format format, boolean quiet, AnalysisCache cache, int threads)
+            throws IOException {
+        AnalysisResult result;
+        ArrayStorage storage = offHeap ? ArrayStorage.OFF_HEAP : ArrayStorage.HEAP;
+        if (cache != null) {
+            result = cache.analyze(inputFiles(filePath, edgesPath), () -> loadIntGraph(filePath, edgesPath, offHeap),
+                graph -> analyzeCompact(graph, storage, threads));
+        } else {
+            IntGraph graph = loadIntGraph(filePath, edgesPath, offHeap);
+            result = analyzeCompact(graph, storage, threads);
+        }
+        if (outputPath != null) {
+            ResultJsonWriter.write(result, Path.of(outputPath), format);
+        } else {
+            ResultJsonWriter.write(result, new FileOutputStream(FileDescriptor.out).getChannel(), format);
+        }
+        if (!quiet) {
+            if (cache != null) {
+                System.out.println(cache.getHits() > 0 ? "Cache hit in " + cache.getDirectory()
+                    : "Cache miss; stored in " + cache.getDirectory());
+            }
+            System.out.println(result.getReport());
+            System.out.println("Results written to " + outputPath);
+        }
+        
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        registry.recordPhases(result.getPhaseMetrics());
+        registry.recordAnalysis();
+    }
+    
+    /**
+     * Load any input the int-based pipeline accepts.
+     */
+    static IntGraph loadIntGraph(String filePath, String edgesPath, boolean offHeap) throws IOException {
+        IntGraph graph;
+        if (filePath.endsWith(BinaryGraphFormat.FILE_EXTENSION)) {
+            MappedGraph mapped = BinaryGraphFormat.map(Path.of(filePath));
+            graph = offHeap ? OffHeapGraph.copyOf(mapped) : mapped;
+        } else if (filePath.endsWith(CsvGraphLoader.FILE_EXTENSION)) {
+            if (edgesPath == null) {
+                throw new IOException("CSV input needs an edge file: " + filePath + " --edges edges.csv");
+            }
+            graph = CsvGraphLoader.load(Path.of(filePath), Path.of(edgesPath));
+        } else if (filePath.endsWith(EdgeListFile.FILE_EXTENSION)) {
+            throw new IOException("Edge list files carry no task ids; convert to " + BinaryGraphFormat.FILE_EXTENSION + " for JSON output");
+        } else if (Files.isDirectory(Path.of(filePath))) {
+            graph = ShardedTaskLoader.load(ShardedTaskLoader.listShards(Path.of(filePath)));
+        } else {
+            graph = StreamingTaskLoader.load(filePath);
+        }
+        if (offHeap && !(graph instanceof OffHeapGraph)) {
+            graph = OffHeapGraph.copyOf(graph);
+        }
+        return graph;
+    }
+    
+    /**
+     * Every file an input is loaded from, for cache keys.
+     */
+    static List<Path> inputFiles(String filePath, String edgesPath) throws IOException {
+        Path path = Path.of(filePath);
+        if (Files.isDirectory(path)) {
+            return ShardedTaskLoader.listShards(path);
+        }
+        if (filePath.endsWith(CsvGraphLoader.FILE_EXTENSION) && edgesPath != null) {
+            return List.of(path, Path.of(edgesPath));
+        }
+        return List.of(path);
+    }
+    
+    /**
+     * Load a task,duration file and a from,to edge file and analyze the graph.
+     */
+    static void analyzeCsv(String tasksPath, String edgesPath, int bottlenecks, int threads) throws IOException {
+        if (edgesPath == null) {
+            throw new IOException("CSV input needs an edge file: " + tasksPath + " --edges edges.csv");
+        }
+        Metrics parseMetrics = Instrumentation.newMetrics();
+        long parseStart = System.nanoTime();
+        parseMetrics.startTimer();
+        CompactGraph graph = CsvGraphLoader.load(Path.of(tasksPath), Path.of(edgesPath));
+        parseMetrics.stopTimer();
+        long parseNanos = System.nanoTime() - parseStart;
+        long bytes = Files.size(Path.of(tasksPath)) + Files.size(Path.of(edgesPath));
+        System.out.printf("Loaded %,d tasks and %,d edges in %.3f ms (%.1f MB/s)%n%n",
+            graph.vertexCount(), graph.edgeCount(), parseNanos / 1_000_000.0,
+            bytes / 1048576.0 / (parseNanos / 1e9));
+        
+        AnalysisResult result = analyzeCompact(graph, ArrayStorage.HEAP, threads);
+        System.out.println(result.getReport());
+        printBottlenecks(result, bottlenecks);
+        
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        registry.record(Phase.PARSE, parseNanos, parseMetrics);
+        registry.recordPhases(result.getPhaseMetrics());
+        registry.recordAnalysis();
+    }
+    
+    /**
+     * Run the int-based pipeline; with more than one thread the graph is split
+     * into weakly connected shards that are analyzed in parallel.
+     */
+    static AnalysisResult analyzeCompact(IntGraph graph, ArrayStorage storage, int threads) {
+        return threads > 1 ? new ShardedAnalyzer(threads).analyze(graph, storage) : CompactAnalyzer.analyze(graph, storage);
+    }
+    
+    /**
+     * Print the tasks whose removal would shorten the plan most, if asked for.
+     */
+    static void printBottlenecks(AnalysisResult result, int limit) {
+        if (limit <= 0) {
+            return;
+        }
+        SensitivityAnalyzer sensitivity = SensitivityAnalyzer.analyze(result);
+        System.out.println(sensitivity.getReport(limit));
+        System.out.printf("Sensitivity of all %,d components in %.3f ms%n%n",
+            result.componentCount(), sensitivity.getMetrics().getElapsedMillis());
+    }
+    
+    /**
+     * Load every JSON shard in a directory in parallel and analyze the merged graph.
+     */
+    static void analyzeShards(String directory, int bottlenecks, int threads) throws IOException {
+        List<Path> shards = ShardedTaskLoader.listShards(Path.of(directory));
+        Metrics parseMetrics = Instrumentation.newMetrics();
+        long parseStart = System.nanoTime();
+        parseMetrics.startTimer();
+        CompactGraph graph = ShardedTaskLoader.load(shards);
+        parseMetrics.stopTimer();
+        long parseNanos = System.nanoTime() - parseStart;
+        System.out.printf("Loaded %,d tasks and %,d edges from %d shards in %.3f ms%n%n",
+            graph.vertexCount(), graph.edgeCount(), shards.size(), parseNanos / 1_000_000.0);
+        
+        AnalysisResult result = analyzeCompact(graph, ArrayStorage.HEAP, threads);
+        System.out.println(result.getReport());
+        printBottlenecks(result, bottlenecks);
+        
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        registry.record(Phase.PARSE, parseNanos, parseMetrics);
+        registry.recordPhases(result.getPhaseMetrics());
+        registry.recordAnalysis();
+    }
+    
+    /**
+     * Semi-external analysis of an edge list file: SCCs with O(V) memory over
+     * repeated sequential scans, a condensation built by external sorting into a
+     * binary graph file next to the input, then ordering and critical path over its mapping.
+     */
+    static void analyzeEdgeList(String filePath, boolean offHeap) throws IOException {
+        ArrayStorage storage = offHeap ? ArrayStorage.OFF_HEAP : ArrayStorage.HEAP;
+        EdgeListFile edges = EdgeListFile.open(Path.of(filePath));
+        System.out.printf("Edge list with %,d tasks and %,d edges%n%n", edges.vertexCount(), edges.edgeCount());
+        
+        long start = System.nanoTime();
+        SemiExternalSCC scc = new SemiExternalSCC(edges, Instrumentation.newMetrics(), storage);
+        scc.findSCCs();
+        long sccNanos = System.nanoTime() - start;
+        System.out.printf("SCCs: %,d%n", scc.getComponentCount());
+        System.out.println(scc.getMetrics().getReport());
+        
+        Path condensationFile = Path.of(filePath + ".condensation" + BinaryGraphFormat.FILE_EXTENSION);
+        start = System.nanoTime();
+        Metrics condensationMetrics = Instrumentation.newMetrics();
+        condensationMetrics.startTimer();
+        Path workDir = condensationFile.toAbsolutePath().getParent();
+        long condensationEdges = new StreamingCondensationBuilder(workDir)
+            .build(edges, scc.getComponentOf(), scc.getComponentCount(), condensationFile);
+        condensationMetrics.stopTimer();
+        long condensationNanos = System.nanoTime() - start;
+        System.out.printf("Condensation: %,d edges written to %s in %.3f ms%n%n",
+            condensationEdges, condensationFile, condensationNanos / 1_000_000.0);
+        
+        MappedGraph dag = BinaryGraphFormat.map(condensationFile);
+        start = System.nanoTime();
+        CompactTopologicalSort topoSort = new CompactTopologicalSort(dag, Instrumentation.newMetrics(), storage);
+        IntArray order = topoSort.sort();
+        long topoNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        CompactCriticalPath pathFinder = new CompactCriticalPath(dag, order, Instrumentation.newMetrics(), storage);
+        CompactCriticalPath.CriticalPath criticalPath = pathFinder.longestPath();
+        long pathNanos = System.nanoTime() - start;
+        System.out.printf("Critical path: length %,d over %,d components%n",
+            criticalPath.length(), criticalPath.path().length);
+        
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        registry.record(Phase.SCC, sccNanos, scc.getMetrics());
+        registry.record(Phase.CONDENSATION, condensationNanos, condensationMetrics);
+        registry.record(Phase.TOPO, topoNanos, topoSort.getMetrics());
+        registry.record(Phase.PATHS, pathNanos, pathFinder.getMetrics());
+        registry.recordAnalysis();
+    }
+    
+    // One JSON object keyed by phase; written before the shortest-path demo resets the path metrics
+    private static void writeMetricsJson(Map<Phase, Metrics> phaseMetrics, String path) throws IOException {
+        StringBuilder sb = new StringBuilder("{");
+        phaseMetrics.forEach((phase, metrics) -> {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append("\n  \"").append(phase.label()).append("\": ").append(metrics.toJson());
+        });
+        sb.append("\n}\n");
+        Files.writeString(Path.of(path), sb);
+        System.out.println("Per-phase metrics written to " + path);
+    }
+    
+    /**
+     * Run the whole pipeline repeatedly without printing and report
+     * per-phase latency percentiles across all runs.
+     */
+    static void runRepeated(String filePath, int runs) throws IOException {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        for (int run = 0; run < runs; run++) {
+            runTimed(filePath, registry);
+        }
+        System.out.println("Completed " + runs + " runs of " + filePath + "\n");
+        System.out.println(registry.getLatencies().getReport());
+    }
+    
+    /**
+     * One silent pass over every pipeline phase, folding each phase's
+     * latency, counters and allocation into the registry.
+     * The paths phase is the critical-path query.
+     */
+    static void runTimed(String filePath, MetricsRegistry registry) throws IOException {
+        runTimed(filePath, registry, Instrumentation::newMetrics);
+    }
+    
+    /**
+     * One silent pass with each phase's metrics from the given factory.
+     * Latencies are wall time taken around each phase, so they are recorded
+     * even when the metrics keep no time, as NoOpMetrics do.
+     */
+    static void runTimed(String filePath, MetricsRegistry registry, Supplier<Metrics> metricsFactory)
+            throws IOException {
+        Metrics parseMetrics = metricsFactory.get();
+        long start = System.nanoTime();
+        parseMetrics.startTimer();
+        TaskGraph graph = StreamingTaskLoader.loadTaskGraph(filePath);
+        parseMetrics.stopTimer();
+        long end = System.nanoTime();
+        registry.record(Phase.PARSE, end - start, parseMetrics);
+        
+        // the context times each phase itself as it computes it
+        AnalysisContext context = new AnalysisContext(graph, metricsFactory);
+        context.getCriticalPath();
+        Map<Phase, Long> phaseNanos = context.getPhaseNanos();
+        context.getPhaseMetrics().forEach((phase, metrics) -> registry.record(phase, phaseNanos.get(phase), metrics));
+        registry.recordAnalysis();
+    }
 }
@@ -0,0 +1,135 @@
+package com.daa.bench;
+
+import com.daa.utils.AnalysisServer;
+import graph.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for {@link AnalysisServer}.
+ * 
+ * <p>Starts the service on a free local port and sends requests from many
+ * virtual-thread clients at once. Most requests repeat one of a small set of
+ * plans, as a planner re-submitting the same district would; the rest are
+ * graphs never seen before, so the cache has misses to absorb. Reports
+ * requests per second, the latency distribution and the cache hit ratio:
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.daa.bench.AnalysisServerBenchmark" -Dexec.args="2000 32"
+ * </pre>
+ * Arguments are the number of requests, the number of concurrent clients,
+ * the tasks per graph and the share of requests that repeat a plan.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class AnalysisServerBenchmark {
+    
+    private static final int HOT_PLANS = 16;
+    
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int tasks = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        double repeatShare = args.length > 3 ? Double.parseDouble(args[3]) : 0.9;
+        
+        Random random = new Random(42);
+        List<byte[]> hot = new ArrayList<>();
+        for (int i = 0; i < HOT_PLANS; i++) {
+            hot.add(plan(tasks, random));
+        }
+        
+        try (AnalysisServer server = AnalysisServer.start(0, 256L << 20);
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            URI uri = URI.create("http://127.0.0.1:" + server.getPort() + "/analyze");
+            System.out.printf("%,d requests from %d clients, %,d tasks per graph, %.0f%% repeated plans%n%n",
+                requests, clients, tasks, repeatShare * 100);
+            
+            // warm up the JIT on both sides, then start from an empty histogram
+            for (int i = 0; i < 50; i++) {
+                send(client, uri, hot.get(i % HOT_PLANS));
+            }
+            
+            LatencyHistogram latency = new LatencyHistogram();
+            AtomicInteger remaining = new AtomicInteger(requests);
+            LongAdder errors = new LongAdder();
+            long hitsBefore = server.getCacheHits();
+            long missesBefore = server.getCacheMisses();
+            long start = System.nanoTime();
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < clients; c++) {
+                    long seed = c;
+                    workers.submit(() -> {
+                        Random local = new Random(seed);
+                        while (remaining.getAndDecrement() > 0) {
+                            byte[] body = local.nextDouble() < repeatShare
+                                ? hot.get(local.nextInt(HOT_PLANS)) : plan(tasks, local);
+                            long sent = System.nanoTime();
+                            if (send(client, uri, body) != 200) {
+                                errors.increment();
+                            }
+                            latency.record(System.nanoTime() - sent);
+                        }
+                        return null;
+                    });
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long hits = server.getCacheHits() - hitsBefore;
+            long misses = server.getCacheMisses() - missesBefore;
+            
+            System.out.printf("Throughput: %,.0f req/s (%.2f s)%n", requests / seconds, seconds);
+            System.out.printf("Latency:    p50 %s  p99 %s  p99.9 %s  max %s%n",
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                millis(latency.getValueAtPercentile(99.9)), millis(latency.getMax()));
+            System.out.printf("Cache:      %,d hits, %,d misses (%.1f%% hit ratio), %,d cached%n",
+                hits, misses, 100.0 * hits / Math.max(1, hits + misses), server.getCachedCount());
+            if (errors.sum() > 0) {
+                System.out.printf("Errors:     %,d%n", errors.sum());
+            }
+        }
+    }
+    
+    private static int send(HttpClient client, URI uri, byte[] body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+    
+    private static String millis(long nanos) {
+        return String.format("%.2f ms", nanos / 1e6);
+    }
+    
+    // Random task JSON: mostly forward dependencies with a few back edges forming cycles
+    private static byte[] plan(int tasks, Random random) {
+        StringBuilder json = new StringBuilder(tasks * 64).append('[');
+        for (int i = 1; i <= tasks; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"T").append(i).append("\",\"duration\":").append(1 + random.nextInt(9))
+                .append(",\"dependencies\":[");
+            int dependencies = i > 1 ? random.nextInt(3) : 0;
+            for (int d = 0; d < dependencies; d++) {
+                int target = random.nextInt(20) == 0 ? i + 1 + random.nextInt(5) : 1 + random.nextInt(i - 1);
+                if (d > 0) {
+                    json.append(',');
+                }
+                json.append("\"T").append(Math.min(target, tasks)).append('"');
+            }
+            json.append("]}");
+        }
+        return json.append(']').toString().getBytes();
+    }
+}
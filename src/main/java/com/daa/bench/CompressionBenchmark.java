@@ -0,0 +1,86 @@
+package com.daa.bench;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import com.daa.model.CompressedGraph;
+import com.daa.model.IntGraph;
+import com.daa.model.VertexRelabeling;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+
+import java.util.Random;
+
+/**
+ * Compares CSR adjacency with gap and varint encoded lists.
+ * 
+ * <p>Builds a layered random plan with some cycles, declared in shuffled
+ * order, and renumbers it breadth-first so neighbors get nearby numbers.
+ * For the shuffled and renumbered graph it reports the adjacency bytes per
+ * edge of {@link CompactGraph} and {@link CompressedGraph}, counting both
+ * directions and the per-vertex offsets, and the best of five pipeline runs
+ * on each, checking that they find the same components and makespan.
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.daa.bench.CompressionBenchmark" -Dexec.args="2000000"
+ * </pre>
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class CompressionBenchmark {
+    
+    private static final int RUNS = 5;
+    
+    public static void main(String[] args) {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Random random = new Random(42);
+        
+        int[] declared = new int[tasks];
+        for (int i = 0; i < tasks; i++) {
+            declared[i] = i;
+        }
+        for (int i = tasks - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = declared[i];
+            declared[i] = declared[j];
+            declared[j] = swap;
+        }
+        CompactGraphBuilder builder = new CompactGraphBuilder(tasks, tasks * 2);
+        for (int task : declared) {
+            int v = builder.addTask("T" + task, null, 1 + random.nextInt(9));
+            for (int d = 0; d < 2 && task > 0; d++) {
+                int dependency = random.nextInt(50) == 0 ? Math.min(tasks - 1, task + 1 + random.nextInt(5))
+                    : Math.max(0, task - 1 - random.nextInt(30));
+                builder.addDependency(v, "T" + dependency);
+            }
+        }
+        CompactGraph shuffled = builder.build();
+        CompactGraph relabeled = VertexRelabeling.compute(shuffled, VertexRelabeling.Order.BFS).apply(shuffled);
+        System.out.printf("%,d tasks, %,d edges%n%n", shuffled.vertexCount(), shuffled.edgeCount());
+        
+        AnalysisResult expected = CompactAnalyzer.analyze(shuffled);
+        for (CompactGraph graph : new CompactGraph[] {shuffled, relabeled}) {
+            String label = graph == shuffled ? "shuffled" : "bfs";
+            long csrBytes = (2L * (graph.vertexCount() + 1) + 2 * graph.edgeCount()) * Integer.BYTES;
+            long start = System.nanoTime();
+            CompressedGraph compressed = CompressedGraph.of(graph);
+            double encodeMs = (System.nanoTime() - start) / 1e6;
+            report(label + " csr", graph, csrBytes, expected);
+            report(label + " varint", compressed, compressed.adjacencyBytes(), expected);
+            System.out.printf("  %-15s encode %8.1f ms%n", "", encodeMs);
+        }
+    }
+    
+    private static void report(String label, IntGraph graph, long adjacencyBytes, AnalysisResult expected) {
+        double best = Double.MAX_VALUE;
+        AnalysisResult result = null;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            result = CompactAnalyzer.analyze(graph);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        boolean same = result.componentCount() == expected.componentCount()
+            && result.criticalPathLength() == expected.criticalPathLength();
+        System.out.printf("  %-15s %,14d bytes  %5.2f bytes/edge  pipeline %8.1f ms%s%n",
+            label, adjacencyBytes, adjacencyBytes / (double) graph.edgeCount(), best, same ? "" : "  MISMATCH");
+    }
+}
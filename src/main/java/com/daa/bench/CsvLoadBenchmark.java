@@ -0,0 +1,112 @@
+package com.daa.bench;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import com.daa.utils.CsvGraphLoader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures CSV loading throughput against a straightforward
+ * {@code BufferedReader.readLine} plus {@code String.split} loader.
+ * 
+ * <p>Writes a random task file and edge file with about two edges per task
+ * to a temporary directory, then reports the median load time and MB/s of
+ * each loader:
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.daa.bench.CsvLoadBenchmark" -Dexec.args="2000000"
+ * </pre>
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class CsvLoadBenchmark {
+    
+    private static final int ROUNDS = 5;
+    
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        
+        Path tasks = Files.createTempFile("tasks", ".csv");
+        Path edges = Files.createTempFile("edges", ".csv");
+        try {
+            writeFiles(tasks, edges, size, new Random(42));
+            double megabytes = (Files.size(tasks) + Files.size(edges)) / 1048576.0;
+            System.out.printf("%,d tasks, %.1f MB of CSV%n%n", size, megabytes);
+            
+            report("CsvGraphLoader", time(() -> CsvGraphLoader.load(tasks, edges)), megabytes);
+            report("readLine + split", time(() -> splitLoad(tasks, edges)), megabytes);
+        } finally {
+            Files.deleteIfExists(tasks);
+            Files.deleteIfExists(edges);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Loader {
+        CompactGraph load() throws IOException;
+    }
+    
+    // Median wall time in milliseconds after one warmup load
+    private static double time(Loader loader) throws IOException {
+        CompactGraph sink = loader.load();
+        double[] samples = new double[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink = loader.load();
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        if (sink.vertexCount() == 0) {
+            throw new IllegalStateException("benchmark loaded nothing");
+        }
+        Arrays.sort(samples);
+        return samples[ROUNDS / 2];
+    }
+    
+    private static void report(String name, double ms, double megabytes) {
+        System.out.printf("  %-18s %9.1f ms  %7.1f MB/s%n", name, ms, megabytes / (ms / 1000));
+    }
+    
+    // The baseline: one String per line and per field, ids resolved through the builder's map
+    private static CompactGraph splitLoad(Path tasks, Path edges) throws IOException {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        try (BufferedReader in = Files.newBufferedReader(tasks)) {
+            in.readLine();
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                String[] fields = line.split(",");
+                builder.addTask(fields[0].trim(), null, Integer.parseInt(fields[1].trim()));
+            }
+        }
+        try (BufferedReader in = Files.newBufferedReader(edges)) {
+            in.readLine();
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                String[] fields = line.split(",");
+                builder.addDependency(builder.intern(fields[1].trim()), fields[0].trim());
+            }
+        }
+        return builder.build();
+    }
+    
+    private static void writeFiles(Path tasks, Path edges, int size, Random random) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(tasks)) {
+            out.write("task,duration\n");
+            for (int i = 0; i < size; i++) {
+                out.write("T" + (i + 1) + "," + (2 + random.nextInt(8)) + "\n");
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(edges)) {
+            out.write("from,to\n");
+            for (int i = 1; i < size; i++) {
+                for (int d = 0; d < 2; d++) {
+                    out.write("T" + (random.nextInt(i) + 1) + ",T" + (i + 1) + "\n");
+                }
+            }
+        }
+    }
+}
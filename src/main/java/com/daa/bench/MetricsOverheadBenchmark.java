@@ -0,0 +1,198 @@
+package com.daa.bench;
+
+import com.daa.model.Component;
+import com.daa.model.CondensationGraph;
+import com.daa.model.Task;
+import com.daa.model.TaskGraph;
+import graph.metrics.DefaultMetrics;
+import graph.metrics.Instrumentation;
+import graph.metrics.NoOpMetrics;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Measures what operation counting costs in Tarjan SCC and Kahn's sort.
+ * 
+ * <p>Each algorithm is timed three ways: with DefaultMetrics, with
+ * NoOpMetrics, and as a hand-stripped copy that has no metrics calls at all.
+ * Run it twice to see the static switch at work:
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.daa.bench.MetricsOverheadBenchmark"
+ * mvn exec:java -Dexec.mainClass="com.daa.bench.MetricsOverheadBenchmark" -Dgraph.metrics.disabled=true
+ * </pre>
+ * With counting disabled the NoOpMetrics column should match the stripped
+ * column within noise.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class MetricsOverheadBenchmark {
+    
+    private static final int WARMUP_ROUNDS = 15;
+    private static final int MEASURED_ROUNDS = 25;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        
+        // Tarjan recurses once per vertex, so give the run a deep stack
+        Thread runner = new Thread(null, () -> run(size), "benchmark", 1L << 30);
+        runner.start();
+        runner.join();
+    }
+    
+    private static void run(int size) {
+        TaskGraph graph = randomGraph(size, 4, new Random(42));
+        System.out.printf("Graph: %d tasks, instrumentation %s%n%n",
+            graph.size(), Instrumentation.ENABLED ? "ENABLED" : "DISABLED");
+        
+        report("Tarjan SCC",
+            time(() -> new TarjanSCC(graph, new DefaultMetrics()).findSCCs()),
+            time(() -> new TarjanSCC(graph, NoOpMetrics.INSTANCE).findSCCs()),
+            time(() -> new StrippedTarjan(graph).findSCCs()));
+        
+        TarjanSCC tarjan = new TarjanSCC(graph, NoOpMetrics.INSTANCE);
+        List<Component> sccs = tarjan.findSCCs();
+        CondensationGraph dag = new CondensationGraph(sccs, graph);
+        dag.build(tarjan.getTaskToComponentMap());
+        
+        report("Kahn topological sort",
+            time(() -> new TopologicalSort(dag, new DefaultMetrics()).sortComponents()),
+            time(() -> new TopologicalSort(dag, NoOpMetrics.INSTANCE).sortComponents()),
+            time(() -> strippedKahn(dag)));
+    }
+    
+    // Median wall time in milliseconds over the measured rounds
+    private static double time(Supplier<?> body) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink = body.get();
+        }
+        double[] samples = new double[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink = body.get();
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        if (sink == null) {
+            throw new IllegalStateException("benchmark body returned nothing");
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_ROUNDS / 2];
+    }
+    
+    private static void report(String name, double defaultMs, double noOpMs, double strippedMs) {
+        System.out.println("=== " + name + " (median ms) ===");
+        System.out.printf("  DefaultMetrics: %8.3f  (%.2fx stripped)%n", defaultMs, defaultMs / strippedMs);
+        System.out.printf("  NoOpMetrics:    %8.3f  (%.2fx stripped)%n", noOpMs, noOpMs / strippedMs);
+        System.out.printf("  Hand-stripped:  %8.3f%n%n", strippedMs);
+    }
+    
+    // Mostly forward edges with a few back edges, so there are some real SCCs
+    private static TaskGraph randomGraph(int size, int avgDegree, Random random) {
+        TaskGraph graph = new TaskGraph();
+        for (int i = 0; i < size; i++) {
+            Task task = new Task("T" + (i + 1), "Task " + (i + 1), 2 + random.nextInt(8));
+            for (int d = 0; d < avgDegree && i > 0; d++) {
+                int dep = random.nextInt(i);
+                task.getDependencies().add("T" + (dep + 1));
+            }
+            if (i > 10 && random.nextInt(50) == 0) {
+                task.getDependencies().add("T" + (i + 1 - random.nextInt(10)));
+            }
+            graph.addTask(task);
+        }
+        graph.buildFromTasks();
+        return graph;
+    }
+    
+    // Same as TopologicalSort.sortComponents, minus every metrics call
+    private static List<Integer> strippedKahn(CondensationGraph dag) {
+        Map<Integer, List<Integer>> adj = dag.getAdjacencyList();
+        Map<Integer, Integer> inDegree = new HashMap<>();
+        for (Component comp : dag.getComponents()) {
+            inDegree.put(comp.getId(), 0);
+        }
+        for (Component comp : dag.getComponents()) {
+            for (int neighbor : adj.get(comp.getId())) {
+                inDegree.put(neighbor, inDegree.get(neighbor) + 1);
+            }
+        }
+        Queue<Integer> queue = new LinkedList<>();
+        for (Component comp : dag.getComponents()) {
+            if (inDegree.get(comp.getId()) == 0) {
+                queue.offer(comp.getId());
+            }
+        }
+        List<Integer> order = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            order.add(current);
+            for (int neighbor : adj.get(current)) {
+                inDegree.put(neighbor, inDegree.get(neighbor) - 1);
+                if (inDegree.get(neighbor) == 0) {
+                    queue.offer(neighbor);
+                }
+            }
+        }
+        return order;
+    }
+    
+    // Same as TarjanSCC, minus every metrics call
+    private static final class StrippedTarjan {
+        private final TaskGraph graph;
+        private final Map<String, Integer> discoveryTime = new HashMap<>();
+        private final Map<String, Integer> lowLink = new HashMap<>();
+        private final Set<String> onStack = new HashSet<>();
+        private final Deque<String> stack = new ArrayDeque<>();
+        private final List<Component> components = new ArrayList<>();
+        private int time;
+        private int componentId;
+        
+        StrippedTarjan(TaskGraph graph) {
+            this.graph = graph;
+        }
+        
+        List<Component> findSCCs() {
+            for (String taskId : graph.getVertices()) {
+                if (!discoveryTime.containsKey(taskId)) {
+                    dfs(taskId);
+                }
+            }
+            return components;
+        }
+        
+        private void dfs(String u) {
+            discoveryTime.put(u, time);
+            lowLink.put(u, time);
+            time++;
+            stack.push(u);
+            onStack.add(u);
+            
+            Map<String, List<String>> adj = graph.getAdjacencyList();
+            if (adj.containsKey(u)) {
+                for (String v : adj.get(u)) {
+                    if (!discoveryTime.containsKey(v)) {
+                        dfs(v);
+                        lowLink.put(u, Math.min(lowLink.get(u), lowLink.get(v)));
+                    } else if (onStack.contains(v)) {
+                        lowLink.put(u, Math.min(lowLink.get(u), discoveryTime.get(v)));
+                    }
+                }
+            }
+            
+            if (lowLink.get(u).equals(discoveryTime.get(u))) {
+                Component component = new Component(componentId++);
+                String v;
+                do {
+                    v = stack.pop();
+                    onStack.remove(v);
+                    component.addTask(v);
+                } while (!v.equals(u));
+                components.add(component);
+            }
+        }
+    }
+}
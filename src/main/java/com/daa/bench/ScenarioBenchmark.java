@@ -0,0 +1,95 @@
+package com.daa.bench;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import com.daa.model.GraphOverlay;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import graph.analysis.ScenarioAnalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures what-if scenario evaluation against full re-analysis.
+ * 
+ * <p>Builds a layered random plan with some cycles and a set of scenarios,
+ * most delaying or shortening a handful of tasks and one in five also
+ * dropping a dependency. Evaluates them all with {@link ScenarioAnalyzer}
+ * on every core, then again by running the full pipeline on each overlay,
+ * which is what a copy of the plan per scenario would cost at best, and
+ * checks that both agree.
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.daa.bench.ScenarioBenchmark" -Dexec.args="200000 200"
+ * </pre>
+ * Arguments are the number of tasks and scenarios.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class ScenarioBenchmark {
+    
+    public static void main(String[] args) {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int scenarioCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int cores = Runtime.getRuntime().availableProcessors();
+        Random random = new Random(42);
+        
+        CompactGraphBuilder builder = new CompactGraphBuilder(tasks, tasks * 2);
+        for (int i = 0; i < tasks; i++) {
+            int v = builder.addTask("T" + i, null, 1 + random.nextInt(9));
+            for (int d = 0; d < 2 && i > 0; d++) {
+                int dependency = random.nextInt(50) == 0 ? Math.min(tasks - 1, i + 1 + random.nextInt(5))
+                    : Math.max(0, i - 1 - random.nextInt(30));
+                builder.addDependency(v, "T" + dependency);
+            }
+        }
+        CompactGraph graph = builder.build();
+        AnalysisResult base = CompactAnalyzer.analyze(graph);
+        ScenarioAnalyzer analyzer = new ScenarioAnalyzer(base);
+        System.out.printf("%,d tasks, %,d edges, %,d components, makespan %,d, %d cores%n%n",
+            graph.vertexCount(), graph.edgeCount(), base.componentCount(), base.criticalPathLength(), cores);
+        
+        List<GraphOverlay> scenarios = new ArrayList<>();
+        long deltas = 0;
+        for (int s = 0; s < scenarioCount; s++) {
+            GraphOverlay scenario = analyzer.newScenario("scenario-" + s);
+            for (int k = 0; k < 5; k++) {
+                scenario.delay("T" + random.nextInt(tasks), random.nextInt(21) - 10);
+            }
+            if (s % 5 == 4) {
+                int v = 1 + random.nextInt(tasks - 1);
+                scenario.removeEdge(graph.id(graph.inNeighbor(v, 0)), graph.id(v));
+            }
+            deltas += scenario.deltaSize();
+            scenarios.add(scenario);
+        }
+        
+        long start = System.nanoTime();
+        List<ScenarioAnalyzer.Outcome> outcomes = analyzer.evaluateAll(scenarios, cores);
+        double overlayMs = (System.nanoTime() - start) / 1e6;
+        
+        start = System.nanoTime();
+        int mismatches = 0;
+        for (int s = 0; s < scenarios.size(); s++) {
+            long length = CompactAnalyzer.analyze(scenarios.get(s)).criticalPathLength();
+            if (length != outcomes.get(s).result().criticalPathLength()) {
+                mismatches++;
+            }
+        }
+        double fullMs = (System.nanoTime() - start) / 1e6;
+        
+        long reused = outcomes.stream().filter(ScenarioAnalyzer.Outcome::componentsReused).count();
+        System.out.printf("  overlays:      %9.1f ms  %7.1f scenarios/s  (%d of %d reused the base SCCs)%n",
+            overlayMs, scenarios.size() / (overlayMs / 1000), reused, scenarios.size());
+        System.out.printf("  full pipeline: %9.1f ms  %7.1f scenarios/s  (one thread)%n",
+            fullMs, scenarios.size() / (fullMs / 1000));
+        System.out.printf("  %.1f recorded changes per scenario, %d mismatches%n",
+            deltas / (double) scenarios.size(), mismatches);
+        outcomes.stream()
+            .sorted((a, b) -> Long.compare(b.makespanChange(), a.makespanChange()))
+            .limit(5)
+            .forEach(outcome -> System.out.println("  " + outcome));
+    }
+}
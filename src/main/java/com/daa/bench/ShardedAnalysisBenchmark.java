@@ -0,0 +1,77 @@
+package com.daa.bench;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import graph.analysis.ShardedAnalyzer;
+
+import java.util.Random;
+
+/**
+ * Measures analysis of a plan made of independent districts, whole versus
+ * split into weakly connected shards.
+ * 
+ * <p>Builds a plan of separate districts, each a layered random subgraph
+ * with some cycles, with their tasks interleaved in vertex order as they
+ * would be in one exported file. Runs the sequential pipeline once, then
+ * {@link ShardedAnalyzer} with 1, 2, 4, ... threads up to the core count,
+ * and checks that every run finds the same components and critical path.
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.daa.bench.ShardedAnalysisBenchmark" -Dexec.args="400 5000"
+ * </pre>
+ * Arguments are the number of districts and tasks per district.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class ShardedAnalysisBenchmark {
+    
+    private static final int RUNS = 3;
+    
+    public static void main(String[] args) {
+        int districts = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        Random random = new Random(42);
+        
+        int tasks = districts * size;
+        CompactGraphBuilder builder = new CompactGraphBuilder(tasks, tasks * 2);
+        for (int i = 0; i < tasks; i++) {
+            int district = i % districts;
+            int local = i / districts;
+            int v = builder.addTask("T" + i, null, 1 + random.nextInt(9));
+            for (int d = 0; d < 2 && local > 0; d++) {
+                int dependency = random.nextInt(50) == 0 ? Math.min(size - 1, local + 1 + random.nextInt(5))
+                    : Math.max(0, local - 1 - random.nextInt(30));
+                builder.addDependency(v, "T" + (dependency * districts + district));
+            }
+        }
+        CompactGraph graph = builder.build();
+        
+        long start = System.nanoTime();
+        AnalysisResult expected = null;
+        for (int run = 0; run < RUNS; run++) {
+            expected = CompactAnalyzer.analyze(graph);
+        }
+        double sequentialMs = (System.nanoTime() - start) / 1e6 / RUNS;
+        System.out.printf("%,d tasks, %,d edges, %,d districts, %,d components, makespan %,d, %d cores%n%n",
+            graph.vertexCount(), graph.edgeCount(), districts, expected.componentCount(),
+            expected.criticalPathLength(), cores);
+        System.out.printf("  whole graph: %9.1f ms%n", sequentialMs);
+        
+        for (int threads = 1; threads <= cores; threads = threads == cores ? cores + 1 : Math.min(threads * 2, cores)) {
+            ShardedAnalyzer analyzer = new ShardedAnalyzer(threads);
+            start = System.nanoTime();
+            AnalysisResult result = null;
+            for (int run = 0; run < RUNS; run++) {
+                result = analyzer.analyze(graph);
+            }
+            double ms = (System.nanoTime() - start) / 1e6 / RUNS;
+            boolean same = result.componentCount() == expected.componentCount()
+                && result.criticalPathLength() == expected.criticalPathLength();
+            System.out.printf("  %3d threads: %9.1f ms  %5.2fx%s%n", threads, ms, sequentialMs / ms,
+                same ? "" : "  MISMATCH");
+        }
+    }
+}
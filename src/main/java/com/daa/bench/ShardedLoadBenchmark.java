@@ -0,0 +1,106 @@
+package com.daa.bench;
+
+import com.daa.model.CompactGraph;
+import com.daa.utils.ShardedTaskLoader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Measures how sharded JSON loading scales with the number of threads.
+ * 
+ * <p>Writes a set of district shards to a temporary directory, where about
+ * one dependency in five points into another shard, then loads them with
+ * 1, 2, 4, ... threads up to the core count and reports the median time
+ * and speedup over one thread.
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.daa.bench.ShardedLoadBenchmark" -Dexec.args="16 50000"
+ * </pre>
+ * Arguments are the number of shards and tasks per shard.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class ShardedLoadBenchmark {
+    
+    private static final int ROUNDS = 5;
+    
+    public static void main(String[] args) throws IOException {
+        int shardCount = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int tasksPerShard = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        
+        Path directory = Files.createTempDirectory("shards");
+        try {
+            writeShards(directory, shardCount, tasksPerShard, new Random(42));
+            List<Path> shards = ShardedTaskLoader.listShards(directory);
+            long bytes = 0;
+            for (Path shard : shards) {
+                bytes += Files.size(shard);
+            }
+            System.out.printf("%d shards, %,d tasks, %,d MB, %d cores%n%n",
+                shardCount, (long) shardCount * tasksPerShard, bytes >> 20, cores);
+            
+            double baseline = 0;
+            for (int threads = 1; threads <= cores; threads = threads == cores ? cores + 1 : Math.min(threads * 2, cores)) {
+                double ms = time(shards, threads);
+                if (threads == 1) {
+                    baseline = ms;
+                }
+                System.out.printf("  %3d threads: %9.1f ms  %6.1f MB/s  speedup %.2fx%n",
+                    threads, ms, (bytes / 1048576.0) / (ms / 1000), baseline / ms);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+    
+    // Median load time in milliseconds after one warmup load
+    private static double time(List<Path> shards, int threads) throws IOException {
+        CompactGraph sink = ShardedTaskLoader.load(shards, threads);
+        double[] samples = new double[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink = ShardedTaskLoader.load(shards, threads);
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        if (sink.vertexCount() == 0) {
+            throw new IllegalStateException("benchmark loaded nothing");
+        }
+        Arrays.sort(samples);
+        return samples[ROUNDS / 2];
+    }
+    
+    private static void writeShards(Path directory, int shardCount, int tasksPerShard, Random random) throws IOException {
+        for (int s = 0; s < shardCount; s++) {
+            Path shard = directory.resolve(String.format("district-%03d.json", s));
+            try (BufferedWriter out = Files.newBufferedWriter(shard, StandardCharsets.UTF_8)) {
+                out.write("[\n");
+                for (int i = 0; i < tasksPerShard; i++) {
+                    List<String> dependencies = new ArrayList<>();
+                    for (int d = 0; d < 3 && i > 0; d++) {
+                        boolean crossShard = random.nextInt(5) == 0;
+                        int depShard = crossShard ? random.nextInt(shardCount) : s;
+                        dependencies.add("\"D" + depShard + "-T" + random.nextInt(i) + "\"");
+                    }
+                    out.write(String.format("  {\"id\": \"D%d-T%d\", \"name\": \"District %d task %d\", \"duration\": %d, \"dependencies\": [%s]}%s\n",
+                        s, i, s, i, 2 + random.nextInt(8), String.join(", ", dependencies), i + 1 < tasksPerShard ? "," : ""));
+                }
+                out.write("]\n");
+            }
+        }
+    }
+}
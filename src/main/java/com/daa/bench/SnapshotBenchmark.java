@@ -0,0 +1,122 @@
+package com.daa.bench;
+
+import com.daa.model.GraphSnapshot;
+import com.daa.model.GraphStore;
+import graph.analysis.CompactAnalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures analysis throughput of readers working on {@link GraphSnapshot}s
+ * while a writer keeps publishing new versions through a {@link GraphStore}.
+ * 
+ * <p>Builds a layered random plan, then for 1, 2, 4, ... reader threads up
+ * to the core count runs readers that each take the current snapshot and
+ * analyze it, while one writer changes a few durations and dependencies per
+ * version as fast as it can. Every reader also checks that the snapshot it
+ * holds is internally consistent. Reports analyses per second, versions
+ * published per second, and how many storage blocks consecutive versions share.
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.daa.bench.SnapshotBenchmark" -Dexec.args="50000 3"
+ * </pre>
+ * Arguments are the number of tasks and seconds per reader count.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class SnapshotBenchmark {
+    
+    private static final int EDITS_PER_VERSION = 8;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int cores = Runtime.getRuntime().availableProcessors();
+        
+        GraphSnapshot.Editor editor = GraphSnapshot.empty().edit();
+        Random random = new Random(42);
+        for (int i = 0; i < tasks; i++) {
+            editor.addTask("T" + i, null, 1 + random.nextInt(9));
+        }
+        for (int i = 1; i < tasks; i++) {
+            for (int d = 0; d < 2; d++) {
+                editor.addEdge("T" + Math.max(0, i - 1 - random.nextInt(50)), "T" + i);
+            }
+        }
+        GraphSnapshot initial = editor.build();
+        System.out.printf("%,d tasks, %,d edges, %,d blocks, %d cores%n%n",
+            initial.vertexCount(), initial.edgeCount(), initial.blockCount(), cores);
+        
+        for (int readers = 1; readers <= cores; readers = readers == cores ? cores + 1 : Math.min(readers * 2, cores)) {
+            run(new GraphStore(initial), readers, seconds, tasks);
+        }
+    }
+    
+    private static void run(GraphStore store, int readerCount, int seconds, int tasks) throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong analyses = new AtomicLong();
+        AtomicLong versions = new AtomicLong();
+        AtomicLong sharedBlocks = new AtomicLong();
+        AtomicLong inconsistent = new AtomicLong();
+        
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < readerCount; r++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                while (!stop.get()) {
+                    GraphSnapshot snapshot = store.current();
+                    if (!consistent(snapshot)) {
+                        inconsistent.incrementAndGet();
+                    }
+                    if (CompactAnalyzer.analyze(snapshot).criticalPathLength() <= 0) {
+                        inconsistent.incrementAndGet();
+                    }
+                    analyses.incrementAndGet();
+                }
+            }));
+        }
+        threads.add(Thread.ofPlatform().start(() -> {
+            Random random = new Random(7);
+            while (!stop.get()) {
+                GraphSnapshot before = store.current();
+                GraphSnapshot after = store.update(edit -> {
+                    for (int e = 0; e < EDITS_PER_VERSION; e++) {
+                        int task = 1 + random.nextInt(tasks - 1);
+                        if (e % 2 == 0) {
+                            edit.setDuration("T" + task, 1 + random.nextInt(9));
+                        } else {
+                            edit.addEdge("T" + random.nextInt(task), "T" + task);
+                        }
+                    }
+                });
+                sharedBlocks.addAndGet(after.sharedBlockCount(before));
+                versions.incrementAndGet();
+            }
+        }));
+        
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        GraphSnapshot last = store.current();
+        System.out.printf("  %3d readers: %8.1f analyses/s  %9.1f versions/s  %5.1f%% blocks shared per version%s%n",
+            readerCount, analyses.get() / (double) seconds, versions.get() / (double) seconds,
+            versions.get() == 0 ? 0 : 100.0 * sharedBlocks.get() / versions.get() / last.blockCount(),
+            inconsistent.get() == 0 ? "" : "  INCONSISTENT: " + inconsistent.get());
+    }
+    
+    // Degrees in both directions must add up to the edge count of the same version
+    private static boolean consistent(GraphSnapshot snapshot) {
+        long out = 0;
+        long in = 0;
+        for (int v = 0; v < snapshot.vertexCount(); v++) {
+            out += snapshot.outDegree(v);
+            in += snapshot.inDegree(v);
+        }
+        return out == snapshot.edgeCount() && in == snapshot.edgeCount();
+    }
+}
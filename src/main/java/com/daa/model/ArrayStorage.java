@@ -0,0 +1,242 @@
+package com.daa.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Where the int-based algorithms keep their arrays.
+ * 
+ * <p>{@link #HEAP} uses plain Java arrays and is the default. {@link #OFF_HEAP}
+ * uses direct ByteBuffers in 1 GB chunks, so the data is never copied or
+ * scanned by the garbage collector and GC pauses do not grow with the
+ * graph. Off-heap arrays are limited by {@code -XX:MaxDirectMemorySize}
+ * rather than {@code -Xmx}, and their memory is released when the array
+ * becomes unreachable. Direct buffers are used rather than
+ * {@code java.lang.foreign} because the latter is still a preview API in Java 21.
+ */
+public enum ArrayStorage {
+    HEAP {
+        @Override
+        public IntArray newIntArray(long length) {
+            return new HeapIntArray(new int[checkedLength(length)]);
+        }
+        
+        @Override
+        public LongArray newLongArray(long length) {
+            return new HeapLongArray(new long[checkedLength(length)]);
+        }
+    },
+    OFF_HEAP {
+        @Override
+        public IntArray newIntArray(long length) {
+            return new OffHeapIntArray(length);
+        }
+        
+        @Override
+        public LongArray newLongArray(long length) {
+            return new OffHeapLongArray(length);
+        }
+    };
+    
+    private static final int CHUNK_BYTES_SHIFT = 30;
+    
+    /** Allocate a zero-filled int array. */
+    public abstract IntArray newIntArray(long length);
+    
+    /** Allocate a zero-filled long array. */
+    public abstract LongArray newLongArray(long length);
+    
+    /** Wrap an existing heap array without copying. */
+    public static IntArray wrap(int[] values) {
+        return new HeapIntArray(values);
+    }
+    
+    /**
+     * View a buffer, such as a section of a memory-mapped file, as an array
+     * without copying. Writes go to the buffer, or fail if it is read-only.
+     */
+    public static IntArray wrap(IntBuffer values) {
+        return new BufferIntArray(values);
+    }
+    
+    /** View a buffer as a long array without copying, like {@link #wrap(IntBuffer)}. */
+    public static LongArray wrap(LongBuffer values) {
+        return new BufferLongArray(values);
+    }
+    
+    private static int checkedLength(long length) {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Array of " + length + " elements is too large for the heap; use OFF_HEAP");
+        }
+        return (int) length;
+    }
+    
+    private static ByteBuffer[] allocateChunks(long bytes) {
+        long chunkBytes = 1L << CHUNK_BYTES_SHIFT;
+        int chunks = (int) ((bytes + chunkBytes - 1) >>> CHUNK_BYTES_SHIFT);
+        ByteBuffer[] buffers = new ByteBuffer[chunks];
+        for (int c = 0; c < chunks; c++) {
+            long size = Math.min(chunkBytes, bytes - c * chunkBytes);
+            buffers[c] = ByteBuffer.allocateDirect((int) size).order(ByteOrder.nativeOrder());
+        }
+        return buffers;
+    }
+    
+    private static final class HeapIntArray implements IntArray {
+        private final int[] values;
+        
+        HeapIntArray(int[] values) {
+            this.values = values;
+        }
+        
+        @Override
+        public long length() {
+            return values.length;
+        }
+        
+        @Override
+        public int get(long index) {
+            return values[(int) index];
+        }
+        
+        @Override
+        public void set(long index, int value) {
+            values[(int) index] = value;
+        }
+    }
+    
+    private static final class HeapLongArray implements LongArray {
+        private final long[] values;
+        
+        HeapLongArray(long[] values) {
+            this.values = values;
+        }
+        
+        @Override
+        public long length() {
+            return values.length;
+        }
+        
+        @Override
+        public long get(long index) {
+            return values[(int) index];
+        }
+        
+        @Override
+        public void set(long index, long value) {
+            values[(int) index] = value;
+        }
+    }
+    
+    private static final class BufferIntArray implements IntArray {
+        private final IntBuffer values;
+        
+        BufferIntArray(IntBuffer values) {
+            this.values = values;
+        }
+        
+        @Override
+        public long length() {
+            return values.limit();
+        }
+        
+        @Override
+        public int get(long index) {
+            return values.get((int) index);
+        }
+        
+        @Override
+        public void set(long index, int value) {
+            values.put((int) index, value);
+        }
+    }
+    
+    private static final class BufferLongArray implements LongArray {
+        private final LongBuffer values;
+        
+        BufferLongArray(LongBuffer values) {
+            this.values = values;
+        }
+        
+        @Override
+        public long length() {
+            return values.limit();
+        }
+        
+        @Override
+        public long get(long index) {
+            return values.get((int) index);
+        }
+        
+        @Override
+        public void set(long index, long value) {
+            values.put((int) index, value);
+        }
+    }
+    
+    // 2^28 ints per 1 GB chunk
+    private static final class OffHeapIntArray implements IntArray {
+        private static final int SHIFT = CHUNK_BYTES_SHIFT - 2;
+        private static final long MASK = (1L << SHIFT) - 1;
+        private final IntBuffer[] chunks;
+        private final long length;
+        
+        OffHeapIntArray(long length) {
+            ByteBuffer[] buffers = allocateChunks(length * Integer.BYTES);
+            this.chunks = new IntBuffer[buffers.length];
+            for (int c = 0; c < buffers.length; c++) {
+                chunks[c] = buffers[c].asIntBuffer();
+            }
+            this.length = length;
+        }
+        
+        @Override
+        public long length() {
+            return length;
+        }
+        
+        @Override
+        public int get(long index) {
+            return chunks[(int) (index >>> SHIFT)].get((int) (index & MASK));
+        }
+        
+        @Override
+        public void set(long index, int value) {
+            chunks[(int) (index >>> SHIFT)].put((int) (index & MASK), value);
+        }
+    }
+    
+    // 2^27 longs per 1 GB chunk
+    private static final class OffHeapLongArray implements LongArray {
+        private static final int SHIFT = CHUNK_BYTES_SHIFT - 3;
+        private static final long MASK = (1L << SHIFT) - 1;
+        private final LongBuffer[] chunks;
+        private final long length;
+        
+        OffHeapLongArray(long length) {
+            ByteBuffer[] buffers = allocateChunks(length * Long.BYTES);
+            this.chunks = new LongBuffer[buffers.length];
+            for (int c = 0; c < buffers.length; c++) {
+                chunks[c] = buffers[c].asLongBuffer();
+            }
+            this.length = length;
+        }
+        
+        @Override
+        public long length() {
+            return length;
+        }
+        
+        @Override
+        public long get(long index) {
+            return chunks[(int) (index >>> SHIFT)].get((int) (index & MASK));
+        }
+        
+        @Override
+        public void set(long index, long value) {
+            chunks[(int) (index >>> SHIFT)].put((int) (index & MASK), value);
+        }
+    }
+}
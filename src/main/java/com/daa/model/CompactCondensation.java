@@ -0,0 +1,264 @@
+package com.daa.model;
+
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+
+/**
+ * Condensation DAG of an {@link IntGraph}, stored as CSR arrays.
+ * 
+ * <p>Vertex c of this graph is component c of the SCC assignment it was
+ * built from. As in {@link CondensationGraph}, a component's duration is the
+ * maximum duration of its tasks and parallel edges between two components
+ * are merged. It is itself an IntGraph, so the int-based topological sort
+ * and path algorithms run on it directly. Its arrays live on or off the
+ * heap according to the {@link ArrayStorage} it was built with.
+ */
+public class CompactCondensation implements IntGraph {
+    private final int componentCount;
+    private final IntArray durations;        // component -> max task duration
+    private final IntArray memberOffsets;    // component -> range in members
+    private final IntArray members;          // vertices grouped by component
+    private final IntArray outOffsets;
+    private final IntArray outTargets;
+    private final IntArray inOffsets;
+    private final IntArray inSources;
+    
+    private CompactCondensation(int componentCount, IntArray durations, IntArray memberOffsets, IntArray members,
+                                IntArray outOffsets, IntArray outTargets, IntArray inOffsets, IntArray inSources) {
+        this.componentCount = componentCount;
+        this.durations = durations;
+        this.memberOffsets = memberOffsets;
+        this.members = members;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+    }
+    
+    /**
+     * Wrap condensation arrays that were built earlier, for example read back
+     * from a cache file, without checking or copying them.
+     * @param componentCount number of components
+     * @param durations max task duration per component
+     * @param memberOffsets start of each component's members, plus the end
+     * @param members vertices grouped by component
+     * @param outOffsets CSR offsets of dependent components
+     * @param outTargets dependent components
+     * @param inOffsets CSR offsets of dependency components
+     * @param inSources dependency components
+     * @return condensation over the given arrays
+     */
+    public static CompactCondensation of(int componentCount, IntArray durations, IntArray memberOffsets,
+                                         IntArray members, IntArray outOffsets, IntArray outTargets,
+                                         IntArray inOffsets, IntArray inSources) {
+        return new CompactCondensation(componentCount, durations, memberOffsets, members,
+            outOffsets, outTargets, inOffsets, inSources);
+    }
+    
+    /**
+     * The same condensation with different component durations, sharing
+     * every other array with this one.
+     * @param durations max task duration per component
+     * @return condensation with the given durations
+     */
+    public CompactCondensation withDurations(IntArray durations) {
+        return new CompactCondensation(componentCount, durations, memberOffsets, members,
+            outOffsets, outTargets, inOffsets, inSources);
+    }
+    
+    /**
+     * Build the condensation from an SCC assignment in O(V + E), on the heap.
+     * @param graph original graph
+     * @param componentOf component id of every vertex
+     * @param componentCount number of components
+     * @return condensation DAG
+     */
+    public static CompactCondensation build(IntGraph graph, IntArray componentOf, int componentCount) {
+        return build(graph, componentOf, componentCount, ArrayStorage.HEAP);
+    }
+    
+    /**
+     * Build the condensation from an SCC assignment in O(V + E).
+     * @param graph original graph
+     * @param componentOf component id of every vertex
+     * @param componentCount number of components
+     * @param storage where to keep the condensation's arrays
+     * @return condensation DAG
+     */
+    public static CompactCondensation build(IntGraph graph, IntArray componentOf, int componentCount,
+                                            ArrayStorage storage) {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        int n = graph.vertexCount();
+        
+        // group vertices by component and take the max duration
+        IntArray durations = storage.newIntArray(componentCount);
+        IntArray memberOffsets = storage.newIntArray(componentCount + 1L);
+        for (int v = 0; v < n; v++) {
+            int c = componentOf.get(v);
+            memberOffsets.set(c + 1L, memberOffsets.get(c + 1L) + 1);
+            durations.set(c, Math.max(durations.get(c), graph.duration(v)));
+        }
+        prefixSum(memberOffsets, componentCount);
+        IntArray members = storage.newIntArray(n);
+        IntArray cursor = storage.newIntArray(componentCount);
+        copy(memberOffsets, cursor, componentCount);
+        for (int v = 0; v < n; v++) {
+            int c = componentOf.get(v);
+            int slot = cursor.get(c);
+            members.set(slot, v);
+            cursor.set(c, slot + 1);
+        }
+        
+        // two passes per component over its members' edges, counting then filling;
+        // lastSeen drops parallel edges and reuses the cursor array
+        IntArray lastSeen = cursor;
+        NeighborCursor edges = graph.outCursor();
+        for (int c = 0; c < componentCount; c++) {
+            lastSeen.set(c, -1);
+        }
+        IntArray outOffsets = storage.newIntArray(componentCount + 1L);
+        for (int c = 0; c < componentCount; c++) {
+            int distinct = 0;
+            for (int m = memberOffsets.get(c); m < memberOffsets.get(c + 1L); m++) {
+                edges.seek(members.get(m));
+                while (edges.hasNext()) {
+                    int target = componentOf.get(edges.next());
+                    if (target != c && lastSeen.get(target) != c) {
+                        lastSeen.set(target, c);
+                        distinct++;
+                    }
+                }
+            }
+            outOffsets.set(c + 1L, outOffsets.get(c) + distinct);
+        }
+        int edgeCount = outOffsets.get(componentCount);
+        IntArray outTargets = storage.newIntArray(edgeCount);
+        for (int c = 0; c < componentCount; c++) {
+            lastSeen.set(c, -1);
+        }
+        int edge = 0;
+        for (int c = 0; c < componentCount; c++) {
+            for (int m = memberOffsets.get(c); m < memberOffsets.get(c + 1L); m++) {
+                edges.seek(members.get(m));
+                while (edges.hasNext()) {
+                    int target = componentOf.get(edges.next());
+                    if (target != c && lastSeen.get(target) != c) {
+                        lastSeen.set(target, c);
+                        outTargets.set(edge++, target);
+                    }
+                }
+            }
+        }
+        
+        IntArray inOffsets = storage.newIntArray(componentCount + 1L);
+        for (int e = 0; e < edgeCount; e++) {
+            long slot = outTargets.get(e) + 1L;
+            inOffsets.set(slot, inOffsets.get(slot) + 1);
+        }
+        prefixSum(inOffsets, componentCount);
+        IntArray inSources = storage.newIntArray(edgeCount);
+        IntArray inCursor = lastSeen;
+        copy(inOffsets, inCursor, componentCount);
+        for (int c = 0; c < componentCount; c++) {
+            for (int e = outOffsets.get(c); e < outOffsets.get(c + 1L); e++) {
+                int target = outTargets.get(e);
+                int slot = inCursor.get(target);
+                inSources.set(slot, c);
+                inCursor.set(target, slot + 1);
+            }
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.CONDENSATION, n, edgeCount, componentCount, null);
+            event.commit();
+        }
+        return new CompactCondensation(componentCount, durations, memberOffsets, members,
+            outOffsets, outTargets, inOffsets, inSources);
+    }
+    
+    private static void prefixSum(IntArray offsets, int count) {
+        for (int i = 0; i < count; i++) {
+            offsets.set(i + 1L, offsets.get(i + 1L) + offsets.get(i));
+        }
+    }
+    
+    private static void copy(IntArray from, IntArray to, int count) {
+        for (int i = 0; i < count; i++) {
+            to.set(i, from.get(i));
+        }
+    }
+    
+    @Override
+    public int vertexCount() {
+        return componentCount;
+    }
+    
+    @Override
+    public long edgeCount() {
+        return outTargets.length();
+    }
+    
+    /** Components have no task id of their own; this is the component number. */
+    @Override
+    public String id(int c) {
+        return Integer.toString(c);
+    }
+    
+    @Override
+    public String name(int c) {
+        return null;
+    }
+    
+    @Override
+    public int duration(int c) {
+        return durations.get(c);
+    }
+    
+    @Override
+    public int outDegree(int c) {
+        return outOffsets.get(c + 1L) - outOffsets.get(c);
+    }
+    
+    @Override
+    public int outNeighbor(int c, int i) {
+        return outTargets.get(outOffsets.get(c) + i);
+    }
+    
+    @Override
+    public int inDegree(int c) {
+        return inOffsets.get(c + 1L) - inOffsets.get(c);
+    }
+    
+    @Override
+    public int inNeighbor(int c, int i) {
+        return inSources.get(inOffsets.get(c) + i);
+    }
+    
+    @Override
+    public int indexOf(String componentId) {
+        try {
+            int c = Integer.parseInt(componentId);
+            return c >= 0 && c < componentCount ? c : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /** Number of tasks in a component. */
+    public int size(int c) {
+        return memberOffsets.get(c + 1L) - memberOffsets.get(c);
+    }
+    
+    /** The i-th task vertex of a component, 0 <= i < size(c). */
+    public int member(int c, int i) {
+        return members.get(memberOffsets.get(c) + i);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("CompactCondensation{components=%d, edges=%d}", vertexCount(), edgeCount());
+    }
+}
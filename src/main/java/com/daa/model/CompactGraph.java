@@ -0,0 +1,158 @@
+package com.daa.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable task graph stored as int arrays in CSR (compressed sparse row) form.
+ * 
+ * <p>Vertices are numbered 0..n-1 in the order tasks were declared. For
+ * vertex v, its dependents are {@code outTargets[outOffsets[v] .. outOffsets[v+1])}
+ * and its dependencies are {@code inSources[inOffsets[v] .. inOffsets[v+1])}.
+ * Edges point from a dependency to the task that depends on it, as in
+ * {@link TaskGraph}.
+ * 
+ * <p>Compared with TaskGraph this needs no per-task objects or boxed
+ * integers, so it is the representation used for very large plans.
+ * Build one with {@link CompactGraphBuilder}.
+ */
+public class CompactGraph implements IntGraph {
+    private final String[] ids;
+    private final String[] names;
+    private final int[] durations;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private Map<String, Integer> index; // built on first lookup
+    
+    public CompactGraph(String[] ids, String[] names, int[] durations,
+                        int[] outOffsets, int[] outTargets, int[] inOffsets, int[] inSources) {
+        this.ids = ids;
+        this.names = names;
+        this.durations = durations;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+    }
+    
+    @Override
+    public int vertexCount() {
+        return ids.length;
+    }
+    
+    @Override
+    public long edgeCount() {
+        return outTargets.length;
+    }
+    
+    @Override
+    public String id(int v) {
+        return ids[v];
+    }
+    
+    @Override
+    public String name(int v) {
+        return names[v];
+    }
+    
+    @Override
+    public int duration(int v) {
+        return durations[v];
+    }
+    
+    @Override
+    public int outDegree(int v) {
+        return outOffsets[v + 1] - outOffsets[v];
+    }
+    
+    @Override
+    public int outNeighbor(int v, int i) {
+        return outTargets[outOffsets[v] + i];
+    }
+    
+    @Override
+    public int inDegree(int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+    
+    @Override
+    public int inNeighbor(int v, int i) {
+        return inSources[inOffsets[v] + i];
+    }
+    
+    /**
+     * Find the vertex number of a task id.
+     * @param taskId task id
+     * @return vertex number, or -1 if unknown
+     */
+    @Override
+    public synchronized int indexOf(String taskId) {
+        if (index == null) {
+            index = new HashMap<>(ids.length * 4 / 3 + 1);
+            for (int v = 0; v < ids.length; v++) {
+                index.put(ids[v], v);
+            }
+        }
+        return index.getOrDefault(taskId, -1);
+    }
+    
+    // Raw arrays for bulk consumers such as writers; callers must not modify them
+    
+    public String[] ids() {
+        return ids;
+    }
+    
+    public String[] names() {
+        return names;
+    }
+    
+    public int[] durations() {
+        return durations;
+    }
+    
+    public int[] outOffsets() {
+        return outOffsets;
+    }
+    
+    public int[] outTargets() {
+        return outTargets;
+    }
+    
+    public int[] inOffsets() {
+        return inOffsets;
+    }
+    
+    public int[] inSources() {
+        return inSources;
+    }
+    
+    /**
+     * Convert to a TaskGraph for the map-based algorithms.
+     * Edges are added in the same order {@link TaskGraph#buildFromTasks()}
+     * would add them, so Tarjan and Kahn see identical adjacency lists.
+     * Task dependency lists are left empty; the edges carry that information.
+     * @return equivalent task graph
+     */
+    public TaskGraph toTaskGraph() {
+        TaskGraph graph = new TaskGraph();
+        Task[] tasks = new Task[ids.length];
+        for (int v = 0; v < ids.length; v++) {
+            tasks[v] = new Task(ids[v], names[v], durations[v]);
+            graph.addTask(tasks[v]);
+        }
+        for (Task task : graph.getTasks().values()) {
+            int v = indexOf(task.getId());
+            for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                graph.addEdge(ids[inSources[e]], task.getId());
+            }
+        }
+        return graph;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("CompactGraph{vertices=%d, edges=%d}", vertexCount(), edgeCount());
+    }
+}
@@ -0,0 +1,368 @@
+package com.daa.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Incrementally builds a {@link CompactGraph} from a stream of tasks and
+ * dependency edges, interning task ids as they arrive.
+ * 
+ * <p>Ids get a provisional number the first time they are seen, whether as
+ * a task or as someone's dependency, so a dependency on a task declared
+ * later in the input is resolved in the same pass. {@link #build()} then
+ * keeps only declared tasks, numbered in order of first declaration, and drops
+ * edges to ids that were never declared - the same rule as
+ * {@link TaskGraph#buildFromTasks()}. If a task id is declared twice the
+ * last declaration wins, including its dependency list.
+ */
+public class CompactGraphBuilder {
+    private Map<String, Integer> ids;  // id -> provisional number, built on first intern(String)
+    private String[] idByNumber;
+    private String[] names;
+    private int[] durations;
+    private int[] declaration;  // latest declaration sequence per provisional number, 0 = never declared
+    private int[] declaredOrder; // provisional numbers in order of first declaration
+    private int vertexCount;
+    private int declaredCount;
+    private int declarations;
+    
+    // edge list: dependency -> task, tagged with the task's declaration sequence
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private int[] edgeDeclaration;
+    private int edgeCount;
+    private boolean built;
+    
+    public CompactGraphBuilder() {
+        this(1024, 4096);
+    }
+    
+    public CompactGraphBuilder(int expectedTasks, int expectedEdges) {
+        int taskCapacity = Math.max(16, expectedTasks);
+        int edgeCapacity = Math.max(16, expectedEdges);
+        this.idByNumber = new String[taskCapacity];
+        this.names = new String[taskCapacity];
+        this.durations = new int[taskCapacity];
+        this.declaration = new int[taskCapacity];
+        this.declaredOrder = new int[taskCapacity];
+        this.edgeFrom = new int[edgeCapacity];
+        this.edgeTo = new int[edgeCapacity];
+        this.edgeDeclaration = new int[edgeCapacity];
+    }
+    
+    /**
+     * Get the provisional number for an id, registering it if new.
+     * The first String instance seen for an id is the one kept.
+     * @param taskId task id
+     * @return provisional vertex number
+     */
+    public int intern(String taskId) {
+        if (ids == null) {
+            ids = new HashMap<>(Math.max(16, idByNumber.length) * 4 / 3 + 1);
+            for (int v = 0; v < vertexCount; v++) {
+                ids.put(idByNumber[v], v);
+            }
+        }
+        Integer existing = ids.get(taskId);
+        if (existing != null) {
+            return existing;
+        }
+        ids.put(taskId, vertexCount);
+        return register(taskId);
+    }
+    
+    /**
+     * Register an id the caller knows has not been seen before, skipping the
+     * builder's own dictionary. For loaders that keep an id table of their own;
+     * passing an id twice creates two vertices with the same id.
+     * @param taskId new task id
+     * @return provisional vertex number, one more than the previous id's
+     */
+    public int internNew(String taskId) {
+        if (ids != null) {
+            ids.put(taskId, vertexCount);
+        }
+        return register(taskId);
+    }
+    
+    private int register(String taskId) {
+        if (vertexCount == idByNumber.length) {
+            int capacity = vertexCount + (vertexCount >> 1);
+            idByNumber = Arrays.copyOf(idByNumber, capacity);
+            names = Arrays.copyOf(names, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            declaration = Arrays.copyOf(declaration, capacity);
+            declaredOrder = Arrays.copyOf(declaredOrder, capacity);
+        }
+        idByNumber[vertexCount] = taskId;
+        return vertexCount++;
+    }
+    
+    /**
+     * Declare a task. Its dependencies follow via {@link #addDependency}.
+     * @param taskId task id
+     * @param name human-readable name, may be null
+     * @param duration task duration
+     * @return provisional vertex number
+     */
+    public int addTask(String taskId, String name, int duration) {
+        return addTask(intern(taskId), name, duration);
+    }
+    
+    /**
+     * Declare a task by its provisional number.
+     * @param v provisional number from {@link #intern} or {@link #internNew}
+     * @param name human-readable name, may be null
+     * @param duration task duration
+     * @return v
+     */
+    public int addTask(int v, String name, int duration) {
+        if (declaration[v] == 0) {
+            declaredOrder[declaredCount++] = v;
+        }
+        names[v] = name;
+        durations[v] = duration;
+        declaration[v] = ++declarations;
+        return v;
+    }
+    
+    /**
+     * Record that a declared task depends on another id.
+     * @param task provisional number returned by {@link #addTask}
+     * @param dependency provisional number of the dependency
+     */
+    public void addDependency(int task, int dependency) {
+        if (edgeCount == edgeFrom.length) {
+            int capacity = edgeCount + (edgeCount >> 1);
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeDeclaration = Arrays.copyOf(edgeDeclaration, capacity);
+        }
+        edgeFrom[edgeCount] = dependency;
+        edgeTo[edgeCount] = task;
+        edgeDeclaration[edgeCount] = declaration[task];
+        edgeCount++;
+    }
+    
+    /**
+     * Record that a declared task depends on another id.
+     * @param task provisional number returned by {@link #addTask}
+     * @param dependencyId dependency task id, possibly not declared yet
+     */
+    public void addDependency(int task, String dependencyId) {
+        addDependency(task, intern(dependencyId));
+    }
+    
+    public int taskCount() {
+        return declaredCount;
+    }
+    
+    /**
+     * Resolve all edges and produce the CSR graph.
+     * The edge buffers are reused for the result, so a builder can only build once.
+     * @return compact graph with declared tasks only
+     */
+    public CompactGraph build() {
+        if (built) {
+            throw new IllegalStateException("CompactGraphBuilder.build() already called");
+        }
+        built = true;
+        
+        // final numbering: declared vertices in order of first declaration, the rest dropped
+        int n = declaredCount;
+        int[] finalNumber = new int[vertexCount];
+        Arrays.fill(finalNumber, -1);
+        for (int i = 0; i < n; i++) {
+            finalNumber[declaredOrder[i]] = i;
+        }
+        
+        String[] finalIds = new String[n];
+        String[] finalNames = new String[n];
+        int[] finalDurations = new int[n];
+        for (int i = 0; i < n; i++) {
+            int v = declaredOrder[i];
+            finalIds[i] = idByNumber[v];
+            finalNames[i] = names[v];
+            finalDurations[i] = durations[v];
+        }
+        
+        // keep edges whose endpoints are declared and that belong to the task's last declaration
+        int kept = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            int from = finalNumber[edgeFrom[e]];
+            int to = finalNumber[edgeTo[e]];
+            if (from >= 0 && edgeDeclaration[e] == declaration[edgeTo[e]]) {
+                edgeFrom[kept] = from;
+                edgeTo[kept] = to;
+                kept++;
+            }
+        }
+        
+        int[] outOffsets = new int[n + 1];
+        int[] inOffsets = new int[n + 1];
+        for (int e = 0; e < kept; e++) {
+            outOffsets[edgeFrom[e] + 1]++;
+            inOffsets[edgeTo[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            outOffsets[v + 1] += outOffsets[v];
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        
+        int[] outTargets = new int[kept];
+        int[] inSources = new int[kept];
+        int[] outCursor = Arrays.copyOf(outOffsets, n);
+        int[] inCursor = Arrays.copyOf(inOffsets, n);
+        for (int e = 0; e < kept; e++) {
+            outTargets[outCursor[edgeFrom[e]]++] = edgeTo[e];
+            inSources[inCursor[edgeTo[e]]++] = edgeFrom[e];
+        }
+        
+        return new CompactGraph(finalIds, finalNames, finalDurations, outOffsets, outTargets, inOffsets, inSources);
+    }
+    
+    /**
+     * Merge builders that each hold one shard of a task set into one graph,
+     * working on the shards in parallel.
+     * 
+     * <p>The result is numbered as if the shards had been concatenated in list
+     * order: shard 0's tasks first, in declaration order, then shard 1's, and so
+     * on. A dependency may name a task declared in any shard. Dependency lists
+     * keep their declared order, and each task's dependents are in vertex order.
+     * Builders must not be used again afterwards.
+     * 
+     * @param shards one builder per shard, in shard order
+     * @param pool threads to use
+     * @return merged graph
+     * @throws IllegalArgumentException if a task id is declared in more than one shard
+     */
+    public static CompactGraph merge(List<CompactGraphBuilder> shards, ExecutorService pool) {
+        int shardCount = shards.size();
+        int[] base = new int[shardCount + 1];
+        for (int s = 0; s < shardCount; s++) {
+            CompactGraphBuilder shard = shards.get(s);
+            if (shard.built) {
+                throw new IllegalStateException("CompactGraphBuilder.build() already called");
+            }
+            shard.built = true;
+            base[s + 1] = base[s] + shard.declaredCount;
+        }
+        int n = base[shardCount];
+        
+        // global dictionary; shard s owns vertex numbers base[s] .. base[s+1]
+        Map<String, Integer> index = new ConcurrentHashMap<>(n * 4 / 3 + 1);
+        String[] ids = new String[n];
+        String[] names = new String[n];
+        int[] durations = new int[n];
+        runAll(pool, shardCount, s -> {
+            CompactGraphBuilder shard = shards.get(s);
+            for (int i = 0; i < shard.declaredCount; i++) {
+                int v = shard.declaredOrder[i];
+                Integer previous = index.putIfAbsent(shard.idByNumber[v], base[s] + i);
+                if (previous != null) {
+                    throw new IllegalArgumentException("Task " + shard.idByNumber[v] + " is declared in more than one shard");
+                }
+                ids[base[s] + i] = shard.idByNumber[v];
+                names[base[s] + i] = shard.names[v];
+                durations[base[s] + i] = shard.durations[v];
+            }
+        });
+        
+        // resolve each shard's ids and compact its live edges in place as (global from, global to)
+        int[] inDegree = new int[n + 1];
+        AtomicIntegerArray outDegree = new AtomicIntegerArray(n + 1);
+        runAll(pool, shardCount, s -> {
+            CompactGraphBuilder shard = shards.get(s);
+            int[] global = new int[shard.vertexCount];
+            for (int p = 0; p < shard.vertexCount; p++) {
+                global[p] = index.getOrDefault(shard.idByNumber[p], -1);
+            }
+            int kept = 0;
+            for (int e = 0; e < shard.edgeCount; e++) {
+                int from = global[shard.edgeFrom[e]];
+                int to = shard.edgeTo[e];
+                if (from >= 0 && shard.edgeDeclaration[e] == shard.declaration[to]) {
+                    shard.edgeFrom[kept] = from;
+                    shard.edgeTo[kept] = global[to];
+                    kept++;
+                    inDegree[global[to] + 1]++;
+                    outDegree.getAndIncrement(from + 1);
+                }
+            }
+            shard.edgeCount = kept;
+        });
+        
+        int[] inOffsets = inDegree;
+        int[] outOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+            outOffsets[v + 1] = outOffsets[v] + outDegree.get(v + 1);
+        }
+        
+        // dependencies: each shard fills the slice of its own tasks, in edge order
+        int[] inSources = new int[inOffsets[n]];
+        AtomicIntegerArray outCursor = new AtomicIntegerArray(Arrays.copyOf(outOffsets, n));
+        int[] outTargets = new int[outOffsets[n]];
+        runAll(pool, shardCount, s -> {
+            CompactGraphBuilder shard = shards.get(s);
+            int[] inCursor = Arrays.copyOfRange(inOffsets, base[s], base[s + 1]);
+            for (int e = 0; e < shard.edgeCount; e++) {
+                int from = shard.edgeFrom[e];
+                int to = shard.edgeTo[e];
+                inSources[inCursor[to - base[s]]++] = from;
+                outTargets[outCursor.getAndIncrement(from)] = to;
+            }
+        });
+        
+        // dependents arrived in thread order; sort each list to make it deterministic
+        int chunks = Math.max(shardCount, Runtime.getRuntime().availableProcessors());
+        runAll(pool, chunks, c -> {
+            long start = (long) n * c / chunks;
+            long end = (long) n * (c + 1) / chunks;
+            for (int v = (int) start; v < end; v++) {
+                Arrays.sort(outTargets, outOffsets[v], outOffsets[v + 1]);
+            }
+        });
+        
+        return new CompactGraph(ids, names, durations, outOffsets, outTargets, inOffsets, inSources);
+    }
+    
+    // Run body(0..count-1) on the pool and wait, rethrowing the first failure
+    private static void runAll(ExecutorService pool, int count, IntTask body) {
+        List<Callable<Void>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int item = i;
+            tasks.add(() -> {
+                body.run(item);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while merging shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int item);
+    }
+}
@@ -0,0 +1,343 @@
+package com.daa.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable task graph whose neighbor lists are stored as variable-length
+ * encoded gaps, in the manner of WebGraph, for graphs whose edges do not
+ * fit in memory as int arrays.
+ * 
+ * <p>Each vertex's dependents, and separately its dependencies, are sorted
+ * and written as: the count, the first neighbor minus the vertex
+ * (zig-zag encoded, so nearby neighbors on either side are small), then the
+ * gap from each neighbor to the next. Every number is a varint of 7 bits
+ * per byte, so a gap below 128 takes one byte where CSR takes four. With
+ * vertices numbered for locality, see {@link VertexRelabeling}, most gaps
+ * are small and an edge costs one or two bytes per direction.
+ * 
+ * <p>Lists are packed into byte chunks of up to 1 GB that no list crosses,
+ * located through one int offset per vertex and direction. Degrees are read
+ * from the list head in O(1); {@link NeighborCursor}s from
+ * {@link #outCursor()} and {@link #inCursor()} decode lists front to back
+ * without materializing them, which is how the SCC, condensation, ordering
+ * and path algorithms read them. Indexed access with {@link #outNeighbor}
+ * decodes from the start of the list and is O(i).
+ */
+public final class CompressedGraph implements IntGraph {
+    
+    /** Largest chunk; one vertex's list must fit in it. */
+    static final int MAX_CHUNK_BYTES = 1 << 30;
+    
+    private final String[] ids;
+    private final String[] names;
+    private final int[] durations;
+    private final Lists out;
+    private final Lists in;
+    private final long edgeCount;
+    private Map<String, Integer> index; // built on first lookup
+    
+    private CompressedGraph(String[] ids, String[] names, int[] durations, Lists out, Lists in, long edgeCount) {
+        this.ids = ids;
+        this.names = names;
+        this.durations = durations;
+        this.out = out;
+        this.in = in;
+        this.edgeCount = edgeCount;
+    }
+    
+    /**
+     * Encode a graph, copying its ids, names and durations.
+     * @param graph any graph
+     * @return the same graph with compressed neighbor lists
+     */
+    public static CompressedGraph of(IntGraph graph) {
+        return of(graph, MAX_CHUNK_BYTES);
+    }
+    
+    static CompressedGraph of(IntGraph graph, int chunkBytes) {
+        int n = graph.vertexCount();
+        String[] ids = new String[n];
+        String[] names = new String[n];
+        int[] durations = new int[n];
+        for (int v = 0; v < n; v++) {
+            ids[v] = graph.id(v);
+            names[v] = graph.name(v);
+            durations[v] = graph.duration(v);
+        }
+        return new CompressedGraph(ids, names, durations,
+            Lists.encode(graph, true, chunkBytes), Lists.encode(graph, false, chunkBytes), graph.edgeCount());
+    }
+    
+    /** Bytes used by the encoded lists of both directions, offsets included. */
+    public long adjacencyBytes() {
+        return out.bytes() + in.bytes();
+    }
+    
+    @Override
+    public int vertexCount() {
+        return ids.length;
+    }
+    
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+    
+    @Override
+    public String id(int v) {
+        return ids[v];
+    }
+    
+    @Override
+    public String name(int v) {
+        return names[v];
+    }
+    
+    @Override
+    public int duration(int v) {
+        return durations[v];
+    }
+    
+    @Override
+    public int outDegree(int v) {
+        return out.degree(v);
+    }
+    
+    @Override
+    public int outNeighbor(int v, int i) {
+        return out.neighbor(v, i);
+    }
+    
+    @Override
+    public int inDegree(int v) {
+        return in.degree(v);
+    }
+    
+    @Override
+    public int inNeighbor(int v, int i) {
+        return in.neighbor(v, i);
+    }
+    
+    @Override
+    public NeighborCursor outCursor() {
+        return new Cursor(out);
+    }
+    
+    @Override
+    public NeighborCursor inCursor() {
+        return new Cursor(in);
+    }
+    
+    @Override
+    public synchronized int indexOf(String taskId) {
+        if (index == null) {
+            index = new HashMap<>(ids.length * 2);
+            for (int v = 0; v < ids.length; v++) {
+                index.put(ids[v], v);
+            }
+        }
+        Integer v = index.get(taskId);
+        return v != null ? v : -1;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("CompressedGraph{vertices=%d, edges=%d, adjacencyBytes=%d}",
+            ids.length, edgeCount, adjacencyBytes());
+    }
+    
+    /**
+     * One direction's lists: chunks of encoded lists in vertex order, the
+     * first vertex of every chunk, and each list's offset within its chunk.
+     */
+    private static final class Lists {
+        private final byte[][] chunks;
+        private final int[] chunkStarts;
+        private final int[] offsets;
+        
+        Lists(byte[][] chunks, int[] chunkStarts, int[] offsets) {
+            this.chunks = chunks;
+            this.chunkStarts = chunkStarts;
+            this.offsets = offsets;
+        }
+        
+        static Lists encode(IntGraph graph, boolean outgoing, int chunkBytes) {
+            int n = graph.vertexCount();
+            int[] offsets = new int[n];
+            byte[][] chunks = new byte[1][];
+            int[] chunkStarts = new int[1];
+            int chunkCount = 0;
+            byte[] chunk = new byte[Math.min(chunkBytes, 1 << 16)];
+            int length = 0;
+            int[] list = new int[16];
+            for (int v = 0; v < n; v++) {
+                int degree = outgoing ? graph.outDegree(v) : graph.inDegree(v);
+                if (list.length < degree) {
+                    list = new int[Math.max(degree, list.length * 2)];
+                }
+                for (int i = 0; i < degree; i++) {
+                    list[i] = outgoing ? graph.outNeighbor(v, i) : graph.inNeighbor(v, i);
+                }
+                Arrays.sort(list, 0, degree);
+                
+                // at most five bytes per varint: the degree, the first neighbor, the gaps
+                long worst = 5L * (degree + 1);
+                if (worst > chunkBytes) {
+                    throw new IllegalArgumentException("Task " + graph.id(v) + " has too many neighbors to encode");
+                }
+                if (length + worst > chunkBytes) {
+                    // seal the chunk; this vertex's list starts the next one
+                    if (chunkCount + 1 == chunks.length) {
+                        chunks = Arrays.copyOf(chunks, chunks.length * 2);
+                        chunkStarts = Arrays.copyOf(chunkStarts, chunkStarts.length * 2);
+                    }
+                    chunks[chunkCount++] = Arrays.copyOf(chunk, length);
+                    chunkStarts[chunkCount] = v;
+                    length = 0;
+                }
+                if (length + worst > chunk.length) {
+                    chunk = Arrays.copyOf(chunk, (int) Math.min(chunkBytes, Math.max(length + worst, 2L * chunk.length)));
+                }
+                
+                offsets[v] = length;
+                length = writeVarint(chunk, length, degree);
+                if (degree > 0) {
+                    int first = list[0] - v;
+                    length = writeVarint(chunk, length, (first << 1) ^ (first >> 31));
+                    for (int i = 1; i < degree; i++) {
+                        length = writeVarint(chunk, length, list[i] - list[i - 1]);
+                    }
+                }
+            }
+            chunks[chunkCount++] = Arrays.copyOf(chunk, length);
+            return new Lists(Arrays.copyOf(chunks, chunkCount), Arrays.copyOf(chunkStarts, chunkCount), offsets);
+        }
+        
+        long bytes() {
+            long total = (long) offsets.length * Integer.BYTES + (long) chunkStarts.length * Integer.BYTES;
+            for (byte[] chunk : chunks) {
+                total += chunk.length;
+            }
+            return total;
+        }
+        
+        int chunkOf(int v) {
+            if (chunkStarts.length == 1) {
+                return 0;
+            }
+            int c = Arrays.binarySearch(chunkStarts, v);
+            return c >= 0 ? c : -c - 2;
+        }
+        
+        // End of v's list: the next list's start, or the end of the chunk if v is its last vertex
+        int end(int v, int chunk) {
+            int next = chunk + 1 < chunkStarts.length ? chunkStarts[chunk + 1] : offsets.length;
+            return v + 1 < next ? offsets[v + 1] : chunks[chunk].length;
+        }
+        
+        int degree(int v) {
+            byte[] data = chunks[chunkOf(v)];
+            int pos = offsets[v];
+            int value = data[pos];
+            return value >= 0 ? value : readVarint(data, pos);
+        }
+        
+        int neighbor(int v, int i) {
+            if (i < 0 || i >= degree(v)) {
+                throw new IndexOutOfBoundsException("Neighbor " + i + " of vertex " + v);
+            }
+            Cursor cursor = new Cursor(this);
+            cursor.seek(v, 0);
+            int w = cursor.next();
+            for (int k = 0; k < i; k++) {
+                w = cursor.next();
+            }
+            return w;
+        }
+    }
+    
+    /**
+     * Sequential decoder over one list. The position packs the byte offset
+     * within the list into the high half and the last neighbor read into
+     * the low half, which is all a gap needs to resume.
+     */
+    private static final class Cursor implements NeighborCursor {
+        private final Lists lists;
+        private byte[] data;
+        private int vertex;
+        private int start;     // first byte after the degree
+        private int pos;
+        private int end;
+        private int previous;
+        
+        Cursor(Lists lists) {
+            this.lists = lists;
+        }
+        
+        @Override
+        public void seek(int v, long position) {
+            int chunk = lists.chunkOf(v);
+            data = lists.chunks[chunk];
+            vertex = v;
+            end = lists.end(v, chunk);
+            start = lists.offsets[v];
+            while (data[start++] < 0) {
+                // skip the degree
+            }
+            pos = start + (int) (position >>> 32);
+            previous = (int) position;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return pos < end;
+        }
+        
+        @Override
+        public int next() {
+            boolean first = pos == start;
+            int value = data[pos++];
+            if (value < 0) {
+                value &= 0x7f;
+                int shift = 7;
+                int b;
+                do {
+                    b = data[pos++];
+                    value |= (b & 0x7f) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+            previous = first ? vertex + ((value >>> 1) ^ -(value & 1)) : previous + value;
+            return previous;
+        }
+        
+        @Override
+        public long position() {
+            return (long) (pos - start) << 32 | (previous & 0xffffffffL);
+        }
+    }
+    
+    private static int writeVarint(byte[] data, int pos, int value) {
+        while ((value & ~0x7f) != 0) {
+            data[pos++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        data[pos++] = (byte) value;
+        return pos;
+    }
+    
+    // Decode the varint at pos, for values of two bytes or more
+    private static int readVarint(byte[] data, int pos) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = data[pos++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -1,5 +1,8 @@
 package com.daa.model;
 
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
 import java.util.*;
 
 /**
@@ -10,6 +13,7 @@ public class CondensationGraph {
     private Map<Integer, List<Integer>> adjacencyList; // component id -> list of dependent component ids
     private Map<Integer, Integer> componentDuration; // component id -> max duration in component
     private TaskGraph originalGraph;
+    private int edgeCount;
     
     public CondensationGraph(List<Component> components, TaskGraph originalGraph) {
         this.components = components;
@@ -27,6 +31,8 @@ public class CondensationGraph {
      * Build the condensation graph from the original graph and SCCs.
      */
     public void build(Map<String, Integer> taskToComponent) {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
         Set<String> addedEdges = new HashSet<>();
         
         // For each task in the original graph
@@ -45,6 +51,7 @@ public class CondensationGraph {
                         if (!addedEdges.contains(edgeKey)) {
                             adjacencyList.get(fromComp).add(toComp);
                             addedEdges.add(edgeKey);
+                            edgeCount++;
                         }
                     }
                 }
@@ -60,6 +67,12 @@ public class CondensationGraph {
             }
             componentDuration.put(component.getId(), maxDuration);
         }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.CONDENSATION, originalGraph.size(), edgeCount, components.size(), null);
+            event.commit();
+        }
     }
     
     public List<Component> getComponents() {
@@ -78,6 +91,15 @@ public class CondensationGraph {
         return components.size();
     }
     
+    /** Number of tasks in the original graph. */
+    public int taskCount() {
+        return originalGraph.size();
+    }
+    
+    public int edgeCount() {
+        return edgeCount;
+    }
+    
     public void printGraph() {
         System.out.println("\n=== Condensation DAG ===");
         System.out.println("Number of components: " + components.size());
@@ -0,0 +1,283 @@
+package com.daa.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What-if view of a graph: a shared base graph plus a few recorded changes.
+ * 
+ * <p>The overlay stores only what differs from its base: changed durations,
+ * added tasks, and the neighbor lists of tasks whose dependencies were added
+ * or removed, copied from the base on first change. Everything else is read
+ * through from the base, which is never modified, so any number of overlays
+ * can share one base and memory grows with the size of the changes, not the
+ * graph. A crew added to a task is modelled by shortening the task.
+ * Changes are found through primitive open-addressing maps keyed by vertex
+ * number, so reading an overlay never boxes.
+ * 
+ * <p>An overlay is an {@link IntGraph}, so SCC and path analysis run on it
+ * directly. Base vertices keep their numbers and added tasks are numbered
+ * after them. Build an overlay on one thread; once built it may be read by
+ * any number of threads, but must not be changed while it is being read.
+ */
+public final class GraphOverlay implements IntGraph {
+    private final IntGraph base;
+    private final String label;
+    private final IntIntMap durations = new IntIntMap();
+    private final IntIntMap out = new IntIntMap();      // vertex -> index into lists
+    private final IntIntMap in = new IntIntMap();       // vertex -> index into lists
+    private final List<int[]> lists = new ArrayList<>();
+    private final List<String> addedIds = new ArrayList<>();
+    private final List<String> addedNames = new ArrayList<>();
+    private final Map<String, Integer> addedIndex = new HashMap<>();
+    private long edgeCount;
+    
+    /**
+     * @param base graph the changes apply to
+     * @param label name of the scenario, for reports
+     */
+    public GraphOverlay(IntGraph base, String label) {
+        this.base = base;
+        this.label = label;
+        this.edgeCount = base.edgeCount();
+    }
+    
+    public IntGraph getBase() {
+        return base;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    /**
+     * Change a task's duration.
+     * @throws IllegalArgumentException if there is no such task
+     */
+    public GraphOverlay setDuration(String id, int duration) {
+        durations.put(require(id), duration);
+        return this;
+    }
+    
+    /**
+     * Lengthen a task, or shorten it with a negative amount; durations stop at zero.
+     * @throws IllegalArgumentException if there is no such task
+     */
+    public GraphOverlay delay(String id, int amount) {
+        int v = require(id);
+        durations.put(v, Math.max(0, duration(v) + amount));
+        return this;
+    }
+    
+    /**
+     * Add a task with no dependencies.
+     * @return vertex number of the new task
+     * @throws IllegalArgumentException if the id is already taken
+     */
+    public int addTask(String id, String name, int duration) {
+        if (indexOf(id) >= 0) {
+            throw new IllegalArgumentException("Duplicate task: " + id);
+        }
+        int v = base.vertexCount() + addedIds.size();
+        addedIds.add(id);
+        addedNames.add(name);
+        addedIndex.put(id, v);
+        durations.put(v, duration);
+        setOut(v, new int[0]);
+        setIn(v, new int[0]);
+        return v;
+    }
+    
+    /**
+     * Add a dependency: {@code to} depends on {@code from}.
+     * @throws IllegalArgumentException if either task is unknown
+     */
+    public GraphOverlay addEdge(String from, String to) {
+        int u = require(from);
+        int v = require(to);
+        int[] targets = outList(u);
+        int[] sources = inList(v);
+        setOut(u, append(targets, v));
+        setIn(v, append(sources, u));
+        edgeCount++;
+        return this;
+    }
+    
+    /**
+     * Remove one dependency of {@code to} on {@code from}.
+     * @return true if there was such a dependency
+     * @throws IllegalArgumentException if either task is unknown
+     */
+    public boolean removeEdge(String from, String to) {
+        int u = require(from);
+        int v = require(to);
+        int[] targets = without(outList(u), v);
+        if (targets == null) {
+            return false;
+        }
+        setOut(u, targets);
+        setIn(v, without(inList(v), u));
+        edgeCount--;
+        return true;
+    }
+    
+    /**
+     * Whether tasks or dependencies were changed, as opposed to durations
+     * only; only then can the SCCs differ from the base's.
+     */
+    public boolean isStructural() {
+        return !addedIds.isEmpty() || !out.isEmpty();
+    }
+    
+    /** Vertices whose duration was set, in ascending order. */
+    public int[] changedDurations() {
+        return durations.keys();
+    }
+    
+    /** Number of recorded changes: durations plus tasks with changed neighbor lists. */
+    public int deltaSize() {
+        return durations.size() + out.size() + in.size();
+    }
+    
+    @Override
+    public int vertexCount() {
+        return base.vertexCount() + addedIds.size();
+    }
+    
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+    
+    @Override
+    public String id(int v) {
+        return v < base.vertexCount() ? base.id(v) : addedIds.get(v - base.vertexCount());
+    }
+    
+    @Override
+    public String name(int v) {
+        return v < base.vertexCount() ? base.name(v) : addedNames.get(v - base.vertexCount());
+    }
+    
+    @Override
+    public int duration(int v) {
+        int slot = durations.isEmpty() ? -1 : durations.find(v);
+        return slot >= 0 ? durations.valueAt(slot) : base.duration(v);
+    }
+    
+    @Override
+    public int outDegree(int v) {
+        int[] changed = changed(out, v);
+        return changed != null ? changed.length : base.outDegree(v);
+    }
+    
+    @Override
+    public int outNeighbor(int v, int i) {
+        int[] changed = changed(out, v);
+        return changed != null ? changed[i] : base.outNeighbor(v, i);
+    }
+    
+    @Override
+    public int inDegree(int v) {
+        int[] changed = changed(in, v);
+        return changed != null ? changed.length : base.inDegree(v);
+    }
+    
+    @Override
+    public int inNeighbor(int v, int i) {
+        int[] changed = changed(in, v);
+        return changed != null ? changed[i] : base.inNeighbor(v, i);
+    }
+    
+    @Override
+    public int indexOf(String taskId) {
+        Integer v = addedIndex.get(taskId);
+        return v != null ? v : base.indexOf(taskId);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("GraphOverlay{label=%s, vertices=%d, edges=%d, changes=%d}",
+            label, vertexCount(), edgeCount, deltaSize());
+    }
+    
+    private int require(String id) {
+        int v = indexOf(id);
+        if (v < 0) {
+            throw new IllegalArgumentException("Unknown task: " + id);
+        }
+        return v;
+    }
+    
+    // The changed neighbor list of v in one direction, or null if it reads through to the base
+    private int[] changed(IntIntMap index, int v) {
+        if (index.isEmpty()) {
+            return null;
+        }
+        int i = index.get(v, -1);
+        return i >= 0 ? lists.get(i) : null;
+    }
+    
+    private void setOut(int v, int[] list) {
+        setList(out, v, list);
+    }
+    
+    private void setIn(int v, int[] list) {
+        setList(in, v, list);
+    }
+    
+    // Replace v's list in place if it has one, so lists only grow with the number of changed vertices
+    private void setList(IntIntMap index, int v, int[] list) {
+        int i = index.get(v, -1);
+        if (i >= 0) {
+            lists.set(i, list);
+        } else {
+            index.put(v, lists.size());
+            lists.add(list);
+        }
+    }
+    
+    private int[] outList(int v) {
+        int[] list = changed(out, v);
+        if (list == null) {
+            list = new int[base.outDegree(v)];
+            for (int i = 0; i < list.length; i++) {
+                list[i] = base.outNeighbor(v, i);
+            }
+        }
+        return list;
+    }
+    
+    private int[] inList(int v) {
+        int[] list = changed(in, v);
+        if (list == null) {
+            list = new int[base.inDegree(v)];
+            for (int i = 0; i < list.length; i++) {
+                list[i] = base.inNeighbor(v, i);
+            }
+        }
+        return list;
+    }
+    
+    private static int[] append(int[] list, int value) {
+        int[] grown = Arrays.copyOf(list, list.length + 1);
+        grown[list.length] = value;
+        return grown;
+    }
+    
+    // Copy without the last occurrence of value, or null if absent
+    private static int[] without(int[] list, int value) {
+        for (int i = list.length - 1; i >= 0; i--) {
+            if (list[i] == value) {
+                int[] shrunk = new int[list.length - 1];
+                System.arraycopy(list, 0, shrunk, 0, i);
+                System.arraycopy(list, i + 1, shrunk, i, list.length - i - 1);
+                return shrunk;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,495 @@
+package com.daa.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable version of a task graph that shares unchanged storage with the
+ * versions before and after it.
+ * 
+ * <p>Vertices are numbered 0..n-1 in the order tasks were added and stored
+ * in blocks of {@value #BLOCK_SIZE}, each block holding the ids, names,
+ * durations and CSR adjacency (both directions) of its vertices. Blocks
+ * are never modified once built. An {@link Editor} copies only the blocks
+ * an edit touches and the next snapshot points at every other block of the
+ * previous one, so a version that changes k tasks costs O(k blocks + n / BLOCK_SIZE)
+ * rather than a copy of the graph. Task id lookups go through an index that
+ * is shared the same way.
+ * 
+ * <p>Because nothing reachable from a snapshot ever changes, any number of
+ * threads may read one while a writer builds the next, with no locking.
+ * {@link GraphStore} publishes successive versions through one atomic reference.
+ * Snapshots implement {@link IntGraph}, so the int-based algorithms run on
+ * them directly.
+ */
+public final class GraphSnapshot implements IntGraph {
+    
+    public static final int BLOCK_SIZE = 1 << 10;
+    private static final int BLOCK_SHIFT = 10;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final GraphSnapshot EMPTY = new GraphSnapshot(new Block[0], 0, 0, Index.EMPTY, 0);
+    
+    private final Block[] blocks;
+    private final int vertexCount;
+    private final long edgeCount;
+    private final Index index;
+    private final long version;
+    
+    private GraphSnapshot(Block[] blocks, int vertexCount, long edgeCount, Index index, long version) {
+        this.blocks = blocks;
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.index = index;
+        this.version = version;
+    }
+    
+    /** The graph with no tasks, version 0. */
+    public static GraphSnapshot empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * Snapshot of an int graph, keeping its vertex numbering.
+     * @param graph graph to copy
+     * @return first version of the graph
+     */
+    public static GraphSnapshot of(IntGraph graph) {
+        Editor editor = EMPTY.edit();
+        int n = graph.vertexCount();
+        for (int v = 0; v < n; v++) {
+            editor.addTask(graph.id(v), graph.name(v), graph.duration(v));
+        }
+        for (int v = 0; v < n; v++) {
+            int degree = graph.outDegree(v);
+            for (int i = 0; i < degree; i++) {
+                editor.addEdge(v, graph.outNeighbor(v, i));
+            }
+        }
+        return editor.build();
+    }
+    
+    /**
+     * Snapshot of a task graph's current state, numbered in task iteration order.
+     * Edges to or from ids that were never added as tasks are left out, as
+     * {@link TaskGraph#buildFromTasks()} leaves out unknown dependencies.
+     * @param graph graph to copy
+     * @return first version of the graph
+     */
+    public static GraphSnapshot of(TaskGraph graph) {
+        Editor editor = EMPTY.edit();
+        Map<String, Task> tasks = graph.getTasks();
+        for (Task task : tasks.values()) {
+            editor.addTask(task.getId(), task.getName(), task.getDuration());
+        }
+        for (Map.Entry<String, List<String>> entry : graph.getAdjacencyList().entrySet()) {
+            if (!tasks.containsKey(entry.getKey())) {
+                continue;
+            }
+            for (String to : entry.getValue()) {
+                if (tasks.containsKey(to)) {
+                    editor.addEdge(entry.getKey(), to);
+                }
+            }
+        }
+        return editor.build();
+    }
+    
+    /**
+     * Start the next version. The editor sees this snapshot plus its own
+     * changes; this snapshot itself never changes.
+     * @return editor whose {@link Editor#build()} gives the next version
+     */
+    public Editor edit() {
+        return new Editor(this);
+    }
+    
+    /**
+     * Number of changes made since the empty graph, like {@link TaskGraph#getVersion()}.
+     * @return version of this snapshot
+     */
+    public long version() {
+        return version;
+    }
+    
+    /**
+     * Number of storage blocks this snapshot shares with another, a measure
+     * of structural sharing between versions.
+     * @param other another snapshot
+     * @return blocks present in both
+     */
+    public int sharedBlockCount(GraphSnapshot other) {
+        int shared = 0;
+        for (int b = 0; b < Math.min(blocks.length, other.blocks.length); b++) {
+            if (blocks[b] == other.blocks[b]) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+    
+    /** Number of storage blocks. */
+    public int blockCount() {
+        return blocks.length;
+    }
+    
+    @Override
+    public int vertexCount() {
+        return vertexCount;
+    }
+    
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+    
+    @Override
+    public String id(int v) {
+        return blocks[v >>> BLOCK_SHIFT].ids[v & BLOCK_MASK];
+    }
+    
+    @Override
+    public String name(int v) {
+        return blocks[v >>> BLOCK_SHIFT].names[v & BLOCK_MASK];
+    }
+    
+    @Override
+    public int duration(int v) {
+        return blocks[v >>> BLOCK_SHIFT].durations[v & BLOCK_MASK];
+    }
+    
+    @Override
+    public int outDegree(int v) {
+        int[] offsets = blocks[v >>> BLOCK_SHIFT].outOffsets;
+        int i = v & BLOCK_MASK;
+        return offsets[i + 1] - offsets[i];
+    }
+    
+    @Override
+    public int outNeighbor(int v, int i) {
+        Block block = blocks[v >>> BLOCK_SHIFT];
+        return block.outTargets[block.outOffsets[v & BLOCK_MASK] + i];
+    }
+    
+    @Override
+    public int inDegree(int v) {
+        int[] offsets = blocks[v >>> BLOCK_SHIFT].inOffsets;
+        int i = v & BLOCK_MASK;
+        return offsets[i + 1] - offsets[i];
+    }
+    
+    @Override
+    public int inNeighbor(int v, int i) {
+        Block block = blocks[v >>> BLOCK_SHIFT];
+        return block.inSources[block.inOffsets[v & BLOCK_MASK] + i];
+    }
+    
+    @Override
+    public int indexOf(String taskId) {
+        return index.get(taskId);
+    }
+    
+    /**
+     * Convert to a TaskGraph for the map-based algorithms, as
+     * {@link CompactGraph#toTaskGraph()} does.
+     * @return equivalent task graph
+     */
+    public TaskGraph toTaskGraph() {
+        TaskGraph graph = new TaskGraph();
+        for (int v = 0; v < vertexCount; v++) {
+            graph.addTask(new Task(id(v), name(v), duration(v)));
+        }
+        for (Task task : graph.getTasks().values()) {
+            int v = indexOf(task.getId());
+            for (int i = 0; i < inDegree(v); i++) {
+                graph.addEdge(id(inNeighbor(v, i)), task.getId());
+            }
+        }
+        return graph;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("GraphSnapshot{version=%d, vertices=%d, edges=%d}", version, vertexCount, edgeCount);
+    }
+    
+    /**
+     * Builds the next version of a snapshot. Not thread-safe; each writer
+     * uses its own editor, and {@link #build()} may be called once.
+     */
+    public static final class Editor {
+        private final GraphSnapshot base;
+        private Block[] blocks;
+        private final Map<Integer, MutableBlock> dirty = new HashMap<>();
+        private final Map<String, Integer> added = new HashMap<>();
+        private int vertexCount;
+        private long edgeCount;
+        private long changes;
+        private boolean built;
+        
+        private Editor(GraphSnapshot base) {
+            this.base = base;
+            this.blocks = base.blocks;
+            this.vertexCount = base.vertexCount;
+            this.edgeCount = base.edgeCount;
+        }
+        
+        /**
+         * Add a task, or update the name and duration of an existing one.
+         * @return vertex number of the task
+         */
+        public int addTask(String id, String name, int duration) {
+            int v = indexOf(id);
+            if (v < 0) {
+                v = vertexCount++;
+                if ((v >>> BLOCK_SHIFT) == blocks.length) {
+                    blocks = Arrays.copyOf(blocks, blocks.length + 1);
+                }
+                added.put(id, v);
+            }
+            MutableBlock block = writable(v);
+            int i = v & BLOCK_MASK;
+            block.ids[i] = id;
+            block.names[i] = name;
+            block.durations[i] = duration;
+            block.count = Math.max(block.count, i + 1);
+            changes++;
+            return v;
+        }
+        
+        /**
+         * Change a task's duration.
+         * @throws IllegalArgumentException if there is no such task
+         */
+        public void setDuration(String id, int duration) {
+            int v = require(id);
+            writable(v).durations[v & BLOCK_MASK] = duration;
+            changes++;
+        }
+        
+        /**
+         * Add a dependency edge: {@code to} depends on {@code from}.
+         * @throws IllegalArgumentException if either task is unknown
+         */
+        public void addEdge(String from, String to) {
+            addEdge(require(from), require(to));
+        }
+        
+        /**
+         * Remove one dependency edge from {@code from} to {@code to}.
+         * @return true if there was such an edge
+         * @throws IllegalArgumentException if either task is unknown
+         */
+        public boolean removeEdge(String from, String to) {
+            int u = require(from);
+            int v = require(to);
+            if (!writable(u).remove(u & BLOCK_MASK, v, true)) {
+                return false;
+            }
+            writable(v).remove(v & BLOCK_MASK, u, false);
+            edgeCount--;
+            changes++;
+            return true;
+        }
+        
+        /**
+         * Vertex number of a task id, counting tasks added by this editor.
+         * @return vertex number, or -1 if unknown
+         */
+        public int indexOf(String id) {
+            Integer v = added.get(id);
+            return v != null ? v : base.index.get(id);
+        }
+        
+        /** Duration of a vertex as this editor sees it. */
+        public int duration(int v) {
+            MutableBlock block = dirty.get(v >>> BLOCK_SHIFT);
+            return block != null ? block.durations[v & BLOCK_MASK] : base.duration(v);
+        }
+        
+        /**
+         * Freeze the changes into a new snapshot. Blocks that were not
+         * touched are shared with the base snapshot.
+         * @return the next version
+         * @throws IllegalStateException if called twice
+         */
+        public GraphSnapshot build() {
+            if (built) {
+                throw new IllegalStateException("Editor already built");
+            }
+            built = true;
+            if (changes == 0) {
+                return base;
+            }
+            Block[] next = blocks == base.blocks ? base.blocks.clone() : blocks;
+            for (Map.Entry<Integer, MutableBlock> entry : dirty.entrySet()) {
+                next[entry.getKey()] = entry.getValue().freeze();
+            }
+            Index index = added.isEmpty() ? base.index : base.index.with(added);
+            return new GraphSnapshot(next, vertexCount, edgeCount, index, base.version + changes);
+        }
+        
+        void addEdge(int u, int v) {
+            writable(u).append(u & BLOCK_MASK, v, true);
+            writable(v).append(v & BLOCK_MASK, u, false);
+            edgeCount++;
+            changes++;
+        }
+        
+        private int require(String id) {
+            int v = indexOf(id);
+            if (v < 0) {
+                throw new IllegalArgumentException("Unknown task: " + id);
+            }
+            return v;
+        }
+        
+        // Copy a vertex's block on first write; later writes reuse the copy
+        private MutableBlock writable(int v) {
+            int b = v >>> BLOCK_SHIFT;
+            MutableBlock block = dirty.get(b);
+            if (block == null) {
+                Block frozen = b < base.blocks.length ? base.blocks[b] : null;
+                block = frozen != null ? new MutableBlock(frozen) : new MutableBlock();
+                dirty.put(b, block);
+            }
+            return block;
+        }
+    }
+    
+    /** Frozen storage for up to BLOCK_SIZE consecutive vertices. */
+    private static final class Block {
+        final String[] ids;
+        final String[] names;
+        final int[] durations;
+        final int[] outOffsets;
+        final int[] outTargets;
+        final int[] inOffsets;
+        final int[] inSources;
+        
+        Block(String[] ids, String[] names, int[] durations,
+              int[] outOffsets, int[] outTargets, int[] inOffsets, int[] inSources) {
+            this.ids = ids;
+            this.names = names;
+            this.durations = durations;
+            this.outOffsets = outOffsets;
+            this.outTargets = outTargets;
+            this.inOffsets = inOffsets;
+            this.inSources = inSources;
+        }
+    }
+    
+    /** A block being edited, with one growable neighbor list per vertex. */
+    private static final class MutableBlock {
+        final String[] ids = new String[BLOCK_SIZE];
+        final String[] names = new String[BLOCK_SIZE];
+        final int[] durations = new int[BLOCK_SIZE];
+        final int[][] out = new int[BLOCK_SIZE][];
+        final int[] outSize = new int[BLOCK_SIZE];
+        final int[][] in = new int[BLOCK_SIZE][];
+        final int[] inSize = new int[BLOCK_SIZE];
+        int count;
+        
+        MutableBlock() {
+        }
+        
+        MutableBlock(Block block) {
+            count = block.ids.length;
+            System.arraycopy(block.ids, 0, ids, 0, count);
+            System.arraycopy(block.names, 0, names, 0, count);
+            System.arraycopy(block.durations, 0, durations, 0, count);
+            for (int i = 0; i < count; i++) {
+                out[i] = Arrays.copyOfRange(block.outTargets, block.outOffsets[i], block.outOffsets[i + 1]);
+                outSize[i] = out[i].length;
+                in[i] = Arrays.copyOfRange(block.inSources, block.inOffsets[i], block.inOffsets[i + 1]);
+                inSize[i] = in[i].length;
+            }
+        }
+        
+        void append(int i, int neighbor, boolean outgoing) {
+            int[][] lists = outgoing ? out : in;
+            int[] sizes = outgoing ? outSize : inSize;
+            if (lists[i] == null) {
+                lists[i] = new int[2];
+            } else if (sizes[i] == lists[i].length) {
+                lists[i] = Arrays.copyOf(lists[i], Math.max(2, sizes[i] * 2));
+            }
+            lists[i][sizes[i]++] = neighbor;
+        }
+        
+        // Removes the last occurrence, keeping the order of the others
+        boolean remove(int i, int neighbor, boolean outgoing) {
+            int[] list = outgoing ? out[i] : in[i];
+            int[] sizes = outgoing ? outSize : inSize;
+            for (int k = sizes[i] - 1; k >= 0; k--) {
+                if (list[k] == neighbor) {
+                    System.arraycopy(list, k + 1, list, k, sizes[i] - k - 1);
+                    sizes[i]--;
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        Block freeze() {
+            int[] outOffsets = new int[count + 1];
+            int[] inOffsets = new int[count + 1];
+            for (int i = 0; i < count; i++) {
+                outOffsets[i + 1] = outOffsets[i] + outSize[i];
+                inOffsets[i + 1] = inOffsets[i] + inSize[i];
+            }
+            int[] outTargets = new int[outOffsets[count]];
+            int[] inSources = new int[inOffsets[count]];
+            for (int i = 0; i < count; i++) {
+                if (outSize[i] > 0) {
+                    System.arraycopy(out[i], 0, outTargets, outOffsets[i], outSize[i]);
+                }
+                if (inSize[i] > 0) {
+                    System.arraycopy(in[i], 0, inSources, inOffsets[i], inSize[i]);
+                }
+            }
+            return new Block(Arrays.copyOf(ids, count), Arrays.copyOf(names, count), Arrays.copyOf(durations, count),
+                outOffsets, outTargets, inOffsets, inSources);
+        }
+    }
+    
+    /**
+     * Task id index shared between versions: a large frozen map plus a small
+     * map of recent additions, merged once the additions grow past a limit,
+     * so adding a task copies at most the small map.
+     */
+    private static final class Index {
+        static final Index EMPTY = new Index(Map.of(), Map.of());
+        private static final int DELTA_LIMIT = 4096;
+        
+        private final Map<String, Integer> base;
+        private final Map<String, Integer> delta;
+        
+        Index(Map<String, Integer> base, Map<String, Integer> delta) {
+            this.base = base;
+            this.delta = delta;
+        }
+        
+        int get(String id) {
+            Integer v = delta.get(id);
+            if (v == null) {
+                v = base.get(id);
+            }
+            return v != null ? v : -1;
+        }
+        
+        Index with(Map<String, Integer> additions) {
+            if (delta.size() + additions.size() <= DELTA_LIMIT) {
+                Map<String, Integer> next = new HashMap<>(delta);
+                next.putAll(additions);
+                return new Index(base, next);
+            }
+            Map<String, Integer> merged = new HashMap<>((base.size() + delta.size() + additions.size()) * 4 / 3 + 1);
+            merged.putAll(base);
+            merged.putAll(delta);
+            merged.putAll(additions);
+            return new Index(merged, Map.of());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.daa.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Holder of the current version of a plan, for many readers and a few writers.
+ * 
+ * <p>Readers call {@link #current()} and work on the {@link GraphSnapshot}
+ * they get for as long as they like; it never changes under them, and
+ * reading takes no lock. Writers call {@link #update(Consumer)}, which
+ * applies their changes to the current version and publishes the result
+ * with a single compare-and-set, retrying on a fresh version if another
+ * writer got there first. Old versions stay valid for the readers still
+ * holding them and are reclaimed by the garbage collector afterwards.
+ */
+public class GraphStore {
+    private final AtomicReference<GraphSnapshot> current;
+    private final AtomicLong retries = new AtomicLong();
+    
+    public GraphStore(GraphSnapshot initial) {
+        this.current = new AtomicReference<>(initial);
+    }
+    
+    /** The latest published version. */
+    public GraphSnapshot current() {
+        return current.get();
+    }
+    
+    /**
+     * Apply changes and publish the new version atomically. The change may
+     * run more than once when writers race, so it must only act on the editor.
+     * @param change edits to make
+     * @return the version published
+     */
+    public GraphSnapshot update(Consumer<GraphSnapshot.Editor> change) {
+        while (true) {
+            GraphSnapshot base = current.get();
+            GraphSnapshot.Editor editor = base.edit();
+            change.accept(editor);
+            GraphSnapshot next = editor.build();
+            if (current.compareAndSet(base, next)) {
+                return next;
+            }
+            retries.incrementAndGet();
+        }
+    }
+    
+    /** Number of updates that had to be redone because another writer published first. */
+    public long getRetries() {
+        return retries.get();
+    }
+}
@@ -0,0 +1,40 @@
+package com.daa.model;
+
+/**
+ * Cursor for any graph with indexed neighbor access; the position is the
+ * index of the next neighbor.
+ */
+final class IndexedNeighborCursor implements NeighborCursor {
+    private final IntGraph graph;
+    private final boolean outgoing;
+    private int vertex;
+    private int index;
+    private int degree;
+    
+    IndexedNeighborCursor(IntGraph graph, boolean outgoing) {
+        this.graph = graph;
+        this.outgoing = outgoing;
+    }
+    
+    @Override
+    public void seek(int v, long position) {
+        vertex = v;
+        index = (int) position;
+        degree = outgoing ? graph.outDegree(v) : graph.inDegree(v);
+    }
+    
+    @Override
+    public boolean hasNext() {
+        return index < degree;
+    }
+    
+    @Override
+    public int next() {
+        return outgoing ? graph.outNeighbor(vertex, index++) : graph.inNeighbor(vertex, index++);
+    }
+    
+    @Override
+    public long position() {
+        return index;
+    }
+}
@@ -0,0 +1,15 @@
+package com.daa.model;
+
+/**
+ * Fixed-length int array addressed by long index, either an ordinary
+ * {@code int[]} or a run of direct buffers outside the Java heap.
+ * Created zero-filled by {@link ArrayStorage}.
+ */
+public interface IntArray {
+    
+    long length();
+    
+    int get(long index);
+    
+    void set(long index, int value);
+}
@@ -0,0 +1,57 @@
+package com.daa.model;
+
+/**
+ * Read-only task graph addressed by dense vertex numbers 0..n-1.
+ * 
+ * <p>This is what the int-based algorithms in {@code graph.scc},
+ * {@code graph.topo} and {@code graph.dagsp} run on, so they work the same
+ * whether the arrays live on the heap ({@link CompactGraph}) or in a
+ * memory-mapped file ({@link MappedGraph}). Edges point from a dependency
+ * to the task that depends on it, as in {@link TaskGraph}.
+ */
+public interface IntGraph {
+    
+    int vertexCount();
+    
+    long edgeCount();
+    
+    /** Task id of a vertex. */
+    String id(int v);
+    
+    /** Task name of a vertex, or null if it has none. */
+    String name(int v);
+    
+    int duration(int v);
+    
+    /** Number of tasks that depend on v. */
+    int outDegree(int v);
+    
+    /** The i-th task that depends on v, 0 <= i < outDegree(v). */
+    int outNeighbor(int v, int i);
+    
+    /** Number of tasks v depends on. */
+    int inDegree(int v);
+    
+    /** The i-th task v depends on, 0 <= i < inDegree(v). */
+    int inNeighbor(int v, int i);
+    
+    /**
+     * A new cursor over dependents, for reading neighbor lists in order.
+     * Graphs with encoded lists override this to decode them sequentially.
+     */
+    default NeighborCursor outCursor() {
+        return new IndexedNeighborCursor(this, true);
+    }
+    
+    /** A new cursor over dependencies, like {@link #outCursor()}. */
+    default NeighborCursor inCursor() {
+        return new IndexedNeighborCursor(this, false);
+    }
+    
+    /**
+     * Find the vertex number of a task id.
+     * @param taskId task id
+     * @return vertex number, or -1 if unknown
+     */
+    int indexOf(String taskId);
+}
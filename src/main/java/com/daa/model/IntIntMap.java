@@ -0,0 +1,112 @@
+package com.daa.model;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from vertex numbers to ints, with no boxing.
+ * 
+ * <p>Keys and values sit side by side in one int array, a key stored as
+ * key + 1 so that 0 marks an empty slot, and collisions probe linearly.
+ * A lookup is a multiply, a mask and usually one cache line. The load factor
+ * stays at or below one half. Entries are never removed.
+ */
+final class IntIntMap {
+    private int[] slots;    // pairs: key + 1 (0 = empty), value
+    private int size;
+    
+    IntIntMap() {
+        slots = new int[2 * 16];
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * @param key vertex number, not negative
+     * @param missing value to return if the key is absent
+     * @return the key's value, or missing
+     */
+    int get(int key, int missing) {
+        int slot = find(key);
+        return slot >= 0 ? slots[2 * slot + 1] : missing;
+    }
+    
+    /**
+     * Find a key's slot, for values where no int can stand for "absent".
+     * @param key vertex number, not negative
+     * @return slot to pass to {@link #valueAt}, or -1 if the key is absent
+     */
+    int find(int key) {
+        int mask = (slots.length >> 1) - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int stored = slots[2 * slot];
+            if (stored == key + 1) {
+                return slot;
+            }
+            if (stored == 0) {
+                return -1;
+            }
+        }
+    }
+    
+    int valueAt(int slot) {
+        return slots[2 * slot + 1];
+    }
+    
+    /**
+     * @param key vertex number, not negative
+     * @param value value to store, replacing any earlier one
+     */
+    void put(int key, int value) {
+        int mask = (slots.length >> 1) - 1;
+        int slot = hash(key) & mask;
+        while (slots[2 * slot] != 0 && slots[2 * slot] != key + 1) {
+            slot = (slot + 1) & mask;
+        }
+        if (slots[2 * slot] == 0) {
+            if (2 * (size + 1) > slots.length >> 1) {
+                grow();
+                put(key, value);
+                return;
+            }
+            slots[2 * slot] = key + 1;
+            size++;
+        }
+        slots[2 * slot + 1] = value;
+    }
+    
+    /** Every key, in ascending order. */
+    int[] keys() {
+        int[] keys = new int[size];
+        int i = 0;
+        for (int slot = 0; slot < slots.length; slot += 2) {
+            if (slots[slot] != 0) {
+                keys[i++] = slots[slot] - 1;
+            }
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+    
+    // Fibonacci hashing, folded so neighbouring vertex numbers spread over the table
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    private void grow() {
+        int[] old = slots;
+        slots = new int[2 * old.length];
+        size = 0;
+        for (int slot = 0; slot < old.length; slot += 2) {
+            if (old[slot] != 0) {
+                put(old[slot] - 1, old[slot + 1]);
+            }
+        }
+    }
+}
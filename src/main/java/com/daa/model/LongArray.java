@@ -0,0 +1,15 @@
+package com.daa.model;
+
+/**
+ * Fixed-length long array addressed by long index, either an ordinary
+ * {@code long[]} or a run of direct buffers outside the Java heap.
+ * Created zero-filled by {@link ArrayStorage}.
+ */
+public interface LongArray {
+    
+    long length();
+    
+    long get(long index);
+    
+    void set(long index, long value);
+}
@@ -0,0 +1,117 @@
+package com.daa.model;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Task graph read in place from a memory-mapped binary graph file.
+ * 
+ * <p>Durations and CSR arrays are views over the mapped file, so opening
+ * a graph costs a few header reads no matter how large it is, and pages are
+ * loaded by the OS only as the algorithms touch them. Ids and names are
+ * decoded from UTF-8 on demand. Only absolute buffer reads are used, so one
+ * instance can be shared by several threads.
+ * 
+ * <p>Open one with {@code BinaryGraphFormat.map(Path)}.
+ */
+public class MappedGraph implements IntGraph {
+    private final int vertexCount;
+    private final long edgeCount;
+    private final LongBuffer stringOffsets;   // 2v = id start, 2v+1 = name start, 2n = end
+    private final ByteBuffer stringData;
+    private final IntBuffer durations;
+    private final IntBuffer outOffsets;
+    private final IntBuffer outTargets;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inSources;
+    private Map<String, Integer> index;       // built on first lookup
+    
+    public MappedGraph(int vertexCount, long edgeCount, LongBuffer stringOffsets, ByteBuffer stringData,
+                       IntBuffer durations, IntBuffer outOffsets, IntBuffer outTargets,
+                       IntBuffer inOffsets, IntBuffer inSources) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.stringOffsets = stringOffsets;
+        this.stringData = stringData;
+        this.durations = durations;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+    }
+    
+    @Override
+    public int vertexCount() {
+        return vertexCount;
+    }
+    
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+    
+    @Override
+    public String id(int v) {
+        return string(2 * v);
+    }
+    
+    /** Tasks without a name are stored as an empty string and read back as null. */
+    @Override
+    public String name(int v) {
+        String name = string(2 * v + 1);
+        return name.isEmpty() ? null : name;
+    }
+    
+    @Override
+    public int duration(int v) {
+        return durations.get(v);
+    }
+    
+    @Override
+    public int outDegree(int v) {
+        return outOffsets.get(v + 1) - outOffsets.get(v);
+    }
+    
+    @Override
+    public int outNeighbor(int v, int i) {
+        return outTargets.get(outOffsets.get(v) + i);
+    }
+    
+    @Override
+    public int inDegree(int v) {
+        return inOffsets.get(v + 1) - inOffsets.get(v);
+    }
+    
+    @Override
+    public int inNeighbor(int v, int i) {
+        return inSources.get(inOffsets.get(v) + i);
+    }
+    
+    @Override
+    public synchronized int indexOf(String taskId) {
+        if (index == null) {
+            index = new HashMap<>(vertexCount * 4 / 3 + 1);
+            for (int v = 0; v < vertexCount; v++) {
+                index.put(id(v), v);
+            }
+        }
+        return index.getOrDefault(taskId, -1);
+    }
+    
+    private String string(int slot) {
+        int start = (int) stringOffsets.get(slot);
+        int end = (int) stringOffsets.get(slot + 1);
+        byte[] bytes = new byte[end - start];
+        stringData.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("MappedGraph{vertices=%d, edges=%d}", vertexCount, edgeCount);
+    }
+}
@@ -0,0 +1,38 @@
+package com.daa.model;
+
+/**
+ * Reads one vertex's neighbors in order, one at a time.
+ * 
+ * <p>The int-based algorithms read neighbors through a cursor rather than
+ * by index, so a graph that stores its lists encoded, such as
+ * {@link CompressedGraph}, can decode them sequentially instead of
+ * materializing them or decoding from the start for every index. A depth-first
+ * search that leaves a vertex and comes back to it later saves
+ * {@link #position()} and resumes with {@link #seek(int, long)}.
+ * A cursor is used by one thread at a time; get one per traversal from
+ * {@link IntGraph#outCursor()} or {@link IntGraph#inCursor()}.
+ */
+public interface NeighborCursor {
+    
+    /** Move to the first neighbor of v. */
+    default void seek(int v) {
+        seek(v, 0);
+    }
+    
+    /**
+     * Move to a saved place in v's neighbors.
+     * @param v vertex
+     * @param position 0 for the first neighbor, or a value returned by
+     *                 {@link #position()} while reading v
+     */
+    void seek(int v, long position);
+    
+    /** Whether the current vertex has neighbors left to read. */
+    boolean hasNext();
+    
+    /** The next neighbor; only valid if {@link #hasNext()}. */
+    int next();
+    
+    /** The place after the last neighbor read, for a later {@link #seek(int, long)}. */
+    long position();
+}
@@ -0,0 +1,199 @@
+package com.daa.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Task graph kept entirely outside the Java heap.
+ * 
+ * <p>Durations, both CSR directions and the UTF-8 id and name table live in
+ * {@link ArrayStorage#OFF_HEAP} arrays, so the heap holds only a few
+ * buffer objects however large the graph is. Edge offsets are longs, so
+ * more than 2^31 edges are supported. Run the int-based algorithms with
+ * {@code ArrayStorage.OFF_HEAP} as well to keep their per-vertex state off
+ * the heap too; see {@code CompactAnalyzer.analyze(IntGraph, ArrayStorage)}.
+ * 
+ * <p>Id lookups by {@link #indexOf} scan the table, since a hash index
+ * would put the ids back on the heap.
+ */
+public class OffHeapGraph implements IntGraph {
+    private static final int STRING_CHUNK_BYTES = 1 << 30;
+    
+    private final int vertexCount;
+    private final long edgeCount;
+    private final IntArray durations;
+    private final LongArray outOffsets;
+    private final IntArray outTargets;
+    private final LongArray inOffsets;
+    private final IntArray inSources;
+    private final LongArray stringOffsets;   // 2v = id start, 2v+1 = name start, 2n = end
+    private final ByteBuffer[] stringChunks;
+    
+    private OffHeapGraph(int vertexCount, long edgeCount, IntArray durations,
+                         LongArray outOffsets, IntArray outTargets, LongArray inOffsets, IntArray inSources,
+                         LongArray stringOffsets, ByteBuffer[] stringChunks) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.durations = durations;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+        this.stringOffsets = stringOffsets;
+        this.stringChunks = stringChunks;
+    }
+    
+    /**
+     * Copy any graph off the heap, e.g. a {@link MappedGraph} so the
+     * algorithms no longer depend on the page cache and the file.
+     * @param source graph to copy
+     * @return off-heap copy
+     */
+    public static OffHeapGraph copyOf(IntGraph source) {
+        int n = source.vertexCount();
+        long m = source.edgeCount();
+        ArrayStorage storage = ArrayStorage.OFF_HEAP;
+        
+        IntArray durations = storage.newIntArray(n);
+        LongArray outOffsets = storage.newLongArray(n + 1L);
+        IntArray outTargets = storage.newIntArray(m);
+        LongArray inOffsets = storage.newLongArray(n + 1L);
+        IntArray inSources = storage.newIntArray(m);
+        long out = 0;
+        long in = 0;
+        for (int v = 0; v < n; v++) {
+            durations.set(v, source.duration(v));
+            outOffsets.set(v, out);
+            for (int i = 0; i < source.outDegree(v); i++) {
+                outTargets.set(out++, source.outNeighbor(v, i));
+            }
+            inOffsets.set(v, in);
+            for (int i = 0; i < source.inDegree(v); i++) {
+                inSources.set(in++, source.inNeighbor(v, i));
+            }
+        }
+        outOffsets.set(n, out);
+        inOffsets.set(n, in);
+        
+        // string table: measure, allocate, then copy
+        LongArray stringOffsets = storage.newLongArray(2L * n + 1);
+        long bytes = 0;
+        for (int v = 0; v < n; v++) {
+            stringOffsets.set(2L * v, bytes);
+            bytes += utf8(source.id(v)).length;
+            stringOffsets.set(2L * v + 1, bytes);
+            bytes += utf8(source.name(v)).length;
+        }
+        stringOffsets.set(2L * n, bytes);
+        int chunkCount = (int) ((bytes + STRING_CHUNK_BYTES - 1) / STRING_CHUNK_BYTES);
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c] = ByteBuffer.allocateDirect((int) Math.min(STRING_CHUNK_BYTES, bytes - (long) c * STRING_CHUNK_BYTES));
+        }
+        for (int v = 0; v < n; v++) {
+            putBytes(chunks, stringOffsets.get(2L * v), utf8(source.id(v)));
+            putBytes(chunks, stringOffsets.get(2L * v + 1), utf8(source.name(v)));
+        }
+        
+        return new OffHeapGraph(n, m, durations, outOffsets, outTargets, inOffsets, inSources,
+            stringOffsets, chunks);
+    }
+    
+    @Override
+    public int vertexCount() {
+        return vertexCount;
+    }
+    
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+    
+    @Override
+    public String id(int v) {
+        return string(2L * v);
+    }
+    
+    /** As in the binary file format, a missing name is stored empty and read back as null. */
+    @Override
+    public String name(int v) {
+        String name = string(2L * v + 1);
+        return name.isEmpty() ? null : name;
+    }
+    
+    @Override
+    public int duration(int v) {
+        return durations.get(v);
+    }
+    
+    @Override
+    public int outDegree(int v) {
+        return (int) (outOffsets.get(v + 1L) - outOffsets.get(v));
+    }
+    
+    @Override
+    public int outNeighbor(int v, int i) {
+        return outTargets.get(outOffsets.get(v) + i);
+    }
+    
+    @Override
+    public int inDegree(int v) {
+        return (int) (inOffsets.get(v + 1L) - inOffsets.get(v));
+    }
+    
+    @Override
+    public int inNeighbor(int v, int i) {
+        return inSources.get(inOffsets.get(v) + i);
+    }
+    
+    @Override
+    public int indexOf(String taskId) {
+        byte[] wanted = utf8(taskId);
+        for (int v = 0; v < vertexCount; v++) {
+            long start = stringOffsets.get(2L * v);
+            if (stringOffsets.get(2L * v + 1) - start == wanted.length && matches(start, wanted)) {
+                return v;
+            }
+        }
+        return -1;
+    }
+    
+    private boolean matches(long start, byte[] wanted) {
+        for (int i = 0; i < wanted.length; i++) {
+            if (byteAt(stringChunks, start + i) != wanted[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private String string(long slot) {
+        long start = stringOffsets.get(slot);
+        byte[] bytes = new byte[(int) (stringOffsets.get(slot + 1) - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = byteAt(stringChunks, start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static byte byteAt(ByteBuffer[] chunks, long position) {
+        return chunks[(int) (position / STRING_CHUNK_BYTES)].get((int) (position % STRING_CHUNK_BYTES));
+    }
+    
+    // a string may straddle two chunks, so copy byte by byte
+    private static void putBytes(ByteBuffer[] chunks, long position, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            long p = position + i;
+            chunks[(int) (p / STRING_CHUNK_BYTES)].put((int) (p % STRING_CHUNK_BYTES), bytes[i]);
+        }
+    }
+    
+    private static byte[] utf8(String s) {
+        return s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("OffHeapGraph{vertices=%d, edges=%d}", vertexCount, edgeCount);
+    }
+}
@@ -4,11 +4,20 @@ import java.util.*;
 
 /**
  * Represents a directed graph of tasks with their dependencies.
+ * 
+ * <p>Every change made through this class bumps a version number, so cached
+ * analyses can tell when they are stale. Changes made directly to the maps
+ * returned by the getters, or to a {@link Task}, are not seen.
+ * 
+ * <p>A TaskGraph is not safe to read while another thread changes it. Take a
+ * {@link #snapshot()} for readers, or keep the plan in a {@link GraphStore}.
  */
 public class TaskGraph {
     private Map<String, Task> tasks;
     private Map<String, List<String>> adjacencyList; // task id -> list of dependent task ids
     private Map<String, List<String>> reverseAdjacencyList; // for transpose graph
+    private long edgeCount;
+    private long version;
     
     public TaskGraph() {
         this.tasks = new HashMap<>();
@@ -20,12 +29,30 @@ public class TaskGraph {
         tasks.put(task.getId(), task);
         adjacencyList.putIfAbsent(task.getId(), new ArrayList<>());
         reverseAdjacencyList.putIfAbsent(task.getId(), new ArrayList<>());
+        version++;
     }
     
     public void addEdge(String from, String to) {
         adjacencyList.get(from).add(to);
         reverseAdjacencyList.putIfAbsent(to, new ArrayList<>());
         reverseAdjacencyList.get(to).add(from);
+        edgeCount++;
+        version++;
+    }
+    
+    /**
+     * Change a task's duration.
+     * @param id task id
+     * @param duration new duration
+     * @throws IllegalArgumentException if there is no such task
+     */
+    public void setDuration(String id, int duration) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            throw new IllegalArgumentException("Unknown task: " + id);
+        }
+        task.setDuration(duration);
+        version++;
     }
     
     public Map<String, Task> getTasks() {
@@ -52,6 +79,27 @@ public class TaskGraph {
         return tasks.size();
     }
     
+    public long edgeCount() {
+        return edgeCount;
+    }
+    
+    /**
+     * Number of changes made so far; differs whenever the graph has changed.
+     * @return current version
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Immutable copy of the graph as it is now, which other threads can read
+     * without locking while this graph keeps changing.
+     * @return snapshot numbered in task iteration order
+     */
+    public GraphSnapshot snapshot() {
+        return GraphSnapshot.of(this);
+    }
+    
     /**
      * Build the graph from task dependencies.
      */
@@ -0,0 +1,281 @@
+package com.daa.model;
+
+import java.util.Arrays;
+
+/**
+ * A renumbering of a graph's vertices that puts vertices visited close
+ * together in a traversal close together in memory.
+ * 
+ * <p>Vertex numbers follow the order tasks were declared, which for merged
+ * exports or hash-ordered sources has little to do with the dependencies, so
+ * a traversal jumps across the id, duration and adjacency arrays and almost
+ * every neighbor costs a cache miss. Renumbering in the order a traversal
+ * meets the vertices, and copying the arrays into that order, makes most
+ * neighbors land on the same or an adjacent cache line:
+ * <ul>
+ *   <li>{@link Order#BFS}: breadth-first over dependencies and dependents,
+ *       so the layers of a plan become contiguous ranges;</li>
+ *   <li>{@link Order#RCM}: reverse Cuthill-McKee, breadth-first from a
+ *       low-degree vertex with neighbors taken by increasing degree, then
+ *       reversed, which keeps the span of every edge small;</li>
+ *   <li>{@link Order#DFS}: depth-first discovery order along dependents,
+ *       starting from tasks without dependencies, so a chain of tasks gets
+ *       consecutive numbers and Tarjan's SCC search walks the arrays forward.</li>
+ * </ul>
+ * Task ids move with their vertices, so anything reported by id is
+ * unchanged; {@link #toOriginal} and {@link #toRelabeled} map vertex numbers
+ * between the two graphs.
+ */
+public final class VertexRelabeling {
+    
+    /** Traversal that defines the new numbering. */
+    public enum Order {
+        BFS, RCM, DFS
+    }
+    
+    private final Order order;
+    private final int[] relabeled;  // original vertex -> new number
+    private final int[] original;   // new number -> original vertex
+    
+    private VertexRelabeling(Order order, int[] original) {
+        this.order = order;
+        this.original = original;
+        this.relabeled = new int[original.length];
+        for (int v = 0; v < original.length; v++) {
+            relabeled[original[v]] = v;
+        }
+    }
+    
+    /**
+     * Compute a numbering of a graph's vertices in O(V + E), plus sorting
+     * each neighbor list by degree for {@link Order#RCM}.
+     * @param graph graph to renumber
+     * @param order traversal to number the vertices in
+     * @return the renumbering
+     */
+    public static VertexRelabeling compute(IntGraph graph, Order order) {
+        int[] visit = switch (order) {
+            case BFS -> breadthFirst(graph, false);
+            case RCM -> reverse(breadthFirst(graph, true));
+            case DFS -> depthFirst(graph);
+        };
+        return new VertexRelabeling(order, visit);
+    }
+    
+    public Order getOrder() {
+        return order;
+    }
+    
+    /** New number of an original vertex. */
+    public int toRelabeled(int originalVertex) {
+        return relabeled[originalVertex];
+    }
+    
+    /** Original vertex of a new number. */
+    public int toOriginal(int relabeledVertex) {
+        return original[relabeledVertex];
+    }
+    
+    /**
+     * Copy a graph into the new numbering, with every neighbor list sorted
+     * by new number so each is read front to back in memory order.
+     * @param graph the graph this renumbering was computed for
+     * @return the same tasks and dependencies, renumbered
+     * @throws IllegalArgumentException if the graph has a different vertex count
+     */
+    public CompactGraph apply(IntGraph graph) {
+        int n = graph.vertexCount();
+        if (n != original.length) {
+            throw new IllegalArgumentException("Relabeling is for " + original.length + " vertices, graph has " + n);
+        }
+        String[] ids = new String[n];
+        String[] names = new String[n];
+        int[] durations = new int[n];
+        int[] outOffsets = new int[n + 1];
+        int[] inOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            int old = original[v];
+            ids[v] = graph.id(old);
+            names[v] = graph.name(old);
+            durations[v] = graph.duration(old);
+            outOffsets[v + 1] = outOffsets[v] + graph.outDegree(old);
+            inOffsets[v + 1] = inOffsets[v] + graph.inDegree(old);
+        }
+        int[] outTargets = new int[outOffsets[n]];
+        int[] inSources = new int[inOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            int old = original[v];
+            for (int i = 0; i < graph.outDegree(old); i++) {
+                outTargets[outOffsets[v] + i] = relabeled[graph.outNeighbor(old, i)];
+            }
+            Arrays.sort(outTargets, outOffsets[v], outOffsets[v + 1]);
+            for (int i = 0; i < graph.inDegree(old); i++) {
+                inSources[inOffsets[v] + i] = relabeled[graph.inNeighbor(old, i)];
+            }
+            Arrays.sort(inSources, inOffsets[v], inOffsets[v + 1]);
+        }
+        return new CompactGraph(ids, names, durations, outOffsets, outTargets, inOffsets, inSources);
+    }
+    
+    /**
+     * Mean distance between the numbers of an edge's endpoints, a measure of
+     * how far apart in memory a traversal's consecutive reads are.
+     * @param graph any graph
+     * @return mean |u - v| over all edges, 0 for a graph without edges
+     */
+    public static double meanEdgeSpan(IntGraph graph) {
+        long total = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int i = 0; i < graph.outDegree(v); i++) {
+                total += Math.abs(graph.outNeighbor(v, i) - v);
+            }
+        }
+        return graph.edgeCount() == 0 ? 0 : total / (double) graph.edgeCount();
+    }
+    
+    /**
+     * Share of edges whose endpoints' entries in an int array per vertex
+     * fall on different 64-byte cache lines; each such edge is a likely miss
+     * when the target's entry is read while traversing from the source.
+     * @param graph any graph
+     * @return fraction between 0 and 1, 0 for a graph without edges
+     */
+    public static double crossLineFraction(IntGraph graph) {
+        long crossing = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int i = 0; i < graph.outDegree(v); i++) {
+                if (graph.outNeighbor(v, i) >>> 4 != v >>> 4) {
+                    crossing++;
+                }
+            }
+        }
+        return graph.edgeCount() == 0 ? 0 : crossing / (double) graph.edgeCount();
+    }
+    
+    // Breadth-first over both edge directions, a new search from each unvisited start
+    private static int[] breadthFirst(IntGraph graph, boolean byDegree) {
+        int n = graph.vertexCount();
+        int[] queue = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] starts = byDegree ? byIncreasingDegree(graph) : null;
+        int[] scratch = new int[0];
+        int tail = 0;
+        for (int s = 0; s < n; s++) {
+            int start = byDegree ? starts[s] : s;
+            if (visited[start]) {
+                continue;
+            }
+            visited[start] = true;
+            queue[tail++] = start;
+            for (int head = tail - 1; head < tail; head++) {
+                int v = queue[head];
+                int degree = graph.outDegree(v) + graph.inDegree(v);
+                if (scratch.length < degree) {
+                    scratch = new int[Math.max(degree, scratch.length * 2)];
+                }
+                int found = 0;
+                for (int i = 0; i < graph.outDegree(v); i++) {
+                    int w = graph.outNeighbor(v, i);
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        scratch[found++] = w;
+                    }
+                }
+                for (int i = 0; i < graph.inDegree(v); i++) {
+                    int w = graph.inNeighbor(v, i);
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        scratch[found++] = w;
+                    }
+                }
+                if (byDegree) {
+                    sortByDegree(graph, scratch, found);
+                }
+                System.arraycopy(scratch, 0, queue, tail, found);
+                tail += found;
+            }
+        }
+        return queue;
+    }
+    
+    // Preorder of a depth-first search along dependents; roots are the tasks without
+    // dependencies first, then whatever only cycles reach, each in vertex order
+    private static int[] depthFirst(IntGraph graph) {
+        int n = graph.vertexCount();
+        int[] visit = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        int[] nextEdge = new int[n];
+        int count = 0;
+        for (int r = 0; r < 2 * n; r++) {
+            int root = r % n;
+            if (visited[root] || (r < n && graph.inDegree(root) > 0)) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            visited[root] = true;
+            visit[count++] = root;
+            while (top > 0) {
+                int v = stack[top - 1];
+                if (nextEdge[v] == graph.outDegree(v)) {
+                    top--;
+                    continue;
+                }
+                int w = graph.outNeighbor(v, nextEdge[v]++);
+                if (!visited[w]) {
+                    visited[w] = true;
+                    visit[count++] = w;
+                    stack[top++] = w;
+                }
+            }
+        }
+        return visit;
+    }
+    
+    // Vertices by total degree, a counting sort; low-degree vertices start RCM searches
+    private static int[] byIncreasingDegree(IntGraph graph) {
+        int n = graph.vertexCount();
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            maxDegree = Math.max(maxDegree, graph.outDegree(v) + graph.inDegree(v));
+        }
+        int[] offsets = new int[maxDegree + 2];
+        for (int v = 0; v < n; v++) {
+            offsets[graph.outDegree(v) + graph.inDegree(v) + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            offsets[d + 1] += offsets[d];
+        }
+        int[] sorted = new int[n];
+        for (int v = 0; v < n; v++) {
+            sorted[offsets[graph.outDegree(v) + graph.inDegree(v)]++] = v;
+        }
+        return sorted;
+    }
+    
+    // Sorts the first count vertices by total degree, then number; packs both into one long
+    private static void sortByDegree(IntGraph graph, int[] vertices, int count) {
+        if (count < 2) {
+            return;
+        }
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            int v = vertices[i];
+            keys[i] = (long) (graph.outDegree(v) + graph.inDegree(v)) << 32 | v;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < count; i++) {
+            vertices[i] = (int) keys[i];
+        }
+    }
+    
+    private static int[] reverse(int[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,298 @@
+package com.daa.utils;
+
+import com.daa.model.IntGraph;
+import com.daa.model.MappedGraph;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Persistent analysis cache in a directory, so a repeated run over unchanged
+ * input skips parsing and analysis and only maps two files.
+ * 
+ * <p>An entry is keyed by the SHA-256 of its input files' contents and holds
+ * the graph as a {@link BinaryGraphFormat} file and its result as a
+ * {@link BinaryResultFormat} file, {@code <key>.sccg} and {@code <key>.scca}.
+ * Both are memory-mapped on a hit; nothing is copied onto the heap.
+ * 
+ * <p>Any number of threads and processes may share one directory. Entries
+ * are written under unique staging names and renamed into place atomically,
+ * graph first, so a result file is only ever visible next to its graph and
+ * a reader sees a whole entry or none. Renames and eviction run under an
+ * exclusive lock on {@code .lock} in the directory. When the directory grows
+ * past its bound, the least recently used entries are deleted, judged by the
+ * modification time of their result file, which every hit refreshes. A
+ * reader that already mapped an evicted entry keeps its mapping.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class AnalysisCache {
+    
+    private static final String LOCK_FILE = ".lock";
+    private static final String STAGING_SUFFIX = ".staging";
+    private static final Duration STALE_STAGING = Duration.ofHours(1);
+    private static final long HASH_CHUNK_BYTES = 1L << 30;
+    // FileLock is per process; threads of one process take turns here first
+    private static final Object PROCESS_LOCK = new Object();
+    
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    /**
+     * Loads the graph of a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        IntGraph load() throws IOException;
+    }
+    
+    /**
+     * @param directory cache directory, created if missing
+     * @param maxBytes size the directory is kept under after each write
+     * @throws IOException if the directory cannot be created
+     */
+    public AnalysisCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+    }
+    
+    /**
+     * Key for a set of input files: SHA-256 over their lengths and contents,
+     * in the given order, and the cache file format versions.
+     * @param inputs input files
+     * @return lowercase hex key
+     * @throws IOException if an input cannot be read
+     */
+    public static String key(List<Path> inputs) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer header = ByteBuffer.allocate(Long.BYTES);
+        header.putInt(BinaryGraphFormat.VERSION).putInt(BinaryResultFormat.VERSION).flip();
+        digest.update(header);
+        for (Path input : inputs) {
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                long size = channel.size();
+                digest.update(ByteBuffer.allocate(Long.BYTES).putLong(size).flip());
+                for (long position = 0; position < size; position += HASH_CHUNK_BYTES) {
+                    long length = Math.min(HASH_CHUNK_BYTES, size - position);
+                    digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Analyze the given input files, from the cache if they were analyzed before.
+     * @param inputs every file the graph is loaded from
+     * @param loader loads the graph on a miss
+     * @return the analysis, backed by the cache files on a hit
+     * @throws IOException if loading or writing the cache fails
+     */
+    public AnalysisResult analyze(List<Path> inputs, Loader loader) throws IOException {
+        return analyze(inputs, loader, CompactAnalyzer::analyze);
+    }
+    
+    /**
+     * Analyze the given input files, from the cache if they were analyzed
+     * before, otherwise with the given analyzer, such as a sharded or
+     * off-heap one.
+     * @param inputs every file the graph is loaded from
+     * @param loader loads the graph on a miss
+     * @param analyzer analyzes the graph on a miss
+     * @return the analysis, backed by the cache files on a hit
+     * @throws IOException if loading or writing the cache fails
+     */
+    public AnalysisResult analyze(List<Path> inputs, Loader loader, Function<IntGraph, AnalysisResult> analyzer)
+            throws IOException {
+        String key = key(inputs);
+        AnalysisResult cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        AnalysisResult result = analyzer.apply(loader.load());
+        put(key, result);
+        return result;
+    }
+    
+    /**
+     * Map a cached entry.
+     * @param key entry key
+     * @return the cached analysis, or null if there is no usable entry
+     */
+    public AnalysisResult get(String key) {
+        Path graphFile = directory.resolve(key + BinaryGraphFormat.FILE_EXTENSION);
+        Path resultFile = directory.resolve(key + BinaryResultFormat.FILE_EXTENSION);
+        try {
+            MappedGraph graph = BinaryGraphFormat.map(graphFile);
+            AnalysisResult result = BinaryResultFormat.map(resultFile, graph);
+            touch(resultFile);
+            hits.incrementAndGet();
+            return result;
+        } catch (IOException | RuntimeException e) {
+            // absent, evicted, damaged or foreign entries are all misses; the next put replaces them
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+    
+    /**
+     * Store an analysis under a key, then evict down to the size bound.
+     * @param key entry key
+     * @param result analysis to store
+     * @throws IOException if the entry cannot be written
+     */
+    public void put(String key, AnalysisResult result) throws IOException {
+        Path graphStaging = Files.createTempFile(directory, key + "-", STAGING_SUFFIX);
+        Path resultStaging = Files.createTempFile(directory, key + "-", STAGING_SUFFIX);
+        try {
+            BinaryGraphFormat.write(result.getGraph(), graphStaging);
+            BinaryResultFormat.write(result, resultStaging);
+            synchronized (PROCESS_LOCK) {
+                try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    FileLock lock = lockChannel.lock();
+                    try {
+                        Files.move(graphStaging, directory.resolve(key + BinaryGraphFormat.FILE_EXTENSION),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        Files.move(resultStaging, directory.resolve(key + BinaryResultFormat.FILE_EXTENSION),
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        evict(key);
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(graphStaging);
+            Files.deleteIfExists(resultStaging);
+        }
+    }
+    
+    /** Bytes of all entries in the directory. */
+    public long sizeBytes() throws IOException {
+        long total = 0;
+        for (Entry entry : entries()) {
+            total += entry.bytes();
+        }
+        return total;
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    // Oldest entries first until the rest fits; the entry just written always stays
+    private void evict(String keep) throws IOException {
+        List<Entry> entries = entries();
+        long total = 0;
+        for (Entry entry : entries) {
+            total += entry.bytes();
+        }
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        for (Entry entry : entries) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (entry.key().equals(keep)) {
+                continue;
+            }
+            try {
+                // result first: without it the graph file is never read
+                Files.deleteIfExists(directory.resolve(entry.key() + BinaryResultFormat.FILE_EXTENSION));
+                Files.deleteIfExists(directory.resolve(entry.key() + BinaryGraphFormat.FILE_EXTENSION));
+                total -= entry.bytes();
+            } catch (IOException e) {
+                // still mapped elsewhere on a platform that forbids deleting it; try next time
+            }
+        }
+        deleteStaleStaging();
+    }
+    
+    private List<Entry> entries() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory, "*" + BinaryResultFormat.FILE_EXTENSION)) {
+            for (Path resultFile : listing) {
+                String name = resultFile.getFileName().toString();
+                String key = name.substring(0, name.length() - BinaryResultFormat.FILE_EXTENSION.length());
+                Path graphFile = directory.resolve(key + BinaryGraphFormat.FILE_EXTENSION);
+                try {
+                    long bytes = Files.size(resultFile) + (Files.exists(graphFile) ? Files.size(graphFile) : 0);
+                    entries.add(new Entry(key, Files.getLastModifiedTime(resultFile), bytes));
+                } catch (NoSuchFileException e) {
+                    // evicted by another process while listing
+                }
+            }
+        }
+        return entries;
+    }
+    
+    // Staging files left behind by a process that died mid-write
+    private void deleteStaleStaging() throws IOException {
+        FileTime cutoff = FileTime.fromMillis(System.currentTimeMillis() - STALE_STAGING.toMillis());
+        try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory,
+                "*" + STAGING_SUFFIX + "{,.tmp}")) {
+            for (Path staging : listing) {
+                try {
+                    if (Files.getLastModifiedTime(staging).compareTo(cutoff) < 0) {
+                        Files.deleteIfExists(staging);
+                    }
+                } catch (IOException e) {
+                    // gone already, or in use
+                }
+            }
+        }
+    }
+    
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // recency is a hint; a read-only cache still serves hits
+        }
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private record Entry(String key, FileTime lastUsed, long bytes) {
+    }
+}
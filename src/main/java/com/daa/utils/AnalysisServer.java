@@ -0,0 +1,307 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import graph.analysis.IncrementalAnalyzer;
+import graph.metrics.MetricsRegistry;
+import graph.metrics.OpenMetricsExporter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local HTTP service that analyzes task graphs on request.
+ * 
+ * <p>{@code POST /analyze} takes a task JSON array, as read by
+ * {@link StreamingTaskLoader}, and answers with the {@link ResultJsonWriter}
+ * JSON, or NDJSON with {@code ?format=ndjson}. Responses are cached by the
+ * SHA-256 of the request body: a repeated graph is answered from memory, and
+ * identical requests arriving together share one analysis. The cache evicts
+ * least recently used results once their total size passes a byte budget.
+ * The {@code X-Cache} header says {@code HIT} or {@code MISS}.
+ * 
+ * <p>A miss is analyzed by {@link CompactAnalyzer}. A server started with
+ * incremental analysis instead shares one {@link IncrementalAnalyzer}, so a
+ * plan that differs from an earlier one in a few tasks reuses the path values
+ * of its unchanged regions, and the {@code X-Reuse-Ratio} header of a miss
+ * gives the share reused, from 0 to 1. That only pays off for streams of
+ * closely related plans; it still computes SCCs and the topological order in
+ * full, and looking up path values costs more than computing them for
+ * unrelated plans.
+ * 
+ * <p>{@code GET /metrics} serves the default {@link MetricsRegistry}.
+ * Every exchange runs on its own virtual thread, and the server binds to
+ * the loopback interface only.
+ */
+public class AnalysisServer implements AutoCloseable {
+    
+    /** Largest request body accepted. */
+    public static final int MAX_BODY_BYTES = 256 << 20;
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ResultCache cache;
+    private final IncrementalAnalyzer analyzer;  // null for plain analysis
+    private final Map<String, CompletableFuture<Rendered>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    private AnalysisServer(HttpServer server, ExecutorService executor, long cacheBytes, boolean incremental) {
+        this.server = server;
+        this.executor = executor;
+        this.cache = new ResultCache(cacheBytes);
+        // path values take 16 bytes a slot; give them an eighth of the budget
+        this.analyzer = incremental
+            ? new IncrementalAnalyzer((int) Math.min(1 << 30, Math.max(2, cacheBytes / 128))) : null;
+    }
+    
+    /**
+     * Start the service.
+     * @param port local port, or 0 to pick a free one
+     * @param cacheBytes total size of cached responses to keep
+     * @return running server
+     * @throws IOException if the port cannot be bound
+     */
+    public static AnalysisServer start(int port, long cacheBytes) throws IOException {
+        return start(port, cacheBytes, false);
+    }
+    
+    /**
+     * Start the service, optionally with incremental analysis of misses.
+     * @param port local port, or 0 to pick a free one
+     * @param cacheBytes total size of cached responses to keep
+     * @param incremental reuse path values across related plans
+     * @return running server
+     * @throws IOException if the port cannot be bound
+     */
+    public static AnalysisServer start(int port, long cacheBytes, boolean incremental) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        AnalysisServer server = new AnalysisServer(http, executor, cacheBytes, incremental);
+        http.createContext("/analyze", server::analyze);
+        http.createContext("/metrics", server::metrics);
+        http.setExecutor(executor);
+        http.start();
+        return server;
+    }
+    
+    private void analyze(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            long declared;
+            try {
+                declared = length != null ? Long.parseLong(length.trim()) : -1;
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Malformed Content-Length: " + length);
+                return;
+            }
+            if (declared > MAX_BODY_BYTES) {
+                sendError(exchange, 413, "Request body larger than " + MAX_BODY_BYTES + " bytes");
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                sendError(exchange, 413, "Request body larger than " + MAX_BODY_BYTES + " bytes");
+                return;
+            }
+            ResultJsonWriter.Format format = formatOf(exchange.getRequestURI());
+            String key = format + ":" + sha256(body);
+            
+            byte[] response = cache.get(key);
+            boolean hit = response != null;
+            if (hit) {
+                hits.increment();
+            } else {
+                misses.increment();
+                try {
+                    Rendered rendered = analyzeOnce(key, body, format);
+                    response = rendered.body();
+                    if (rendered.reuse() != null) {
+                        exchange.getResponseHeaders().set("X-Reuse-Ratio", String.format("%.4f", rendered.reuse().ratio()));
+                    }
+                } catch (IOException e) {
+                    sendError(exchange, 400, e.getMessage());
+                    return;
+                }
+            }
+            
+            exchange.getResponseHeaders().set("Content-Type",
+                format == ResultJsonWriter.Format.NDJSON ? "application/x-ndjson" : "application/json");
+            exchange.getResponseHeaders().set("X-Cache", hit ? "HIT" : "MISS");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+    }
+    
+    // Analyze unless an identical request is already being analyzed, in which case wait for it
+    private Rendered analyzeOnce(String key, byte[] body, ResultJsonWriter.Format format) throws IOException {
+        CompletableFuture<Rendered> mine = new CompletableFuture<>();
+        CompletableFuture<Rendered> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for analysis", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+        }
+        try {
+            Rendered rendered = render(body, format);
+            cache.put(key, rendered.body());
+            mine.complete(rendered);
+            return rendered;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e instanceof IOException io ? io : new IOException(e.getMessage(), e);
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+    
+    private Rendered render(byte[] body, ResultJsonWriter.Format format) throws IOException {
+        CompactGraph graph = StreamingTaskLoader.load(
+            new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+        IncrementalAnalyzer.Run run = analyzer != null ? analyzer.analyze(graph) : null;
+        AnalysisResult result = run != null ? run.result() : CompactAnalyzer.analyze(graph);
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        registry.recordPhases(result.getPhaseMetrics());
+        registry.recordAnalysis();
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(256, body.length));
+        ResultJsonWriter.write(result, Channels.newChannel(out), format);
+        return new Rendered(out.toByteArray(), run != null ? run.reuse() : null);
+    }
+    
+    // reuse is null without incremental analysis
+    private record Rendered(byte[] body, IncrementalAnalyzer.Reuse reuse) {
+    }
+    
+    private void metrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = OpenMetricsExporter.scrape(MetricsRegistry.getDefault()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", OpenMetricsExporter.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+    
+    // Whole body, or null if it is over the limit
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+    
+    private static ResultJsonWriter.Format formatOf(URI uri) {
+        String query = uri.getRawQuery();
+        return query != null && query.contains("format=ndjson") ? ResultJsonWriter.Format.NDJSON : ResultJsonWriter.Format.JSON;
+    }
+    
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        String escaped = String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"");
+        byte[] body = ("{\"error\":\"" + escaped + "\"}\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    public long getCacheHits() {
+        return hits.sum();
+    }
+    
+    public long getCacheMisses() {
+        return misses.sum();
+    }
+    
+    /** Number of responses currently cached. */
+    public int getCachedCount() {
+        return cache.size();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+    
+    /**
+     * LRU map of rendered responses, bounded by their total size.
+     * A single response larger than the whole budget is not cached.
+     */
+    private static final class ResultCache {
+        private final long maxBytes;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+        
+        ResultCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+        
+        synchronized byte[] get(String key) {
+            return entries.get(key);
+        }
+        
+        synchronized void put(String key, byte[] value) {
+            if (value.length > maxBytes) {
+                return;
+            }
+            byte[] previous = entries.put(key, value);
+            bytes += value.length - (previous != null ? previous.length : 0);
+            var eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+        
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.daa.utils;
+
+import com.daa.model.IntGraph;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import graph.analysis.IncrementalAnalyzer;
+import graph.metrics.MetricsRegistry;
+import graph.metrics.Phase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Analyzes many graph files in one JVM, writing one result file per input.
+ * 
+ * <p>Each file goes through three stages: load on an I/O pool, analyze on a
+ * CPU pool, and write the JSON result back on the I/O pool, so reading the
+ * next files overlaps with analyzing the current ones. At most
+ * {@code maxInFlight} files are between loading and writing at any time;
+ * submitting blocks until one finishes, so memory stays bounded by that many
+ * graphs however many inputs there are. A file that fails to load or
+ * analyze is reported in the summary and does not stop the batch.
+ * 
+ * <p>Inputs are JSON task files and {@code .sccg} binary graphs, analyzed by
+ * {@link CompactAnalyzer}. With incremental analysis, files share one
+ * {@link IncrementalAnalyzer} instead, so plans that repeat regions of
+ * earlier ones, such as the same district on successive days, reuse their
+ * path values and the summary reports how much was reused; for unrelated
+ * plans the lookups cost more than they save.
+ */
+public class BatchAnalyzer {
+    
+    private final int ioThreads;
+    private final int cpuThreads;
+    private final int maxInFlight;
+    private final IncrementalAnalyzer analyzer;  // null for plain analysis
+    
+    /**
+     * @param ioThreads threads for loading inputs and writing results
+     * @param cpuThreads threads for analysis
+     * @param maxInFlight most files loaded but not yet written at once
+     */
+    public BatchAnalyzer(int ioThreads, int cpuThreads, int maxInFlight) {
+        this(ioThreads, cpuThreads, maxInFlight, false);
+    }
+    
+    /**
+     * @param ioThreads threads for loading inputs and writing results
+     * @param cpuThreads threads for analysis
+     * @param maxInFlight most files loaded but not yet written at once
+     * @param incremental reuse path values across related inputs
+     */
+    public BatchAnalyzer(int ioThreads, int cpuThreads, int maxInFlight, boolean incremental) {
+        if (ioThreads < 1 || cpuThreads < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("thread counts and maxInFlight must be positive");
+        }
+        this.ioThreads = ioThreads;
+        this.cpuThreads = cpuThreads;
+        this.maxInFlight = maxInFlight;
+        this.analyzer = incremental ? new IncrementalAnalyzer(1 << 20) : null;
+    }
+    
+    /**
+     * Default sizing: one analysis thread per core, two I/O threads, and
+     * twice as many files in flight as there are analysis threads.
+     */
+    public static BatchAnalyzer withDefaults() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new BatchAnalyzer(2, cores, 2 * cores);
+    }
+    
+    /**
+     * Analyze every input, with results laid out below the inputs' deepest
+     * common directory; see {@link #run(List, Path, Path, ResultJsonWriter.Format)}.
+     * @param inputs files to analyze
+     * @param outputDir directory for results, created if missing
+     * @param format result format
+     * @return counts, throughput and failures
+     * @throws IOException if the output directory cannot be created
+     * @throws InterruptedException if interrupted while waiting for the pipeline
+     */
+    public Summary run(List<Path> inputs, Path outputDir, ResultJsonWriter.Format format)
+            throws IOException, InterruptedException {
+        return run(inputs, commonDirectory(inputs), outputDir, format);
+    }
+    
+    /**
+     * Analyze every input, writing {@code <input path>.result.json} (or
+     * {@code .ndjson}) into the output directory. The input's path below
+     * {@code inputBase} is kept, so inputs with the same name in different
+     * subdirectories get different result files.
+     * @param inputs files to analyze, all below inputBase
+     * @param inputBase directory the inputs were found under, see {@link #inputBase(String)}
+     * @param outputDir directory for results, created if missing
+     * @param format result format
+     * @return counts, throughput and failures
+     * @throws IOException if an output directory cannot be created
+     * @throws InterruptedException if interrupted while waiting for the pipeline
+     * @throws IllegalArgumentException if an input is not below inputBase
+     */
+    public Summary run(List<Path> inputs, Path inputBase, Path outputDir, ResultJsonWriter.Format format)
+            throws IOException, InterruptedException {
+        Files.createDirectories(outputDir);
+        Path base = inputBase.toAbsolutePath().normalize();
+        String suffix = format == ResultJsonWriter.Format.NDJSON ? ".result.ndjson" : ".result.json";
+        ExecutorService io = Executors.newFixedThreadPool(ioThreads);
+        ExecutorService cpu = Executors.newFixedThreadPool(cpuThreads);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        LongAdder tasks = new LongAdder();
+        LongAdder edges = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        LongAdder pathValues = new LongAdder();
+        LongAdder pathValuesReused = new LongAdder();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        Map<Path, String> failures = new TreeMap<>();
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        
+        long start = System.nanoTime();
+        try {
+            for (Path input : inputs) {
+                inFlight.acquire();
+                peakInFlight.accumulateAndGet(maxInFlight - inFlight.availablePermits(), Math::max);
+                Path output = outputDir.resolve(relativeTo(base, input) + suffix);
+                Files.createDirectories(output.getParent());
+                CompletableFuture
+                    .supplyAsync(() -> {
+                        long loadStart = System.nanoTime();
+                        IntGraph graph = uncheckedLoad(input);
+                        registry.record(Phase.PARSE, System.nanoTime() - loadStart, null);
+                        return graph;
+                    }, io)
+                    .thenApplyAsync(graph -> analyzer != null ? analyzer.analyze(graph)
+                        : new IncrementalAnalyzer.Run(CompactAnalyzer.analyze(graph), null), cpu)
+                    .thenAcceptAsync(run -> {
+                        AnalysisResult result = run.result();
+                        try {
+                            ResultJsonWriter.write(result, output, format);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        registry.recordPhases(result.getPhaseMetrics());
+                        registry.recordAnalysis();
+                        tasks.add(result.taskCount());
+                        edges.add(result.edgeCount());
+                        bytes.add(sizeOf(input));
+                        if (run.reuse() != null) {
+                            pathValues.add(2L * run.reuse().components());
+                            pathValuesReused.add(run.reuse().earliestReused() + run.reuse().tailReused());
+                        }
+                    }, io)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            Throwable cause = error.getCause() != null ? error.getCause() : error;
+                            if (cause instanceof UncheckedIOException unchecked) {
+                                cause = unchecked.getCause();
+                            }
+                            synchronized (failures) {
+                                failures.put(input, String.valueOf(cause.getMessage()));
+                            }
+                        }
+                        inFlight.release();
+                    });
+            }
+            // all permits back means every file has finished
+            inFlight.acquire(maxInFlight);
+        } finally {
+            io.shutdown();
+            cpu.shutdown();
+        }
+        long nanos = System.nanoTime() - start;
+        return new Summary(inputs.size(), failures.size(), tasks.sum(), edges.sum(), bytes.sum(),
+            nanos, peakInFlight.get(), pathValues.sum(), pathValuesReused.sum(), failures);
+    }
+    
+    /**
+     * Expand a directory or a glob into input files, sorted by path.
+     * A directory yields its {@code .json} and {@code .sccg} files; a glob such as
+     * {@code plans/district-*.json} or {@code plans/**.sccg} is matched below its
+     * first directory without wildcards.
+     * @param directoryOrGlob directory or glob pattern
+     * @return matching files
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> resolveInputs(String directoryOrGlob) throws IOException {
+        Path base = inputBase(directoryOrGlob);
+        if (Files.isDirectory(Path.of(directoryOrGlob))) {
+            try (Stream<Path> listing = Files.list(base)) {
+                return listing.filter(p -> isSupported(p) && Files.isRegularFile(p)).sorted().toList();
+            }
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + directoryOrGlob);
+        try (Stream<Path> walk = Files.walk(base)) {
+            return walk.filter(p -> Files.isRegularFile(p) && matcher.matches(p)).sorted().toList();
+        }
+    }
+    
+    /**
+     * Directory a directory or glob is matched under: the directory itself,
+     * or the deepest directory above the glob's first wildcard. Walked paths
+     * keep the pattern's prefix, so inputs are relative to it.
+     * @param directoryOrGlob directory or glob pattern
+     * @return base directory
+     */
+    public static Path inputBase(String directoryOrGlob) {
+        if (Files.isDirectory(Path.of(directoryOrGlob))) {
+            return Path.of(directoryOrGlob);
+        }
+        Path prefix = Path.of(directoryOrGlob.replaceAll("[*?\\[{].*", ""));
+        Path base = Files.isDirectory(prefix) ? prefix : prefix.getParent();
+        return base != null ? base : Path.of("");
+    }
+    
+    // Path of an input below the base, as used for its result file
+    private static String relativeTo(Path base, Path input) {
+        Path absolute = input.toAbsolutePath().normalize();
+        if (!absolute.startsWith(base) || absolute.equals(base)) {
+            throw new IllegalArgumentException(input + " is not below " + base);
+        }
+        return base.relativize(absolute).toString();
+    }
+    
+    private static Path commonDirectory(List<Path> inputs) {
+        if (inputs.isEmpty()) {
+            return Path.of("");
+        }
+        Path common = inputs.get(0).toAbsolutePath().normalize().getParent();
+        for (Path input : inputs) {
+            Path absolute = input.toAbsolutePath().normalize();
+            while (!absolute.startsWith(common)) {
+                common = common.getParent();
+            }
+        }
+        return common;
+    }
+    
+    private static boolean isSupported(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".json") || name.endsWith(BinaryGraphFormat.FILE_EXTENSION);
+    }
+    
+    private static IntGraph uncheckedLoad(Path input) {
+        try {
+            if (input.toString().endsWith(BinaryGraphFormat.FILE_EXTENSION)) {
+                return BinaryGraphFormat.map(input);
+            }
+            return StreamingTaskLoader.load(input.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static long sizeOf(Path input) {
+        try {
+            return Files.size(input);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+    
+    /**
+     * Outcome of a batch run.
+     * 
+     * @param files inputs given
+     * @param failed inputs that could not be analyzed
+     * @param tasks tasks across all analyzed inputs
+     * @param edges edges across all analyzed inputs
+     * @param bytes input bytes of all analyzed inputs
+     * @param nanos wall time of the whole batch
+     * @param peakInFlight most files in the pipeline at once
+     * @param pathValues earliest starts and tails across all analyzed inputs
+     * @param pathValuesReused those taken from earlier inputs by Merkle hash
+     * @param failures error message per failed input
+     */
+    public record Summary(int files, int failed, long tasks, long edges, long bytes, long nanos,
+                          int peakInFlight, long pathValues, long pathValuesReused, Map<Path, String> failures) {
+        
+        public String getReport() {
+            double seconds = nanos / 1e9;
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== Batch Summary ===\n");
+            sb.append(String.format("Files: %,d analyzed, %,d failed, at most %d in flight%n",
+                files - failed, failed, peakInFlight));
+            sb.append(String.format("Total: %,d tasks, %,d edges, %,.1f MB%n", tasks, edges, bytes / 1048576.0));
+            sb.append(String.format("Wall time: %.3f s%n", seconds));
+            sb.append(String.format("Throughput: %,.1f files/s, %,.0f tasks/s, %,.1f MB/s%n",
+                (files - failed) / seconds, tasks / seconds, bytes / 1048576.0 / seconds));
+            if (pathValues > 0) {
+                sb.append(String.format("Path values reused: %,d of %,d (%.1f%%)%n",
+                    pathValuesReused, pathValues, 100.0 * pathValuesReused / Math.max(1, pathValues)));
+            }
+            failures.forEach((path, message) -> sb.append("  FAILED ").append(path).append(": ").append(message).append('\n'));
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.daa.utils;
+
+import com.daa.model.IntGraph;
+import com.daa.model.MappedGraph;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Versioned binary file format for task graphs, with a writer and a
+ * memory-mapped reader.
+ * 
+ * <p>Layout, all values little-endian, every section starting on an 8-byte boundary:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "SCCG"
+ *      4     4  format version (currently 1)
+ *      8     4  vertex count n
+ *     12     4  flags (reserved, 0)
+ *     16     8  edge count m
+ *     24     4  section count (7)
+ *     28     4  reserved
+ *     32   112  section table: 7 x (offset: long, length in bytes: long)
+ * sections, in table order:
+ *   STRING_OFFSETS  long[2n+1]  start of id v at [2v], of name v at [2v+1], end at [2n]
+ *   STRING_DATA     byte[]      UTF-8 ids and names back to back; a missing name is empty
+ *   DURATIONS       int[n]
+ *   OUT_OFFSETS     int[n+1]    CSR offsets of dependents
+ *   OUT_TARGETS     int[m]
+ *   IN_OFFSETS      int[n+1]    CSR offsets of dependencies
+ *   IN_SOURCES      int[m]
+ * </pre>
+ * Each section is mapped as its own buffer, so one section may not exceed
+ * 2 GB (about 500 million edges). Readers reject files with an unknown
+ * version instead of guessing.
+ * 
+ * <p>Convert JSON task files with {@link JsonToBinaryConverter}.
+ */
+public final class BinaryGraphFormat {
+    
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".sccg";
+    
+    private static final byte[] MAGIC = {'S', 'C', 'C', 'G'};
+    private static final int SECTION_COUNT = 7;
+    private static final int HEADER_BYTES = 32 + SECTION_COUNT * 16;
+    private static final int STRING_OFFSETS = 0;
+    private static final int STRING_DATA = 1;
+    private static final int DURATIONS = 2;
+    private static final int OUT_OFFSETS = 3;
+    private static final int OUT_TARGETS = 4;
+    private static final int IN_OFFSETS = 5;
+    private static final int IN_SOURCES = 6;
+    
+    private BinaryGraphFormat() {
+    }
+    
+    /**
+     * Write a graph to a file. The file is written to a uniquely named
+     * staging file next to the target and renamed into place, so readers
+     * never see a partial file and concurrent writers never share one.
+     * @param graph graph to write
+     * @param file destination
+     * @throws IOException if writing fails, or a section would exceed 2 GB
+     */
+    public static void write(IntGraph graph, Path file) throws IOException {
+        writeSections(file, graph.vertexCount(), graph.edgeCount(), graph::id, graph::name, graph::duration,
+            graph::outDegree, neighbors(graph, true), graph::inDegree, neighbors(graph, false));
+    }
+    
+    /**
+     * Write a graph whose edges arrive as two sequential streams: all
+     * out-neighbors in vertex order, then all in-neighbors in vertex order.
+     * Lets streaming builders write graphs they never hold in memory.
+     */
+    static void writeSections(Path file, int n, long m, IntFunction<String> ids, IntFunction<String> names,
+                              IntUnaryOperator durations, IntUnaryOperator outDegree, IntSupplier outTargets,
+                              IntUnaryOperator inDegree, IntSupplier inSources) throws IOException {
+        long stringBytes = 0;
+        for (int v = 0; v < n; v++) {
+            stringBytes += utf8Length(ids.apply(v)) + utf8Length(names.apply(v));
+        }
+        long[] lengths = new long[SECTION_COUNT];
+        lengths[STRING_OFFSETS] = (2L * n + 1) * Long.BYTES;
+        lengths[STRING_DATA] = stringBytes;
+        lengths[DURATIONS] = (long) n * Integer.BYTES;
+        lengths[OUT_OFFSETS] = (n + 1L) * Integer.BYTES;
+        lengths[OUT_TARGETS] = m * Integer.BYTES;
+        lengths[IN_OFFSETS] = (n + 1L) * Integer.BYTES;
+        lengths[IN_SOURCES] = m * Integer.BYTES;
+        long[] offsets = new long[SECTION_COUNT];
+        long position = HEADER_BYTES;
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            // the reader maps each section as one buffer; fail here rather than write a file it rejects
+            if (lengths[s] > Integer.MAX_VALUE) {
+                throw new IOException("Section " + s + " of " + file + " would be " + lengths[s]
+                    + " bytes; binary graph sections are limited to 2 GB");
+            }
+            offsets[s] = position;
+            position = align(position + lengths[s]);
+        }
+        
+        // a unique staging file, so concurrent writers of one path never share it
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeContents(channel, n, m, offsets, lengths, ids, names, durations,
+                    outDegree, outTargets, inDegree, inSources);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    // Header, section table and every section, in table order
+    private static void writeContents(FileChannel channel, int n, long m, long[] offsets, long[] lengths,
+                                      IntFunction<String> ids, IntFunction<String> names,
+                                      IntUnaryOperator durations, IntUnaryOperator outDegree, IntSupplier outTargets,
+                                      IntUnaryOperator inDegree, IntSupplier inSources) throws IOException {
+        ChannelWriter out = new ChannelWriter(channel);
+        out.bytes(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(n);
+        out.putInt(0);
+        out.putLong(m);
+        out.putInt(SECTION_COUNT);
+        out.putInt(0);
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            out.putLong(offsets[s]);
+            out.putLong(lengths[s]);
+        }
+        
+        long stringPosition = 0;
+        for (int v = 0; v < n; v++) {
+            out.putLong(stringPosition);
+            stringPosition += utf8Length(ids.apply(v));
+            out.putLong(stringPosition);
+            stringPosition += utf8Length(names.apply(v));
+        }
+        out.putLong(stringPosition);
+        out.pad();
+        
+        for (int v = 0; v < n; v++) {
+            out.bytes(ids.apply(v).getBytes(StandardCharsets.UTF_8));
+            String name = names.apply(v);
+            if (name != null) {
+                out.bytes(name.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        out.pad();
+        
+        for (int v = 0; v < n; v++) {
+            out.putInt(durations.applyAsInt(v));
+        }
+        out.pad();
+        
+        writeAdjacency(out, n, m, outDegree, outTargets);
+        writeAdjacency(out, n, m, inDegree, inSources);
+        out.flush();
+    }
+    
+    /**
+     * Map a binary graph file. Only the header is read here; the returned
+     * graph reads everything else straight from the mapped buffers.
+     * The mapping stays valid after this method closes the file.
+     * @param file binary graph file
+     * @return graph backed by the mapping
+     * @throws IOException if the file cannot be read or is not a supported graph file
+     */
+    public static MappedGraph map(Path file) throws IOException {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        
+        MappedGraph graph;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a binary graph file (too short): " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a binary graph file (bad magic): " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary graph version " + version + " in " + file
+                    + " (this reader supports " + VERSION + ")");
+            }
+            int n = header.getInt();
+            header.getInt();
+            long m = header.getLong();
+            int sections = header.getInt();
+            header.getInt();
+            if (sections != SECTION_COUNT) {
+                throw new IOException("Corrupt binary graph header in " + file);
+            }
+            
+            MappedByteBuffer[] buffers = new MappedByteBuffer[SECTION_COUNT];
+            for (int s = 0; s < SECTION_COUNT; s++) {
+                long offset = header.getLong();
+                long length = header.getLong();
+                if (offset < HEADER_BYTES || offset + length > channel.size()) {
+                    throw new IOException("Corrupt binary graph section table in " + file);
+                }
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("Section " + s + " of " + file + " exceeds 2 GB");
+                }
+                buffers[s] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                buffers[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            
+            graph = new MappedGraph(n, m,
+                buffers[STRING_OFFSETS].asLongBuffer(),
+                buffers[STRING_DATA],
+                buffers[DURATIONS].asIntBuffer(),
+                buffers[OUT_OFFSETS].asIntBuffer(),
+                buffers[OUT_TARGETS].asIntBuffer(),
+                buffers[IN_OFFSETS].asIntBuffer(),
+                buffers[IN_SOURCES].asIntBuffer());
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.PARSE, graph.vertexCount(), graph.edgeCount(), -1, null);
+            event.detail = file.toString();
+            event.commit();
+        }
+        return graph;
+    }
+    
+    // Offsets then neighbors for one direction, each padded to 8 bytes.
+    // Offsets are stored as ints; the section size check keeps m, and so every offset, below 2^31.
+    private static void writeAdjacency(ChannelWriter out, int n, long m, IntUnaryOperator degree,
+                                       IntSupplier neighbors) throws IOException {
+        long offset = 0;
+        for (int v = 0; v < n; v++) {
+            out.putInt((int) offset);
+            offset += degree.applyAsInt(v);
+        }
+        if (offset != m) {
+            throw new IOException("Degrees sum to " + offset + " but the graph has " + m + " edges");
+        }
+        out.putInt((int) offset);
+        out.pad();
+        for (long e = 0; e < m; e++) {
+            out.putInt(neighbors.getAsInt());
+        }
+        out.pad();
+    }
+    
+    // All neighbors of vertex 0, then of vertex 1, and so on
+    private static IntSupplier neighbors(IntGraph graph, boolean outgoing) {
+        return new IntSupplier() {
+            private int v;
+            private int i;
+            
+            @Override
+            public int getAsInt() {
+                while (i == (outgoing ? graph.outDegree(v) : graph.inDegree(v))) {
+                    v++;
+                    i = 0;
+                }
+                return outgoing ? graph.outNeighbor(v, i++) : graph.inNeighbor(v, i++);
+            }
+        };
+    }
+    
+    static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+    
+    // Encoded size without allocating the byte array; null counts as empty
+    static int utf8Length(String s) {
+        if (s == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1; // unpaired surrogate, written by getBytes as '?'
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+    
+    // Little-endian output through one reusable direct buffer
+    static final class ChannelWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+        
+        ChannelWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+        
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+        
+        void bytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+            }
+        }
+        
+        // zero bytes up to the next 8-byte boundary
+        void pad() throws IOException {
+            long position = written + buffer.position();
+            for (long p = position; p < align(position); p++) {
+                ensure(1);
+                buffer.put((byte) 0);
+            }
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.daa.utils;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.LongArray;
+import graph.analysis.AnalysisResult;
+import graph.dagsp.CompactCriticalPath.CriticalPath;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Binary file format for a finished {@link AnalysisResult}, next to the
+ * {@link BinaryGraphFormat} file of the graph it belongs to.
+ * 
+ * <p>Layout, all values little-endian, every section starting on an 8-byte boundary:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "SCCA"
+ *      4     4  format version (currently 1)
+ *      8     4  vertex count n
+ *     12     4  component count c
+ *     16     8  condensation edge count e
+ *     24     8  critical path length
+ *     32     4  components on the critical path k
+ *     36     4  section count (11)
+ *     40   176  section table: 11 x (offset: long, length in bytes: long)
+ * sections, in table order:
+ *   COMPONENT_OF    int[n]
+ *   DURATIONS       int[c]     max task duration per component
+ *   MEMBER_OFFSETS  int[c+1]
+ *   MEMBERS         int[n]     vertices grouped by component
+ *   OUT_OFFSETS     int[c+1]   condensation CSR, dependents
+ *   OUT_TARGETS     int[e]
+ *   IN_OFFSETS      int[c+1]   condensation CSR, dependencies
+ *   IN_SOURCES      int[e]
+ *   ORDER           int[c]     topological order
+ *   CRITICAL_PATH   int[k]
+ *   EARLIEST_START  long[c]
+ * </pre>
+ * Reading maps every section and wraps it, so a cached result is usable
+ * without reading or copying its arrays.
+ */
+public final class BinaryResultFormat {
+    
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".scca";
+    
+    private static final byte[] MAGIC = {'S', 'C', 'C', 'A'};
+    private static final int SECTION_COUNT = 11;
+    private static final int HEADER_BYTES = 40 + SECTION_COUNT * 16;
+    private static final int COMPONENT_OF = 0;
+    private static final int DURATIONS = 1;
+    private static final int MEMBER_OFFSETS = 2;
+    private static final int MEMBERS = 3;
+    private static final int OUT_OFFSETS = 4;
+    private static final int OUT_TARGETS = 5;
+    private static final int IN_OFFSETS = 6;
+    private static final int IN_SOURCES = 7;
+    private static final int ORDER = 8;
+    private static final int CRITICAL_PATH = 9;
+    private static final int EARLIEST_START = 10;
+    
+    private BinaryResultFormat() {
+    }
+    
+    /**
+     * Write a result to a file, replacing it atomically.
+     * @param result analysis result
+     * @param file destination
+     * @throws IOException if writing fails
+     */
+    public static void write(AnalysisResult result, Path file) throws IOException {
+        int n = result.taskCount();
+        CompactCondensation dag = result.getCondensation();
+        int c = dag.vertexCount();
+        long e = dag.edgeCount();
+        int[] path = result.getCriticalPath();
+        long[] lengths = sectionLengths(n, c, e, path.length);
+        long[] offsets = sectionOffsets(lengths);
+        
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BinaryGraphFormat.ChannelWriter out = new BinaryGraphFormat.ChannelWriter(channel);
+            out.bytes(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(n);
+            out.putInt(c);
+            out.putLong(e);
+            out.putLong(result.criticalPathLength());
+            out.putInt(path.length);
+            out.putInt(SECTION_COUNT);
+            for (int s = 0; s < SECTION_COUNT; s++) {
+                out.putLong(offsets[s]);
+                out.putLong(lengths[s]);
+            }
+            
+            writeInts(out, result.getComponentOf(), n);
+            for (int i = 0; i < c; i++) {
+                out.putInt(dag.duration(i));
+            }
+            out.pad();
+            int offset = 0;
+            for (int i = 0; i < c; i++) {
+                out.putInt(offset);
+                offset += dag.size(i);
+            }
+            out.putInt(offset);
+            out.pad();
+            for (int i = 0; i < c; i++) {
+                for (int j = 0; j < dag.size(i); j++) {
+                    out.putInt(dag.member(i, j));
+                }
+            }
+            out.pad();
+            writeAdjacency(out, dag, true);
+            writeAdjacency(out, dag, false);
+            writeInts(out, result.getTopologicalOrder(), c);
+            for (int k : path) {
+                out.putInt(k);
+            }
+            out.pad();
+            LongArray earliest = result.getEarliestStarts();
+            for (int i = 0; i < c; i++) {
+                out.putLong(earliest.get(i));
+            }
+            out.flush();
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Map a result file written for the given graph.
+     * The result reads its arrays straight from the mapping and has no phase metrics.
+     * @param file result file
+     * @param graph the graph it was computed on
+     * @return result backed by the mapping
+     * @throws IOException if the file cannot be read, is not a supported result file, is truncated or
+     *         its sections do not match its header, or belongs to another graph
+     */
+    public static AnalysisResult map(Path file, IntGraph graph) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not an analysis result file (too short): " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not an analysis result file (bad magic): " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported analysis result version " + version + " in " + file
+                    + " (this reader supports " + VERSION + ")");
+            }
+            int n = header.getInt();
+            int c = header.getInt();
+            long e = header.getLong();
+            long length = header.getLong();
+            int pathLength = header.getInt();
+            if (header.getInt() != SECTION_COUNT || n < 0 || c < 0 || c > n || e < 0 || pathLength < 0
+                    || pathLength > c) {
+                throw new IOException("Corrupt analysis result header in " + file);
+            }
+            if (n != graph.vertexCount()) {
+                throw new IOException("Analysis result " + file + " is for a graph of " + n + " tasks, not "
+                    + graph.vertexCount());
+            }
+            
+            // every section must have exactly the size the header's counts give it, and the file must hold them all
+            long[] lengths = sectionLengths(n, c, e, pathLength);
+            long[] offsets = sectionOffsets(lengths);
+            long end = offsets[SECTION_COUNT - 1] + lengths[SECTION_COUNT - 1];
+            if (channel.size() < end) {
+                throw new IOException("Truncated analysis result file (" + channel.size() + " of " + end
+                    + " bytes): " + file);
+            }
+            MappedByteBuffer[] buffers = new MappedByteBuffer[SECTION_COUNT];
+            for (int s = 0; s < SECTION_COUNT; s++) {
+                long offset = header.getLong();
+                long bytes = header.getLong();
+                if (offset != offsets[s] || bytes != lengths[s]) {
+                    throw new IOException("Corrupt analysis result section table in " + file + ": section " + s
+                        + " has " + bytes + " bytes at " + offset + ", expected " + lengths[s] + " at " + offsets[s]);
+                }
+                if (bytes > Integer.MAX_VALUE) {
+                    throw new IOException("Section " + s + " of " + file + " exceeds 2 GB");
+                }
+                buffers[s] = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+                buffers[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            
+            CompactCondensation dag = CompactCondensation.of(c, ints(buffers[DURATIONS]),
+                ints(buffers[MEMBER_OFFSETS]), ints(buffers[MEMBERS]),
+                ints(buffers[OUT_OFFSETS]), ints(buffers[OUT_TARGETS]),
+                ints(buffers[IN_OFFSETS]), ints(buffers[IN_SOURCES]));
+            int[] path = new int[pathLength];
+            buffers[CRITICAL_PATH].asIntBuffer().get(path);
+            CriticalPath criticalPath = new CriticalPath(path, length,
+                ArrayStorage.wrap(buffers[EARLIEST_START].asLongBuffer()));
+            Map<Phase, Metrics> phaseMetrics = new EnumMap<>(Phase.class);
+            return new AnalysisResult(graph, ints(buffers[COMPONENT_OF]), dag, ints(buffers[ORDER]),
+                criticalPath, phaseMetrics);
+        }
+    }
+    
+    // Byte length of every section for n tasks, c components, e condensation edges and a k-component critical path
+    private static long[] sectionLengths(int n, int c, long e, int k) {
+        long[] lengths = new long[SECTION_COUNT];
+        lengths[COMPONENT_OF] = (long) n * Integer.BYTES;
+        lengths[DURATIONS] = (long) c * Integer.BYTES;
+        lengths[MEMBER_OFFSETS] = (c + 1L) * Integer.BYTES;
+        lengths[MEMBERS] = (long) n * Integer.BYTES;
+        lengths[OUT_OFFSETS] = (c + 1L) * Integer.BYTES;
+        lengths[OUT_TARGETS] = e * Integer.BYTES;
+        lengths[IN_OFFSETS] = (c + 1L) * Integer.BYTES;
+        lengths[IN_SOURCES] = e * Integer.BYTES;
+        lengths[ORDER] = (long) c * Integer.BYTES;
+        lengths[CRITICAL_PATH] = (long) k * Integer.BYTES;
+        lengths[EARLIEST_START] = (long) c * Long.BYTES;
+        return lengths;
+    }
+    
+    // Sections follow the header back to back, each starting on an 8-byte boundary
+    private static long[] sectionOffsets(long[] lengths) {
+        long[] offsets = new long[SECTION_COUNT];
+        long position = HEADER_BYTES;
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            offsets[s] = position;
+            position = BinaryGraphFormat.align(position + lengths[s]);
+        }
+        return offsets;
+    }
+    
+    private static IntArray ints(ByteBuffer section) {
+        IntBuffer values = section.asIntBuffer();
+        return ArrayStorage.wrap(values);
+    }
+    
+    private static void writeInts(BinaryGraphFormat.ChannelWriter out, IntArray values, long count) throws IOException {
+        for (long i = 0; i < count; i++) {
+            out.putInt(values.get(i));
+        }
+        out.pad();
+    }
+    
+    // Offsets then neighbors for one direction, each padded to 8 bytes
+    private static void writeAdjacency(BinaryGraphFormat.ChannelWriter out, CompactCondensation dag,
+                                       boolean outgoing) throws IOException {
+        int c = dag.vertexCount();
+        int offset = 0;
+        for (int i = 0; i < c; i++) {
+            out.putInt(offset);
+            offset += outgoing ? dag.outDegree(i) : dag.inDegree(i);
+        }
+        out.putInt(offset);
+        out.pad();
+        for (int i = 0; i < c; i++) {
+            int degree = outgoing ? dag.outDegree(i) : dag.inDegree(i);
+            for (int j = 0; j < degree; j++) {
+                out.putInt(outgoing ? dag.outNeighbor(i, j) : dag.inNeighbor(i, j));
+            }
+        }
+        out.pad();
+    }
+}
@@ -0,0 +1,369 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Loader for plain-text task graphs: a tasks file of {@code task,duration}
+ * lines and an edges file of {@code from,to} lines, where {@code to}
+ * depends on {@code from}.
+ * 
+ * <p>Both files are read through one large direct buffer and parsed byte by
+ * byte. Ids are looked up in a byte-keyed hash table, so a String is only
+ * created the first time a task is declared, never per line or per edge.
+ * New ids go straight into a {@link CompactGraphBuilder} with
+ * {@link CompactGraphBuilder#internNew}, so the builder never builds a
+ * String dictionary of its own.
+ * 
+ * <p>Format details:
+ * <ul>
+ *   <li>Lines end in LF or CRLF; blank lines are skipped and spaces around
+ *       fields are trimmed. Fields cannot be quoted, so ids must not contain commas.</li>
+ *   <li>A task line may have a third column with the task's name, which runs to the end of the line.</li>
+ *   <li>A first line whose duration is not a number, or that reads
+ *       {@code from,to}, is taken as a header and skipped.</li>
+ *   <li>As with JSON input, a task declared twice keeps its last duration, and
+ *       edges naming an undeclared task are dropped.</li>
+ * </ul>
+ */
+public final class CsvGraphLoader {
+    
+    public static final String FILE_EXTENSION = ".csv";
+    
+    private static final int BUFFER_BYTES = 1 << 22;
+    private static final byte[] EDGE_HEADER = "from,to".getBytes(StandardCharsets.US_ASCII);
+    
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CompactGraphBuilder builder;
+    private final IdTable table;
+    private long droppedEdges;
+    
+    private CsvGraphLoader(int expectedTasks, int expectedEdges) {
+        this.builder = new CompactGraphBuilder(expectedTasks, expectedEdges);
+        this.table = new IdTable(expectedTasks);
+    }
+    
+    /** Receives one line as a byte range of the buffer, without its line terminator. */
+    @FunctionalInterface
+    private interface LineHandler {
+        void line(ByteBuffer buf, int start, int end, long lineNumber) throws IOException;
+    }
+    
+    /**
+     * Load a tasks file and an edges file into a compact graph.
+     * @param tasksFile {@code task,duration} lines
+     * @param edgesFile {@code from,to} lines
+     * @return compact graph, tasks numbered in order of first declaration
+     * @throws IOException if a file cannot be read, a line is malformed, or there are no tasks
+     */
+    public static CompactGraph load(Path tasksFile, Path edgesFile) throws IOException {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        
+        // short ids make lines of about 8 bytes per task and 12 per edge; erring high avoids regrowing
+        long taskBytes = Files.size(tasksFile);
+        long edgeBytes = Files.size(edgesFile);
+        CsvGraphLoader loader = new CsvGraphLoader(
+            (int) Math.min(1 << 24, taskBytes / 8), (int) Math.min(1 << 26, edgeBytes / 12));
+        loader.scan(tasksFile, loader::taskLine);
+        if (loader.builder.taskCount() == 0) {
+            throw new IOException("No tasks found in " + tasksFile);
+        }
+        loader.scan(edgesFile, loader::edgeLine);
+        CompactGraph graph = loader.builder.build();
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.PARSE, graph.vertexCount(), graph.edgeCount(), -1, null);
+            event.detail = tasksFile + ", " + edgesFile + ", " + loader.droppedEdges + " dropped edges";
+            event.commit();
+        }
+        return graph;
+    }
+    
+    // Feed every line of a file to the handler; a partial line at the end of the buffer is carried over
+    private void scan(Path file, LineHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            long lineNumber = 0;
+            boolean eof = false;
+            while (!eof) {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                buffer.flip();
+                int limit = buffer.limit();
+                int lineStart = 0;
+                for (int i = 0; i < limit; i++) {
+                    if (buffer.get(i) == '\n') {
+                        handler.line(buffer, lineStart, i, ++lineNumber);
+                        lineStart = i + 1;
+                    }
+                }
+                if (eof) {
+                    if (lineStart < limit) {
+                        handler.line(buffer, lineStart, limit, ++lineNumber);
+                    }
+                } else if (lineStart == 0 && limit == buffer.capacity()) {
+                    throw new IOException(file + ": line " + (lineNumber + 1) + " is longer than " + BUFFER_BYTES + " bytes");
+                } else {
+                    buffer.position(lineStart);
+                    buffer.compact();
+                }
+            }
+        }
+    }
+    
+    private void taskLine(ByteBuffer buf, int start, int end, long lineNumber) throws IOException {
+        end = trimEnd(buf, start, end);
+        start = trimStart(buf, start, end);
+        if (start == end) {
+            return;
+        }
+        int comma = indexOf(buf, start, end, (byte) ',');
+        if (comma < 0) {
+            throw new IOException("Tasks line " + lineNumber + ": expected task,duration");
+        }
+        int idEnd = trimEnd(buf, start, comma);
+        int durationEnd = indexOf(buf, comma + 1, end, (byte) ',');
+        int nameStart = -1;
+        if (durationEnd < 0) {
+            durationEnd = end;
+        } else {
+            nameStart = trimStart(buf, durationEnd + 1, end);
+        }
+        int duration = parseInt(buf, trimStart(buf, comma + 1, durationEnd), trimEnd(buf, comma + 1, durationEnd));
+        if (duration < 0 || idEnd == start) {
+            if (lineNumber == 1) {
+                return; // header
+            }
+            throw new IOException("Tasks line " + lineNumber + ": expected task,duration");
+        }
+        String name = nameStart >= 0 ? decode(buf, nameStart, end) : null;
+        
+        int hash = hash(buf, start, idEnd);
+        int v = table.find(buf, start, idEnd, hash);
+        if (v < 0) {
+            v = builder.internNew(table.add(buf, start, idEnd, hash));
+        }
+        builder.addTask(v, name, duration);
+    }
+    
+    private void edgeLine(ByteBuffer buf, int start, int end, long lineNumber) throws IOException {
+        end = trimEnd(buf, start, end);
+        start = trimStart(buf, start, end);
+        if (start == end) {
+            return;
+        }
+        int comma = indexOf(buf, start, end, (byte) ',');
+        if (comma < 0) {
+            throw new IOException("Edges line " + lineNumber + ": expected from,to");
+        }
+        if (lineNumber == 1 && equalsAscii(buf, start, end, EDGE_HEADER)) {
+            return;
+        }
+        int fromEnd = trimEnd(buf, start, comma);
+        int toStart = trimStart(buf, comma + 1, end);
+        int from = table.find(buf, start, fromEnd, hash(buf, start, fromEnd));
+        int to = table.find(buf, toStart, end, hash(buf, toStart, end));
+        if (from < 0 || to < 0) {
+            droppedEdges++;
+            return;
+        }
+        builder.addDependency(to, from);
+    }
+    
+    // Decimal digits only; -1 if the field is empty, not a number or overflows
+    private static int parseInt(ByteBuffer buf, int start, int end) {
+        if (start == end || end - start > 10) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buf.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+    
+    private static int indexOf(ByteBuffer buf, int start, int end, byte b) {
+        for (int i = start; i < end; i++) {
+            if (buf.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static int trimStart(ByteBuffer buf, int start, int end) {
+        while (start < end && buf.get(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+    
+    private static int trimEnd(ByteBuffer buf, int start, int end) {
+        while (end > start && (buf.get(end - 1) == ' ' || buf.get(end - 1) == '\r')) {
+            end--;
+        }
+        return end;
+    }
+    
+    private static boolean equalsAscii(ByteBuffer buf, int start, int end, byte[] text) {
+        if (end - start != text.length) {
+            return false;
+        }
+        for (int i = 0; i < text.length; i++) {
+            if (buf.get(start + i) != text[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Plain polynomial hash: numbered ids like T1, T2, ... land in neighbouring
+    // slots, so a sorted column walks the table nearly sequentially
+    private static int hash(ByteBuffer buf, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buf.get(i);
+        }
+        return h;
+    }
+    
+    private static String decode(ByteBuffer buf, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buf.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Open-addressing table from id bytes to builder vertex numbers.
+     * Only declared tasks are added, in the same order as the builder sees
+     * them, so table indexes and builder vertex numbers are the same.
+     * 
+     * <p>A slot is two adjacent longs: a tag of hash bits and key length next
+     * to the vertex number, and the key's first eight bytes. Ids of up to eight
+     * bytes, the usual case, are matched without reading the key arena, so a
+     * lookup costs one cache miss rather than three.
+     */
+    private static final class IdTable {
+        private long[] slots;       // pairs: tag << 32 | vertex number + 1 (0 = empty), key prefix
+        private int[] hashes;       // per vertex, for rehashing
+        private long[] prefixes;    // per vertex, for rehashing
+        private int[] keyOffsets;   // per vertex, into keyBytes; one extra entry marks the end
+        private byte[] keyBytes;
+        private int size;
+        
+        IdTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) << 1;
+            slots = new long[2 * capacity];
+            hashes = new int[capacity / 2];
+            prefixes = new long[capacity / 2];
+            keyOffsets = new int[capacity / 2 + 1];
+            keyBytes = new byte[Math.max(256, expected * 8)];
+        }
+        
+        int find(ByteBuffer buf, int start, int end, int hash) {
+            int length = end - start;
+            int tag = tag(hash, length);
+            long prefix = prefix(buf, start, end);
+            int mask = (slots.length >> 1) - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                long entry = slots[2 * slot];
+                if (entry == 0) {
+                    return -1;
+                }
+                int v = (int) entry - 1;
+                if ((int) (entry >>> 32) == tag && slots[2 * slot + 1] == prefix
+                        && (length <= 8 || matches(v, buf, start, end))) {
+                    return v;
+                }
+            }
+        }
+        
+        String add(ByteBuffer buf, int start, int end, int hash) {
+            if (size == hashes.length) {
+                grow();
+            }
+            int length = end - start;
+            int offset = keyOffsets[size];
+            if (offset + length > keyBytes.length) {
+                keyBytes = Arrays.copyOf(keyBytes, Math.max(offset + length, keyBytes.length + (keyBytes.length >> 1)));
+            }
+            buf.get(start, keyBytes, offset, length);
+            keyOffsets[size + 1] = offset + length;
+            hashes[size] = hash;
+            prefixes[size] = prefix(buf, start, end);
+            insert(size);
+            size++;
+            return new String(keyBytes, offset, length, StandardCharsets.UTF_8);
+        }
+        
+        // Scrambled hash bits plus the length, so zero-padded prefixes of different lengths never match
+        private static int tag(int hash, int length) {
+            return (hash * 0x9E3779B9) & 0xFFFFFF00 | Math.min(length, 255);
+        }
+        
+        private static long prefix(ByteBuffer buf, int start, int end) {
+            long prefix = 0;
+            for (int i = start, stop = Math.min(end, start + 8); i < stop; i++) {
+                prefix = prefix << 8 | (buf.get(i) & 0xFF);
+            }
+            return prefix;
+        }
+        
+        private boolean matches(int v, ByteBuffer buf, int start, int end) {
+            int offset = keyOffsets[v];
+            if (keyOffsets[v + 1] - offset != end - start) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (keyBytes[offset++] != buf.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private void insert(int v) {
+            int mask = (slots.length >> 1) - 1;
+            int slot = hashes[v] & mask;
+            while (slots[2 * slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            int tag = tag(hashes[v], keyOffsets[v + 1] - keyOffsets[v]);
+            slots[2 * slot] = (long) tag << 32 | (v + 1);
+            slots[2 * slot + 1] = prefixes[v];
+        }
+        
+        // Keep the load factor at or below one half
+        private void grow() {
+            int capacity = slots.length;
+            slots = new long[2 * capacity];
+            hashes = Arrays.copyOf(hashes, capacity / 2);
+            prefixes = Arrays.copyOf(prefixes, capacity / 2);
+            keyOffsets = Arrays.copyOf(keyOffsets, capacity / 2 + 1);
+            for (int v = 0; v < size; v++) {
+                insert(v);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.daa.utils;
+
+import com.daa.model.IntGraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Disk-resident edge list for the semi-external algorithms, read only by
+ * sequential scans.
+ * 
+ * <p>Layout, little-endian:
+ * <pre>
+ *  0   4  magic "SCCE"
+ *  4   4  format version (1)
+ *  8   4  vertex count n
+ * 12   4  reserved
+ * 16   8  edge count m
+ * 24  4n  durations
+ * then m (from: int, to: int) pairs, edges pointing from dependency to dependent
+ * </pre>
+ * The edges need not be in any particular order. Scans go through one
+ * direct buffer per handle, allocated on the first read and reused by every
+ * later one, forwards or backwards, so memory use does not depend on m or
+ * on the number of scans. A handle is used by one thread at a time.
+ */
+public final class EdgeListFile {
+    
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".edges";
+    
+    private static final byte[] MAGIC = {'S', 'C', 'C', 'E'};
+    private static final int HEADER_BYTES = 24;
+    private static final int BUFFER_BYTES = 1 << 23;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    
+    /** Receives edges during a scan. */
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void edge(int from, int to);
+    }
+    
+    /** Receives durations during a scan. */
+    @FunctionalInterface
+    public interface DurationVisitor {
+        void duration(int vertex, int duration);
+    }
+    
+    private final Path file;
+    private final int vertexCount;
+    private final long edgeCount;
+    private long scans;
+    private ByteBuffer buffer;  // allocated on first read
+    
+    private EdgeListFile(Path file, int vertexCount, long edgeCount) {
+        this.file = file;
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+    }
+    
+    /**
+     * Open an edge list file and read its header.
+     * @param file edge list file
+     * @return handle for scanning it
+     * @throws IOException if the file is not a supported edge list
+     */
+    public static EdgeListFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            byte[] magic = new byte[MAGIC.length];
+            if (header.remaining() < HEADER_BYTES || !Arrays.equals(magic(header, magic), MAGIC)) {
+                throw new IOException("Not an edge list file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported edge list version " + version + " in " + file);
+            }
+            int n = header.getInt();
+            header.getInt();
+            long m = header.getLong();
+            if (channel.size() != HEADER_BYTES + 4L * n + 8L * m) {
+                throw new IOException("Truncated edge list file: " + file);
+            }
+            return new EdgeListFile(file, n, m);
+        }
+    }
+    
+    /**
+     * Write every edge and duration of a graph, edges in source order.
+     * @param graph graph to write
+     * @param file destination, replaced atomically
+     * @throws IOException if writing fails
+     */
+    public static void write(IntGraph graph, Path file) throws IOException {
+        // a unique staging file, so concurrent writers of one path never share it
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeContents(graph, channel);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    // Header, durations, then every edge in source order
+    private static void writeContents(IntGraph graph, FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(graph.vertexCount()).putInt(0).putLong(graph.edgeCount());
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            if (buffer.remaining() < Integer.BYTES) {
+                drain(channel, buffer);
+            }
+            buffer.putInt(graph.duration(v));
+        }
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int i = 0; i < graph.outDegree(v); i++) {
+                if (buffer.remaining() < 2 * Integer.BYTES) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(v).putInt(graph.outNeighbor(v, i));
+            }
+        }
+        drain(channel, buffer);
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    public int vertexCount() {
+        return vertexCount;
+    }
+    
+    public long edgeCount() {
+        return edgeCount;
+    }
+    
+    /** Number of full edge scans made through this handle so far. */
+    public long getScans() {
+        return scans;
+    }
+    
+    /**
+     * Stream the durations section to a visitor, in vertex order,
+     * so callers can fold it without holding all n durations.
+     * @param visitor receives each vertex and its duration
+     * @throws IOException if reading fails
+     */
+    public void scanDurations(DurationVisitor visitor) throws IOException {
+        ByteBuffer buffer = buffer();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = HEADER_BYTES;
+            int v = 0;
+            while (v < vertexCount) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), 4L * (vertexCount - v)));
+                fill(channel, buffer, position);
+                position += buffer.limit();
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    visitor.duration(v++, buffer.getInt());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stream every edge to a visitor, in file order or in reverse.
+     * Alternating directions lets label propagation cross paths that run
+     * against the file order in both directions within two scans.
+     * @param reverse true to visit the last edge first
+     * @param visitor receives each edge
+     * @throws IOException if reading fails
+     */
+    public void scan(boolean reverse, EdgeVisitor visitor) throws IOException {
+        scans++;
+        long edgesStart = HEADER_BYTES + 4L * vertexCount;
+        long edgesEnd = edgesStart + 8L * edgeCount;
+        ByteBuffer buffer = buffer();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (!reverse) {
+                for (long position = edgesStart; position < edgesEnd; ) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), edgesEnd - position));
+                    fill(channel, buffer, position);
+                    position += buffer.limit();
+                    for (int i = 0; i < buffer.limit(); i += 8) {
+                        visitor.edge(buffer.getInt(i), buffer.getInt(i + 4));
+                    }
+                }
+            } else {
+                for (long end = edgesEnd; end > edgesStart; ) {
+                    long start = Math.max(edgesStart, end - buffer.capacity());
+                    buffer.clear();
+                    buffer.limit((int) (end - start));
+                    fill(channel, buffer, start);
+                    end = start;
+                    for (int i = buffer.limit() - 8; i >= 0; i -= 8) {
+                        visitor.edge(buffer.getInt(i), buffer.getInt(i + 4));
+                    }
+                }
+            }
+        }
+    }
+    
+    private ByteBuffer buffer() {
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffer.clear();
+        return buffer;
+    }
+    
+    private static byte[] magic(ByteBuffer header, byte[] magic) {
+        header.get(magic);
+        return magic;
+    }
+    
+    private static void fill(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of edge list file");
+            }
+        }
+    }
+    
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,65 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts task JSON files (the format read by {@link TaskJsonParser}) to
+ * the binary format of {@link BinaryGraphFormat}, or to an
+ * {@link EdgeListFile} when the output name ends in {@code .edges}.
+ * 
+ * <pre>
+ * mvn exec:java -Dexec.mainClass="com.daa.utils.JsonToBinaryConverter" -Dexec.args="data/large_mixed.json"
+ * </pre>
+ * Without an output path the result is written next to the input with the
+ * {@code .sccg} extension.
+ */
+public class JsonToBinaryConverter {
+    
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: java com.daa.utils.JsonToBinaryConverter input.json [output.sccg | output.edges]");
+            System.exit(1);
+        }
+        Path input = Path.of(args[0]);
+        Path output = args.length > 1 ? Path.of(args[1]) : defaultOutput(input);
+        try {
+            long start = System.nanoTime();
+            CompactGraph graph = convert(input, output);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("Converted %s -> %s: %,d tasks, %,d edges, %,d -> %,d bytes in %.1f ms%n",
+                input, output, graph.vertexCount(), graph.edgeCount(),
+                Files.size(input), Files.size(output), elapsed / 1_000_000.0);
+        } catch (IOException e) {
+            System.err.println("Error converting file: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Stream a JSON task file into a compact graph and write it in binary form.
+     * @param input JSON task file
+     * @param output binary graph file, or edge list file if it ends in {@code .edges}
+     * @return the converted graph
+     * @throws IOException if reading or writing fails
+     */
+    public static CompactGraph convert(Path input, Path output) throws IOException {
+        CompactGraph graph = StreamingTaskLoader.load(input.toString());
+        if (output.toString().endsWith(EdgeListFile.FILE_EXTENSION)) {
+            EdgeListFile.write(graph, output);
+        } else {
+            BinaryGraphFormat.write(graph, output);
+        }
+        return graph;
+    }
+    
+    static Path defaultOutput(Path input) {
+        String name = input.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return input.resolveSibling(base + BinaryGraphFormat.FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,317 @@
+package com.daa.utils;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * What a {@link PartitionWorker} found in its range of vertices, as a
+ * memory-mapped file the coordinator reads without copying.
+ * 
+ * <p>A worker only sees edges inside its range, so its SCCs are pieces of the
+ * real ones; pieces in different partitions are glued by the cross edges,
+ * which are kept with the local component they leave from.
+ * 
+ * <p>Layout, all values little-endian, every section starting on an 8-byte boundary:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "SCCP"
+ *      4     4  format version (currently 1)
+ *      8     4  first vertex of the range
+ *     12     4  end of the range (exclusive)
+ *     16     4  local component count c
+ *     20     4  section count (8)
+ *     24     8  local condensation edge count e
+ *     32     8  cross edge count x
+ *     40     8  nanoseconds the worker spent on SCCs and condensation
+ *     48   128  section table: 8 x (offset: long, length in bytes: long)
+ * sections, in table order:
+ *   COMPONENT_OF    int[to-from]  local component of every vertex in the range
+ *   DURATIONS       int[c]        max task duration per local component
+ *   MEMBER_OFFSETS  int[c+1]
+ *   MEMBERS         int[to-from]  vertices (whole-graph numbers) grouped by component
+ *   OUT_OFFSETS     int[c+1]      local condensation CSR, dependents
+ *   OUT_TARGETS     int[e]
+ *   CROSS_OFFSETS   int[c+1]      edges leaving the range, by local component
+ *   CROSS_TARGETS   int[x]        their target vertices (whole-graph numbers)
+ * </pre>
+ */
+public final class PartitionSummary {
+    
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".sccp";
+    
+    private static final byte[] MAGIC = {'S', 'C', 'C', 'P'};
+    private static final int SECTION_COUNT = 8;
+    private static final int HEADER_BYTES = 48 + SECTION_COUNT * 16;
+    private static final int COMPONENT_OF = 0;
+    private static final int DURATIONS = 1;
+    private static final int MEMBER_OFFSETS = 2;
+    private static final int MEMBERS = 3;
+    private static final int OUT_OFFSETS = 4;
+    private static final int OUT_TARGETS = 5;
+    private static final int CROSS_OFFSETS = 6;
+    private static final int CROSS_TARGETS = 7;
+    
+    private final int from;
+    private final int to;
+    private final int componentCount;
+    private final long crossEdgeCount;
+    private final long workerNanos;
+    private final IntArray[] sections;
+    
+    private PartitionSummary(int from, int to, int componentCount, long crossEdgeCount, long workerNanos,
+                             IntArray[] sections) {
+        this.from = from;
+        this.to = to;
+        this.componentCount = componentCount;
+        this.crossEdgeCount = crossEdgeCount;
+        this.workerNanos = workerNanos;
+        this.sections = sections;
+    }
+    
+    /**
+     * Write a partition's local SCCs and cross edges, replacing the file atomically.
+     * @param file destination
+     * @param graph the whole graph
+     * @param from first vertex of the range
+     * @param to end of the range, exclusive
+     * @param componentOf local component of every vertex in the range, by offset from {@code from}
+     * @param dag condensation of the range's own edges
+     * @param workerNanos time spent computing them
+     * @throws IOException if writing fails
+     */
+    public static void write(Path file, IntGraph graph, int from, int to, IntArray componentOf,
+                             CompactCondensation dag, long workerNanos) throws IOException {
+        int n = to - from;
+        int c = dag.vertexCount();
+        long e = dag.edgeCount();
+        
+        // cross edges counted per component first, so they can be written grouped
+        int[] crossOffsets = new int[c + 1];
+        for (int k = 0; k < c; k++) {
+            int crossing = 0;
+            for (int i = 0; i < dag.size(k); i++) {
+                int v = from + dag.member(k, i);
+                for (int j = 0; j < graph.outDegree(v); j++) {
+                    int w = graph.outNeighbor(v, j);
+                    if (w < from || w >= to) {
+                        crossing++;
+                    }
+                }
+            }
+            crossOffsets[k + 1] = crossOffsets[k] + crossing;
+        }
+        long x = crossOffsets[c];
+        
+        long[] lengths = new long[SECTION_COUNT];
+        lengths[COMPONENT_OF] = (long) n * Integer.BYTES;
+        lengths[DURATIONS] = (long) c * Integer.BYTES;
+        lengths[MEMBER_OFFSETS] = (c + 1L) * Integer.BYTES;
+        lengths[MEMBERS] = (long) n * Integer.BYTES;
+        lengths[OUT_OFFSETS] = (c + 1L) * Integer.BYTES;
+        lengths[OUT_TARGETS] = e * Integer.BYTES;
+        lengths[CROSS_OFFSETS] = (c + 1L) * Integer.BYTES;
+        lengths[CROSS_TARGETS] = x * Integer.BYTES;
+        long[] offsets = new long[SECTION_COUNT];
+        long position = HEADER_BYTES;
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            offsets[s] = position;
+            position = BinaryGraphFormat.align(position + lengths[s]);
+        }
+        
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BinaryGraphFormat.ChannelWriter out = new BinaryGraphFormat.ChannelWriter(channel);
+            out.bytes(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(from);
+            out.putInt(to);
+            out.putInt(c);
+            out.putInt(SECTION_COUNT);
+            out.putLong(e);
+            out.putLong(x);
+            out.putLong(workerNanos);
+            for (int s = 0; s < SECTION_COUNT; s++) {
+                out.putLong(offsets[s]);
+                out.putLong(lengths[s]);
+            }
+            
+            for (int v = 0; v < n; v++) {
+                out.putInt(componentOf.get(v));
+            }
+            out.pad();
+            for (int k = 0; k < c; k++) {
+                out.putInt(dag.duration(k));
+            }
+            out.pad();
+            int offset = 0;
+            for (int k = 0; k < c; k++) {
+                out.putInt(offset);
+                offset += dag.size(k);
+            }
+            out.putInt(offset);
+            out.pad();
+            for (int k = 0; k < c; k++) {
+                for (int i = 0; i < dag.size(k); i++) {
+                    out.putInt(from + dag.member(k, i));
+                }
+            }
+            out.pad();
+            offset = 0;
+            for (int k = 0; k < c; k++) {
+                out.putInt(offset);
+                offset += dag.outDegree(k);
+            }
+            out.putInt(offset);
+            out.pad();
+            for (int k = 0; k < c; k++) {
+                for (int i = 0; i < dag.outDegree(k); i++) {
+                    out.putInt(dag.outNeighbor(k, i));
+                }
+            }
+            out.pad();
+            for (int k = 0; k <= c; k++) {
+                out.putInt(crossOffsets[k]);
+            }
+            out.pad();
+            for (int k = 0; k < c; k++) {
+                for (int i = 0; i < dag.size(k); i++) {
+                    int v = from + dag.member(k, i);
+                    for (int j = 0; j < graph.outDegree(v); j++) {
+                        int w = graph.outNeighbor(v, j);
+                        if (w < from || w >= to) {
+                            out.putInt(w);
+                        }
+                    }
+                }
+            }
+            out.flush();
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Map a partition summary file.
+     * @param file summary written by a worker
+     * @return summary backed by the mapping
+     * @throws IOException if the file cannot be read or is not a supported summary file
+     */
+    public static PartitionSummary map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a partition summary file (too short): " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a partition summary file (bad magic): " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported partition summary version " + version + " in " + file
+                    + " (this reader supports " + VERSION + ")");
+            }
+            int from = header.getInt();
+            int to = header.getInt();
+            int c = header.getInt();
+            if (header.getInt() != SECTION_COUNT) {
+                throw new IOException("Corrupt partition summary header in " + file);
+            }
+            header.getLong();
+            long x = header.getLong();
+            long nanos = header.getLong();
+            
+            IntArray[] sections = new IntArray[SECTION_COUNT];
+            for (int s = 0; s < SECTION_COUNT; s++) {
+                long offset = header.getLong();
+                long bytes = header.getLong();
+                if (offset < HEADER_BYTES || offset + bytes > channel.size()) {
+                    throw new IOException("Corrupt partition summary section table in " + file);
+                }
+                if (bytes > Integer.MAX_VALUE) {
+                    throw new IOException("Section " + s + " of " + file + " exceeds 2 GB");
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                sections[s] = ArrayStorage.wrap(buffer.asIntBuffer());
+            }
+            return new PartitionSummary(from, to, c, x, nanos, sections);
+        }
+    }
+    
+    /** First vertex of the range. */
+    public int from() {
+        return from;
+    }
+    
+    /** End of the range, exclusive. */
+    public int to() {
+        return to;
+    }
+    
+    public int componentCount() {
+        return componentCount;
+    }
+    
+    public long crossEdgeCount() {
+        return crossEdgeCount;
+    }
+    
+    public long getWorkerNanos() {
+        return workerNanos;
+    }
+    
+    /** Local component of a vertex in the range, by its whole-graph number. */
+    public int componentOf(int v) {
+        return sections[COMPONENT_OF].get(v - from);
+    }
+    
+    public int duration(int c) {
+        return sections[DURATIONS].get(c);
+    }
+    
+    public int size(int c) {
+        return sections[MEMBER_OFFSETS].get(c + 1L) - sections[MEMBER_OFFSETS].get(c);
+    }
+    
+    /** The i-th vertex of a local component, as a whole-graph number. */
+    public int member(int c, int i) {
+        return sections[MEMBERS].get(sections[MEMBER_OFFSETS].get(c) + (long) i);
+    }
+    
+    /** Dependents of a local component inside the range. */
+    public int outDegree(int c) {
+        return sections[OUT_OFFSETS].get(c + 1L) - sections[OUT_OFFSETS].get(c);
+    }
+    
+    public int outNeighbor(int c, int i) {
+        return sections[OUT_TARGETS].get(sections[OUT_OFFSETS].get(c) + (long) i);
+    }
+    
+    /** Edges from a local component's tasks to tasks outside the range. */
+    public int crossDegree(int c) {
+        return sections[CROSS_OFFSETS].get(c + 1L) - sections[CROSS_OFFSETS].get(c);
+    }
+    
+    /** Target task of a cross edge, as a whole-graph number. */
+    public int crossTarget(int c, int i) {
+        return sections[CROSS_TARGETS].get(sections[CROSS_OFFSETS].get(c) + (long) i);
+    }
+}
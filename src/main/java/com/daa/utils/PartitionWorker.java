@@ -0,0 +1,174 @@
+package com.daa.utils;
+
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.MappedGraph;
+import graph.scc.CompactTarjanSCC;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Worker process of a {@link PartitionedAnalyzer}: finds the SCCs of one
+ * range of vertices of a binary graph file and writes them, with the edges
+ * leaving the range, as a {@link PartitionSummary}.
+ * 
+ * <p>The graph file is mapped, so only the pages of the worker's own range
+ * and its neighbors' are read; the worker's memory grows with the size of
+ * its range, not of the graph.
+ * <pre>
+ * java -cp ... com.daa.utils.PartitionWorker graph.sccg FROM TO out.sccp
+ * </pre>
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public final class PartitionWorker {
+    
+    private PartitionWorker() {
+    }
+    
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.err.println("Usage: java com.daa.utils.PartitionWorker graph.sccg FROM TO output.sccp");
+            System.exit(1);
+        }
+        try {
+            MappedGraph graph = BinaryGraphFormat.map(Path.of(args[0]));
+            run(graph, Integer.parseInt(args[1]), Integer.parseInt(args[2]), Path.of(args[3]));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error analyzing partition: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Analyze one range of a graph and write its summary.
+     * @param graph the whole graph
+     * @param from first vertex of the range
+     * @param to end of the range, exclusive
+     * @param output summary file to write
+     * @throws IOException if the summary cannot be written
+     * @throws IllegalArgumentException if the range is not within the graph
+     */
+    public static void run(IntGraph graph, int from, int to, Path output) throws IOException {
+        if (from < 0 || from > to || to > graph.vertexCount()) {
+            throw new IllegalArgumentException("Range " + from + ".." + to + " is outside a graph of "
+                + graph.vertexCount() + " tasks");
+        }
+        long start = System.nanoTime();
+        RangeGraph range = new RangeGraph(graph, from, to);
+        CompactTarjanSCC tarjan = new CompactTarjanSCC(range);
+        IntArray componentOf = tarjan.findSCCs();
+        CompactCondensation dag = CompactCondensation.build(range, componentOf, tarjan.getComponentCount());
+        PartitionSummary.write(output, graph, from, to, componentOf, dag, System.nanoTime() - start);
+    }
+    
+    /**
+     * The vertices of a range and the edges between them, numbered from 0,
+     * as CSR lists of dependents and of dependencies.
+     */
+    private static final class RangeGraph implements IntGraph {
+        private final IntGraph graph;
+        private final int from;
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] inOffsets;
+        private final int[] sources;
+        
+        RangeGraph(IntGraph graph, int from, int to) {
+            this.graph = graph;
+            this.from = from;
+            int n = to - from;
+            offsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                int inside = 0;
+                for (int i = 0; i < graph.outDegree(from + v); i++) {
+                    int w = graph.outNeighbor(from + v, i);
+                    if (w >= from && w < to) {
+                        inside++;
+                    }
+                }
+                offsets[v + 1] = offsets[v] + inside;
+            }
+            targets = new int[offsets[n]];
+            int edge = 0;
+            for (int v = 0; v < n; v++) {
+                for (int i = 0; i < graph.outDegree(from + v); i++) {
+                    int w = graph.outNeighbor(from + v, i);
+                    if (w >= from && w < to) {
+                        targets[edge++] = w - from;
+                    }
+                }
+            }
+            
+            inOffsets = new int[n + 1];
+            for (int w : targets) {
+                inOffsets[w + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                inOffsets[v + 1] += inOffsets[v];
+            }
+            sources = new int[targets.length];
+            int[] next = Arrays.copyOf(inOffsets, n);
+            for (int v = 0; v < n; v++) {
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    sources[next[targets[e]]++] = v;
+                }
+            }
+        }
+        
+        @Override
+        public int vertexCount() {
+            return offsets.length - 1;
+        }
+        
+        @Override
+        public long edgeCount() {
+            return targets.length;
+        }
+        
+        @Override
+        public String id(int v) {
+            return graph.id(from + v);
+        }
+        
+        @Override
+        public String name(int v) {
+            return graph.name(from + v);
+        }
+        
+        @Override
+        public int duration(int v) {
+            return graph.duration(from + v);
+        }
+        
+        @Override
+        public int outDegree(int v) {
+            return offsets[v + 1] - offsets[v];
+        }
+        
+        @Override
+        public int outNeighbor(int v, int i) {
+            return targets[offsets[v] + i];
+        }
+        
+        @Override
+        public int inDegree(int v) {
+            return inOffsets[v + 1] - inOffsets[v];
+        }
+        
+        @Override
+        public int inNeighbor(int v, int i) {
+            return sources[inOffsets[v] + i];
+        }
+        
+        @Override
+        public int indexOf(String taskId) {
+            int v = graph.indexOf(taskId);
+            return v >= from && v < from + vertexCount() ? v - from : -1;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.daa.utils;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.MappedGraph;
+import graph.analysis.AnalysisResult;
+import graph.dagsp.CompactCriticalPath;
+import graph.dagsp.CompactCriticalPath.CriticalPath;
+import graph.metrics.Instrumentation;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.scc.CompactTarjanSCC;
+import graph.topo.CompactTopologicalSort;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Analyzes a binary graph file with several worker processes, for graphs
+ * whose SCC working arrays do not fit in one JVM.
+ * 
+ * <p>The vertices are split into contiguous ranges of about equal vertex
+ * plus edge count, and one {@link PartitionWorker} JVM per range finds the
+ * SCCs of the edges inside its range, reading the graph from its own
+ * mapping of the file. Each writes a {@link PartitionSummary}: its local
+ * components and their condensation, plus the edges leaving the range. The
+ * coordinator maps the summaries and treats every local component as one
+ * vertex of a summary graph whose edges are the local condensation edges
+ * and the cross edges; a cycle through several partitions is a cycle of
+ * that graph, so one more SCC pass over it yields the real components.
+ * Condensation, topological order and critical path are then computed as
+ * in {@link graph.analysis.CompactAnalyzer}.
+ * 
+ * <p>The coordinator never holds the graph's edges: it needs the summary
+ * graph, which is as large as the local condensations, and two ints per
+ * task for the final component ids and members, which
+ * {@link ArrayStorage#OFF_HEAP} keeps outside the heap. Workers and
+ * coordinator talk only through the summary files, in a temporary
+ * directory removed afterwards. The SCC phase metrics time the whole
+ * distributed step, workers included.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class PartitionedAnalyzer {
+    
+    private final int partitions;
+    private final List<String> jvmOptions;
+    
+    /**
+     * @param partitions number of worker processes, at least 1
+     */
+    public PartitionedAnalyzer(int partitions) {
+        this(partitions, List.of());
+    }
+    
+    /**
+     * @param partitions number of worker processes, at least 1
+     * @param jvmOptions options for every worker JVM, such as {@code -Xmx4g}
+     */
+    public PartitionedAnalyzer(int partitions, List<String> jvmOptions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive");
+        }
+        this.partitions = partitions;
+        this.jvmOptions = List.copyOf(jvmOptions);
+    }
+    
+    /**
+     * Analyze a binary graph file, keeping the coordinator's arrays on the heap.
+     * @param graphFile {@link BinaryGraphFormat} file
+     * @return SCCs, condensation, order, critical path and per-phase metrics
+     * @throws IOException if the file cannot be read or a worker fails
+     */
+    public AnalysisResult analyze(Path graphFile) throws IOException {
+        return analyze(graphFile, ArrayStorage.HEAP);
+    }
+    
+    /**
+     * Analyze a binary graph file.
+     * @param graphFile {@link BinaryGraphFormat} file
+     * @param storage where the coordinator's per-task and per-component arrays are allocated
+     * @return SCCs, condensation, order, critical path and per-phase metrics
+     * @throws IOException if the file cannot be read or a worker fails
+     */
+    public AnalysisResult analyze(Path graphFile, ArrayStorage storage) throws IOException {
+        MappedGraph graph = BinaryGraphFormat.map(graphFile);
+        Map<Phase, Metrics> phaseMetrics = new EnumMap<>(Phase.class);
+        Metrics sccMetrics = Instrumentation.newMetrics();
+        sccMetrics.startTimer();
+        
+        int[] bounds = split(graph, partitions);
+        Path directory = Files.createTempDirectory("scc-partitions");
+        try {
+            PartitionSummary[] parts = runWorkers(graphFile.toAbsolutePath(), bounds, directory);
+            SummaryGraph summary = new SummaryGraph(parts, bounds);
+            CompactTarjanSCC tarjan = new CompactTarjanSCC(summary, Instrumentation.newMetrics(), storage);
+            IntArray merged = tarjan.findSCCs();
+            int count = tarjan.getComponentCount();
+            sccMetrics.stopTimer();
+            if (Instrumentation.ENABLED) {
+                long crossEdges = 0;
+                for (PartitionSummary part : parts) {
+                    crossEdges += part.crossEdgeCount();
+                }
+                sccMetrics.counter("partitions").add(parts.length);
+                sccMetrics.counter("cross_edges").add(crossEdges);
+                sccMetrics.counter("summary_vertices").add(summary.vertexCount());
+            }
+            phaseMetrics.put(Phase.SCC, sccMetrics);
+            
+            Metrics condensationMetrics = Instrumentation.newMetrics();
+            condensationMetrics.startTimer();
+            IntArray componentOf = storage.newIntArray(graph.vertexCount());
+            for (int p = 0; p < parts.length; p++) {
+                for (int v = parts[p].from(); v < parts[p].to(); v++) {
+                    componentOf.set(v, merged.get(summary.base[p] + (long) parts[p].componentOf(v)));
+                }
+            }
+            CompactCondensation condensation = expand(CompactCondensation.build(summary, merged, count, storage),
+                summary, graph.vertexCount(), storage);
+            condensationMetrics.stopTimer();
+            phaseMetrics.put(Phase.CONDENSATION, condensationMetrics);
+            
+            CompactTopologicalSort topoSort = new CompactTopologicalSort(condensation, Instrumentation.newMetrics(),
+                storage);
+            IntArray order = topoSort.sort();
+            phaseMetrics.put(Phase.TOPO, topoSort.getMetrics());
+            
+            CompactCriticalPath pathFinder = new CompactCriticalPath(condensation, order,
+                Instrumentation.newMetrics(), storage);
+            CriticalPath criticalPath = pathFinder.longestPath();
+            phaseMetrics.put(Phase.PATHS, pathFinder.getMetrics());
+            return new AnalysisResult(graph, componentOf, condensation, order, criticalPath, phaseMetrics, storage);
+        } finally {
+            deleteQuietly(directory);
+        }
+    }
+    
+    /**
+     * Split vertices into contiguous ranges of about equal vertex plus out-edge count.
+     * @return range starts followed by the vertex count; empty ranges are dropped
+     */
+    static int[] split(IntGraph graph, int partitions) {
+        int n = graph.vertexCount();
+        long total = n + graph.edgeCount();
+        int[] bounds = new int[partitions + 1];
+        int count = 1;
+        long weight = 0;
+        for (int v = 0; v < n && count < partitions; v++) {
+            weight += 1 + graph.outDegree(v);
+            if (weight * partitions >= total * count) {
+                bounds[count++] = v + 1;
+            }
+        }
+        bounds[count] = n;
+        return Arrays.stream(bounds, 0, count + 1).distinct().toArray();
+    }
+    
+    private PartitionSummary[] runWorkers(Path graphFile, int[] bounds, Path directory) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        int count = bounds.length - 1;
+        Process[] workers = new Process[count];
+        Path[] outputs = new Path[count];
+        Path[] logs = new Path[count];
+        try {
+            for (int p = 0; p < count; p++) {
+                outputs[p] = directory.resolve("part-" + p + PartitionSummary.FILE_EXTENSION);
+                logs[p] = directory.resolve("part-" + p + ".log");
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                command.addAll(jvmOptions);
+                command.addAll(List.of("-cp", classPath, PartitionWorker.class.getName(), graphFile.toString(),
+                    Integer.toString(bounds[p]), Integer.toString(bounds[p + 1]), outputs[p].toString()));
+                workers[p] = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(logs[p].toFile())
+                    .start();
+            }
+            PartitionSummary[] parts = new PartitionSummary[count];
+            for (int p = 0; p < count; p++) {
+                int exit = workers[p].waitFor();
+                if (exit != 0) {
+                    String log = Files.readString(logs[p], StandardCharsets.UTF_8).trim();
+                    throw new IOException("Partition worker " + p + " (vertices " + bounds[p] + ".." + bounds[p + 1]
+                        + ") failed with exit code " + exit + (log.isEmpty() ? "" : ": " + log));
+                }
+                parts[p] = PartitionSummary.map(outputs[p]);
+            }
+            return parts;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for partition workers", e);
+        } finally {
+            for (Process worker : workers) {
+                if (worker != null && worker.isAlive()) {
+                    worker.destroyForcibly();
+                }
+            }
+        }
+    }
+    
+    // Same components and edges, with members expanded from summary vertices to tasks
+    private static CompactCondensation expand(CompactCondensation pieces, SummaryGraph summary, int taskCount,
+                                              ArrayStorage storage) {
+        int count = pieces.vertexCount();
+        long edges = pieces.edgeCount();
+        IntArray durations = storage.newIntArray(count);
+        IntArray memberOffsets = storage.newIntArray(count + 1L);
+        IntArray members = storage.newIntArray(taskCount);
+        IntArray outOffsets = storage.newIntArray(count + 1L);
+        IntArray outTargets = storage.newIntArray(edges);
+        IntArray inOffsets = storage.newIntArray(count + 1L);
+        IntArray inSources = storage.newIntArray(edges);
+        int member = 0;
+        int out = 0;
+        int in = 0;
+        for (int c = 0; c < count; c++) {
+            durations.set(c, pieces.duration(c));
+            memberOffsets.set(c, member);
+            for (int i = 0; i < pieces.size(c); i++) {
+                int s = pieces.member(c, i);
+                int p = summary.partIndexOf(s);
+                PartitionSummary part = summary.parts[p];
+                int local = s - summary.base[p];
+                for (int j = 0; j < part.size(local); j++) {
+                    members.set(member++, part.member(local, j));
+                }
+            }
+            outOffsets.set(c, out);
+            for (int i = 0; i < pieces.outDegree(c); i++) {
+                outTargets.set(out++, pieces.outNeighbor(c, i));
+            }
+            inOffsets.set(c, in);
+            for (int i = 0; i < pieces.inDegree(c); i++) {
+                inSources.set(in++, pieces.inNeighbor(c, i));
+            }
+        }
+        memberOffsets.set(count, member);
+        outOffsets.set(count, out);
+        inOffsets.set(count, in);
+        return CompactCondensation.of(count, durations, memberOffsets, members, outOffsets, outTargets,
+            inOffsets, inSources);
+    }
+    
+    private static void deleteQuietly(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            // a platform that cannot delete mapped files leaves them to the temp directory cleanup
+        }
+    }
+    
+    /**
+     * Local components of all partitions as one graph, numbered partition
+     * after partition: edges are the partitions' condensation edges plus the
+     * cross edges, each pointing at the local component holding its target.
+     * Dependents are read from the summaries; dependencies are a CSR built
+     * once from them.
+     */
+    private static final class SummaryGraph implements IntGraph {
+        private final PartitionSummary[] parts;
+        private final int[] bounds;
+        private final int[] base;  // first summary vertex of each partition, plus the total
+        private final long edgeCount;
+        private final int[] inOffsets;
+        private final int[] sources;
+        
+        SummaryGraph(PartitionSummary[] parts, int[] bounds) {
+            this.parts = parts;
+            this.bounds = bounds;
+            this.base = new int[parts.length + 1];
+            long edges = 0;
+            for (int p = 0; p < parts.length; p++) {
+                base[p + 1] = base[p] + parts[p].componentCount();
+                for (int c = 0; c < parts[p].componentCount(); c++) {
+                    edges += parts[p].outDegree(c) + parts[p].crossDegree(c);
+                }
+            }
+            this.edgeCount = edges;
+            
+            int n = base[parts.length];
+            inOffsets = new int[n + 1];
+            for (int s = 0; s < n; s++) {
+                for (int i = 0; i < outDegree(s); i++) {
+                    inOffsets[outNeighbor(s, i) + 1]++;
+                }
+            }
+            for (int s = 0; s < n; s++) {
+                inOffsets[s + 1] += inOffsets[s];
+            }
+            sources = new int[inOffsets[n]];
+            int[] next = Arrays.copyOf(inOffsets, n);
+            for (int s = 0; s < n; s++) {
+                for (int i = 0; i < outDegree(s); i++) {
+                    sources[next[outNeighbor(s, i)]++] = s;
+                }
+            }
+        }
+        
+        // every range is non-empty, so every partition has components and base is strictly increasing
+        int partIndexOf(int s) {
+            int p = Arrays.binarySearch(base, s);
+            return p >= 0 ? p : -p - 2;
+        }
+        
+        @Override
+        public int vertexCount() {
+            return base[parts.length];
+        }
+        
+        @Override
+        public long edgeCount() {
+            return edgeCount;
+        }
+        
+        @Override
+        public String id(int s) {
+            int p = partIndexOf(s);
+            return "P" + p + "C" + (s - base[p]);
+        }
+        
+        @Override
+        public String name(int s) {
+            return null;
+        }
+        
+        @Override
+        public int duration(int s) {
+            int p = partIndexOf(s);
+            return parts[p].duration(s - base[p]);
+        }
+        
+        @Override
+        public int outDegree(int s) {
+            int p = partIndexOf(s);
+            int c = s - base[p];
+            return parts[p].outDegree(c) + parts[p].crossDegree(c);
+        }
+        
+        @Override
+        public int outNeighbor(int s, int i) {
+            int p = partIndexOf(s);
+            int c = s - base[p];
+            int inside = parts[p].outDegree(c);
+            if (i < inside) {
+                return base[p] + parts[p].outNeighbor(c, i);
+            }
+            int target = parts[p].crossTarget(c, i - inside);
+            int q = Arrays.binarySearch(bounds, target);
+            q = q >= 0 ? q : -q - 2;
+            return base[q] + parts[q].componentOf(target);
+        }
+        
+        @Override
+        public int inDegree(int s) {
+            return inOffsets[s + 1] - inOffsets[s];
+        }
+        
+        @Override
+        public int inNeighbor(int s, int i) {
+            return sources[inOffsets[s] + i];
+        }
+        
+        @Override
+        public int indexOf(String id) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.daa.utils;
+
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.LongArray;
+import graph.analysis.AnalysisResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes an {@link AnalysisResult} as compact JSON or NDJSON, for other
+ * programs to read.
+ * 
+ * <p>Output is encoded straight into one reusable buffer that is flushed to
+ * a channel through a direct buffer: numbers are formatted digit by digit and ids escaped and
+ * UTF-8-encoded character by character, so writing a component allocates
+ * nothing. The JSON form is a single object:
+ * <pre>
+ * {"tasks":12,"edges":14,"critical_path":{"length":31,"components":[7,5,0],"tasks":[["T1"],["T2"],["T9","T10"]]},
+ *  "components":[{"id":0,"size":2,"duration":6,"earliest_start":25,"latest_start":25,"slack":0,"tasks":["T9","T10"]},...],
+ *  "condensation_edges":[[7,5],...],"topological_order":[7,6,...]}
+ * </pre>
+ * NDJSON has one object per line, tagged by {@code "type"}: a
+ * {@code summary}, then {@code component} records in topological order with
+ * their {@code "position"}, {@code edge} records and a final
+ * {@code critical_path}. Component fields are the same in both forms;
+ * start times come from the critical path method, and slack is how far a
+ * component can slip without delaying the plan.
+ */
+public final class ResultJsonWriter {
+    
+    /** Output layout. */
+    public enum Format {
+        JSON, NDJSON;
+        
+        /** NDJSON for {@code .ndjson} and {@code .jsonl} files, JSON otherwise. */
+        public static Format forPath(String path) {
+            return path.endsWith(".ndjson") || path.endsWith(".jsonl") ? NDJSON : JSON;
+        }
+    }
+    
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final byte[] bytes = new byte[BUFFER_BYTES];  // encoded here, then copied to buffer in bulk
+    private final byte[] digits = new byte[20];
+    private int position;
+    
+    private ResultJsonWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+    
+    /**
+     * Write a result to a file, replacing it atomically.
+     * @param result analysis result
+     * @param path output file
+     * @param format JSON or NDJSON
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(AnalysisResult result, Path path, Format format) throws IOException {
+        // a unique staging file, so concurrent writers of one path never share it
+        Path absolute = path.toAbsolutePath();
+        Path tmp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                write(result, channel, format);
+            }
+            Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+    
+    /**
+     * Write a result to a channel. The channel is flushed but not closed.
+     * @param result analysis result
+     * @param channel destination
+     * @param format JSON or NDJSON
+     * @throws IOException if writing fails
+     */
+    public static void write(AnalysisResult result, WritableByteChannel channel, Format format) throws IOException {
+        ResultJsonWriter writer = new ResultJsonWriter(channel);
+        if (format == Format.NDJSON) {
+            writer.writeNdjson(result);
+        } else {
+            writer.writeJson(result);
+        }
+        writer.flush();
+    }
+    
+    private void writeJson(AnalysisResult result) throws IOException {
+        CompactCondensation dag = result.getCondensation();
+        ascii("{\"tasks\":").number(result.taskCount());
+        ascii(",\"edges\":").number(result.edgeCount());
+        ascii(",\"critical_path\":");
+        criticalPath(result);
+        
+        ascii(",\"components\":[");
+        for (int c = 0; c < dag.vertexCount(); c++) {
+            ascii(c > 0 ? ",{" : "{");
+            component(result, c);
+            ascii("}");
+        }
+        
+        ascii("],\"condensation_edges\":[");
+        boolean first = true;
+        for (int c = 0; c < dag.vertexCount(); c++) {
+            for (int i = 0; i < dag.outDegree(c); i++) {
+                ascii(first ? "[" : ",[").number(c).ascii(",").number(dag.outNeighbor(c, i)).ascii("]");
+                first = false;
+            }
+        }
+        
+        ascii("],\"topological_order\":[");
+        IntArray order = result.getTopologicalOrder();
+        for (long k = 0; k < order.length(); k++) {
+            if (k > 0) {
+                ascii(",");
+            }
+            number(order.get(k));
+        }
+        ascii("]}\n");
+    }
+    
+    private void writeNdjson(AnalysisResult result) throws IOException {
+        CompactCondensation dag = result.getCondensation();
+        ascii("{\"type\":\"summary\",\"tasks\":").number(result.taskCount());
+        ascii(",\"edges\":").number(result.edgeCount());
+        ascii(",\"components\":").number(dag.vertexCount());
+        ascii(",\"condensation_edges\":").number(dag.edgeCount());
+        ascii(",\"critical_path_length\":").number(result.criticalPathLength());
+        ascii("}\n");
+        
+        IntArray order = result.getTopologicalOrder();
+        for (long k = 0; k < order.length(); k++) {
+            ascii("{\"type\":\"component\",\"position\":").number(k).ascii(",");
+            component(result, order.get(k));
+            ascii("}\n");
+        }
+        for (int c = 0; c < dag.vertexCount(); c++) {
+            for (int i = 0; i < dag.outDegree(c); i++) {
+                ascii("{\"type\":\"edge\",\"from\":").number(c).ascii(",\"to\":").number(dag.outNeighbor(c, i)).ascii("}\n");
+            }
+        }
+        ascii("{\"type\":\"critical_path\",\"value\":");
+        criticalPath(result);
+        ascii("}\n");
+    }
+    
+    // Component fields, without the surrounding braces
+    private void component(AnalysisResult result, int c) throws IOException {
+        CompactCondensation dag = result.getCondensation();
+        IntGraph graph = result.getGraph();
+        LongArray earliest = result.getEarliestStarts();
+        LongArray latest = result.getLatestStarts();
+        ascii("\"id\":").number(c);
+        ascii(",\"size\":").number(dag.size(c));
+        ascii(",\"duration\":").number(dag.duration(c));
+        ascii(",\"earliest_start\":").number(earliest.get(c));
+        ascii(",\"latest_start\":").number(latest.get(c));
+        ascii(",\"slack\":").number(latest.get(c) - earliest.get(c));
+        ascii(",\"tasks\":[");
+        for (int i = 0; i < dag.size(c); i++) {
+            if (i > 0) {
+                ascii(",");
+            }
+            string(graph.id(dag.member(c, i)));
+        }
+        ascii("]");
+    }
+    
+    private void criticalPath(AnalysisResult result) throws IOException {
+        CompactCondensation dag = result.getCondensation();
+        IntGraph graph = result.getGraph();
+        int[] path = result.getCriticalPath();
+        ascii("{\"length\":").number(result.criticalPathLength());
+        ascii(",\"components\":[");
+        for (int k = 0; k < path.length; k++) {
+            if (k > 0) {
+                ascii(",");
+            }
+            number(path[k]);
+        }
+        ascii("],\"tasks\":[");
+        for (int k = 0; k < path.length; k++) {
+            ascii(k > 0 ? ",[" : "[");
+            for (int i = 0; i < dag.size(path[k]); i++) {
+                if (i > 0) {
+                    ascii(",");
+                }
+                string(graph.id(dag.member(path[k], i)));
+            }
+            ascii("]");
+        }
+        ascii("]}");
+    }
+    
+    private ResultJsonWriter ascii(String text) throws IOException {
+        int length = text.length();
+        if (BUFFER_BYTES - position < length) {
+            flush();
+        }
+        for (int i = 0; i < length; i++) {
+            bytes[position++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+    
+    private ResultJsonWriter number(long value) throws IOException {
+        if (BUFFER_BYTES - position < 20) {
+            flush();
+        }
+        if (value == Long.MIN_VALUE) {
+            return ascii(Long.toString(value));
+        }
+        if (value < 0) {
+            bytes[position++] = '-';
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (count > 0) {
+            bytes[position++] = digits[--count];
+        }
+        return this;
+    }
+    
+    // Quoted JSON string; a null id is written as null
+    private void string(String text) throws IOException {
+        if (text == null) {
+            ascii("null");
+            return;
+        }
+        if (BUFFER_BYTES - position < 2) {
+            flush();
+        }
+        byte[] out = bytes;
+        out[position++] = '"';
+        for (int i = 0; i < text.length(); i++) {
+            if (BUFFER_BYTES - position < 7) {
+                flush();
+            }
+            char ch = text.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                out[position++] = '\\';
+                out[position++] = (byte) ch;
+            } else if (ch < 0x20) {
+                out[position++] = '\\';
+                out[position++] = 'u';
+                out[position++] = '0';
+                out[position++] = '0';
+                out[position++] = HEX[ch >> 4];
+                out[position++] = HEX[ch & 0xF];
+            } else if (ch < 0x80) {
+                out[position++] = (byte) ch;
+            } else if (ch < 0x800) {
+                out[position++] = (byte) (0xC0 | ch >> 6);
+                out[position++] = (byte) (0x80 | ch & 0x3F);
+            } else if (Character.isHighSurrogate(ch) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(ch, text.charAt(++i));
+                out[position++] = (byte) (0xF0 | cp >> 18);
+                out[position++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                out[position++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                out[position++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(ch)) {
+                out[position++] = '?'; // unpaired surrogate, as String.getBytes would write it
+            } else {
+                out[position++] = (byte) (0xE0 | ch >> 12);
+                out[position++] = (byte) (0x80 | ch >> 6 & 0x3F);
+                out[position++] = (byte) (0x80 | ch & 0x3F);
+            }
+        }
+        if (BUFFER_BYTES - position < 1) {
+            flush();
+        }
+        out[position++] = '"';
+    }
+    
+    // Hand the encoded bytes to the channel through the direct buffer
+    private void flush() throws IOException {
+        buffer.clear();
+        buffer.put(bytes, 0, position);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        position = 0;
+    }
+}
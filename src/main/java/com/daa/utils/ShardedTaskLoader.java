@@ -0,0 +1,117 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Loads a task set exported as several JSON shards, e.g. one per district.
+ * 
+ * <p>Every shard is streamed into its own {@link CompactGraphBuilder} on a
+ * worker thread, so parsing, the slowest part, runs fully in parallel.
+ * {@link CompactGraphBuilder#merge} then combines the id dictionaries,
+ * resolves dependencies that cross shards and fills the CSR arrays,
+ * again one shard per thread. The graph is the same as loading the shards
+ * concatenated in the given order.
+ */
+public class ShardedTaskLoader {
+    
+    /**
+     * Load shards with one thread per core.
+     * @param shards shard files, in the order their tasks should be numbered
+     * @return merged graph
+     * @throws IOException if a shard cannot be read, or a task is declared in two shards
+     */
+    public static CompactGraph load(List<Path> shards) throws IOException {
+        return load(shards, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Load shards with a fixed number of threads.
+     * @param shards shard files, in the order their tasks should be numbered
+     * @param threads worker threads
+     * @return merged graph
+     * @throws IOException if a shard cannot be read, or a task is declared in two shards
+     */
+    public static CompactGraph load(List<Path> shards, int threads) throws IOException {
+        if (shards.isEmpty()) {
+            throw new IOException("No shard files given");
+        }
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, shards.size())));
+        CompactGraph graph;
+        try {
+            List<Future<CompactGraphBuilder>> parsed = new ArrayList<>();
+            for (Path shard : shards) {
+                parsed.add(pool.submit(() -> parse(shard)));
+            }
+            List<CompactGraphBuilder> builders = new ArrayList<>();
+            for (Future<CompactGraphBuilder> future : parsed) {
+                builders.add(future.get());
+            }
+            graph = CompactGraphBuilder.merge(builders, pool);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+        }
+        if (graph.vertexCount() == 0) {
+            throw new IOException("No tasks found in JSON files");
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.PARSE, graph.vertexCount(), graph.edgeCount(), -1, null);
+            event.detail = shards.size() + " shards";
+            event.commit();
+        }
+        return graph;
+    }
+    
+    /**
+     * List the JSON shards in a directory, sorted by file name.
+     * @param directory directory holding the shards
+     * @return shard paths
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> listShards(Path directory) throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.filter(p -> p.getFileName().toString().endsWith(".json")).sorted().toList();
+        }
+    }
+    
+    private static CompactGraphBuilder parse(Path shard) throws IOException {
+        // size the builder from the file so large shards do not regrow their arrays
+        long bytes = Files.size(shard);
+        int expectedTasks = (int) Math.min(1 << 24, bytes / 64);
+        CompactGraphBuilder builder = new CompactGraphBuilder(expectedTasks, expectedTasks * 2);
+        try (Reader reader = Files.newBufferedReader(shard, StandardCharsets.UTF_8)) {
+            StreamingTaskLoader.read(reader, builder);
+        }
+        return builder;
+    }
+}
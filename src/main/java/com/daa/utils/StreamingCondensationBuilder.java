@@ -0,0 +1,322 @@
+package com.daa.utils;
+
+import com.daa.model.IntArray;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Builds the condensation DAG of a disk-resident edge list without holding
+ * its edges in memory, and writes it as a {@link BinaryGraphFormat} file.
+ * 
+ * <p>One scan of the edge file turns every edge between two different
+ * components into a (from, to) key. Keys are sorted and deduplicated with
+ * an external merge sort in runs of bounded size, once by source and once by
+ * target, and the two sorted streams become the forward and reverse CSR
+ * sections of the output. Memory is O(components) plus the run buffers of
+ * the two sorts, which overlap while the first feeds the second; each holds
+ * at most the configured run size, or the number of edges if that is
+ * smaller, whatever the size of the input. Component c of the output has id "c" and,
+ * as in {@code CondensationGraph}, the max duration of its tasks; it can
+ * then be mapped with {@link BinaryGraphFormat#map} for ordering and path analysis.
+ */
+public class StreamingCondensationBuilder {
+    
+    private static final int DEFAULT_RUN_LONGS = 1 << 22;   // 32 MB per sorted run
+    private static final int READ_BUFFER_BYTES = 1 << 16;
+    
+    private final Path workDir;
+    private final int runLongs;
+    
+    /**
+     * @param workDir directory to create each build's temporary directory in
+     */
+    public StreamingCondensationBuilder(Path workDir) {
+        this(workDir, DEFAULT_RUN_LONGS);
+    }
+    
+    /**
+     * @param workDir directory to create each build's temporary directory in
+     * @param runLongs keys sorted in memory at a time
+     */
+    public StreamingCondensationBuilder(Path workDir, int runLongs) {
+        this.workDir = workDir;
+        this.runLongs = runLongs;
+    }
+    
+    /**
+     * Build and write the condensation.
+     * @param edges edge list of the original graph
+     * @param componentOf component of every vertex
+     * @param componentCount number of components
+     * @param output binary graph file to write
+     * @return number of condensation edges
+     * @throws IOException if reading or writing fails
+     */
+    public long build(EdgeListFile edges, IntArray componentOf, int componentCount, Path output) throws IOException {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        
+        // one pass over the durations section, folded straight into the components
+        int[] durations = new int[componentCount];
+        edges.scanDurations((v, duration) -> {
+            int c = componentOf.get(v);
+            durations[c] = Math.max(durations[c], duration);
+        });
+        
+        // runs and sorted streams go in a directory of their own, so concurrent builds never share files
+        Path dir = Files.createTempDirectory(workDir, "condense-");
+        long[] edgeCount = new long[1];
+        try {
+            // sort (from, to) keys by source, keeping only distinct ones
+            RunSorter bySource = new RunSorter(dir, "by-source", edges.edgeCount());
+            edges.scan(false, (from, to) -> {
+                int cf = componentOf.get(from);
+                int ct = componentOf.get(to);
+                if (cf != ct) {
+                    bySource.add(key(cf, ct));
+                }
+            });
+            
+            // merge once: count degrees, keep the sorted stream, and feed the by-target sort
+            int[] outDegree = new int[componentCount];
+            int[] inDegree = new int[componentCount];
+            RunSorter byTarget = new RunSorter(dir, "by-target", edges.edgeCount());
+            Path sortedBySource = dir.resolve("condensation-by-source.bin");
+            try (LongWriter sourceOut = new LongWriter(sortedBySource)) {
+                bySource.finish(key -> {
+                    int from = (int) (key >>> 32);
+                    int to = (int) key;
+                    outDegree[from]++;
+                    inDegree[to]++;
+                    edgeCount[0]++;
+                    sourceOut.write(key);
+                    byTarget.add(key(to, from));
+                });
+            }
+            Path sortedByTarget = dir.resolve("condensation-by-target.bin");
+            try (LongWriter targetOut = new LongWriter(sortedByTarget)) {
+                byTarget.finish(targetOut::write);
+            }
+            
+            try (LongReader outTargets = new LongReader(sortedBySource);
+                 LongReader inSources = new LongReader(sortedByTarget)) {
+                BinaryGraphFormat.writeSections(output, componentCount, edgeCount[0],
+                    Integer::toString, c -> null, c -> durations[c],
+                    c -> outDegree[c], () -> (int) outTargets.next(),
+                    c -> inDegree[c], () -> (int) inSources.next());
+            }
+        } finally {
+            deleteDirectory(dir);
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.CONDENSATION, edges.vertexCount(), edgeCount[0], componentCount, null);
+            event.detail = "streaming";
+            event.commit();
+        }
+        return edgeCount[0];
+    }
+    
+    // The build directory only ever holds files
+    private static void deleteDirectory(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+    
+    private static long key(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+    
+    // External sort: sorted, deduplicated runs on disk, then a k-way merge.
+    // The run buffer never exceeds the keys that can arrive, so small inputs sort in a small array.
+    private final class RunSorter {
+        private final Path dir;
+        private final String name;
+        private final long[] buffer;
+        private final List<Path> runs = new ArrayList<>();
+        private int size;
+        
+        RunSorter(Path dir, String name, long maxKeys) {
+            this.dir = dir;
+            this.name = name;
+            this.buffer = new long[(int) Math.max(1, Math.min(runLongs, maxKeys))];
+        }
+        
+        void add(long key) {
+            if (size == buffer.length) {
+                spill();
+            }
+            buffer[size++] = key;
+        }
+        
+        private void spill() {
+            int unique = sortUnique();
+            Path run = dir.resolve("condensation-" + name + "-" + runs.size() + ".run");
+            try (LongWriter out = new LongWriter(run)) {
+                for (int i = 0; i < unique; i++) {
+                    out.write(buffer[i]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            runs.add(run);
+            size = 0;
+        }
+        
+        private int sortUnique() {
+            Arrays.sort(buffer, 0, size);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || buffer[i] != buffer[unique - 1]) {
+                    buffer[unique++] = buffer[i];
+                }
+            }
+            return unique;
+        }
+        
+        // Emit every distinct key in ascending order, then remove the run files
+        void finish(LongConsumer consumer) throws IOException {
+            if (runs.isEmpty()) {
+                int unique = sortUnique();
+                for (int i = 0; i < unique; i++) {
+                    consumer.accept(buffer[i]);
+                }
+                return;
+            }
+            if (size > 0) {
+                spill();
+            }
+            List<LongReader> readers = new ArrayList<>();
+            try {
+                PriorityQueue<LongReader> queue = new PriorityQueue<>((a, b) -> Long.compare(a.peek(), b.peek()));
+                for (Path run : runs) {
+                    LongReader reader = new LongReader(run);
+                    readers.add(reader);
+                    if (reader.hasNext()) {
+                        queue.add(reader);
+                    }
+                }
+                boolean first = true;
+                long last = 0;
+                while (!queue.isEmpty()) {
+                    LongReader reader = queue.poll();
+                    long key = reader.next();
+                    if (first || key != last) {
+                        consumer.accept(key);
+                        last = key;
+                        first = false;
+                    }
+                    if (reader.hasNext()) {
+                        queue.add(reader);
+                    }
+                }
+            } finally {
+                for (LongReader reader : readers) {
+                    reader.close();
+                }
+                for (Path run : runs) {
+                    Files.deleteIfExists(run);
+                }
+            }
+        }
+    }
+    
+    // Sequential little-endian long output
+    private static final class LongWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        
+        LongWriter(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+        
+        void write(long value) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.putLong(value);
+        }
+        
+        private void drain() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            drain();
+            channel.close();
+        }
+    }
+    
+    // Sequential little-endian long input with one value of lookahead
+    private static final class LongReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        
+        LongReader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.flip();
+        }
+        
+        boolean hasNext() {
+            if (buffer.remaining() >= Long.BYTES) {
+                return true;
+            }
+            try {
+                buffer.compact();
+                while (buffer.position() < Long.BYTES && channel.read(buffer) > 0) {
+                    // fill at least one value if the file has one
+                }
+                buffer.flip();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.remaining() >= Long.BYTES;
+        }
+        
+        long peek() {
+            return buffer.getLong(buffer.position());
+        }
+        
+        long next() {
+            if (!hasNext()) {
+                throw new IllegalStateException("read past the end of a sorted run");
+            }
+            return buffer.getLong();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
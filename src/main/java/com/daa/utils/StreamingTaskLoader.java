@@ -0,0 +1,147 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import com.daa.model.TaskGraph;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming loader for the task JSON format read by {@link TaskJsonParser}.
+ * 
+ * <p>Reads the array token by token with Gson's {@link JsonReader} and
+ * feeds ids, durations and dependency edges straight into a
+ * {@link CompactGraphBuilder}. No {@code List<Task>} or per-task dependency
+ * lists are created, so peak heap is roughly the size of the compact graph
+ * plus one id string per distinct task. Dependencies on tasks that appear
+ * later in the file are resolved in the same pass.
+ * 
+ * <p>Field order inside a task object does not matter, unknown fields are
+ * skipped, and as with Gson's reflective parsing numeric strings are
+ * accepted for durations.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class StreamingTaskLoader {
+    
+    /**
+     * Load a task file into a compact graph.
+     * @param filePath path to the JSON task array
+     * @return compact graph
+     * @throws IOException if the file cannot be read, is malformed or has no tasks
+     */
+    public static CompactGraph load(String filePath) throws IOException {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        
+        CompactGraph graph;
+        try (Reader reader = Files.newBufferedReader(Path.of(filePath), StandardCharsets.UTF_8)) {
+            graph = load(reader);
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.PARSE, graph.vertexCount(), graph.edgeCount(), -1, null);
+            event.detail = filePath;
+            event.commit();
+        }
+        return graph;
+    }
+    
+    /**
+     * Load a task file straight into a TaskGraph for the map-based algorithms,
+     * without materializing a {@code List<Task>} first.
+     * @param filePath path to the JSON task array
+     * @return task graph
+     * @throws IOException if the file cannot be read, is malformed or has no tasks
+     */
+    public static TaskGraph loadTaskGraph(String filePath) throws IOException {
+        return load(filePath).toTaskGraph();
+    }
+    
+    /**
+     * Load tasks from any reader into a compact graph.
+     * @param reader source of the JSON task array
+     * @return compact graph
+     * @throws IOException if the input is malformed or has no tasks
+     */
+    public static CompactGraph load(Reader reader) throws IOException {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        read(reader, builder);
+        if (builder.taskCount() == 0) {
+            throw new IOException("No tasks found in JSON file");
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Stream every task in the JSON array into a builder.
+     * Used directly by loaders that merge several inputs.
+     * @param reader source of the JSON task array
+     * @param builder destination builder
+     * @throws IOException if the input is malformed
+     */
+    public static void read(Reader reader, CompactGraphBuilder builder) throws IOException {
+        JsonReader json = new JsonReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader, 1 << 16));
+        json.setLenient(true);
+        
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return;
+        }
+        
+        // reused for every task, so no per-task dependency list is allocated
+        List<String> dependencies = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            String id = null;
+            String name = null;
+            int duration = 0;
+            dependencies.clear();
+            
+            json.beginObject();
+            while (json.hasNext()) {
+                String field = json.nextName();
+                if (json.peek() == JsonToken.NULL) {
+                    json.nextNull();
+                    continue;
+                }
+                switch (field) {
+                    case "id" -> id = json.nextString();
+                    case "name" -> name = json.nextString();
+                    case "duration" -> duration = json.nextInt();
+                    case "dependencies" -> {
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            dependencies.add(json.nextString());
+                        }
+                        json.endArray();
+                    }
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+            
+            if (id == null) {
+                throw new IOException("Task without an id at " + json.getPath());
+            }
+            int task = builder.addTask(id, name, duration);
+            for (String dependency : dependencies) {
+                builder.addDependency(task, dependency);
+            }
+        }
+        json.endArray();
+    }
+}
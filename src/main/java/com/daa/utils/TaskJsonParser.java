@@ -5,6 +5,8 @@ import com.daa.model.TaskGraph;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
 
 import java.io.FileReader;
 import java.io.FileWriter;
@@ -39,7 +41,17 @@ public class TaskJsonParser {
      * ]
      */
     public static TaskGraph loadFromJson(String filePath) throws IOException {
+        return loadFromJson(filePath, true);
+    }
+    
+    /**
+     * Load tasks from a JSON file, optionally without printing a summary line.
+     * Used by repeated and batch runs where per-file output would be noise.
+     */
+    public static TaskGraph loadFromJson(String filePath, boolean verbose) throws IOException {
         TaskGraph graph = new TaskGraph();
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
         
         try (FileReader reader = new FileReader(filePath)) {
             Type taskListType = new TypeToken<List<Task>>(){}.getType();
@@ -57,7 +69,16 @@ public class TaskJsonParser {
             // Build edges from dependencies
             graph.buildFromTasks();
             
-            System.out.println("Loaded " + tasks.size() + " tasks from " + filePath);
+            event.end();
+            if (event.shouldCommit()) {
+                event.set(Phase.PARSE, graph.size(), graph.edgeCount(), -1, null);
+                event.detail = filePath;
+                event.commit();
+            }
+            
+            if (verbose) {
+                System.out.println("Loaded " + tasks.size() + " tasks from " + filePath);
+            }
             return graph;
         }
     }
@@ -0,0 +1,301 @@
+package graph.analysis;
+
+import com.daa.model.Component;
+import com.daa.model.CondensationGraph;
+import com.daa.model.TaskGraph;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.DAGShortestPath.PathResult;
+import graph.metrics.Instrumentation;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Shared, lazily computed analysis of one {@link TaskGraph}.
+ * 
+ * <p>SCCs, the condensation DAG, the topological order, levels and the
+ * critical path method values are each computed the first time something
+ * asks for them, and from then on every caller gets the same cached object.
+ * Each artifact is built from the ones before it, so asking for the critical
+ * path runs Tarjan, the condensation and the sort exactly once, and a later
+ * request for the topological order costs nothing.
+ * 
+ * <p>The context remembers the graph version it was computed for; once the
+ * graph changes, the next request drops everything and starts over. Returned
+ * collections are shared and must not be modified. All methods are
+ * synchronized, so one context can be used from several threads; path
+ * finders are the exception and are handed out fresh to each caller.
+ * 
+ * <p>Each phase's wall time is taken around its computation independently of
+ * its {@link Metrics}, so {@link #getPhaseNanos()} stays meaningful when
+ * operation counting is disabled and the metrics are {@code NoOpMetrics}.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class AnalysisContext {
+    private final TaskGraph graph;
+    private final Supplier<Metrics> metricsFactory;
+    private final Map<Phase, Metrics> phaseMetrics = new EnumMap<>(Phase.class);
+    private final Map<Phase, Long> phaseNanos = new EnumMap<>(Phase.class);
+    private long version;
+    
+    private TarjanSCC sccFinder;
+    private List<Component> components;
+    private CondensationGraph condensation;
+    private List<Integer> topologicalOrder;
+    private List<String> taskOrder;
+    private Map<Integer, Integer> levels;
+    private PathResult criticalPath;
+    private Map<Integer, Integer> earliestStarts;
+    private Map<Integer, Integer> latestStarts;
+    
+    public AnalysisContext(TaskGraph graph) {
+        this(graph, Instrumentation::newMetrics);
+    }
+    
+    /**
+     * Context whose phases take their metrics from the given factory.
+     * @param graph graph to analyze
+     * @param metricsFactory creates the metrics of each phase
+     */
+    public AnalysisContext(TaskGraph graph, Supplier<Metrics> metricsFactory) {
+        this.graph = graph;
+        this.metricsFactory = metricsFactory;
+        this.version = graph.getVersion();
+    }
+    
+    public TaskGraph getGraph() {
+        return graph;
+    }
+    
+    /**
+     * Strongly connected components, from Tarjan's algorithm.
+     * @return components, indexed by component ID
+     */
+    public synchronized List<Component> getComponents() {
+        refresh();
+        if (components == null) {
+            long start = System.nanoTime();
+            sccFinder = new TarjanSCC(graph, metricsFactory.get());
+            components = Collections.unmodifiableList(sccFinder.findSCCs());
+            phaseNanos.put(Phase.SCC, System.nanoTime() - start);
+            phaseMetrics.put(Phase.SCC, sccFinder.getMetrics());
+        }
+        return components;
+    }
+    
+    /**
+     * The Tarjan run behind {@link #getComponents()}, for its report.
+     * @return SCC finder that has already run
+     */
+    public synchronized TarjanSCC getSCCFinder() {
+        getComponents();
+        return sccFinder;
+    }
+    
+    /**
+     * Component ID of every task.
+     * @return task ID to component ID
+     */
+    public synchronized Map<String, Integer> getTaskToComponentMap() {
+        getComponents();
+        return sccFinder.getTaskToComponentMap();
+    }
+    
+    /**
+     * Condensation DAG with one vertex per component.
+     * @return built condensation graph
+     */
+    public synchronized CondensationGraph getCondensation() {
+        getComponents();
+        if (condensation == null) {
+            long start = System.nanoTime();
+            Metrics metrics = metricsFactory.get();
+            metrics.startTimer();
+            CondensationGraph dag = new CondensationGraph(components, graph);
+            dag.build(sccFinder.getTaskToComponentMap());
+            metrics.stopTimer();
+            condensation = dag;
+            phaseNanos.put(Phase.CONDENSATION, System.nanoTime() - start);
+            phaseMetrics.put(Phase.CONDENSATION, metrics);
+        }
+        return condensation;
+    }
+    
+    /**
+     * Components in topological order of the condensation DAG.
+     * @return component IDs, every dependency before its dependents
+     */
+    public synchronized List<Integer> getTopologicalOrder() {
+        getCondensation();
+        if (topologicalOrder == null) {
+            long start = System.nanoTime();
+            TopologicalSort sort = new TopologicalSort(condensation, metricsFactory.get());
+            topologicalOrder = Collections.unmodifiableList(sort.sortComponents());
+            taskOrder = Collections.unmodifiableList(sort.tasksInOrder(topologicalOrder));
+            phaseNanos.put(Phase.TOPO, System.nanoTime() - start);
+            phaseMetrics.put(Phase.TOPO, sort.getMetrics());
+        }
+        return topologicalOrder;
+    }
+    
+    /**
+     * Tasks in an order that respects every dependency between components.
+     * @return task IDs, component by component in topological order
+     */
+    public synchronized List<String> getTaskOrder() {
+        getTopologicalOrder();
+        return taskOrder;
+    }
+    
+    /**
+     * Level of every component: 0 for components with no dependencies,
+     * otherwise one more than the highest level among its dependencies.
+     * Components on the same level can run in parallel.
+     * @return component ID to level
+     */
+    public synchronized Map<Integer, Integer> getLevels() {
+        getTopologicalOrder();
+        if (levels == null) {
+            Map<Integer, Integer> level = new HashMap<>(components.size() * 4 / 3 + 1);
+            for (Component comp : components) {
+                level.put(comp.getId(), 0);
+            }
+            Map<Integer, List<Integer>> adj = condensation.getAdjacencyList();
+            for (int u : topologicalOrder) {
+                int next = level.get(u) + 1;
+                for (int v : adj.get(u)) {
+                    if (next > level.get(v)) {
+                        level.put(v, next);
+                    }
+                }
+            }
+            levels = Collections.unmodifiableMap(level);
+        }
+        return levels;
+    }
+    
+    /**
+     * Path queries over the condensation, sharing this context's topological order.
+     * A path finder resets its metrics on every query, so each call returns a
+     * new one that belongs to the caller alone.
+     * @return path finder that never sorts again
+     */
+    public synchronized DAGShortestPath getPathFinder() {
+        getTopologicalOrder();
+        return new DAGShortestPath(condensation, topologicalOrder, metricsFactory.get());
+    }
+    
+    /**
+     * The critical (longest) path through the condensation.
+     * @return components on the path and its length
+     */
+    public synchronized PathResult getCriticalPath() {
+        getTopologicalOrder();
+        if (criticalPath == null) {
+            long start = System.nanoTime();
+            DAGShortestPath pathFinder = getPathFinder();
+            criticalPath = pathFinder.longestPath();
+            phaseNanos.put(Phase.PATHS, System.nanoTime() - start);
+            phaseMetrics.put(Phase.PATHS, pathFinder.getMetrics());
+        }
+        return criticalPath;
+    }
+    
+    /**
+     * Earliest start of every component: the longest path of durations
+     * leading into it.
+     * @return component ID to earliest start
+     */
+    public synchronized Map<Integer, Integer> getEarliestStarts() {
+        getTopologicalOrder();
+        if (earliestStarts == null) {
+            Map<Integer, Integer> start = new HashMap<>(components.size() * 4 / 3 + 1);
+            for (Component comp : components) {
+                start.put(comp.getId(), 0);
+            }
+            Map<Integer, List<Integer>> adj = condensation.getAdjacencyList();
+            for (int u : topologicalOrder) {
+                int finish = start.get(u) + condensation.getComponentDuration(u);
+                for (int v : adj.get(u)) {
+                    if (finish > start.get(v)) {
+                        start.put(v, finish);
+                    }
+                }
+            }
+            earliestStarts = Collections.unmodifiableMap(start);
+        }
+        return earliestStarts;
+    }
+    
+    /**
+     * Latest start of every component that still finishes the plan in the
+     * critical path length. Slack is latest minus earliest start.
+     * @return component ID to latest start
+     */
+    public synchronized Map<Integer, Integer> getLatestStarts() {
+        int projectLength = getCriticalPath().length();
+        if (latestStarts == null) {
+            Map<Integer, Integer> start = new HashMap<>(components.size() * 4 / 3 + 1);
+            Map<Integer, List<Integer>> adj = condensation.getAdjacencyList();
+            for (int k = topologicalOrder.size() - 1; k >= 0; k--) {
+                int u = topologicalOrder.get(k);
+                int finish = projectLength;
+                for (int v : adj.get(u)) {
+                    finish = Math.min(finish, start.get(v));
+                }
+                start.put(u, finish - condensation.getComponentDuration(u));
+            }
+            latestStarts = Collections.unmodifiableMap(start);
+        }
+        return latestStarts;
+    }
+    
+    /**
+     * Metrics of each phase computed so far.
+     * @return phase to metrics, in phase order
+     */
+    public synchronized Map<Phase, Metrics> getPhaseMetrics() {
+        refresh();
+        return Collections.unmodifiableMap(new EnumMap<>(phaseMetrics));
+    }
+    
+    /**
+     * Wall time of each phase computed so far, taken with {@link System#nanoTime()}
+     * whether or not the phase's metrics keep time.
+     * @return phase to elapsed nanoseconds, in phase order
+     */
+    public synchronized Map<Phase, Long> getPhaseNanos() {
+        refresh();
+        return Collections.unmodifiableMap(new EnumMap<>(phaseNanos));
+    }
+    
+    // Forget everything computed for an older version of the graph
+    private void refresh() {
+        long current = graph.getVersion();
+        if (current == version) {
+            return;
+        }
+        version = current;
+        sccFinder = null;
+        components = null;
+        condensation = null;
+        topologicalOrder = null;
+        taskOrder = null;
+        levels = null;
+        criticalPath = null;
+        earliestStarts = null;
+        latestStarts = null;
+        phaseMetrics.clear();
+        phaseNanos.clear();
+    }
+}
@@ -0,0 +1,165 @@
+package graph.analysis;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.LongArray;
+import graph.dagsp.CompactCriticalPath;
+import graph.dagsp.CompactCriticalPath.CriticalPath;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything one pass of {@link CompactAnalyzer} found about an {@link IntGraph}:
+ * SCC assignment, condensation DAG, topological order and critical path,
+ * plus the metrics of each phase.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class AnalysisResult {
+    private final IntGraph graph;
+    private final IntArray componentOf;
+    private final CompactCondensation condensation;
+    private final IntArray topologicalOrder;
+    private final CriticalPath criticalPath;
+    private final Map<Phase, Metrics> phaseMetrics;
+    private final ArrayStorage storage;
+    private LongArray latestStart; // computed on first request
+    
+    public AnalysisResult(IntGraph graph, IntArray componentOf, CompactCondensation condensation,
+                          IntArray topologicalOrder, CriticalPath criticalPath, Map<Phase, Metrics> phaseMetrics) {
+        this(graph, componentOf, condensation, topologicalOrder, criticalPath, phaseMetrics, ArrayStorage.HEAP);
+    }
+    
+    public AnalysisResult(IntGraph graph, IntArray componentOf, CompactCondensation condensation,
+                          IntArray topologicalOrder, CriticalPath criticalPath, Map<Phase, Metrics> phaseMetrics,
+                          ArrayStorage storage) {
+        this.graph = graph;
+        this.componentOf = componentOf;
+        this.condensation = condensation;
+        this.topologicalOrder = topologicalOrder;
+        this.criticalPath = criticalPath;
+        this.phaseMetrics = phaseMetrics;
+        this.storage = storage;
+    }
+    
+    public IntGraph getGraph() {
+        return graph;
+    }
+    
+    public int taskCount() {
+        return graph.vertexCount();
+    }
+    
+    public long edgeCount() {
+        return graph.edgeCount();
+    }
+    
+    /** Component id of every vertex; callers must not modify it. */
+    public IntArray getComponentOf() {
+        return componentOf;
+    }
+    
+    public int componentCount() {
+        return condensation.vertexCount();
+    }
+    
+    public CompactCondensation getCondensation() {
+        return condensation;
+    }
+    
+    /** Components with more than one task, i.e. dependency cycles. */
+    public int cyclicComponentCount() {
+        int count = 0;
+        for (int c = 0; c < condensation.vertexCount(); c++) {
+            if (condensation.size(c) > 1) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public int largestComponentSize() {
+        int largest = 0;
+        for (int c = 0; c < condensation.vertexCount(); c++) {
+            largest = Math.max(largest, condensation.size(c));
+        }
+        return largest;
+    }
+    
+    /** Components in topological order; callers must not modify it. */
+    public IntArray getTopologicalOrder() {
+        return topologicalOrder;
+    }
+    
+    public long criticalPathLength() {
+        return criticalPath.length();
+    }
+    
+    /** Component ids on the critical path; callers must not modify it. */
+    public int[] getCriticalPath() {
+        return criticalPath.path();
+    }
+    
+    /** Earliest start of every component; callers must not modify it. */
+    public LongArray getEarliestStarts() {
+        return criticalPath.earliestStart();
+    }
+    
+    /**
+     * Latest start of every component that does not delay the plan.
+     * Computed by a backward pass the first time it is asked for.
+     */
+    public synchronized LongArray getLatestStarts() {
+        if (latestStart == null) {
+            latestStart = CompactCriticalPath.latestStarts(condensation, topologicalOrder, criticalPath.length(), storage);
+        }
+        return latestStart;
+    }
+    
+    /** Task ids on the critical path, component by component. */
+    public List<List<String>> criticalPathTasks() {
+        List<List<String>> tasks = new ArrayList<>();
+        for (int c : criticalPath.path()) {
+            List<String> members = new ArrayList<>(condensation.size(c));
+            for (int i = 0; i < condensation.size(c); i++) {
+                members.add(graph.id(condensation.member(c, i)));
+            }
+            tasks.add(members);
+        }
+        return tasks;
+    }
+    
+    public Map<Phase, Metrics> getPhaseMetrics() {
+        return Collections.unmodifiableMap(phaseMetrics);
+    }
+    
+    /**
+     * Short human-readable summary; the critical path is shown only if it is short.
+     */
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Analysis Summary ===\n");
+        sb.append(String.format("Tasks: %,d  Edges: %,d%n", taskCount(), edgeCount()));
+        sb.append(String.format("SCCs: %,d (%,d cyclic, largest has %,d tasks)%n",
+            componentCount(), cyclicComponentCount(), largestComponentSize()));
+        sb.append(String.format("Condensation edges: %,d%n", condensation.edgeCount()));
+        sb.append(String.format("Critical path: length %,d over %,d components%n",
+            criticalPathLength(), criticalPath.path().length));
+        if (criticalPath.path().length <= 20) {
+            sb.append("Critical path tasks: ").append(criticalPathTasks()).append('\n');
+        }
+        sb.append("\nPhase times:\n");
+        phaseMetrics.forEach((phase, metrics) ->
+            sb.append(String.format("  %-13s %10.3f ms%n", phase.label(), metrics.getElapsedMillis()))
+        );
+        return sb.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package graph.analysis;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import graph.dagsp.CompactCriticalPath;
+import graph.dagsp.CompactCriticalPath.CriticalPath;
+import graph.metrics.Instrumentation;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.scc.CompactTarjanSCC;
+import graph.topo.CompactTopologicalSort;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Runs the SCC, condensation, topological sort and critical path phases
+ * on any {@link IntGraph} without building a {@code TaskGraph}.
+ * 
+ * <p>This is the pipeline used for inputs too large for the map-based
+ * classes, such as binary graph files analyzed straight from a mapped buffer.
+ * With {@link ArrayStorage#OFF_HEAP} every per-vertex and per-edge array the
+ * phases allocate lives outside the heap, except the critical path itself.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class CompactAnalyzer {
+    
+    /**
+     * Analyze a graph.
+     * @param graph graph to analyze
+     * @return SCCs, condensation, order, critical path and per-phase metrics
+     */
+    public static AnalysisResult analyze(IntGraph graph) {
+        return analyze(graph, ArrayStorage.HEAP);
+    }
+    
+    /**
+     * Analyze a graph, keeping the phases' working arrays in the given storage.
+     * @param graph graph to analyze
+     * @param storage where SCC, condensation, ordering and path arrays are allocated
+     * @return SCCs, condensation, order, critical path and per-phase metrics
+     */
+    public static AnalysisResult analyze(IntGraph graph, ArrayStorage storage) {
+        Map<Phase, Metrics> phaseMetrics = new EnumMap<>(Phase.class);
+        
+        CompactTarjanSCC tarjan = new CompactTarjanSCC(graph, Instrumentation.newMetrics(), storage);
+        IntArray componentOf = tarjan.findSCCs();
+        phaseMetrics.put(Phase.SCC, tarjan.getMetrics());
+        
+        Metrics condensationMetrics = Instrumentation.newMetrics();
+        condensationMetrics.startTimer();
+        CompactCondensation condensation = CompactCondensation.build(graph, componentOf, tarjan.getComponentCount(), storage);
+        condensationMetrics.stopTimer();
+        phaseMetrics.put(Phase.CONDENSATION, condensationMetrics);
+        
+        CompactTopologicalSort topoSort = new CompactTopologicalSort(condensation, Instrumentation.newMetrics(), storage);
+        IntArray order = topoSort.sort();
+        phaseMetrics.put(Phase.TOPO, topoSort.getMetrics());
+        
+        CompactCriticalPath pathFinder = new CompactCriticalPath(condensation, order, Instrumentation.newMetrics(), storage);
+        CriticalPath criticalPath = pathFinder.longestPath();
+        phaseMetrics.put(Phase.PATHS, pathFinder.getMetrics());
+        
+        return new AnalysisResult(graph, componentOf, condensation, order, criticalPath, phaseMetrics, storage);
+    }
+}
@@ -0,0 +1,146 @@
+package graph.analysis;
+
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+
+/**
+ * Content hashes of the components of a condensation, and Merkle hashes
+ * of the regions above and below each one.
+ * 
+ * <p>A component's content hash covers its members' task ids and durations
+ * and every edge leaving it, named by the tasks at both ends; it depends on
+ * task ids only, never on vertex or component numbering, so the same
+ * component gets the same hash in a reloaded or resubmitted plan.
+ * Its downstream hash combines its content hash with the downstream hashes
+ * of its successors, so it identifies everything reachable from it; the
+ * upstream hash does the same over predecessors. Two components with equal
+ * downstream hashes therefore have the same longest path from them to the
+ * end of the plan, and equal upstream hashes mean the same earliest start.
+ * 
+ * <p>Sets are combined by adding the mixed hashes of their elements, so
+ * nothing needs sorting. Hashes are 64 bits: a false match between two
+ * different regions is possible in principle but vanishingly unlikely at
+ * the sizes this tool handles.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public final class ComponentHashes {
+    
+    private static final long UPSTREAM_SEED = 0x5bd1e9955bd1e995L;
+    private static final long DOWNSTREAM_SEED = 0x27d4eb2f165667c5L;
+    
+    private final long[] content;
+    private final long[] upstream;
+    private final long[] downstream;
+    private final long root;
+    
+    private ComponentHashes(long[] content, long[] upstream, long[] downstream, long root) {
+        this.content = content;
+        this.upstream = upstream;
+        this.downstream = downstream;
+        this.root = root;
+    }
+    
+    /**
+     * Hash every component of a condensation, in O(V + E).
+     * @param graph original graph
+     * @param componentOf component id of every vertex
+     * @param dag condensation of the graph
+     * @param order topological order of the condensation
+     * @return content, upstream and downstream hash of every component
+     */
+    public static ComponentHashes compute(IntGraph graph, IntArray componentOf, CompactCondensation dag, IntArray order) {
+        int n = graph.vertexCount();
+        long[] idHash = new long[n];
+        for (int v = 0; v < n; v++) {
+            idHash[v] = hash(graph.id(v));
+        }
+        
+        int components = dag.vertexCount();
+        long[] content = new long[components];
+        for (int v = 0; v < n; v++) {
+            int c = componentOf.get(v);
+            long sum = mix(idHash[v] + 0x9e3779b97f4a7c15L * (graph.duration(v) + 1L));
+            int degree = graph.outDegree(v);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.outNeighbor(v, i);
+                if (componentOf.get(w) != c) {
+                    sum += mix(idHash[v] * 31 + idHash[w] ^ 0xc2b2ae3d27d4eb4fL);
+                }
+            }
+            content[c] += sum;
+        }
+        for (int c = 0; c < components; c++) {
+            content[c] = mix(content[c]);
+        }
+        
+        long[] upstream = new long[components];
+        for (long k = 0; k < order.length(); k++) {
+            int c = order.get(k);
+            long sum = content[c] ^ UPSTREAM_SEED;
+            for (int i = 0; i < dag.inDegree(c); i++) {
+                sum += mix(upstream[dag.inNeighbor(c, i)]);
+            }
+            upstream[c] = mix(sum);
+        }
+        long[] downstream = new long[components];
+        long root = DOWNSTREAM_SEED;
+        for (long k = order.length() - 1; k >= 0; k--) {
+            int c = order.get(k);
+            long sum = content[c] ^ DOWNSTREAM_SEED;
+            for (int i = 0; i < dag.outDegree(c); i++) {
+                sum += mix(downstream[dag.outNeighbor(c, i)]);
+            }
+            downstream[c] = mix(sum);
+            if (dag.inDegree(c) == 0) {
+                root += mix(downstream[c]);
+            }
+        }
+        return new ComponentHashes(content, upstream, downstream, mix(root));
+    }
+    
+    public int size() {
+        return content.length;
+    }
+    
+    /** Hash of a component's members, their durations and its outgoing edges. */
+    public long content(int c) {
+        return content[c];
+    }
+    
+    /** Merkle hash of a component and everything it depends on. */
+    public long upstream(int c) {
+        return upstream[c];
+    }
+    
+    /** Merkle hash of a component and everything that depends on it. */
+    public long downstream(int c) {
+        return downstream[c];
+    }
+    
+    /** Merkle hash of the whole condensation; equal roots mean the same plan. */
+    public long root() {
+        return root;
+    }
+    
+    // 64-bit FNV-1a over the characters, finished with mix
+    static long hash(String text) {
+        if (text == null) {
+            return 0;
+        }
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            h = (h ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+    
+    // Stafford's variant 13 of the MurmurHash3 finalizer
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
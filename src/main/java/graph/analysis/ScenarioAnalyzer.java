@@ -0,0 +1,205 @@
+package graph.analysis;
+
+import com.daa.model.CompactCondensation;
+import com.daa.model.GraphOverlay;
+import com.daa.model.IntArray;
+import graph.dagsp.CompactCriticalPath;
+import graph.dagsp.CompactCriticalPath.CriticalPath;
+import graph.metrics.Instrumentation;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates what-if scenarios, recorded as {@link GraphOverlay}s, against one
+ * analyzed base plan.
+ * 
+ * <p>A scenario that only changes durations cannot change the SCCs, the
+ * condensation's edges or its topological order, so those are taken from the
+ * base analysis as they are; only the durations of the components holding a
+ * changed task are recomputed, into a small overlay array, and the critical
+ * path DP runs once over the shared condensation. A scenario that adds tasks
+ * or changes dependencies runs the whole pipeline, reading through its overlay.
+ * Either way the base graph and analysis are only read, so scenarios are
+ * evaluated in parallel without copying them.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class ScenarioAnalyzer {
+    
+    private final AnalysisResult base;
+    
+    /**
+     * @param base analysis of the plan the scenarios start from
+     */
+    public ScenarioAnalyzer(AnalysisResult base) {
+        this.base = base;
+    }
+    
+    /**
+     * Start an empty scenario on the base plan.
+     * @param label name of the scenario, for reports
+     * @return overlay to record the scenario's changes on
+     */
+    public GraphOverlay newScenario(String label) {
+        return new GraphOverlay(base.getGraph(), label);
+    }
+    
+    /**
+     * Analyze one scenario.
+     * @param scenario changes to the base plan
+     * @return the scenario's outcome
+     * @throws IllegalArgumentException if the scenario is not on the base plan's graph
+     */
+    public Outcome evaluate(GraphOverlay scenario) {
+        if (scenario.getBase() != base.getGraph()) {
+            throw new IllegalArgumentException("Scenario " + scenario.getLabel() + " is not on the analyzed graph");
+        }
+        AnalysisResult result = scenario.isStructural()
+            ? CompactAnalyzer.analyze(scenario)
+            : reuseComponents(scenario);
+        return new Outcome(scenario.getLabel(), result, result.criticalPathLength() - base.criticalPathLength(),
+            !scenario.isStructural());
+    }
+    
+    /**
+     * Analyze many scenarios on a pool of threads.
+     * @param scenarios scenarios on the base plan
+     * @param threads worker threads, at least 1
+     * @return outcomes in the order of the scenarios
+     */
+    public List<Outcome> evaluateAll(List<GraphOverlay> scenarios, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>(scenarios.size());
+            for (GraphOverlay scenario : scenarios) {
+                futures.add(pool.submit(() -> evaluate(scenario)));
+            }
+            List<Outcome> outcomes = new ArrayList<>(scenarios.size());
+            for (Future<Outcome> future : futures) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating scenarios", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    // Durations changed only: base SCCs, edges and order, new component durations
+    private AnalysisResult reuseComponents(GraphOverlay scenario) {
+        Map<Phase, Metrics> phaseMetrics = new EnumMap<>(Phase.class);
+        IntArray componentOf = base.getComponentOf();
+        CompactCondensation dag = base.getCondensation();
+        
+        int[] changed = scenario.changedDurations();
+        int[] components = new int[changed.length];
+        for (int i = 0; i < changed.length; i++) {
+            components[i] = componentOf.get(changed[i]);
+        }
+        components = Arrays.stream(components).sorted().distinct().toArray();
+        ChangedInts durations = new ChangedInts(dag, components.length);
+        for (int c : components) {
+            int longest = 0;
+            for (int j = 0; j < dag.size(c); j++) {
+                longest = Math.max(longest, scenario.duration(dag.member(c, j)));
+            }
+            durations.set(c, longest);
+        }
+        CompactCondensation changedDag = dag.withDurations(durations);
+        
+        CompactCriticalPath pathFinder = new CompactCriticalPath(changedDag, base.getTopologicalOrder(),
+            Instrumentation.newMetrics());
+        CriticalPath criticalPath = pathFinder.longestPath();
+        phaseMetrics.put(Phase.PATHS, pathFinder.getMetrics());
+        return new AnalysisResult(scenario, componentOf, changedDag, base.getTopologicalOrder(),
+            criticalPath, phaseMetrics);
+    }
+    
+    /**
+     * Component durations of the base condensation with a few replaced;
+     * a bit per component marks the replaced ones, so unchanged reads stay cheap.
+     * Writes go to the replacements, kept sorted by component, so the base
+     * condensation is never touched; writes in ascending order append.
+     */
+    private static final class ChangedInts implements IntArray {
+        private final CompactCondensation base;
+        private final BitSet changed;
+        private int[] keys;
+        private int[] values;
+        private int size;
+        
+        ChangedInts(CompactCondensation base, int expected) {
+            this.base = base;
+            this.changed = new BitSet(base.vertexCount());
+            this.keys = new int[Math.max(1, expected)];
+            this.values = new int[keys.length];
+        }
+        
+        @Override
+        public long length() {
+            return base.vertexCount();
+        }
+        
+        @Override
+        public int get(long index) {
+            int c = (int) index;
+            return changed.get(c) ? values[Arrays.binarySearch(keys, 0, size, c)] : base.duration(c);
+        }
+        
+        @Override
+        public void set(long index, int value) {
+            int c = (int) index;
+            int i = changed.get(c) ? Arrays.binarySearch(keys, 0, size, c) : -1;
+            if (i < 0) {
+                // keep keys sorted: open a slot at the insertion point
+                i = size > 0 && keys[size - 1] > c ? -Arrays.binarySearch(keys, 0, size, c) - 1 : size;
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                System.arraycopy(keys, i, keys, i + 1, size - i);
+                System.arraycopy(values, i, values, i + 1, size - i);
+                keys[i] = c;
+                size++;
+                changed.set(c);
+            }
+            values[i] = value;
+        }
+    }
+    
+    /**
+     * Result of one scenario.
+     * 
+     * @param label scenario name
+     * @param result full analysis of the scenario
+     * @param makespanChange critical path length minus the base plan's
+     * @param componentsReused whether the base SCCs and order were reused
+     */
+    public record Outcome(String label, AnalysisResult result, long makespanChange, boolean componentsReused) {
+        
+        @Override
+        public String toString() {
+            return String.format("%-24s makespan %,d (%+,d)%s", label, result.criticalPathLength(), makespanChange,
+                componentsReused ? "" : "  [re-analyzed]");
+        }
+    }
+}
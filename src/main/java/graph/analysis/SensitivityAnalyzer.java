@@ -0,0 +1,336 @@
+package graph.analysis;
+
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.LongArray;
+import graph.metrics.Counter;
+import graph.metrics.Instrumentation;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Makespan sensitivity of every task at once: how long the plan would be if
+ * a task were shortened or removed, for all tasks in a few linear passes
+ * instead of one longest path DP per task.
+ * 
+ * <p>With components numbered by topological position, a path that avoids
+ * component c either lies entirely before c, entirely after it, or jumps over
+ * it along one edge u -> v with u before and v after c. The longest of the
+ * first kind is the largest earliest finish before c, the longest of the
+ * second the largest tail after c (tail = longest path from a component to
+ * the end of the plan, counting its own duration), and a jumping edge
+ * contributes earliest finish of u plus tail of v. Prefix and suffix maxima
+ * give the first two for every c in one pass each. For the third, edges are
+ * taken in decreasing order of their value and each paints the positions it
+ * jumps over that no better edge has painted yet; a union-find over
+ * positions skips painted runs, so each position is painted once.
+ * 
+ * <p>Every path through c shrinks by exactly as much as c does, so with the
+ * longest path avoiding c known, the makespan for any change to c follows
+ * in O(1). A component lasts as long as its longest task, so shortening a
+ * task only shortens its component down to the longest of the other members.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class SensitivityAnalyzer {
+    
+    private final AnalysisResult result;
+    private final long makespan;
+    private final long[] through;   // longest path through each component
+    private final long[] avoiding;  // longest path avoiding each component
+    private final int[] secondLongest; // longest duration in each component after its longest task
+    private final Metrics metrics;
+    
+    private SensitivityAnalyzer(AnalysisResult result, long[] through, long[] avoiding, int[] secondLongest,
+                                Metrics metrics) {
+        this.result = result;
+        this.makespan = result.criticalPathLength();
+        this.through = through;
+        this.avoiding = avoiding;
+        this.secondLongest = secondLongest;
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Compute the sensitivity of every component of an analysis in
+     * O((V + E) log E), the log from sorting the jumping edges.
+     * @param result completed analysis
+     * @return sensitivity of every task and component
+     */
+    public static SensitivityAnalyzer analyze(AnalysisResult result) {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        Metrics metrics = Instrumentation.newMetrics();
+        Counter jumpingEdges = metrics.counter("jumping_edges");
+        Counter painted = metrics.counter("positions_painted");
+        metrics.startTimer();
+        
+        CompactCondensation dag = result.getCondensation();
+        IntArray order = result.getTopologicalOrder();
+        LongArray earliest = result.getEarliestStarts();
+        int c = dag.vertexCount();
+        
+        int[] position = new int[c];
+        for (int k = 0; k < c; k++) {
+            position[order.get(k)] = k;
+        }
+        // forward values come from the analysis; tails need one backward pass
+        long[] finish = new long[c];   // earliest finish, by position
+        long[] tail = new long[c];     // by position
+        for (int k = c - 1; k >= 0; k--) {
+            int u = order.get(k);
+            long longest = 0;
+            int degree = dag.outDegree(u);
+            for (int i = 0; i < degree; i++) {
+                longest = Math.max(longest, tail[position[dag.outNeighbor(u, i)]]);
+            }
+            tail[k] = longest + dag.duration(u);
+            finish[k] = earliest.get(u) + dag.duration(u);
+        }
+        
+        // best[k] = longest path avoiding position k, starting with the prefix and suffix cases
+        long[] best = new long[c];
+        long prefix = 0;
+        for (int k = 0; k < c; k++) {
+            best[k] = prefix;
+            prefix = Math.max(prefix, finish[k]);
+        }
+        long suffix = 0;
+        for (int k = c - 1; k >= 0; k--) {
+            best[k] = Math.max(best[k], suffix);
+            suffix = Math.max(suffix, tail[k]);
+        }
+        
+        // edges that skip at least one position, strongest first
+        int jumps = 0;
+        for (int k = 0; k < c; k++) {
+            int u = order.get(k);
+            for (int i = 0; i < dag.outDegree(u); i++) {
+                if (position[dag.outNeighbor(u, i)] > k + 1) {
+                    jumps++;
+                }
+            }
+        }
+        int[] from = new int[jumps];
+        int[] to = new int[jumps];
+        long[] value = new long[jumps];
+        int e = 0;
+        for (int k = 0; k < c; k++) {
+            int u = order.get(k);
+            for (int i = 0; i < dag.outDegree(u); i++) {
+                int p = position[dag.outNeighbor(u, i)];
+                if (p > k + 1) {
+                    from[e] = k;
+                    to[e] = p;
+                    value[e] = finish[k] + tail[p];
+                    e++;
+                }
+            }
+        }
+        int[] byValue = sortDescending(value);
+        int[] next = new int[c + 1];   // next unpainted position at or after k
+        for (int k = 0; k <= c; k++) {
+            next[k] = k;
+        }
+        for (int j : byValue) {
+            for (int k = find(next, from[j] + 1); k < to[j]; k = find(next, k + 1)) {
+                best[k] = Math.max(best[k], value[j]);
+                next[k] = k + 1;
+                if (Instrumentation.ENABLED) painted.increment();
+            }
+        }
+        
+        long[] through = new long[c];
+        long[] avoiding = new long[c];
+        for (int k = 0; k < c; k++) {
+            int u = order.get(k);
+            through[u] = finish[k] - dag.duration(u) + tail[k];
+            avoiding[u] = best[k];
+        }
+        
+        IntGraph graph = result.getGraph();
+        int[] secondLongest = new int[c];
+        for (int u = 0; u < c; u++) {
+            boolean longestSeen = false;
+            int second = 0;
+            for (int i = 0; i < dag.size(u); i++) {
+                int duration = graph.duration(dag.member(u, i));
+                if (duration == dag.duration(u) && !longestSeen) {
+                    longestSeen = true;
+                } else {
+                    second = Math.max(second, duration);
+                }
+            }
+            secondLongest[u] = second;
+        }
+        
+        if (Instrumentation.ENABLED) jumpingEdges.add(jumps);
+        metrics.stopTimer();
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.PATHS, graph.vertexCount(), dag.edgeCount(), c, metrics);
+            event.detail = "sensitivity jumping_edges=" + jumps;
+            event.commit();
+        }
+        return new SensitivityAnalyzer(result, through, avoiding, secondLongest, metrics);
+    }
+    
+    /** Critical path length of the analyzed plan. */
+    public long makespan() {
+        return makespan;
+    }
+    
+    /** Longest path through a component, including its own duration. */
+    public long longestThrough(int component) {
+        return through[component];
+    }
+    
+    /** Longest path that does not touch a component; 0 if every path does. */
+    public long longestAvoiding(int component) {
+        return avoiding[component];
+    }
+    
+    /**
+     * Makespan if a component's duration were reduced.
+     * @param component component
+     * @param amount how much shorter, capped at its duration
+     * @return new critical path length
+     */
+    public long makespanIfShortened(int component, int amount) {
+        int cut = Math.min(amount, result.getCondensation().duration(component));
+        return Math.max(avoiding[component], through[component] - cut);
+    }
+    
+    /**
+     * Makespan if one task's duration were reduced, all else equal.
+     * @param vertex task's vertex number
+     * @param amount how much shorter, capped at its duration
+     * @return new critical path length
+     */
+    public long makespanIfTaskShortened(int vertex, int amount) {
+        int component = result.getComponentOf().get(vertex);
+        int duration = result.getGraph().duration(vertex);
+        int componentDuration = result.getCondensation().duration(component);
+        int others = duration == componentDuration ? secondLongest[component] : componentDuration;
+        int shortened = Math.max(others, duration - Math.min(amount, duration));
+        return makespanIfShortened(component, componentDuration - shortened);
+    }
+    
+    /**
+     * Makespan if a task took no time at all.
+     * @param vertex task's vertex number
+     * @return new critical path length
+     */
+    public long makespanWithoutTask(int vertex) {
+        return makespanIfTaskShortened(vertex, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Tasks whose removal would shorten the plan, most effective first,
+     * ties broken by task id.
+     * @param limit maximum number of tasks to return
+     * @return bottleneck tasks
+     */
+    public List<Bottleneck> bottlenecks(int limit) {
+        IntGraph graph = result.getGraph();
+        List<Bottleneck> found = new ArrayList<>();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            int component = result.getComponentOf().get(v);
+            // only tasks on a critical path can matter
+            if (through[component] < makespan) {
+                continue;
+            }
+            long without = makespanWithoutTask(v);
+            if (without < makespan) {
+                found.add(new Bottleneck(graph.id(v), graph.duration(v), makespan - without, without));
+            }
+        }
+        found.sort(Comparator.comparingLong(Bottleneck::makespanSaving).reversed()
+            .thenComparing(Bottleneck::taskId));
+        return found.subList(0, Math.min(limit, found.size()));
+    }
+    
+    /**
+     * Ranked bottleneck list as text.
+     * @param limit maximum number of tasks listed
+     * @return report
+     */
+    public String getReport(int limit) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("=== Bottlenecks (makespan %,d) ===%n", makespan));
+        List<Bottleneck> bottlenecks = bottlenecks(limit);
+        if (bottlenecks.isEmpty()) {
+            report.append("No single task shortens the plan\n");
+        }
+        for (int i = 0; i < bottlenecks.size(); i++) {
+            Bottleneck b = bottlenecks.get(i);
+            report.append(String.format("%3d. %-20s duration %,8d  saves %,8d  -> %,d%n",
+                i + 1, b.taskId(), b.duration(), b.makespanSaving(), b.makespanWithout()));
+        }
+        return report.toString();
+    }
+    
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
+    private static int find(int[] next, int k) {
+        while (next[k] != k) {
+            next[k] = next[next[k]];
+            k = next[k];
+        }
+        return k;
+    }
+    
+    // Indices of values, largest first; packs value and index into one long when they fit
+    private static int[] sortDescending(long[] values) {
+        int n = values.length;
+        long max = 0;
+        for (long v : values) {
+            max = Math.max(max, v);
+        }
+        int[] indices = new int[n];
+        if (n == 0) {
+            return indices;
+        }
+        if (max < Long.MAX_VALUE / n) {
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = values[i] * n + i;
+            }
+            Arrays.sort(keys);
+            for (int i = 0; i < n; i++) {
+                indices[i] = (int) (keys[n - 1 - i] % n);
+            }
+            return indices;
+        }
+        Integer[] boxed = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> Long.compare(values[b], values[a]));
+        for (int i = 0; i < n; i++) {
+            indices[i] = boxed[i];
+        }
+        return indices;
+    }
+    
+    /**
+     * A task whose removal would shorten the plan.
+     * 
+     * @param taskId task id
+     * @param duration current duration
+     * @param makespanSaving how much shorter the plan would be without it
+     * @param makespanWithout critical path length without it
+     */
+    public record Bottleneck(String taskId, int duration, long makespanSaving, long makespanWithout) {
+    }
+}
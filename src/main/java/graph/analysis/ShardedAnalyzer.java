@@ -0,0 +1,473 @@
+package graph.analysis;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.CompactCondensation;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.LongArray;
+import com.daa.model.TaskGraph;
+import graph.dagsp.CompactCriticalPath.CriticalPath;
+import graph.metrics.Instrumentation;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Runs the pipeline on each weakly connected part of a graph in parallel.
+ * 
+ * <p>No cycle and no dependency crosses from one weakly connected component
+ * to another, so each can be analyzed on its own and the results put side by
+ * side: SCCs, condensation edges and topological orders of different parts
+ * never interact, and the critical path of the whole plan is the longest of
+ * the parts'. A parallel union-find over the edges finds the components
+ * first; they are then packed, in order of their smallest vertex, into shards
+ * of at least {@code minShardSize} tasks (only the last may be smaller), so a
+ * plan of many small districts gives a few shards per thread rather than a
+ * shard per district.
+ * 
+ * <p>Each shard is analyzed by {@link CompactAnalyzer} through a renumbered
+ * view of the graph, without copying it, and the results are merged into
+ * one {@link AnalysisResult} over the whole graph with components numbered
+ * shard after shard. The merged per-phase metrics add up the shards' times,
+ * so they report work done rather than wall-clock time; the union-find is
+ * counted under {@link Phase#SCC} and the merge under {@link Phase#CONDENSATION}.
+ * A graph that forms a single shard is analyzed as it is.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class ShardedAnalyzer {
+    
+    /** Default smallest shard, enough to keep per-shard overhead out of sight. */
+    public static final int DEFAULT_MIN_SHARD_SIZE = 4096;
+    
+    private final int threads;
+    private final int minShardSize;
+    
+    /**
+     * @param threads worker threads, at least 1
+     */
+    public ShardedAnalyzer(int threads) {
+        this(threads, DEFAULT_MIN_SHARD_SIZE);
+    }
+    
+    /**
+     * @param threads worker threads, at least 1
+     * @param minShardSize fewest tasks per shard; smaller components are packed together
+     */
+    public ShardedAnalyzer(int threads, int minShardSize) {
+        this.threads = Math.max(1, threads);
+        this.minShardSize = Math.max(1, minShardSize);
+    }
+    
+    /**
+     * Analyze a task graph through a snapshot of it.
+     * @param graph graph to analyze
+     * @return SCCs, condensation, order, critical path and per-phase metrics
+     */
+    public AnalysisResult analyze(TaskGraph graph) {
+        return analyze(graph.snapshot());
+    }
+    
+    /**
+     * Analyze a graph, its weakly connected shards in parallel.
+     * @param graph graph to analyze
+     * @return SCCs, condensation, order, critical path and per-phase metrics
+     */
+    public AnalysisResult analyze(IntGraph graph) {
+        return analyze(graph, ArrayStorage.HEAP);
+    }
+    
+    /**
+     * Analyze a graph, its weakly connected shards in parallel, keeping the merged
+     * arrays and every shard's working arrays in the given storage.
+     * @param graph graph to analyze
+     * @param storage where SCC, condensation, ordering and path arrays are allocated
+     * @return SCCs, condensation, order, critical path and per-phase metrics
+     */
+    public AnalysisResult analyze(IntGraph graph, ArrayStorage storage) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            return analyze(graph, storage, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    private AnalysisResult analyze(IntGraph graph, ArrayStorage storage, ExecutorService pool) {
+        int n = graph.vertexCount();
+        Metrics wccMetrics = Instrumentation.newMetrics();
+        wccMetrics.startTimer();
+        int[] root = weakComponents(graph, pool, threads);
+        
+        // pack components into shards, in order of their smallest vertex (the root)
+        int target = Math.max(minShardSize, (int) Math.min(Integer.MAX_VALUE, (long) n / (threads * 4L) + 1));
+        int[] rootSize = new int[n];
+        for (int v = 0; v < n; v++) {
+            rootSize[root[v]]++;
+        }
+        int[] shardOfRoot = rootSize; // reused: sizes are read before being overwritten
+        int shardCount = 0;
+        int weakCount = 0;
+        int filled = 0;
+        for (int v = 0; v < n; v++) {
+            if (root[v] == v) {
+                filled += rootSize[v];
+                shardOfRoot[v] = shardCount;
+                weakCount++;
+                if (filled >= target) {
+                    shardCount++;
+                    filled = 0;
+                }
+            }
+        }
+        if (filled > 0) {
+            shardCount++;
+        }
+        if (Instrumentation.ENABLED) {
+            wccMetrics.counter("weak_components").add(weakCount);
+            wccMetrics.counter("shards").add(shardCount);
+        }
+        if (shardCount <= 1) {
+            wccMetrics.stopTimer();
+            AnalysisResult whole = CompactAnalyzer.analyze(graph, storage);
+            whole.getPhaseMetrics().get(Phase.SCC).merge(wccMetrics);
+            return whole;
+        }
+        
+        // vertices grouped by shard, ascending within each; localIndex numbers them per shard
+        int[] shardOffsets = new int[shardCount + 1];
+        for (int v = 0; v < n; v++) {
+            shardOffsets[shardOfRoot[root[v]] + 1]++;
+        }
+        for (int s = 0; s < shardCount; s++) {
+            shardOffsets[s + 1] += shardOffsets[s];
+        }
+        int[] vertices = new int[n];
+        int[] localIndex = new int[n];
+        int[] fill = shardOffsets.clone();
+        for (int v = 0; v < n; v++) {
+            int s = shardOfRoot[root[v]];
+            localIndex[v] = fill[s] - shardOffsets[s];
+            vertices[fill[s]++] = v;
+        }
+        wccMetrics.stopTimer();
+        
+        List<Callable<AnalysisResult>> shardTasks = new ArrayList<>(shardCount);
+        for (int s = 0; s < shardCount; s++) {
+            ShardView view = new ShardView(graph, vertices, localIndex, shardOffsets[s], shardOffsets[s + 1]);
+            shardTasks.add(() -> CompactAnalyzer.analyze(view, storage));
+        }
+        List<AnalysisResult> shards = invokeAll(pool, shardTasks);
+        return merge(graph, storage, pool, shards, vertices, shardOffsets, wccMetrics);
+    }
+    
+    private AnalysisResult merge(IntGraph graph, ArrayStorage storage, ExecutorService pool,
+                                 List<AnalysisResult> shards, int[] vertices, int[] shardOffsets, Metrics wccMetrics) {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        Metrics mergeMetrics = Instrumentation.newMetrics();
+        mergeMetrics.startTimer();
+        
+        int shardCount = shards.size();
+        int[] componentBase = new int[shardCount + 1];
+        long[] edgeBase = new long[shardCount + 1];
+        int best = 0;
+        for (int s = 0; s < shardCount; s++) {
+            AnalysisResult shard = shards.get(s);
+            componentBase[s + 1] = componentBase[s] + shard.componentCount();
+            edgeBase[s + 1] = edgeBase[s] + shard.getCondensation().edgeCount();
+            if (shard.criticalPathLength() > shards.get(best).criticalPathLength()) {
+                best = s;
+            }
+        }
+        int components = componentBase[shardCount];
+        long edges = edgeBase[shardCount];
+        
+        IntArray componentOf = storage.newIntArray(graph.vertexCount());
+        IntArray order = storage.newIntArray(components);
+        LongArray earliestStart = storage.newLongArray(components);
+        IntArray durations = storage.newIntArray(components);
+        IntArray memberOffsets = storage.newIntArray(components + 1L);
+        IntArray members = storage.newIntArray(graph.vertexCount());
+        IntArray outOffsets = storage.newIntArray(components + 1L);
+        IntArray outTargets = storage.newIntArray(edges);
+        IntArray inOffsets = storage.newIntArray(components + 1L);
+        IntArray inSources = storage.newIntArray(edges);
+        
+        // every shard writes its own ranges, so the copies run in parallel
+        List<Callable<Void>> copies = new ArrayList<>(shardCount);
+        for (int s = 0; s < shardCount; s++) {
+            AnalysisResult shard = shards.get(s);
+            int offset = shardOffsets[s];
+            int base = componentBase[s];
+            long edgeOffset = edgeBase[s];
+            copies.add(() -> {
+                CompactCondensation dag = shard.getCondensation();
+                IntArray localComponents = shard.getComponentOf();
+                IntArray localOrder = shard.getTopologicalOrder();
+                LongArray localStarts = shard.getEarliestStarts();
+                for (int v = 0; v < shard.taskCount(); v++) {
+                    componentOf.set(vertices[offset + v], base + localComponents.get(v));
+                }
+                int member = offset;
+                long out = edgeOffset;
+                long in = edgeOffset;
+                for (int c = 0; c < dag.vertexCount(); c++) {
+                    int global = base + c;
+                    order.set(global, base + localOrder.get(c));
+                    earliestStart.set(global, localStarts.get(c));
+                    durations.set(global, dag.duration(c));
+                    memberOffsets.set(global, member);
+                    for (int i = 0; i < dag.size(c); i++) {
+                        members.set(member++, vertices[offset + dag.member(c, i)]);
+                    }
+                    outOffsets.set(global, (int) out);
+                    for (int i = 0; i < dag.outDegree(c); i++) {
+                        outTargets.set(out++, base + dag.outNeighbor(c, i));
+                    }
+                    inOffsets.set(global, (int) in);
+                    for (int i = 0; i < dag.inDegree(c); i++) {
+                        inSources.set(in++, base + dag.inNeighbor(c, i));
+                    }
+                }
+                return null;
+            });
+        }
+        invokeAll(pool, copies);
+        memberOffsets.set(components, graph.vertexCount());
+        outOffsets.set(components, (int) edges);
+        inOffsets.set(components, (int) edges);
+        CompactCondensation condensation = CompactCondensation.of(components, durations, memberOffsets, members,
+            outOffsets, outTargets, inOffsets, inSources);
+        
+        int[] path = shards.get(best).getCriticalPath().clone();
+        for (int i = 0; i < path.length; i++) {
+            path[i] += componentBase[best];
+        }
+        CriticalPath criticalPath = new CriticalPath(path, shards.get(best).criticalPathLength(), earliestStart);
+        
+        Map<Phase, Metrics> phaseMetrics = new EnumMap<>(Phase.class);
+        for (Phase phase : List.of(Phase.SCC, Phase.CONDENSATION, Phase.TOPO, Phase.PATHS)) {
+            Metrics total = Instrumentation.newMetrics();
+            for (AnalysisResult shard : shards) {
+                total.merge(shard.getPhaseMetrics().get(phase));
+            }
+            phaseMetrics.put(phase, total);
+        }
+        phaseMetrics.get(Phase.SCC).merge(wccMetrics);
+        mergeMetrics.stopTimer();
+        phaseMetrics.get(Phase.CONDENSATION).merge(mergeMetrics);
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.CONDENSATION, graph.vertexCount(), graph.edgeCount(), components, mergeMetrics);
+            event.detail = "sharded merge shards=" + shardCount;
+            event.commit();
+        }
+        return new AnalysisResult(graph, componentOf, condensation, order, criticalPath, phaseMetrics, storage);
+    }
+    
+    /**
+     * Label every vertex with the smallest vertex of its weakly connected
+     * component, using a lock-free union-find with each thread taking a range
+     * of vertices and uniting each with its dependents.
+     * @param graph graph to split
+     * @param threads worker threads, at least 1
+     * @return root of every vertex; roots are exactly the vertices labelled with themselves
+     */
+    public static int[] weakComponents(IntGraph graph, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            return weakComponents(graph, pool, Math.max(1, threads));
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    private static int[] weakComponents(IntGraph graph, ExecutorService pool, int threads) {
+        int n = graph.vertexCount();
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            parent.set(v, v);
+        }
+        int chunk = (n + threads - 1) / Math.max(1, threads);
+        List<Callable<Void>> unions = new ArrayList<>(threads);
+        for (int t = 0; t < threads && t * chunk < n; t++) {
+            int from = t * chunk;
+            int to = Math.min(n, from + chunk);
+            unions.add(() -> {
+                for (int v = from; v < to; v++) {
+                    int degree = graph.outDegree(v);
+                    for (int i = 0; i < degree; i++) {
+                        union(parent, v, graph.outNeighbor(v, i));
+                    }
+                }
+                return null;
+            });
+        }
+        invokeAll(pool, unions);
+        
+        int[] root = new int[n];
+        List<Callable<Void>> finds = new ArrayList<>(threads);
+        for (int t = 0; t < threads && t * chunk < n; t++) {
+            int from = t * chunk;
+            int to = Math.min(n, from + chunk);
+            finds.add(() -> {
+                for (int v = from; v < to; v++) {
+                    root[v] = find(parent, v);
+                }
+                return null;
+            });
+        }
+        invokeAll(pool, finds);
+        return root;
+    }
+    
+    // Root of x, halving the path on the way; a lost race only skips a shortcut
+    private static int find(AtomicIntegerArray parent, int x) {
+        int p = parent.get(x);
+        while (p != x) {
+            int grandparent = parent.get(p);
+            if (grandparent != p) {
+                parent.compareAndSet(x, p, grandparent);
+            }
+            x = grandparent;
+            p = parent.get(x);
+        }
+        return x;
+    }
+    
+    // Links the larger root under the smaller, so every root stays its component's smallest vertex
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) {
+                return;
+            }
+            if (a < b) {
+                int swap = a;
+                a = b;
+                b = swap;
+            }
+            if (parent.compareAndSet(a, a, b)) {
+                return;
+            }
+        }
+    }
+    
+    private static <T> List<T> invokeAll(ExecutorService pool, List<Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(pool.submit(task));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while analyzing shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    /**
+     * One shard of a graph, its vertices numbered 0.. in ascending order of
+     * their numbers in the whole graph. Every neighbor of a shard vertex is in
+     * the same shard, so neighbor lists are the whole graph's, renumbered.
+     */
+    private static final class ShardView implements IntGraph {
+        private final IntGraph graph;
+        private final int[] vertices;
+        private final int[] localIndex;
+        private final int offset;
+        private final int size;
+        private final long edgeCount;
+        
+        ShardView(IntGraph graph, int[] vertices, int[] localIndex, int from, int to) {
+            this.graph = graph;
+            this.vertices = vertices;
+            this.localIndex = localIndex;
+            this.offset = from;
+            this.size = to - from;
+            long edges = 0;
+            for (int i = from; i < to; i++) {
+                edges += graph.outDegree(vertices[i]);
+            }
+            this.edgeCount = edges;
+        }
+        
+        @Override
+        public int vertexCount() {
+            return size;
+        }
+        
+        @Override
+        public long edgeCount() {
+            return edgeCount;
+        }
+        
+        @Override
+        public String id(int v) {
+            return graph.id(vertices[offset + v]);
+        }
+        
+        @Override
+        public String name(int v) {
+            return graph.name(vertices[offset + v]);
+        }
+        
+        @Override
+        public int duration(int v) {
+            return graph.duration(vertices[offset + v]);
+        }
+        
+        @Override
+        public int outDegree(int v) {
+            return graph.outDegree(vertices[offset + v]);
+        }
+        
+        @Override
+        public int outNeighbor(int v, int i) {
+            return localIndex[graph.outNeighbor(vertices[offset + v], i)];
+        }
+        
+        @Override
+        public int inDegree(int v) {
+            return graph.inDegree(vertices[offset + v]);
+        }
+        
+        @Override
+        public int inNeighbor(int v, int i) {
+            return localIndex[graph.inNeighbor(vertices[offset + v], i)];
+        }
+        
+        @Override
+        public int indexOf(String taskId) {
+            int v = graph.indexOf(taskId);
+            if (v < 0) {
+                return -1;
+            }
+            int local = localIndex[v];
+            return local < size && vertices[offset + local] == v ? local : -1;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package graph.dagsp;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.LongArray;
+import com.daa.model.NeighborCursor;
+import graph.metrics.Counter;
+import graph.metrics.Instrumentation;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+// Longest (critical) path in an IntGraph DAG using DP over a topological order
+// Complexity: O(V + E); same recurrence as DAGShortestPath.longestPath
+// Lengths are long because big plans can exceed Integer.MAX_VALUE
+public class CompactCriticalPath {
+    private final IntGraph dag;
+    private final IntArray topologicalOrder;
+    private final ArrayStorage storage;
+    private final Metrics metrics;
+    private final Counter verticesProcessed;
+    private final Counter edgesExamined;
+    private final Counter relaxations;
+    private final Counter distanceUpdates;
+    
+    public CompactCriticalPath(IntGraph dag, IntArray topologicalOrder) {
+        this(dag, topologicalOrder, Instrumentation.newMetrics());
+    }
+    
+    public CompactCriticalPath(IntGraph dag, IntArray topologicalOrder, Metrics metrics) {
+        this(dag, topologicalOrder, metrics, ArrayStorage.HEAP);
+    }
+    
+    public CompactCriticalPath(IntGraph dag, IntArray topologicalOrder, Metrics metrics, ArrayStorage storage) {
+        this.dag = dag;
+        this.topologicalOrder = topologicalOrder;
+        this.storage = storage;
+        this.metrics = metrics;
+        this.verticesProcessed = metrics.counter("vertices_processed");
+        this.edgesExamined = metrics.counter("edges_examined");
+        this.relaxations = metrics.counter("relaxations");
+        this.distanceUpdates = metrics.counter("distance_updates");
+    }
+    
+    /**
+     * Find the longest path, counting the duration of every vertex on it.
+     * @return path and its length; an empty path with length 0 for an empty graph
+     */
+    public CriticalPath longestPath() {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        metrics.reset();
+        metrics.startTimer();
+        
+        int n = dag.vertexCount();
+        LongArray distance = storage.newLongArray(n);   // longest path ending just before v, kept as earliest start
+        IntArray parent = storage.newIntArray(n);        // predecessor + 1, 0 = none
+        
+        NeighborCursor edges = dag.outCursor();
+        for (long k = 0; k < topologicalOrder.length(); k++) {
+            int u = topologicalOrder.get(k);
+            if (Instrumentation.ENABLED) verticesProcessed.increment();
+            long currentDist = distance.get(u) + dag.duration(u);
+            edges.seek(u);
+            while (edges.hasNext()) {
+                int v = edges.next();
+                if (Instrumentation.ENABLED) {
+                    edgesExamined.increment();
+                    relaxations.increment();
+                }
+                if (currentDist > distance.get(v)) {
+                    distance.set(v, currentDist);
+                    parent.set(v, u + 1);
+                    if (Instrumentation.ENABLED) distanceUpdates.increment();
+                }
+            }
+        }
+        
+        long maxDist = 0;
+        int endNode = -1;
+        for (int v = 0; v < n; v++) {
+            long finalDist = distance.get(v) + dag.duration(v);
+            if (finalDist > maxDist) {
+                maxDist = finalDist;
+                endNode = v;
+            }
+        }
+        
+        int length = 0;
+        for (int current = endNode; current != -1; current = parent.get(current) - 1) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int current = endNode; current != -1; current = parent.get(current) - 1) {
+            path[--length] = current;
+        }
+        
+        metrics.stopTimer();
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.PATHS, n, dag.edgeCount(), n, metrics);
+            event.detail = "longestPath length=" + maxDist;
+            event.commit();
+        }
+        return new CriticalPath(path, maxDist, distance);
+    }
+    
+    /**
+     * Latest start of every vertex that still finishes the whole plan within
+     * the given length: the backward pass of the critical path method.
+     * Slack is latest minus earliest start; it is zero on the critical path.
+     * @param dag DAG the critical path was computed on
+     * @param topologicalOrder its topological order
+     * @param projectLength length of the critical path
+     * @param storage where the result is allocated
+     * @return latest start per vertex
+     */
+    public static LongArray latestStarts(IntGraph dag, IntArray topologicalOrder, long projectLength, ArrayStorage storage) {
+        LongArray latest = storage.newLongArray(dag.vertexCount());
+        NeighborCursor edges = dag.outCursor();
+        for (long k = topologicalOrder.length() - 1; k >= 0; k--) {
+            int u = topologicalOrder.get(k);
+            long finish = projectLength;
+            edges.seek(u);
+            while (edges.hasNext()) {
+                finish = Math.min(finish, latest.get(edges.next()));
+            }
+            latest.set(u, finish - dag.duration(u));
+        }
+        return latest;
+    }
+    
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Result of a critical path computation.
+     * 
+     * @param path vertices on the path, in order
+     * @param length sum of their durations
+     * @param earliestStart longest path ending just before each vertex, i.e. its earliest start
+     */
+    public record CriticalPath(int[] path, long length, LongArray earliestStart) {
+    }
+}
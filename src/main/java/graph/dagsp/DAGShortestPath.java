@@ -2,8 +2,11 @@ package graph.dagsp;
 
 import com.daa.model.Component;
 import com.daa.model.CondensationGraph;
-import graph.metrics.DefaultMetrics;
+import graph.metrics.Counter;
+import graph.metrics.Instrumentation;
 import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
 import graph.topo.TopologicalSort;
 
 import java.util.*;
@@ -15,17 +18,43 @@ public class DAGShortestPath {
     private CondensationGraph dag;
     private List<Integer> topologicalOrder;
     private Metrics metrics;
+    private final Counter verticesProcessed;
+    private final Counter edgesExamined;
+    private final Counter relaxations;
+    private final Counter distanceUpdates;
     
     public DAGShortestPath(CondensationGraph dag) {
-        this(dag, new DefaultMetrics());
+        this(dag, Instrumentation.newMetrics());
     }
     
     public DAGShortestPath(CondensationGraph dag, Metrics metrics) {
+        this(dag, null, metrics);
+    }
+    
+    /**
+     * Path queries over a DAG whose topological order is already known,
+     * such as one shared through an {@link graph.analysis.AnalysisContext}.
+     * 
+     * @param dag condensation graph
+     * @param topologicalOrder component IDs in topological order, or null to sort on first query
+     * @param metrics metrics for the queries
+     */
+    public DAGShortestPath(CondensationGraph dag, List<Integer> topologicalOrder, Metrics metrics) {
         this.dag = dag;
+        this.topologicalOrder = topologicalOrder;
         this.metrics = metrics;
-        // need topological order first
-        TopologicalSort topoSort = new TopologicalSort(dag);
-        this.topologicalOrder = topoSort.sortComponents();
+        this.verticesProcessed = metrics.counter("vertices_processed");
+        this.edgesExamined = metrics.counter("edges_examined");
+        this.relaxations = metrics.counter("relaxations");
+        this.distanceUpdates = metrics.counter("distance_updates");
+    }
+    
+    // every query needs the topological order; sort once, on the first query, if none was given
+    private List<Integer> order() {
+        if (topologicalOrder == null) {
+            topologicalOrder = new TopologicalSort(dag).sortComponents();
+        }
+        return topologicalOrder;
     }
     
     /**
@@ -36,6 +65,9 @@ public class DAGShortestPath {
      * @return Map of component ID to shortest distance from source
      */
     public Map<Integer, Integer> shortestPaths(int source) {
+        List<Integer> order = order();
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
         metrics.reset();
         metrics.startTimer();
         
@@ -50,14 +82,16 @@ public class DAGShortestPath {
         distance.put(source, dag.getComponentDuration(source));
         
         // Step 2: Process vertices in topological order
-        for (int u : topologicalOrder) {
-            metrics.incrementCounter("vertices_processed");
+        for (int u : order) {
+            if (Instrumentation.ENABLED) verticesProcessed.increment();
             
             if (distance.get(u) != Integer.MAX_VALUE) {
                 // Step 3: Relax all outgoing edges
                 for (int v : dag.getAdjacencyList().get(u)) {
-                    metrics.incrementCounter("edges_examined");
-                    metrics.incrementCounter("relaxations");
+                    if (Instrumentation.ENABLED) {
+                        edgesExamined.increment();
+                        relaxations.increment();
+                    }
                     
                     int newDist = distance.get(u) + dag.getComponentDuration(v);
                     
@@ -65,19 +99,23 @@ public class DAGShortestPath {
                     if (newDist < distance.get(v)) {
                         distance.put(v, newDist);
                         parent.put(v, u);
-                        metrics.incrementCounter("distance_updates");
+                        if (Instrumentation.ENABLED) distanceUpdates.increment();
                     }
                 }
             }
         }
         
         metrics.stopTimer();
+        commitQuery(event, "shortestPaths source=", source);
         return distance;
     }
     
     // Find longest path (critical path) using DP
     // Basically same as shortest but use max instead of min
     public PathResult longestPath() {
+        List<Integer> order = order();
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
         metrics.reset();
         metrics.startTimer();
         
@@ -91,20 +129,22 @@ public class DAGShortestPath {
         }
         
         // go through nodes in topological order
-        for (int u : topologicalOrder) {
-            metrics.incrementCounter("vertices_processed");
+        for (int u : order) {
+            if (Instrumentation.ENABLED) verticesProcessed.increment();
             int currentDist = distance.get(u) + dag.getComponentDuration(u);
             
             // relax edges
             for (int v : dag.getAdjacencyList().get(u)) {
-                metrics.incrementCounter("edges_examined");
-                metrics.incrementCounter("relaxations");
+                if (Instrumentation.ENABLED) {
+                    edgesExamined.increment();
+                    relaxations.increment();
+                }
                 
                 // update if we found longer path
                 if (currentDist > distance.get(v)) {
                     distance.put(v, currentDist);
                     parent.put(v, u);
-                    metrics.incrementCounter("distance_updates");
+                    if (Instrumentation.ENABLED) distanceUpdates.increment();
                 }
             }
         }
@@ -129,6 +169,7 @@ public class DAGShortestPath {
         }
         
         metrics.stopTimer();
+        commitQuery(event, "longestPath length=", maxDist);
         return new PathResult(path, maxDist);
     }
     
@@ -140,6 +181,9 @@ public class DAGShortestPath {
      * @return PathResult with the shortest path
      */
     public PathResult shortestPath(int source, int target) {
+        List<Integer> order = order();
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
         metrics.reset();
         metrics.startTimer();
         
@@ -155,21 +199,23 @@ public class DAGShortestPath {
         
         // DP over topological order
         boolean foundSource = false;
-        for (int u : topologicalOrder) {
+        for (int u : order) {
             if (u == source) foundSource = true;
             
             if (foundSource && distance.get(u) != Integer.MAX_VALUE) {
-                metrics.incrementCounter("vertices_processed");
+                if (Instrumentation.ENABLED) verticesProcessed.increment();
                 
                 for (int v : dag.getAdjacencyList().get(u)) {
-                    metrics.incrementCounter("edges_examined");
-                    metrics.incrementCounter("relaxations");
+                    if (Instrumentation.ENABLED) {
+                        edgesExamined.increment();
+                        relaxations.increment();
+                    }
                     
                     int newDist = distance.get(u) + dag.getComponentDuration(v);
                     if (newDist < distance.get(v)) {
                         distance.put(v, newDist);
                         parent.put(v, u);
-                        metrics.incrementCounter("distance_updates");
+                        if (Instrumentation.ENABLED) distanceUpdates.increment();
                     }
                     
                     if (v == target) break;
@@ -189,9 +235,20 @@ public class DAGShortestPath {
         
         int dist = distance.get(target) == Integer.MAX_VALUE ? -1 : distance.get(target);
         metrics.stopTimer();
+        commitQuery(event, "shortestPath length=", dist);
         return new PathResult(path, dist);
     }
     
+    // Emit the JFR event for one query; the detail string is only built when recording
+    private void commitQuery(PipelinePhaseEvent event, String query, int value) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.PATHS, dag.taskCount(), dag.edgeCount(), dag.size(), metrics);
+            event.detail = query + value;
+            event.commit();
+        }
+    }
+    
     /**
      * Get the metrics collected during the last execution.
      * @return metrics object
@@ -221,7 +278,15 @@ public class DAGShortestPath {
      * Print the critical path (longest path) with performance metrics.
      */
     public void printCriticalPath() {
-        PathResult result = longestPath();
+        printCriticalPath(longestPath());
+        System.out.println("\n" + metrics.getReport());
+    }
+    
+    /**
+     * Print a critical path that was already computed.
+     * @param result longest path from {@link #longestPath()}
+     */
+    public void printCriticalPath(PathResult result) {
         System.out.println("\n=== Critical Path (Longest Path) ===");
         System.out.println("Length: " + result.length());
         System.out.println("Path (component IDs): " + result.path());
@@ -232,8 +297,6 @@ public class DAGShortestPath {
             System.out.printf("  Component %d (duration=%d): tasks=%s%n", 
                 compId, dag.getComponentDuration(compId), comp.getTaskIds());
         }
-        
-        System.out.println("\n" + metrics.getReport());
     }
     
     /**
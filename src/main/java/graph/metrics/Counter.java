@@ -0,0 +1,32 @@
+package graph.metrics;
+
+/**
+ * Pre-registered handle to a single named counter.
+ * Obtained once from {@link Metrics#counter(String)} and then incremented
+ * directly, so hot loops never pay for a name lookup.
+ * 
+ * <p>Implementations must be allocation-free and safe to increment from
+ * several threads at once.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public interface Counter {
+    
+    /**
+     * Increment the counter by one.
+     */
+    void increment();
+    
+    /**
+     * Increment the counter by a specific amount.
+     * @param amount amount to add
+     */
+    void add(long amount);
+    
+    /**
+     * Get the current value of the counter.
+     * @return counter value
+     */
+    long get();
+}
@@ -1,40 +1,55 @@
 package graph.metrics;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Default implementation of the Metrics interface.
  * Thread-safe implementation for tracking algorithm performance.
  * 
+ * <p>Counters are {@link LongAdder}-backed handles registered on first use.
+ * Incrementing a handle takes no lock and allocates nothing, and parallel
+ * algorithms can share one handle without contending on a single cell.
+ * 
  * @author Smart City Scheduling Team
- * @version 1.0
+ * @version 1.1
  */
 public class DefaultMetrics implements Metrics {
     
     private long startTime;
     private long endTime;
-    private final Map<String, Long> counters;
+    private long startAllocated;
+    private long allocatedBytes;
+    private long mergedNanos;
+    private final Map<String, AdderCounter> counters;
+    private final Map<String, Long> footprints;
     
     public DefaultMetrics() {
-        this.counters = new HashMap<>();
+        this.counters = new ConcurrentHashMap<>();
+        this.footprints = new ConcurrentHashMap<>();
         this.startTime = 0;
         this.endTime = 0;
+        this.allocatedBytes = -1;
     }
     
     @Override
     public void startTimer() {
+        this.startAllocated = AllocationTracker.currentThreadAllocatedBytes();
         this.startTime = System.nanoTime();
     }
     
     @Override
     public void stopTimer() {
         this.endTime = System.nanoTime();
+        long endAllocated = AllocationTracker.currentThreadAllocatedBytes();
+        this.allocatedBytes = endAllocated < 0 ? -1 : endAllocated - startAllocated;
     }
     
     @Override
     public long getElapsedNanos() {
-        return endTime - startTime;
+        return endTime - startTime + mergedNanos;
     }
     
     @Override
@@ -43,25 +58,78 @@ public class DefaultMetrics implements Metrics {
     }
     
     @Override
-    public synchronized void incrementCounter(String counterName) {
-        incrementCounter(counterName, 1);
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+    
+    @Override
+    public void recordFootprint(String structure, long bytes) {
+        footprints.put(structure, bytes);
+    }
+    
+    @Override
+    public Map<String, Long> getFootprints() {
+        return new TreeMap<>(footprints);
+    }
+    
+    @Override
+    public Counter counter(String counterName) {
+        AdderCounter counter = counters.get(counterName);
+        return counter != null ? counter : counters.computeIfAbsent(counterName, name -> new AdderCounter());
+    }
+    
+    @Override
+    public void incrementCounter(String counterName) {
+        counter(counterName).increment();
+    }
+    
+    @Override
+    public void incrementCounter(String counterName, int amount) {
+        counter(counterName).add(amount);
     }
     
     @Override
-    public synchronized void incrementCounter(String counterName, int amount) {
-        counters.put(counterName, counters.getOrDefault(counterName, 0L) + amount);
+    public long getCounter(String counterName) {
+        AdderCounter counter = counters.get(counterName);
+        return counter == null ? 0L : counter.get();
     }
     
     @Override
-    public synchronized long getCounter(String counterName) {
-        return counters.getOrDefault(counterName, 0L);
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, counter) -> {
+            long value = counter.get();
+            if (value != 0) {
+                snapshot.put(name, value);
+            }
+        });
+        return snapshot;
     }
     
+    /**
+     * Reset timings and zero every counter.
+     * Registered handles are kept, so algorithms holding them keep working.
+     */
     @Override
-    public synchronized void reset() {
+    public void reset() {
         startTime = 0;
         endTime = 0;
-        counters.clear();
+        mergedNanos = 0;
+        allocatedBytes = -1;
+        footprints.clear();
+        for (AdderCounter counter : counters.values()) {
+            counter.adder.reset();
+        }
+    }
+    
+    @Override
+    public void merge(Metrics other) {
+        mergedNanos += other.getElapsedNanos();
+        if (other.getAllocatedBytes() >= 0) {
+            allocatedBytes = Math.max(allocatedBytes, 0) + other.getAllocatedBytes();
+        }
+        other.getCounters().forEach((name, value) -> counter(name).add(value));
+        other.getFootprints().forEach((structure, bytes) -> footprints.merge(structure, bytes, Long::sum));
     }
     
     @Override
@@ -70,19 +138,74 @@ public class DefaultMetrics implements Metrics {
         sb.append("=== Metrics Report ===\n");
         sb.append(String.format("Elapsed Time: %.3f ms (%.0f ns)\n", 
             getElapsedMillis(), (double) getElapsedNanos()));
+        if (allocatedBytes >= 0) {
+            sb.append(String.format("Allocated: %,d bytes\n", allocatedBytes));
+        }
         sb.append("\nOperation Counters:\n");
         
-        counters.entrySet().stream()
-            .sorted(Map.Entry.comparingByKey())
-            .forEach(entry -> 
-                sb.append(String.format("  %s: %,d\n", entry.getKey(), entry.getValue()))
+        // registered-but-untouched counters are left out, as before handles existed
+        getCounters().forEach((name, value) -> 
+            sb.append(String.format("  %s: %,d\n", name, value))
+        );
+        
+        if (!footprints.isEmpty()) {
+            sb.append("\nEstimated Retained Size:\n");
+            getFootprints().forEach((name, bytes) -> 
+                sb.append(String.format("  %s: %,d bytes\n", name, bytes))
             );
+        }
         
         return sb.toString();
     }
     
+    @Override
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"elapsed_nanos\":").append(getElapsedNanos());
+        sb.append(",\"allocated_bytes\":").append(allocatedBytes);
+        sb.append(",\"counters\":");
+        appendJsonObject(sb, getCounters());
+        sb.append(",\"footprint_bytes\":");
+        appendJsonObject(sb, getFootprints());
+        return sb.append('}').toString();
+    }
+    
+    // Metric names are plain identifiers, so no escaping is needed
+    private static void appendJsonObject(StringBuilder sb, Map<String, Long> values) {
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            sb.append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+            first = false;
+        }
+        sb.append('}');
+    }
+    
     @Override
     public String toString() {
         return getReport();
     }
+    
+    // Counter handle backed by a striped LongAdder
+    private static final class AdderCounter implements Counter {
+        private final LongAdder adder = new LongAdder();
+        
+        @Override
+        public void increment() {
+            adder.increment();
+        }
+        
+        @Override
+        public void add(long amount) {
+            adder.add(amount);
+        }
+        
+        @Override
+        public long get() {
+            return adder.sum();
+        }
+    }
 }
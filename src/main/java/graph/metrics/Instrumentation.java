@@ -0,0 +1,32 @@
+package graph.metrics;
+
+/**
+ * Global switch for operation counting.
+ * 
+ * <p>{@link #ENABLED} is a static final constant read once at class load, so
+ * the JIT folds every {@code if (Instrumentation.ENABLED)} guard and removes
+ * the counter updates from hot loops entirely when counting is off.
+ * Disable with {@code -Dgraph.metrics.disabled=true}.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public final class Instrumentation {
+    
+    /** System property that turns operation counting off. */
+    public static final String DISABLE_PROPERTY = "graph.metrics.disabled";
+    
+    /** True unless counting was disabled on the command line. */
+    public static final boolean ENABLED = !Boolean.getBoolean(DISABLE_PROPERTY);
+    
+    private Instrumentation() {
+    }
+    
+    /**
+     * Create the metrics object algorithms should use by default.
+     * @return a fresh DefaultMetrics, or the shared NoOpMetrics when disabled
+     */
+    public static Metrics newMetrics() {
+        return ENABLED ? new DefaultMetrics() : NoOpMetrics.INSTANCE;
+    }
+}
@@ -0,0 +1,131 @@
+package graph.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear histogram of nanosecond latencies.
+ * 
+ * <p>Same bucketing idea as HdrHistogram: values below 128 ns get one bucket
+ * each, and every power of two above that is split into 64 linear
+ * sub-buckets, so any recorded value is reported within 1/64 (about 1.6%)
+ * of its true value. Values up to 2^40 ns (about 18 minutes) are resolved;
+ * larger ones land in the last bucket, though {@link #getMax()} stays exact.
+ * 
+ * <p>The whole histogram is one {@link AtomicLongArray} of about 18 KB.
+ * Recording is a single atomic increment, never allocates, and is safe
+ * from any number of threads.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;  // 128
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;  // 64
+    private static final int MAX_MAGNITUDE = 40;                       // 2^40 ns
+    private static final int BUCKET_COUNT = bucketIndex((1L << MAX_MAGNITUDE) - 1) + 1;
+    
+    private final AtomicLongArray counts;
+    private final AtomicLong max;
+    
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.max = new AtomicLong(0);
+    }
+    
+    /**
+     * Record one latency sample.
+     * @param nanos latency in nanoseconds; negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(Math.min(bucketIndex(value), BUCKET_COUNT - 1));
+        
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+    
+    /**
+     * Get the number of recorded samples.
+     * @return sample count
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+    
+    /**
+     * Get the largest recorded value, exactly.
+     * @return max latency in nanoseconds, or 0 if empty
+     */
+    public long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * Get the value at a given percentile.
+     * The result is the upper edge of the bucket holding that sample,
+     * capped at the exact maximum.
+     * 
+     * @param percentile percentile in the range 0-100
+     * @return latency in nanoseconds, or 0 if empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        
+        double clamped = Math.min(100.0, Math.max(0.0, percentile));
+        long target = Math.max(1, (long) Math.ceil(clamped / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(highestValueInBucket(i), getMax());
+            }
+        }
+        return getMax();
+    }
+    
+    /**
+     * Clear all samples.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        max.set(0);
+    }
+    
+    // Buckets 0..127 hold their own value; after that each magnitude
+    // contributes 64 buckets for the range [64 << shift, 128 << shift)
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+    
+    static long highestValueInBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long lowest = (long) (index % SUB_BUCKET_HALF + SUB_BUCKET_HALF) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
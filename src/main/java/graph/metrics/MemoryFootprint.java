@@ -0,0 +1,167 @@
+package graph.metrics;
+
+import com.daa.model.Component;
+import com.daa.model.CondensationGraph;
+import com.daa.model.Task;
+import com.daa.model.TaskGraph;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the retained heap size of the scheduler's data structures.
+ * 
+ * <p>Sizes are computed from the HotSpot object layout (12 or 16 byte
+ * headers, 4 or 8 byte references depending on compressed oops, 8 byte
+ * alignment) rather than measured, so they are estimates. Collection
+ * capacities are assumed to follow the default growth policies. Strings
+ * are counted once per instance, so ids shared between the task map and
+ * the adjacency lists are not double counted.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public final class MemoryFootprint {
+    
+    private static final boolean COMPRESSED_OOPS = compressedOops();
+    private static final int HEADER = COMPRESSED_OOPS ? 12 : 16;
+    private static final int REF = COMPRESSED_OOPS ? 4 : 8;
+    private static final int ARRAY_HEADER = HEADER + 4;
+    
+    // Strings already counted during the current estimate
+    private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    private MemoryFootprint() {
+    }
+    
+    /**
+     * Estimate the retained size of a task graph: tasks, names, dependency
+     * lists, and both adjacency maps.
+     * @param graph task graph
+     * @return estimated bytes
+     */
+    public static long estimate(TaskGraph graph) {
+        MemoryFootprint footprint = new MemoryFootprint();
+        long bytes = align(HEADER + 4 * REF + 8); // TaskGraph: 3 maps + edge count
+        bytes += hashMap(graph.getTasks().size());
+        for (Map.Entry<String, Task> entry : graph.getTasks().entrySet()) {
+            Task task = entry.getValue();
+            bytes += footprint.string(entry.getKey());
+            bytes += align(HEADER + 3 * REF + 4);
+            bytes += footprint.string(task.getId()) + footprint.string(task.getName());
+            bytes += footprint.stringList(task.getDependencies());
+        }
+        bytes += footprint.adjacency(graph.getAdjacencyList());
+        bytes += footprint.adjacency(graph.getReverseAdjacencyList());
+        return bytes;
+    }
+    
+    /**
+     * Estimate the retained size of the SCC result: the component list and
+     * the task-to-component map. Task id strings are owned by the task graph
+     * and are not counted here.
+     * @param components components from Tarjan's algorithm
+     * @param taskToComponent task id to component id map, may be null
+     * @return estimated bytes
+     */
+    public static long estimate(List<Component> components, Map<String, Integer> taskToComponent) {
+        long bytes = arrayList(components.size());
+        for (Component component : components) {
+            bytes += align(HEADER + 4 + REF) + arrayList(component.size());
+        }
+        if (taskToComponent != null) {
+            bytes += hashMap(taskToComponent.size());
+            for (Integer id : taskToComponent.values()) {
+                bytes += boxedInteger(id);
+            }
+        }
+        return bytes;
+    }
+    
+    /**
+     * Estimate the retained size of a condensation graph: its adjacency and
+     * duration maps. The components and original graph are shared with the
+     * SCC result and task graph, so they are not counted again.
+     * @param dag condensation graph
+     * @return estimated bytes
+     */
+    public static long estimate(CondensationGraph dag) {
+        long bytes = align(HEADER + 4 * REF + 4);
+        bytes += hashMap(dag.size()) * 2;  // adjacency + durations
+        for (Map.Entry<Integer, List<Integer>> entry : dag.getAdjacencyList().entrySet()) {
+            bytes += boxedInteger(entry.getKey()) * 2;
+            bytes += arrayList(entry.getValue().size());
+            for (Integer target : entry.getValue()) {
+                bytes += boxedInteger(target);
+            }
+            bytes += boxedInteger(dag.getComponentDuration(entry.getKey()));
+        }
+        return bytes;
+    }
+    
+    private long adjacency(Map<String, List<String>> adjacency) {
+        long bytes = hashMap(adjacency.size());
+        for (Map.Entry<String, List<String>> entry : adjacency.entrySet()) {
+            bytes += string(entry.getKey());
+            bytes += stringList(entry.getValue());
+        }
+        return bytes;
+    }
+    
+    private long stringList(List<String> list) {
+        long bytes = arrayList(list.size());
+        for (String value : list) {
+            bytes += string(value);
+        }
+        return bytes;
+    }
+    
+    private long string(String value) {
+        if (value == null || !seen.add(value)) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        int payload = latin1 ? value.length() : value.length() * 2;
+        return align(HEADER + REF + 4 + 2) + align(ARRAY_HEADER + payload);
+    }
+    
+    private static long hashMap(int size) {
+        int capacity = 16;
+        while (capacity * 0.75 < size) {
+            capacity <<= 1;
+        }
+        long node = align(HEADER + 4 + 3 * REF);
+        return align(HEADER + 6 * REF + 12) + align(ARRAY_HEADER + (long) capacity * REF) + node * size;
+    }
+    
+    private static long arrayList(int size) {
+        int capacity = size == 0 ? 0 : 10;
+        while (capacity < size) {
+            capacity += capacity >> 1;
+        }
+        return align(HEADER + 8 + REF) + align(ARRAY_HEADER + (long) capacity * REF);
+    }
+    
+    private static long boxedInteger(Integer value) {
+        // Integer.valueOf caches -128..127, so those cost nothing extra
+        return value >= -128 && value <= 127 ? 0 : align(HEADER + 4);
+    }
+    
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+    
+    private static boolean compressedOops() {
+        try {
+            com.sun.management.HotSpotDiagnosticMXBean bean =
+                ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            return bean == null || Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+}
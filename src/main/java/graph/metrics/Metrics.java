@@ -1,5 +1,7 @@
 package graph.metrics;
 
+import java.util.Map;
+
 /**
  * Common metrics interface for instrumenting graph algorithms.
  * Tracks operation counts and execution time.
@@ -31,6 +33,36 @@ public interface Metrics {
      */
     double getElapsedMillis();
     
+    /**
+     * Get bytes allocated by the calling thread between
+     * {@link #startTimer()} and {@link #stopTimer()}.
+     * @return allocated bytes, or -1 if the JVM cannot measure it
+     */
+    long getAllocatedBytes();
+    
+    /**
+     * Record the estimated retained size of a data structure built or
+     * used by this phase (see {@link MemoryFootprint}).
+     * @param structure structure name, e.g. "task_graph"
+     * @param bytes estimated bytes
+     */
+    void recordFootprint(String structure, long bytes);
+    
+    /**
+     * Get all recorded footprint estimates, sorted by name.
+     * @return structure name to estimated bytes
+     */
+    Map<String, Long> getFootprints();
+    
+    /**
+     * Get a handle to a named counter, registering it if needed.
+     * Handles stay valid across {@link #reset()}, so algorithms should
+     * look them up once and increment the handle in their hot loops.
+     * @param counterName name of the counter
+     * @return counter handle
+     */
+    Counter counter(String counterName);
+    
     /**
      * Increment a named counter.
      * @param counterName name of the counter
@@ -51,14 +83,35 @@ public interface Metrics {
      */
     long getCounter(String counterName);
     
+    /**
+     * Get a snapshot of all non-zero counters, sorted by name.
+     * @return counter name to value
+     */
+    Map<String, Long> getCounters();
+    
     /**
      * Reset all metrics.
      */
     void reset();
     
+    /**
+     * Add another run's elapsed time, allocation and counters to this one,
+     * for a phase whose work was split into independent runs, such as one
+     * per shard. The result reports the total over all runs.
+     * @param other metrics of one run
+     */
+    void merge(Metrics other);
+    
     /**
      * Get a formatted string of all metrics.
      * @return formatted metrics string
      */
     String getReport();
+    
+    /**
+     * Get all metrics as a single-line JSON object with elapsed time,
+     * allocated bytes, counters and footprints.
+     * @return JSON metrics string
+     */
+    String toJson();
 }
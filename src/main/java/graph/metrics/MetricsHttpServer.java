@@ -0,0 +1,65 @@
+package graph.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves a {@link MetricsRegistry} at {@code http://127.0.0.1:<port>/metrics}
+ * for Prometheus-compatible scrapers.
+ * Binds to the loopback interface only.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class MetricsHttpServer implements AutoCloseable {
+    
+    private final HttpServer server;
+    
+    private MetricsHttpServer(HttpServer server) {
+        this.server = server;
+    }
+    
+    /**
+     * Start serving the registry.
+     * @param registry registry to expose
+     * @param port local port, or 0 to pick a free one
+     * @return running server
+     * @throws IOException if the port cannot be bound
+     */
+    public static MetricsHttpServer start(MetricsRegistry registry, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> respond(exchange, registry));
+        server.start();
+        return new MetricsHttpServer(server);
+    }
+    
+    private static void respond(HttpExchange exchange, MetricsRegistry registry) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = OpenMetricsExporter.scrape(registry).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", OpenMetricsExporter.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
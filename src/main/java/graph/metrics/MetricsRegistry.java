@@ -0,0 +1,122 @@
+package graph.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide aggregate of scheduler metrics across all analyses.
+ * 
+ * <p>Each completed phase is folded in with {@link #record}: its latency
+ * goes into the phase's {@link LatencyHistogram}, and its operation
+ * counters and allocated bytes are added to running totals. Nothing is
+ * kept per analysis, so memory and scrape cost depend only on the fixed
+ * set of phases and counter names, never on how many analyses have run.
+ * 
+ * <p>Export with {@link OpenMetricsExporter}.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class MetricsRegistry {
+    
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    
+    private final PhaseLatencyRecorder latencies;
+    private final Map<Phase, LongAdder> durationSums;
+    private final Map<Phase, LongAdder> allocatedBytes;
+    private final Map<Phase, Map<String, LongAdder>> operations;
+    private final LongAdder analyses;
+    
+    public MetricsRegistry() {
+        this.latencies = new PhaseLatencyRecorder();
+        this.durationSums = new EnumMap<>(Phase.class);
+        this.allocatedBytes = new EnumMap<>(Phase.class);
+        this.operations = new EnumMap<>(Phase.class);
+        this.analyses = new LongAdder();
+        for (Phase phase : Phase.values()) {
+            durationSums.put(phase, new LongAdder());
+            allocatedBytes.put(phase, new LongAdder());
+            operations.put(phase, new ConcurrentHashMap<>());
+        }
+    }
+    
+    /**
+     * Get the shared registry used by the CLI, batch and server modes.
+     * @return default registry
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+    
+    /**
+     * Fold one completed phase into the aggregates.
+     * @param phase pipeline phase
+     * @param elapsedNanos wall time of the phase
+     * @param metrics the phase's metrics for counters and allocation, may be null
+     */
+    public void record(Phase phase, long elapsedNanos, Metrics metrics) {
+        latencies.record(phase, elapsedNanos);
+        durationSums.get(phase).add(elapsedNanos);
+        if (metrics == null) {
+            return;
+        }
+        
+        long allocated = metrics.getAllocatedBytes();
+        if (allocated > 0) {
+            allocatedBytes.get(phase).add(allocated);
+        }
+        Map<String, LongAdder> phaseOperations = operations.get(phase);
+        metrics.getCounters().forEach((name, value) ->
+            phaseOperations.computeIfAbsent(name, n -> new LongAdder()).add(value)
+        );
+    }
+    
+    /**
+     * Fold in every phase of one analysis, each timed by its own metrics.
+     * Phases whose metrics are {@link NoOpMetrics} are skipped: they keep no
+     * time and no counters, and recording them would report the phase as
+     * taking zero time. Callers that time phases themselves use {@link #record}.
+     * @param phaseMetrics phase to the metrics it ran with
+     */
+    public void recordPhases(Map<Phase, Metrics> phaseMetrics) {
+        phaseMetrics.forEach((phase, metrics) -> {
+            if (!(metrics instanceof NoOpMetrics)) {
+                record(phase, metrics.getElapsedNanos(), metrics);
+            }
+        });
+    }
+    
+    /**
+     * Count one finished analysis.
+     */
+    public void recordAnalysis() {
+        analyses.increment();
+    }
+    
+    public long getAnalyses() {
+        return analyses.sum();
+    }
+    
+    public PhaseLatencyRecorder getLatencies() {
+        return latencies;
+    }
+    
+    public long getDurationSumNanos(Phase phase) {
+        return durationSums.get(phase).sum();
+    }
+    
+    public long getAllocatedBytes(Phase phase) {
+        return allocatedBytes.get(phase).sum();
+    }
+    
+    /**
+     * Get the running operation totals for one phase.
+     * @param phase pipeline phase
+     * @return counter name to total, live view
+     */
+    public Map<String, LongAdder> getOperations(Phase phase) {
+        return operations.get(phase);
+    }
+}
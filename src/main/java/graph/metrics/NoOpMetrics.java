@@ -0,0 +1,114 @@
+package graph.metrics;
+
+import java.util.Map;
+
+/**
+ * Metrics implementation that records nothing.
+ * Used for production runs where operation counts are not needed.
+ * Every method is empty, so calls inline to nothing once the JIT sees
+ * this is the only implementation in use.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public final class NoOpMetrics implements Metrics {
+    
+    /** Shared instance; the class holds no state. */
+    public static final NoOpMetrics INSTANCE = new NoOpMetrics();
+    
+    private static final Counter NO_OP_COUNTER = new Counter() {
+        @Override
+        public void increment() {
+        }
+        
+        @Override
+        public void add(long amount) {
+        }
+        
+        @Override
+        public long get() {
+            return 0;
+        }
+    };
+    
+    private NoOpMetrics() {
+    }
+    
+    @Override
+    public void startTimer() {
+    }
+    
+    @Override
+    public void stopTimer() {
+    }
+    
+    @Override
+    public long getElapsedNanos() {
+        return 0;
+    }
+    
+    @Override
+    public double getElapsedMillis() {
+        return 0;
+    }
+    
+    @Override
+    public long getAllocatedBytes() {
+        return -1;
+    }
+    
+    @Override
+    public void recordFootprint(String structure, long bytes) {
+    }
+    
+    @Override
+    public Map<String, Long> getFootprints() {
+        return Map.of();
+    }
+    
+    @Override
+    public Counter counter(String counterName) {
+        return NO_OP_COUNTER;
+    }
+    
+    @Override
+    public void incrementCounter(String counterName) {
+    }
+    
+    @Override
+    public void incrementCounter(String counterName, int amount) {
+    }
+    
+    @Override
+    public long getCounter(String counterName) {
+        return 0;
+    }
+    
+    @Override
+    public Map<String, Long> getCounters() {
+        return Map.of();
+    }
+    
+    @Override
+    public void reset() {
+    }
+    
+    @Override
+    public void merge(Metrics other) {
+    }
+    
+    @Override
+    public String getReport() {
+        return "=== Metrics Report ===\nInstrumentation disabled\n";
+    }
+    
+    @Override
+    public String toJson() {
+        return "{\"instrumentation\":\"disabled\"}";
+    }
+    
+    @Override
+    public String toString() {
+        return getReport();
+    }
+}
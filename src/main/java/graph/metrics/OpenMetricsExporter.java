@@ -0,0 +1,113 @@
+package graph.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Renders a {@link MetricsRegistry} in the OpenMetrics text format.
+ * 
+ * <p>Exposed families:
+ * <ul>
+ *   <li>{@code scheduler_analyses_total} - completed analyses</li>
+ *   <li>{@code scheduler_phase_duration_seconds} - summary per phase with
+ *       p50/p99/p99.9 quantiles, sum and count</li>
+ *   <li>{@code scheduler_phase_allocated_bytes_total} - bytes allocated per phase</li>
+ *   <li>{@code scheduler_operations_total} - algorithm counters by phase and operation</li>
+ * </ul>
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public final class OpenMetricsExporter {
+    
+    /** Content type for HTTP responses. */
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    
+    private OpenMetricsExporter() {
+    }
+    
+    /**
+     * Render the registry as OpenMetrics text, terminated by {@code # EOF}.
+     * @param registry registry to export
+     * @return exposition text
+     */
+    public static String scrape(MetricsRegistry registry) {
+        StringBuilder sb = new StringBuilder(4096);
+        
+        sb.append("# TYPE scheduler_analyses counter\n");
+        sb.append("# HELP scheduler_analyses Completed pipeline analyses.\n");
+        sb.append("scheduler_analyses_total ").append(registry.getAnalyses()).append('\n');
+        
+        sb.append("# TYPE scheduler_phase_duration_seconds summary\n");
+        sb.append("# UNIT scheduler_phase_duration_seconds seconds\n");
+        sb.append("# HELP scheduler_phase_duration_seconds Wall time of each pipeline phase.\n");
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = registry.getLatencies().histogram(phase);
+            long count = histogram.getCount();
+            if (count == 0) {
+                continue;
+            }
+            for (double quantile : QUANTILES) {
+                sb.append("scheduler_phase_duration_seconds{phase=\"").append(phase.label())
+                    .append("\",quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.getValueAtPercentile(quantile * 100))).append('\n');
+            }
+            sb.append("scheduler_phase_duration_seconds_sum{phase=\"").append(phase.label()).append("\"} ")
+                .append(seconds(registry.getDurationSumNanos(phase))).append('\n');
+            sb.append("scheduler_phase_duration_seconds_count{phase=\"").append(phase.label()).append("\"} ")
+                .append(count).append('\n');
+        }
+        
+        sb.append("# TYPE scheduler_phase_allocated_bytes counter\n");
+        sb.append("# UNIT scheduler_phase_allocated_bytes bytes\n");
+        sb.append("# HELP scheduler_phase_allocated_bytes Bytes allocated by the thread running each phase.\n");
+        for (Phase phase : Phase.values()) {
+            sb.append("scheduler_phase_allocated_bytes_total{phase=\"").append(phase.label()).append("\"} ")
+                .append(registry.getAllocatedBytes(phase)).append('\n');
+        }
+        
+        sb.append("# TYPE scheduler_operations counter\n");
+        sb.append("# HELP scheduler_operations Algorithm operation counters.\n");
+        for (Phase phase : Phase.values()) {
+            Map<String, LongAdder> sorted = new TreeMap<>(registry.getOperations(phase));
+            sorted.forEach((operation, total) ->
+                sb.append("scheduler_operations_total{phase=\"").append(phase.label())
+                    .append("\",operation=\"").append(operation).append("\"} ")
+                    .append(total.sum()).append('\n')
+            );
+        }
+        
+        sb.append("# EOF\n");
+        return sb.toString();
+    }
+    
+    /**
+     * Write the exposition to a file atomically, for textfile collectors.
+     * @param registry registry to export
+     * @param file destination file
+     * @throws IOException if writing fails
+     */
+    public static void writeToFile(MetricsRegistry registry, Path file) throws IOException {
+        // a unique staging file, so concurrent runs exporting to one path never share it
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, scrape(registry), StandardCharsets.UTF_8);
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,29 @@
+package graph.metrics;
+
+/**
+ * Stages of the scheduling pipeline, in execution order.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public enum Phase {
+    PARSE("parse"),
+    SCC("scc"),
+    CONDENSATION("condensation"),
+    TOPO("topo"),
+    PATHS("paths");
+    
+    private final String label;
+    
+    Phase(String label) {
+        this.label = label;
+    }
+    
+    /**
+     * Get the short lowercase name used in reports and exported metrics.
+     * @return phase label
+     */
+    public String label() {
+        return label;
+    }
+}
@@ -0,0 +1,123 @@
+package graph.metrics;
+
+import jdk.jfr.consumer.EventStream;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Live consumer of {@link PipelinePhaseEvent}s via JFR event streaming.
+ * 
+ * <p>Prints one line per phase as it completes and keeps a running total
+ * per phase, so a slow analysis can be watched next to GC and allocation
+ * events in the same recording. Works in-process (see {@link #start()}),
+ * or against another JVM's disk repository:
+ * <pre>
+ * java -XX:StartFlightRecording ... com.daa.App big.json
+ * java -cp ... graph.metrics.PhaseEventMonitor /tmp/2025_11_03_..._1234
+ * </pre>
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class PhaseEventMonitor implements AutoCloseable {
+    
+    private final EventStream stream;
+    private final PrintStream out;
+    private final Map<Phase, long[]> totals; // phase -> {count, nanos}
+    
+    private PhaseEventMonitor(EventStream stream, PrintStream out) {
+        this.stream = stream;
+        this.out = out;
+        this.totals = new EnumMap<>(Phase.class);
+        stream.onEvent(PipelinePhaseEvent.NAME, this::onPhase);
+    }
+    
+    /**
+     * Start an in-process recording stream for pipeline events.
+     * @return running monitor; close it to flush and print the breakdown
+     */
+    public static PhaseEventMonitor start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PipelinePhaseEvent.NAME);
+        recording.setMaxAge(Duration.ofSeconds(30));
+        PhaseEventMonitor monitor = new PhaseEventMonitor(recording, System.out);
+        recording.startAsync();
+        return monitor;
+    }
+    
+    private void onPhase(RecordedEvent event) {
+        Phase phase = phaseOf(event.getString("phase"));
+        long nanos = event.getDuration().toNanos();
+        synchronized (totals) {
+            long[] total = totals.computeIfAbsent(phase, p -> new long[2]);
+            total[0]++;
+            total[1] += nanos;
+        }
+        String detail = event.getString("detail");
+        out.printf("[jfr] %-12s %9.3f ms  tasks=%d edges=%d components=%d %s%s%n",
+            phase.label(), nanos / 1_000_000.0,
+            event.getInt("tasks"), event.getLong("edges"), event.getInt("components"),
+            event.getString("counters"), detail == null ? "" : " " + detail);
+    }
+    
+    /**
+     * Get the cumulative time spent in each phase so far.
+     * @return formatted breakdown with share of total time
+     */
+    public String getBreakdown() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== JFR Phase Breakdown ===\n");
+        synchronized (totals) {
+            long all = totals.values().stream().mapToLong(t -> t[1]).sum();
+            for (Map.Entry<Phase, long[]> entry : totals.entrySet()) {
+                long[] total = entry.getValue();
+                sb.append(String.format("%-14s %6d events %10.3f ms %6.1f%%\n",
+                    entry.getKey().label(), total[0], total[1] / 1_000_000.0,
+                    all == 0 ? 0.0 : 100.0 * total[1] / all));
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Stop streaming after all recorded events are consumed, then print the breakdown.
+     */
+    @Override
+    public void close() {
+        if (stream instanceof RecordingStream recording) {
+            recording.stop();
+        }
+        stream.close();
+        out.println("\n" + getBreakdown());
+    }
+    
+    private static Phase phaseOf(String label) {
+        for (Phase phase : Phase.values()) {
+            if (phase.label().equals(label)) {
+                return phase;
+            }
+        }
+        throw new IllegalArgumentException("Unknown phase: " + label);
+    }
+    
+    /**
+     * Follow the disk repository of another JVM and print phases live until interrupted.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java graph.metrics.PhaseEventMonitor <jfr-repository-dir>");
+            System.exit(1);
+        }
+        EventStream stream = EventStream.openRepository(Path.of(args[0]));
+        PhaseEventMonitor monitor = new PhaseEventMonitor(stream, System.out);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println("\n" + monitor.getBreakdown())));
+        stream.start();
+    }
+}
@@ -0,0 +1,91 @@
+package graph.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Aggregates per-phase latencies across many pipeline runs.
+ * 
+ * <p>Unlike {@link DefaultMetrics}, which keeps only the last start/stop
+ * pair and is reset by every algorithm call, this recorder keeps one
+ * {@link LatencyHistogram} per {@link Phase} for its whole lifetime, so
+ * thousands of runs can be summarised as p50/p99/p99.9/max. Memory use is
+ * fixed no matter how many samples are recorded.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+public class PhaseLatencyRecorder {
+    
+    private final Map<Phase, LatencyHistogram> histograms;
+    
+    public PhaseLatencyRecorder() {
+        this.histograms = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+    
+    /**
+     * Record how long one phase took.
+     * @param phase pipeline phase
+     * @param nanos elapsed time in nanoseconds
+     */
+    public void record(Phase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+    
+    /**
+     * Get the histogram for a phase.
+     * @param phase pipeline phase
+     * @return live histogram for that phase
+     */
+    public LatencyHistogram histogram(Phase phase) {
+        return histograms.get(phase);
+    }
+    
+    /**
+     * Clear every phase histogram.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+    
+    /**
+     * Get a formatted table of latency percentiles per phase.
+     * @return formatted report, times in milliseconds
+     */
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Phase Latency Report (ms) ===\n");
+        sb.append(String.format("%-14s %8s %10s %10s %10s %10s\n",
+            "Phase", "Runs", "p50", "p99", "p99.9", "max"));
+        
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = histograms.get(phase);
+            long count = histogram.getCount();
+            if (count == 0) {
+                continue;
+            }
+            sb.append(String.format("%-14s %8d %10.3f %10.3f %10.3f %10.3f\n",
+                phase.label(), count,
+                toMillis(histogram.getValueAtPercentile(50.0)),
+                toMillis(histogram.getValueAtPercentile(99.0)),
+                toMillis(histogram.getValueAtPercentile(99.9)),
+                toMillis(histogram.getMax())));
+        }
+        
+        return sb.toString();
+    }
+    
+    @Override
+    public String toString() {
+        return getReport();
+    }
+    
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
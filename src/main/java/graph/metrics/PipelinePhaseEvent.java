@@ -0,0 +1,82 @@
+package graph.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Map;
+
+/**
+ * JFR event emitted around every pipeline phase and path query.
+ * 
+ * <p>Usage follows the standard JFR pattern so the event costs next to
+ * nothing when no recording is active: {@code begin()} before the work,
+ * {@code end()} after it, and fields are only filled in (and counter
+ * strings only built) when {@code shouldCommit()} returns true. Stack
+ * traces are off because the phase name already says where we are.
+ * 
+ * <p>Record with {@code -XX:StartFlightRecording} and look for
+ * {@code com.daa.PipelinePhase}, or stream live with {@link PhaseEventMonitor}.
+ * 
+ * @author Smart City Scheduling Team
+ * @version 1.0
+ */
+@Name(PipelinePhaseEvent.NAME)
+@Label("Pipeline Phase")
+@Category({"Smart City Scheduler"})
+@Description("One phase of the SCC / topological sort / path analysis pipeline")
+@StackTrace(false)
+public class PipelinePhaseEvent extends Event {
+    
+    /** JFR event type name. */
+    public static final String NAME = "com.daa.PipelinePhase";
+    
+    @Label("Phase")
+    @Description("Pipeline phase: parse, scc, condensation, topo or paths")
+    public String phase;
+    
+    @Label("Tasks")
+    @Description("Vertices in the task graph")
+    public int tasks;
+    
+    @Label("Edges")
+    @Description("Edges in the graph the phase worked on")
+    public long edges;
+    
+    @Label("Components")
+    @Description("Strongly connected components, or -1 if not known yet")
+    public int components = -1;
+    
+    @Label("Counters")
+    @Description("Operation counters recorded during the phase")
+    public String counters;
+    
+    @Label("Detail")
+    @Description("Phase-specific detail, e.g. the path query and its result")
+    public String detail;
+    
+    /**
+     * Fill the common fields in one call; only invoke after {@code shouldCommit()}.
+     */
+    public void set(Phase phase, int tasks, long edges, int components, Metrics metrics) {
+        this.phase = phase.label();
+        this.tasks = tasks;
+        this.edges = edges;
+        this.components = components;
+        this.counters = metrics == null ? "" : formatCounters(metrics.getCounters());
+    }
+    
+    static String formatCounters(Map<String, Long> counters) {
+        StringBuilder sb = new StringBuilder();
+        counters.forEach((name, value) -> {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(name).append('=').append(value);
+        });
+        return sb.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package graph.scc;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.LongArray;
+import com.daa.model.NeighborCursor;
+import graph.metrics.Counter;
+import graph.metrics.Instrumentation;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+// Tarjan's algorithm over an IntGraph, with an explicit stack instead of recursion
+// Complexity: O(V + E), memory: five int arrays and one long array of size V, on or off the heap
+// Neighbors are read through one cursor, so encoded graphs are decoded in order
+// Finds the same components as TarjanSCC, numbered in the order they complete
+// (reverse topological order of the condensation)
+public class CompactTarjanSCC {
+    private final IntGraph graph;
+    private final ArrayStorage storage;
+    private IntArray componentOf;                // vertex -> component id
+    private int componentCount;
+    private final Metrics metrics;
+    private final Counter dfsCalls;
+    private final Counter verticesVisited;
+    private final Counter edgesExplored;
+    private final Counter stackOperations;
+    
+    public CompactTarjanSCC(IntGraph graph) {
+        this(graph, Instrumentation.newMetrics());
+    }
+    
+    public CompactTarjanSCC(IntGraph graph, Metrics metrics) {
+        this(graph, metrics, ArrayStorage.HEAP);
+    }
+    
+    public CompactTarjanSCC(IntGraph graph, Metrics metrics, ArrayStorage storage) {
+        this.graph = graph;
+        this.storage = storage;
+        this.metrics = metrics;
+        this.dfsCalls = metrics.counter("dfs_calls");
+        this.verticesVisited = metrics.counter("vertices_visited");
+        this.edgesExplored = metrics.counter("edges_explored");
+        this.stackOperations = metrics.counter("stack_operations");
+    }
+    
+    /**
+     * Find all SCCs.
+     * @return component id of every vertex
+     */
+    public IntArray findSCCs() {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        metrics.reset();
+        metrics.startTimer();
+        
+        int n = graph.vertexCount();
+        IntArray discovery = storage.newIntArray(n);   // 0 = unvisited, otherwise time + 1
+        IntArray lowLink = storage.newIntArray(n);     // negated while v is on the SCC stack
+        IntArray callStack = storage.newIntArray(n);
+        LongArray resume = storage.newLongArray(n);    // cursor position of each call stack entry below the top
+        IntArray sccStack = storage.newIntArray(n);
+        componentOf = storage.newIntArray(n);
+        componentCount = 0;
+        NeighborCursor cursor = graph.outCursor();
+        int time = 0;
+        int sccTop = 0;
+        
+        for (int root = 0; root < n; root++) {
+            if (discovery.get(root) != 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack.set(depth++, root);
+            discovery.set(root, ++time);
+            lowLink.set(root, -time);
+            sccStack.set(sccTop++, root);
+            cursor.seek(root);
+            if (Instrumentation.ENABLED) {
+                dfsCalls.increment();
+                verticesVisited.increment();
+                stackOperations.increment();
+            }
+            
+            while (depth > 0) {
+                int u = callStack.get(depth - 1);
+                if (cursor.hasNext()) {
+                    int v = cursor.next();
+                    if (Instrumentation.ENABLED) edgesExplored.increment();
+                    
+                    if (discovery.get(v) == 0) {
+                        // descend into v, remembering where u's edges left off
+                        resume.set(depth - 1, cursor.position());
+                        cursor.seek(v);
+                        discovery.set(v, ++time);
+                        lowLink.set(v, -time);
+                        sccStack.set(sccTop++, v);
+                        callStack.set(depth++, v);
+                        if (Instrumentation.ENABLED) {
+                            dfsCalls.increment();
+                            verticesVisited.increment();
+                            stackOperations.increment();
+                        }
+                    } else if (lowLink.get(v) < 0) {
+                        // v is on the stack: low = min(low, disc(v)), in negated form
+                        lowLink.set(u, Math.max(lowLink.get(u), -discovery.get(v)));
+                    }
+                    continue;
+                }
+                
+                // all edges of u done: close its component if it is a root, then return to the parent
+                if (-lowLink.get(u) == discovery.get(u)) {
+                    int v;
+                    do {
+                        v = sccStack.get(--sccTop);
+                        lowLink.set(v, -lowLink.get(v));  // off the stack
+                        componentOf.set(v, componentCount);
+                        if (Instrumentation.ENABLED) stackOperations.increment();
+                    } while (v != u);
+                    componentCount++;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack.get(depth - 1);
+                    // a finished child still on the stack passes its low-link up
+                    if (lowLink.get(u) < 0) {
+                        lowLink.set(parent, Math.max(lowLink.get(parent), lowLink.get(u)));
+                    }
+                    cursor.seek(parent, resume.get(depth - 1));
+                }
+            }
+        }
+        
+        metrics.stopTimer();
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.SCC, n, graph.edgeCount(), componentCount, metrics);
+            event.commit();
+        }
+        return componentOf;
+    }
+    
+    public IntArray getComponentOf() {
+        return componentOf;
+    }
+    
+    public int getComponentCount() {
+        return componentCount;
+    }
+    
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
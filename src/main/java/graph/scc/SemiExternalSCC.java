@@ -0,0 +1,180 @@
+package graph.scc;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.IntArray;
+import com.daa.utils.EdgeListFile;
+import graph.metrics.Counter;
+import graph.metrics.Instrumentation;
+import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
+
+import java.io.IOException;
+
+// Semi-external SCC detection: O(V) memory, edges streamed from disk in sequential scans
+// Uses trimming plus forward/backward label propagation (the "coloring" algorithm):
+//   1. trim: active vertices with no active in- or out-edge are SCCs on their own
+//   2. color: every active vertex takes the max (or min) label of the active vertices reaching it
+//   3. each vertex whose color is its own label is a root; the root's SCC is exactly the
+//      vertices of its color that reach it, found by propagating backwards inside the color
+// Each round removes at least one SCC, and every round flips max/min labelling so chains
+// running either way through the vertex numbering are settled quickly. Scans alternate
+// between forward and backward reads of the file for the same reason.
+// Produces the same partition as TarjanSCC; components are numbered in the order found.
+public class SemiExternalSCC {
+    private final EdgeListFile edges;
+    private final ArrayStorage storage;
+    private final Metrics metrics;
+    private final Counter edgeScans;
+    private final Counter edgesScanned;
+    private final Counter rounds;
+    private final Counter trimmedVertices;
+    private IntArray componentOf;
+    private int componentCount;
+    private boolean reverse;                    // direction of the next scan
+    
+    public SemiExternalSCC(EdgeListFile edges) {
+        this(edges, Instrumentation.newMetrics(), ArrayStorage.HEAP);
+    }
+    
+    public SemiExternalSCC(EdgeListFile edges, Metrics metrics, ArrayStorage storage) {
+        this.edges = edges;
+        this.storage = storage;
+        this.metrics = metrics;
+        this.edgeScans = metrics.counter("edge_scans");
+        this.edgesScanned = metrics.counter("edges_scanned");
+        this.rounds = metrics.counter("rounds");
+        this.trimmedVertices = metrics.counter("trimmed_vertices");
+    }
+    
+    /**
+     * Find all SCCs.
+     * @return component id of every vertex
+     * @throws IOException if the edge file cannot be read
+     */
+    public IntArray findSCCs() throws IOException {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
+        metrics.reset();
+        metrics.startTimer();
+        
+        int n = edges.vertexCount();
+        componentOf = storage.newIntArray(n);       // component + 1, 0 = still active
+        IntArray color = storage.newIntArray(n);
+        IntArray in = storage.newIntArray(n);       // trimming degrees, then root -> component
+        IntArray out = storage.newIntArray(n);      // trimming degrees, then backward marks
+        componentCount = 0;
+        int remaining = n;
+        boolean useMax = true;
+        
+        while (remaining > 0) {
+            if (Instrumentation.ENABLED) rounds.increment();
+            
+            // 1. trim vertices with no active in- or out-edges
+            for (int v = 0; v < n; v++) {
+                in.set(v, 0);
+                out.set(v, 0);
+            }
+            scan((from, to) -> {
+                if (componentOf.get(from) == 0 && componentOf.get(to) == 0 && from != to) {
+                    out.set(from, 1);
+                    in.set(to, 1);
+                }
+            });
+            for (int v = 0; v < n; v++) {
+                if (componentOf.get(v) == 0 && (in.get(v) == 0 || out.get(v) == 0)) {
+                    componentOf.set(v, ++componentCount);
+                    remaining--;
+                    if (Instrumentation.ENABLED) trimmedVertices.increment();
+                }
+            }
+            if (remaining == 0) {
+                break;
+            }
+            
+            // 2. propagate labels forward along active edges until nothing changes
+            for (int v = 0; v < n; v++) {
+                color.set(v, v);
+            }
+            boolean max = useMax;
+            boolean[] changed = new boolean[1];
+            do {
+                changed[0] = false;
+                scan((from, to) -> {
+                    if (componentOf.get(from) == 0 && componentOf.get(to) == 0) {
+                        int label = color.get(from);
+                        int current = color.get(to);
+                        if (max ? label > current : label < current) {
+                            color.set(to, label);
+                            changed[0] = true;
+                        }
+                    }
+                });
+            } while (changed[0]);
+            
+            // 3. mark roots, then everything of the same color that reaches a marked vertex
+            for (int v = 0; v < n; v++) {
+                out.set(v, componentOf.get(v) == 0 && color.get(v) == v ? 1 : 0);
+            }
+            do {
+                changed[0] = false;
+                scan((from, to) -> {
+                    if (out.get(to) == 1 && out.get(from) == 0 && componentOf.get(from) == 0
+                            && color.get(from) == color.get(to)) {
+                        out.set(from, 1);
+                        changed[0] = true;
+                    }
+                });
+            } while (changed[0]);
+            
+            // one new component per root; members find it through their color
+            for (int v = 0; v < n; v++) {
+                if (out.get(v) == 1 && color.get(v) == v) {
+                    in.set(v, ++componentCount);
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                if (out.get(v) == 1) {
+                    componentOf.set(v, in.get(color.get(v)));
+                    remaining--;
+                }
+            }
+            useMax = !useMax;
+        }
+        
+        // store plain 0-based ids
+        for (int v = 0; v < n; v++) {
+            componentOf.set(v, componentOf.get(v) - 1);
+        }
+        
+        metrics.stopTimer();
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.SCC, n, edges.edgeCount(), componentCount, metrics);
+            event.detail = "semi-external scans=" + metrics.getCounter("edge_scans");
+            event.commit();
+        }
+        return componentOf;
+    }
+    
+    private void scan(EdgeListFile.EdgeVisitor visitor) throws IOException {
+        edges.scan(reverse, visitor);
+        reverse = !reverse;
+        if (Instrumentation.ENABLED) {
+            edgeScans.increment();
+            edgesScanned.add(edges.edgeCount());
+        }
+    }
+    
+    public IntArray getComponentOf() {
+        return componentOf;
+    }
+    
+    public int getComponentCount() {
+        return componentCount;
+    }
+    
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
@@ -2,8 +2,11 @@ package graph.scc;
 
 import com.daa.model.Component;
 import com.daa.model.TaskGraph;
+import graph.metrics.Counter;
 import graph.metrics.Metrics;
-import graph.metrics.DefaultMetrics;
+import graph.metrics.Instrumentation;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
 
 import java.util.*;
 
@@ -20,9 +23,14 @@ public class TarjanSCC {
     private int time;                            // global time counter
     private int componentId;                     // SCC id counter
     private Metrics metrics;                     // for tracking performance
+    private final Counter dfsCalls;              // counter handles, looked up once
+    private final Counter verticesVisited;
+    private final Counter edgesExplored;
+    private final Counter stackOperations;
+    private Map<String, Integer> taskToComponent = Collections.emptyMap(); // filled by findSCCs
     
     public TarjanSCC(TaskGraph graph) {
-        this(graph, new DefaultMetrics());
+        this(graph, Instrumentation.newMetrics());
     }
     
     public TarjanSCC(TaskGraph graph, Metrics metrics) {
@@ -35,10 +43,16 @@ public class TarjanSCC {
         this.time = 0;
         this.componentId = 0;
         this.metrics = metrics;
+        this.dfsCalls = metrics.counter("dfs_calls");
+        this.verticesVisited = metrics.counter("vertices_visited");
+        this.edgesExplored = metrics.counter("edges_explored");
+        this.stackOperations = metrics.counter("stack_operations");
     }
     
     // Main method to find all SCCs
     public List<Component> findSCCs() {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
         metrics.reset();
         metrics.startTimer();
         
@@ -50,6 +64,19 @@ public class TarjanSCC {
         }
         
         metrics.stopTimer();
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.SCC, graph.size(), graph.edgeCount(), components.size(), metrics);
+            event.commit();
+        }
+        
+        Map<String, Integer> map = new HashMap<>(graph.size() * 4 / 3 + 1);
+        for (Component component : components) {
+            for (String taskId : component.getTaskIds()) {
+                map.put(taskId, component.getId());
+            }
+        }
+        taskToComponent = Collections.unmodifiableMap(map);
         return components;
     }
     
@@ -60,8 +87,10 @@ public class TarjanSCC {
      * @param u current vertex
      */
     private void dfs(String u) {
-        metrics.incrementCounter("dfs_calls");
-        metrics.incrementCounter("vertices_visited");
+        if (Instrumentation.ENABLED) {
+            dfsCalls.increment();
+            verticesVisited.increment();
+        }
         
         // Initialize discovery time and low link value
         discoveryTime.put(u, time);
@@ -71,13 +100,13 @@ public class TarjanSCC {
         // Push onto stack
         stack.push(u);
         onStack.add(u);
-        metrics.incrementCounter("stack_operations"); // push
+        if (Instrumentation.ENABLED) stackOperations.increment(); // push
         
         // check all neighbors
         Map<String, List<String>> adj = graph.getAdjacencyList();
         if (adj.containsKey(u)) {
             for (String v : adj.get(u)) {
-                metrics.incrementCounter("edges_explored");
+                if (Instrumentation.ENABLED) edgesExplored.increment();
                 
                 if (!discoveryTime.containsKey(v)) {
                     // not visited yet, so do DFS
@@ -98,7 +127,7 @@ public class TarjanSCC {
             do {
                 v = stack.pop();
                 onStack.remove(v);
-                metrics.incrementCounter("stack_operations");
+                if (Instrumentation.ENABLED) stackOperations.increment();
                 component.addTask(v);
             } while (!v.equals(u));
             
@@ -107,13 +136,8 @@ public class TarjanSCC {
     }
     
     // helper method to get task to component mapping
+    // filled once at the end of findSCCs; read-only, so it can be shared by every caller
     public Map<String, Integer> getTaskToComponentMap() {
-        Map<String, Integer> taskToComponent = new HashMap<>();
-        for (Component component : components) {
-            for (String taskId : component.getTaskIds()) {
-                taskToComponent.put(taskId, component.getId());
-            }
-        }
         return taskToComponent;
     }
     
@@ -2,8 +2,11 @@ package graph.topo;
 
 import com.daa.model.Component;
 import com.daa.model.CondensationGraph;
-import graph.metrics.DefaultMetrics;
+import graph.metrics.Counter;
+import graph.metrics.Instrumentation;
 import graph.metrics.Metrics;
+import graph.metrics.Phase;
+import graph.metrics.PipelinePhaseEvent;
 
 import java.util.*;
 
@@ -13,18 +16,30 @@ import java.util.*;
 public class TopologicalSort {
     private CondensationGraph condensationGraph;
     private Metrics metrics;
+    private final Counter inDegreeCalculations;
+    private final Counter inDegreeUpdates;
+    private final Counter queuePushes;
+    private final Counter queuePops;
+    private final Counter verticesProcessed;
     
     public TopologicalSort(CondensationGraph condensationGraph) {
-        this(condensationGraph, new DefaultMetrics());
+        this(condensationGraph, Instrumentation.newMetrics());
     }
     
     public TopologicalSort(CondensationGraph condensationGraph, Metrics metrics) {
         this.condensationGraph = condensationGraph;
         this.metrics = metrics;
+        this.inDegreeCalculations = metrics.counter("in_degree_calculations");
+        this.inDegreeUpdates = metrics.counter("in_degree_updates");
+        this.queuePushes = metrics.counter("queue_pushes");
+        this.queuePops = metrics.counter("queue_pops");
+        this.verticesProcessed = metrics.counter("vertices_processed");
     }
     
     // Main method - returns topological order or empty list if cycle found
     public List<Integer> sortComponents() {
+        PipelinePhaseEvent event = new PipelinePhaseEvent();
+        event.begin();
         metrics.reset();
         metrics.startTimer();
         
@@ -40,7 +55,7 @@ public class TopologicalSort {
         for (Component comp : condensationGraph.getComponents()) {
             for (int neighbor : adj.get(comp.getId())) {
                 inDegree.put(neighbor, inDegree.get(neighbor) + 1);
-                metrics.incrementCounter("in_degree_calculations");
+                if (Instrumentation.ENABLED) inDegreeCalculations.increment();
             }
         }
         
@@ -49,7 +64,7 @@ public class TopologicalSort {
         for (Component comp : condensationGraph.getComponents()) {
             if (inDegree.get(comp.getId()) == 0) {
                 queue.offer(comp.getId());
-                metrics.incrementCounter("queue_pushes");
+                if (Instrumentation.ENABLED) queuePushes.increment();
             }
         }
         
@@ -58,24 +73,33 @@ public class TopologicalSort {
         // step 4: process queue
         while (!queue.isEmpty()) {
             int current = queue.poll();
-            metrics.incrementCounter("queue_pops");
-            metrics.incrementCounter("vertices_processed");
+            if (Instrumentation.ENABLED) {
+                queuePops.increment();
+                verticesProcessed.increment();
+            }
             topologicalOrder.add(current);
             
             // reduce in-degree for neighbors
             for (int neighbor : adj.get(current)) {
                 inDegree.put(neighbor, inDegree.get(neighbor) - 1);
-                metrics.incrementCounter("in_degree_updates");
+                if (Instrumentation.ENABLED) inDegreeUpdates.increment();
                 
                 // if in-degree is now 0, add to queue
                 if (inDegree.get(neighbor) == 0) {
                     queue.offer(neighbor);
-                    metrics.incrementCounter("queue_pushes");
+                    if (Instrumentation.ENABLED) queuePushes.increment();
                 }
             }
         }
         
         metrics.stopTimer();
+        event.end();
+        if (event.shouldCommit()) {
+            event.set(Phase.TOPO, condensationGraph.taskCount(), condensationGraph.edgeCount(),
+                condensationGraph.size(), metrics);
+            event.detail = "ordered=" + topologicalOrder.size();
+            event.commit();
+        }
         
         // if we didn't process all nodes, there's a cycle
         if (topologicalOrder.size() != condensationGraph.size()) {
@@ -91,7 +115,16 @@ public class TopologicalSort {
      * @return list of task IDs in valid execution order
      */
     public List<String> sortTasks() {
-        List<Integer> componentOrder = sortComponents();
+        return tasksInOrder(sortComponents());
+    }
+    
+    /**
+     * Expand an already computed component order into task order,
+     * without sorting again.
+     * @param componentOrder component IDs in topological order
+     * @return list of task IDs in valid execution order
+     */
+    public List<String> tasksInOrder(List<Integer> componentOrder) {
         List<String> taskOrder = new ArrayList<>();
         
         for (int compId : componentOrder) {
@@ -119,7 +152,7 @@ public class TopologicalSort {
         System.out.println("Component Order: " + order);
         
         System.out.println("\n=== Derived Task Order ===");
-        List<String> taskOrder = sortTasks();
+        List<String> taskOrder = tasksInOrder(order);
         for (int i = 0; i < taskOrder.size(); i++) {
             System.out.printf("%d. %s%n", i + 1, taskOrder.get(i));
         }
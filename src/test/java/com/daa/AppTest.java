@@ -1,6 +1,16 @@
 package com.daa;
 
+import graph.metrics.MetricsRegistry;
+import graph.metrics.NoOpMetrics;
+import graph.metrics.Phase;
 import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -15,4 +25,58 @@ class AppTest {
             App.main(new String[]{});
         });
     }
+    
+    @Test
+    void testRepeatedRunsRecordLatenciesWithoutMetrics() throws Exception {
+        // Given: A fresh registry and metrics that keep no time
+        MetricsRegistry registry = new MetricsRegistry();
+        
+        // When: A few timed runs go through the pipeline
+        for (int run = 0; run < 3; run++) {
+            App.runTimed("data/medium_cyclic_dense.json", registry, () -> NoOpMetrics.INSTANCE);
+        }
+        
+        // Then: Every phase still has real wall-clock latencies
+        assertEquals(3, registry.getLatencies().histogram(Phase.SCC).getCount());
+        assertTrue(registry.getLatencies().histogram(Phase.SCC).getMax() > 0);
+        assertTrue(registry.getLatencies().histogram(Phase.PATHS).getMax() > 0);
+        assertEquals(3, registry.getAnalyses());
+    }
+    
+    @Test
+    void testJsonWithThreadsRunsShardedPipeline() throws Exception {
+        // Given: A JSON plan and a metrics file to write
+        Path metricsJson = Files.createTempFile("app-threads", ".json");
+        try {
+            // When: It is analyzed with several threads
+            App.analyzeJson("data/large_mixed.json", metricsJson.toString(), 0, 4);
+            
+            // Then: The sharded pipeline ran, and every phase was measured
+            String json = Files.readString(metricsJson);
+            assertTrue(json.contains("\"shards\""));
+            for (Phase phase : Phase.values()) {
+                assertTrue(json.contains("\"" + phase.label() + "\""), phase.label());
+            }
+        } finally {
+            Files.deleteIfExists(metricsJson);
+        }
+    }
+    
+    @Test
+    void testJsonWithBottlenecksPrintsSensitivity() throws Exception {
+        // Given: A JSON plan and a captured stdout
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            // When: It is analyzed single-threaded with --bottlenecks 5
+            App.analyzeJson("data/medium_cyclic_dense.json", null, 5, 0);
+        } finally {
+            System.setOut(stdout);
+        }
+        
+        // Then: The sensitivity results follow the summary
+        String output = captured.toString(StandardCharsets.UTF_8);
+        assertTrue(output.contains("Sensitivity of all"));
+    }
 }
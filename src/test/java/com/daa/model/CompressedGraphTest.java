@@ -0,0 +1,130 @@
+package com.daa.model;
+
+import com.daa.utils.StreamingTaskLoader;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for gap and varint encoded neighbor lists.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class CompressedGraphTest {
+    
+    @Test
+    void testEncodedGraphMatchesOriginal() throws IOException {
+        // Given: A cyclic dataset
+        CompactGraph graph = StreamingTaskLoader.load("data/medium_cyclic_dense.json");
+        
+        // When: It is encoded, once in one chunk and once in chunks of 64 bytes
+        for (CompressedGraph compressed : List.of(CompressedGraph.of(graph), CompressedGraph.of(graph, 64))) {
+            // Then: Every vertex has the same tasks, sorted, by cursor and by index
+            assertEquals(graph.vertexCount(), compressed.vertexCount());
+            assertEquals(graph.edgeCount(), compressed.edgeCount());
+            NeighborCursor out = compressed.outCursor();
+            NeighborCursor in = compressed.inCursor();
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                assertEquals(graph.id(v), compressed.id(v));
+                assertEquals(graph.duration(v), compressed.duration(v));
+                int[] dependents = sorted(graph, v, true);
+                assertArrayEquals(dependents, read(out, v));
+                assertArrayEquals(sorted(graph, v, false), read(in, v));
+                assertEquals(dependents.length, compressed.outDegree(v));
+                for (int i = 0; i < dependents.length; i++) {
+                    assertEquals(dependents[i], compressed.outNeighbor(v, i));
+                }
+            }
+            
+            AnalysisResult expected = CompactAnalyzer.analyze(graph);
+            AnalysisResult result = CompactAnalyzer.analyze(compressed);
+            assertEquals(expected.componentCount(), result.componentCount());
+            assertEquals(expected.criticalPathLength(), result.criticalPathLength());
+            assertEquals(graph.indexOf("T5"), compressed.indexOf("T5"));
+        }
+    }
+    
+    @Test
+    void testNeighborsOnEitherSideAndFarAway() throws IOException {
+        // Given: Tasks whose dependents lie before them, after them, and 300 vertices away
+        StringBuilder json = new StringBuilder("[{\"id\":\"T0\",\"duration\":1}");
+        for (int i = 1; i < 400; i++) {
+            json.append(",{\"id\":\"T").append(i).append("\",\"duration\":1");
+            if (i == 5) {
+                json.append(",\"dependencies\":[\"T399\",\"T350\",\"T6\"]");
+            } else if (i == 6 || i == 399) {
+                json.append(",\"dependencies\":[\"T0\"]");
+            }
+            json.append('}');
+        }
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader(json.append(']').toString()));
+        
+        // When: It is encoded
+        CompressedGraph compressed = CompressedGraph.of(graph);
+        
+        // Then: Lists decode exactly, including an empty one
+        int t5 = graph.indexOf("T5");
+        assertArrayEquals(sorted(graph, t5, false), read(compressed.inCursor(), t5));
+        assertArrayEquals(sorted(graph, 0, true), read(compressed.outCursor(), 0));
+        int t350 = graph.indexOf("T350");
+        assertArrayEquals(new int[] {t5}, read(compressed.outCursor(), t350));
+        assertEquals(0, compressed.outDegree(graph.indexOf("T200")));
+        NeighborCursor empty = compressed.inCursor();
+        empty.seek(graph.indexOf("T200"));
+        assertFalse(empty.hasNext());
+    }
+    
+    @Test
+    void testCursorResumesFromSavedPosition() throws IOException {
+        // Given: A task with five dependencies
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader("[{\"id\":\"A\",\"duration\":1},"
+            + "{\"id\":\"B\",\"duration\":1},{\"id\":\"C\",\"duration\":1},{\"id\":\"D\",\"duration\":1},"
+            + "{\"id\":\"E\",\"duration\":1},"
+            + "{\"id\":\"F\",\"duration\":1,\"dependencies\":[\"E\",\"A\",\"C\",\"B\",\"D\"]}]"));
+        CompressedGraph compressed = CompressedGraph.of(graph);
+        int f = graph.indexOf("F");
+        
+        // When: Two dependencies are read, the cursor moves to another task, then seeks back
+        NeighborCursor cursor = compressed.inCursor();
+        cursor.seek(f);
+        cursor.next();
+        cursor.next();
+        long saved = cursor.position();
+        cursor.seek(graph.indexOf("A"));
+        cursor.seek(f, saved);
+        
+        // Then: Reading continues with the third dependency
+        List<String> rest = new ArrayList<>();
+        while (cursor.hasNext()) {
+            rest.add(compressed.id(cursor.next()));
+        }
+        assertEquals(List.of("C", "D", "E"), rest);
+    }
+    
+    private static int[] sorted(IntGraph graph, int v, boolean outgoing) {
+        int degree = outgoing ? graph.outDegree(v) : graph.inDegree(v);
+        int[] list = new int[degree];
+        for (int i = 0; i < degree; i++) {
+            list[i] = outgoing ? graph.outNeighbor(v, i) : graph.inNeighbor(v, i);
+        }
+        Arrays.sort(list);
+        return list;
+    }
+    
+    private static int[] read(NeighborCursor cursor, int v) {
+        List<Integer> list = new ArrayList<>();
+        cursor.seek(v);
+        while (cursor.hasNext()) {
+            list.add(cursor.next());
+        }
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
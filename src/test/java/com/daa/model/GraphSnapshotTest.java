@@ -0,0 +1,164 @@
+package com.daa.model;
+
+import com.daa.utils.StreamingTaskLoader;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for immutable graph snapshots and their copy-on-write editing.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class GraphSnapshotTest {
+    
+    @Test
+    void testSnapshotAnalyzesLikeTheGraphItCopies() throws IOException {
+        // Given: A dataset with cycles
+        CompactGraph graph = StreamingTaskLoader.load("data/large_mixed.json");
+        
+        // When: It is snapshotted and analyzed
+        GraphSnapshot snapshot = GraphSnapshot.of(graph);
+        AnalysisResult expected = CompactAnalyzer.analyze(graph);
+        AnalysisResult actual = CompactAnalyzer.analyze(snapshot);
+        
+        // Then: Structure and results are the same
+        assertEquals(graph.vertexCount(), snapshot.vertexCount());
+        assertEquals(graph.edgeCount(), snapshot.edgeCount());
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            assertEquals(graph.id(v), snapshot.id(v));
+            assertEquals(v, snapshot.indexOf(graph.id(v)));
+            assertEquals(graph.duration(v), snapshot.duration(v));
+            assertEquals(graph.outDegree(v), snapshot.outDegree(v));
+            assertEquals(graph.inDegree(v), snapshot.inDegree(v));
+        }
+        assertEquals(expected.componentCount(), actual.componentCount());
+        assertEquals(expected.criticalPathLength(), actual.criticalPathLength());
+        assertEquals(snapshot.toTaskGraph().edgeCount(), graph.edgeCount());
+    }
+    
+    @Test
+    void testEditsShareUntouchedBlocksAndLeaveOldVersionsAlone() {
+        // Given: A chain of 5000 tasks, five blocks
+        GraphSnapshot.Editor editor = GraphSnapshot.empty().edit();
+        for (int i = 0; i < 5000; i++) {
+            editor.addTask("T" + i, null, 1);
+            if (i > 0) {
+                editor.addEdge("T" + (i - 1), "T" + i);
+            }
+        }
+        GraphSnapshot v1 = editor.build();
+        
+        // When: One duration changes, then a task and an edge are added and another removed
+        GraphSnapshot.Editor first = v1.edit();
+        first.setDuration("T10", 50);
+        GraphSnapshot v2 = first.build();
+        GraphSnapshot.Editor second = v2.edit();
+        second.addTask("X", "extra", 3);
+        second.addEdge("T4999", "X");
+        assertTrue(second.removeEdge("T1", "T2"));
+        assertFalse(second.removeEdge("T1", "T3"));
+        GraphSnapshot v3 = second.build();
+        
+        // Then: Only touched blocks were copied, and each version keeps its own values
+        assertEquals(5, v1.blockCount());
+        assertEquals(4, v2.sharedBlockCount(v1));
+        assertEquals(3, v3.sharedBlockCount(v2));
+        assertEquals(1, v1.duration(v1.indexOf("T10")));
+        assertEquals(50, v2.duration(v2.indexOf("T10")));
+        assertEquals(-1, v2.indexOf("X"));
+        assertEquals(5000, v3.indexOf("X"));
+        assertEquals(4999, v1.edgeCount());
+        assertEquals(4999, v3.edgeCount());
+        assertEquals(1, v2.outDegree(v2.indexOf("T1")));
+        assertEquals(0, v3.outDegree(v3.indexOf("T1")));
+        assertEquals(v3.indexOf("T4999"), v3.inNeighbor(v3.indexOf("X"), 0));
+        assertTrue(v3.version() > v2.version());
+        assertSame(v3, v3.edit().build());
+        assertThrows(IllegalArgumentException.class, () -> v3.edit().addEdge("T1", "missing"));
+    }
+    
+    @Test
+    void testSnapshotLeavesOutEdgesToUndeclaredTasks() {
+        // Given: A task graph with a dependency on a task that was never added
+        TaskGraph graph = new TaskGraph();
+        graph.addTask(new Task("A", "a", 2));
+        graph.addTask(new Task("B", "b", 3));
+        graph.addEdge("A", "B");
+        graph.addEdge("A", "missing");
+        
+        // When: It is snapshotted
+        GraphSnapshot snapshot = graph.snapshot();
+        
+        // Then: The declared tasks and the edge between them are kept
+        assertEquals(2, snapshot.vertexCount());
+        assertEquals(1, snapshot.edgeCount());
+        assertEquals(-1, snapshot.indexOf("missing"));
+        assertEquals(snapshot.indexOf("B"), snapshot.outNeighbor(snapshot.indexOf("A"), 0));
+    }
+    
+    @Test
+    void testReadersAlwaysSeeWholeVersions() throws InterruptedException {
+        // Given: A store and readers that check every version they get
+        GraphSnapshot.Editor editor = GraphSnapshot.empty().edit();
+        for (int i = 0; i < 3000; i++) {
+            editor.addTask("T" + i, null, 1);
+        }
+        GraphStore store = new GraphStore(editor.build());
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            readers.add(Thread.ofPlatform().start(() -> {
+                while (!stop.get()) {
+                    GraphSnapshot snapshot = store.current();
+                    long out = 0;
+                    long durations = 0;
+                    for (int v = 0; v < snapshot.vertexCount(); v++) {
+                        out += snapshot.outDegree(v);
+                        durations += snapshot.duration(v);
+                    }
+                    // every update adds one edge and one unit of duration
+                    if (out != snapshot.edgeCount() || durations - 3000 != out) {
+                        failure.set(snapshot + ": out=" + out + " durations=" + durations);
+                    }
+                }
+            }));
+        }
+        
+        // When: Two writers publish 400 versions between them
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 2; w++) {
+            int offset = w;
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 200; i++) {
+                    int task = (i * 7 + offset * 1500) % 2999 + 1;
+                    store.update(edit -> {
+                        edit.addEdge("T0", "T" + task);
+                        int v = edit.indexOf("T" + task);
+                        edit.setDuration("T" + task, edit.duration(v) + 1);
+                    });
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        
+        // Then: No reader saw a half-applied version, and no update was lost
+        assertNull(failure.get());
+        assertEquals(400, store.current().edgeCount());
+    }
+}
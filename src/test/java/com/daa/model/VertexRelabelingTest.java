@@ -0,0 +1,94 @@
+package com.daa.model;
+
+import com.daa.utils.StreamingTaskLoader;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for renumbering vertices in traversal order.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class VertexRelabelingTest {
+    
+    @Test
+    void testEveryOrderKeepsTasksAndDependencies() throws IOException {
+        // Given: A cyclic dataset
+        CompactGraph graph = StreamingTaskLoader.load("data/medium_cyclic_dense.json");
+        AnalysisResult expected = CompactAnalyzer.analyze(graph);
+        
+        for (VertexRelabeling.Order order : VertexRelabeling.Order.values()) {
+            // When: It is renumbered in each order
+            VertexRelabeling relabeling = VertexRelabeling.compute(graph, order);
+            CompactGraph relabeled = relabeling.apply(graph);
+            
+            // Then: The numbering is a permutation, tasks keep their ids, durations and edges
+            assertEquals(graph.vertexCount(), relabeled.vertexCount());
+            assertEquals(graph.edgeCount(), relabeled.edgeCount());
+            Set<Integer> seen = new HashSet<>();
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                int w = relabeling.toRelabeled(v);
+                assertTrue(seen.add(w), order + " maps two vertices to " + w);
+                assertEquals(v, relabeling.toOriginal(w));
+                assertEquals(graph.id(v), relabeled.id(w));
+                assertEquals(graph.duration(v), relabeled.duration(w));
+                Set<String> dependents = new HashSet<>();
+                for (int i = 0; i < graph.outDegree(v); i++) {
+                    dependents.add(graph.id(graph.outNeighbor(v, i)));
+                }
+                Set<String> relabeledDependents = new HashSet<>();
+                for (int i = 0; i < relabeled.outDegree(w); i++) {
+                    relabeledDependents.add(relabeled.id(relabeled.outNeighbor(w, i)));
+                }
+                assertEquals(dependents, relabeledDependents);
+            }
+            AnalysisResult result = CompactAnalyzer.analyze(relabeled);
+            assertEquals(expected.componentCount(), result.componentCount());
+            assertEquals(expected.criticalPathLength(), result.criticalPathLength());
+            assertEquals(relabeling.toRelabeled(0), relabeled.indexOf(graph.id(0)));
+        }
+    }
+    
+    @Test
+    void testScatteredChainBecomesContiguous() throws IOException {
+        // Given: A chain A -> B -> C -> D -> E declared out of order
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader("[{\"id\":\"D\",\"duration\":1,\"dependencies\":[\"C\"]},"
+            + "{\"id\":\"A\",\"duration\":1},"
+            + "{\"id\":\"E\",\"duration\":1,\"dependencies\":[\"D\"]},"
+            + "{\"id\":\"C\",\"duration\":1,\"dependencies\":[\"B\"]},"
+            + "{\"id\":\"B\",\"duration\":1,\"dependencies\":[\"A\"]}]"));
+        
+        // When: It is renumbered depth-first and by reverse Cuthill-McKee
+        CompactGraph dfs = VertexRelabeling.compute(graph, VertexRelabeling.Order.DFS).apply(graph);
+        CompactGraph rcm = VertexRelabeling.compute(graph, VertexRelabeling.Order.RCM).apply(graph);
+        
+        // Then: Every edge joins consecutive numbers
+        assertTrue(VertexRelabeling.meanEdgeSpan(graph) > 1);
+        assertEquals(1.0, VertexRelabeling.meanEdgeSpan(dfs));
+        assertEquals(1.0, VertexRelabeling.meanEdgeSpan(rcm));
+        assertEquals("A", dfs.id(0));
+        for (int v = 0; v + 1 < dfs.vertexCount(); v++) {
+            assertEquals(v + 1, dfs.outNeighbor(v, 0));
+        }
+    }
+    
+    @Test
+    void testRejectsGraphOfAnotherSize() throws IOException {
+        // Given: A renumbering of a two-task graph
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader("[{\"id\":\"A\",\"duration\":1},"
+            + "{\"id\":\"B\",\"duration\":1,\"dependencies\":[\"A\"]}]"));
+        VertexRelabeling relabeling = VertexRelabeling.compute(graph, VertexRelabeling.Order.BFS);
+        
+        // When/Then: Applying it to a different graph fails
+        CompactGraph other = StreamingTaskLoader.load(new StringReader("[{\"id\":\"A\",\"duration\":1}]"));
+        assertThrows(IllegalArgumentException.class, () -> relabeling.apply(other));
+    }
+}
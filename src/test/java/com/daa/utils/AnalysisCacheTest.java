@@ -0,0 +1,203 @@
+package com.daa.utils;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.CompactGraph;
+import com.daa.model.IntGraph;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import graph.analysis.ShardedAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the persistent, memory-mapped analysis cache.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class AnalysisCacheTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testHitMatchesFreshAnalysis() throws IOException {
+        // Given: An empty cache and a dataset with cycles
+        AnalysisCache cache = new AnalysisCache(tempDir.resolve("cache"), 64L << 20);
+        Path input = Path.of("data/medium_cyclic_dense.json");
+        int[] loads = new int[1];
+        AnalysisCache.Loader loader = () -> {
+            loads[0]++;
+            return StreamingTaskLoader.load(input.toString());
+        };
+        
+        // When: It is analyzed twice, the second time by a new cache over the same directory
+        AnalysisResult first = cache.analyze(List.of(input), loader);
+        AnalysisCache reopened = new AnalysisCache(tempDir.resolve("cache"), 64L << 20);
+        AnalysisResult second = reopened.analyze(List.of(input), loader);
+        
+        // Then: The input was parsed once, and the mapped result is the same analysis
+        assertEquals(1, loads[0]);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, reopened.getHits());
+        AnalysisResult expected = CompactAnalyzer.analyze(StreamingTaskLoader.load(input.toString()));
+        assertEquals(expected.taskCount(), second.taskCount());
+        assertEquals(expected.componentCount(), second.componentCount());
+        assertEquals(expected.criticalPathLength(), second.criticalPathLength());
+        assertArrayEquals(first.getCriticalPath(), second.getCriticalPath());
+        assertEquals(expected.criticalPathTasks(), second.criticalPathTasks());
+        for (int v = 0; v < expected.taskCount(); v++) {
+            assertEquals(expected.getComponentOf().get(v), second.getComponentOf().get(v));
+            assertEquals(expected.getGraph().id(v), second.getGraph().id(v));
+        }
+        for (int c = 0; c < expected.componentCount(); c++) {
+            assertEquals(expected.getEarliestStarts().get(c), second.getEarliestStarts().get(c));
+            assertEquals(expected.getLatestStarts().get(c), second.getLatestStarts().get(c));
+            assertEquals(expected.getCondensation().size(c), second.getCondensation().size(c));
+            assertEquals(expected.getCondensation().outDegree(c), second.getCondensation().outDegree(c));
+        }
+        ResultJsonWriter.write(expected, tempDir.resolve("expected.json"), ResultJsonWriter.Format.JSON);
+        ResultJsonWriter.write(second, tempDir.resolve("cached.json"), ResultJsonWriter.Format.JSON);
+        assertEquals(Files.readString(tempDir.resolve("expected.json")), Files.readString(tempDir.resolve("cached.json")));
+    }
+    
+    @Test
+    void testMissUsesGivenAnalyzer() throws IOException {
+        // Given: An empty cache and an off-heap, sharded analyzer
+        AnalysisCache cache = new AnalysisCache(tempDir.resolve("cache"), 64L << 20);
+        Path input = Path.of("data/medium_cyclic_dense.json");
+        int[] analyses = new int[1];
+        Function<IntGraph, AnalysisResult> analyzer = graph -> {
+            analyses[0]++;
+            return new ShardedAnalyzer(2).analyze(graph, ArrayStorage.OFF_HEAP);
+        };
+        
+        // When: The input is analyzed twice
+        AnalysisResult first = cache.analyze(List.of(input), () -> StreamingTaskLoader.load(input.toString()), analyzer);
+        AnalysisResult second = cache.analyze(List.of(input), () -> StreamingTaskLoader.load(input.toString()), analyzer);
+        
+        // Then: The miss ran that analyzer once, and the hit returns its stored result
+        assertEquals(1, analyses[0]);
+        assertEquals(1, cache.getHits());
+        assertEquals(first.componentCount(), second.componentCount());
+        assertEquals(first.criticalPathLength(), second.criticalPathLength());
+    }
+    
+    @Test
+    void testEvictsLeastRecentlyUsedAndSkipsDamagedEntries() throws Exception {
+        // Given: A cache bounded to about two entries, holding A then B
+        List<Path> datasets = datasets();
+        Path a = datasets.get(0);
+        Path b = datasets.get(1);
+        Path c = datasets.get(2);
+        AnalysisCache probe = new AnalysisCache(tempDir.resolve("probe"), Long.MAX_VALUE);
+        for (Path dataset : List.of(a, b, c)) {
+            probe.analyze(List.of(dataset), () -> StreamingTaskLoader.load(dataset.toString()));
+        }
+        long bound = probe.sizeBytes() - 1;
+        AnalysisCache cache = new AnalysisCache(tempDir.resolve("cache"), bound);
+        cache.analyze(List.of(a), () -> StreamingTaskLoader.load(a.toString()));
+        Thread.sleep(20);
+        cache.analyze(List.of(b), () -> StreamingTaskLoader.load(b.toString()));
+        Thread.sleep(20);
+        
+        // When: A is used again, then C is added
+        assertNotNull(cache.get(AnalysisCache.key(List.of(a))));
+        Thread.sleep(20);
+        cache.analyze(List.of(c), () -> StreamingTaskLoader.load(c.toString()));
+        
+        // Then: B, the least recently used, was evicted and the rest fits the bound
+        assertNull(cache.get(AnalysisCache.key(List.of(b))));
+        assertNotNull(cache.get(AnalysisCache.key(List.of(a))));
+        assertNotNull(cache.get(AnalysisCache.key(List.of(c))));
+        assertTrue(cache.sizeBytes() <= bound);
+        
+        // And: A truncated result file is a miss, not an error
+        String key = AnalysisCache.key(List.of(c));
+        Files.write(tempDir.resolve("cache").resolve(key + BinaryResultFormat.FILE_EXTENSION), new byte[10]);
+        assertNull(cache.get(key));
+    }
+    
+    @Test
+    void testEntriesWhoseSectionsDisagreeWithTheHeaderAreMisses() throws IOException {
+        // Given: A cached analysis
+        AnalysisCache cache = new AnalysisCache(tempDir.resolve("cache"), 64L << 20);
+        Path input = Path.of("data/medium_cyclic_dense.json");
+        cache.analyze(List.of(input), () -> StreamingTaskLoader.load(input.toString()));
+        String key = AnalysisCache.key(List.of(input));
+        Path resultFile = tempDir.resolve("cache").resolve(key + BinaryResultFormat.FILE_EXTENSION);
+        byte[] entry = Files.readAllBytes(resultFile);
+        
+        // When: The first section's length is shortened in the table
+        ByteBuffer table = ByteBuffer.wrap(entry).order(ByteOrder.LITTLE_ENDIAN);
+        table.putLong(48, table.getLong(48) - Integer.BYTES);
+        Files.write(resultFile, entry);
+        
+        // Then: Mapping rejects it, and the cache treats it as a miss
+        assertThrows(IOException.class, () -> BinaryResultFormat.map(resultFile,
+            BinaryGraphFormat.map(tempDir.resolve("cache").resolve(key + BinaryGraphFormat.FILE_EXTENSION))));
+        assertNull(cache.get(key));
+        
+        // And: So is an entry cut off in its last section
+        table.putLong(48, table.getLong(48) + Integer.BYTES);
+        Files.write(resultFile, Arrays.copyOf(entry, entry.length - Long.BYTES));
+        assertNull(cache.get(key));
+        assertNotNull(cache.analyze(List.of(input), () -> StreamingTaskLoader.load(input.toString())));
+        assertNotNull(cache.get(key));
+    }
+    
+    @Test
+    void testConcurrentWritersOfOneKey() throws Exception {
+        // Given: Several caches over one directory, as separate runs would have
+        Path input = Path.of("data/large_mixed.json");
+        CompactGraph graph = StreamingTaskLoader.load(input.toString());
+        AnalysisResult expected = CompactAnalyzer.analyze(graph);
+        
+        // When: They all store and read the same input at once
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<AnalysisResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(pool.submit(() -> {
+                AnalysisCache cache = new AnalysisCache(tempDir.resolve("shared"), 64L << 20);
+                String key = AnalysisCache.key(List.of(input));
+                cache.put(key, CompactAnalyzer.analyze(graph));
+                return cache.get(key);
+            }));
+        }
+        pool.shutdown();
+        
+        // Then: Every reader sees a whole entry, and no staging files are left behind
+        for (Future<AnalysisResult> future : futures) {
+            AnalysisResult result = future.get();
+            assertNotNull(result);
+            assertEquals(expected.criticalPathLength(), result.criticalPathLength());
+            assertEquals(expected.componentCount(), result.componentCount());
+        }
+        try (Stream<Path> listing = Files.list(tempDir.resolve("shared"))) {
+            assertEquals(List.of(".lock", AnalysisCache.key(List.of(input)) + ".scca",
+                AnalysisCache.key(List.of(input)) + ".sccg"),
+                listing.map(p -> p.getFileName().toString()).sorted().toList());
+        }
+    }
+    
+    private static List<Path> datasets() throws IOException {
+        try (Stream<Path> listing = Files.list(Path.of("data"))) {
+            return listing.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+        }
+    }
+}
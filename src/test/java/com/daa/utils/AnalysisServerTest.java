@@ -0,0 +1,119 @@
+package com.daa.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the local analysis service and its result cache.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class AnalysisServerTest {
+    
+    private static final Path DATASET = Path.of("data/medium_cyclic_dense.json");
+    
+    @Test
+    void testRepeatedGraphIsServedFromCache() throws Exception {
+        // Given: A running service and a dataset
+        byte[] body = Files.readAllBytes(DATASET);
+        AnalysisResult expected = CompactAnalyzer.analyze(StreamingTaskLoader.load(DATASET.toString()));
+        try (AnalysisServer server = AnalysisServer.start(0, 16 << 20);
+             HttpClient client = HttpClient.newHttpClient()) {
+            
+            // When: The same graph is posted twice
+            HttpResponse<String> first = post(client, server, "/analyze", body);
+            HttpResponse<String> second = post(client, server, "/analyze", body);
+            
+            // Then: The first is analyzed, the second is the identical cached result
+            assertEquals(200, first.statusCode());
+            assertEquals("MISS", first.headers().firstValue("X-Cache").orElseThrow());
+            assertEquals("HIT", second.headers().firstValue("X-Cache").orElseThrow());
+            assertEquals(first.body(), second.body());
+            JsonObject json = JsonParser.parseString(first.body()).getAsJsonObject();
+            assertEquals(expected.criticalPathLength(), json.getAsJsonObject("critical_path").get("length").getAsLong());
+            assertEquals(1, server.getCacheHits());
+            assertEquals(1, server.getCacheMisses());
+        }
+    }
+    
+    @Test
+    void testFormatsAreCachedSeparately() throws Exception {
+        // Given: A running service
+        byte[] body = Files.readAllBytes(DATASET);
+        try (AnalysisServer server = AnalysisServer.start(0, 16 << 20);
+             HttpClient client = HttpClient.newHttpClient()) {
+            
+            // When: The same graph is asked for as JSON and as NDJSON
+            post(client, server, "/analyze", body);
+            HttpResponse<String> ndjson = post(client, server, "/analyze?format=ndjson", body);
+            
+            // Then: NDJSON is analyzed on its own and starts with the summary record
+            assertEquals("MISS", ndjson.headers().firstValue("X-Cache").orElseThrow());
+            assertTrue(ndjson.body().startsWith("{\"type\":\"summary\""));
+            assertEquals(2, server.getCachedCount());
+        }
+    }
+    
+    @Test
+    void testBadRequestsAreRejected() throws Exception {
+        // Given: A running service
+        try (AnalysisServer server = AnalysisServer.start(0, 16 << 20);
+             HttpClient client = HttpClient.newHttpClient()) {
+            
+            // When: Malformed JSON is posted, and the endpoint is read with GET
+            HttpResponse<String> malformed = post(client, server, "/analyze", "[{\"id\": \"T1\", ".getBytes());
+            HttpResponse<String> get = client.send(HttpRequest.newBuilder(uri(server, "/analyze")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+            
+            // Then: 400 with an error message, 405 for the method, and nothing cached
+            assertEquals(400, malformed.statusCode());
+            assertTrue(malformed.body().contains("\"error\""));
+            assertEquals(405, get.statusCode());
+            assertEquals(0, server.getCachedCount());
+        }
+    }
+    
+    @Test
+    void testMalformedContentLengthIsRejected() throws Exception {
+        // Given: A running service
+        try (AnalysisServer server = AnalysisServer.start(0, 16 << 20);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            
+            // When: A request declares a Content-Length that is not a number
+            socket.getOutputStream().write(("POST /analyze HTTP/1.1\r\nHost: localhost\r\n"
+                + "Content-Length: 12abc\r\nConnection: close\r\n\r\n[]").getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().flush();
+            String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+            
+            // Then: It gets a 400 response rather than a dropped connection
+            assertTrue(response.startsWith("HTTP/1.1 400"), response);
+        }
+    }
+    
+    private static HttpResponse<String> post(HttpClient client, AnalysisServer server, String path, byte[] body)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(server, path))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private static URI uri(AnalysisServer server, String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+}
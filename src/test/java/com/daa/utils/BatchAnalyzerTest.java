@@ -0,0 +1,107 @@
+package com.daa.utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for batch analysis of many graph files.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class BatchAnalyzerTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testOneResultPerInputAndFailuresIsolated() throws Exception {
+        // Given: Every bundled dataset, one as a binary graph, and one broken file
+        Path inputs = Files.createDirectory(tempDir.resolve("plans"));
+        List<Path> datasets;
+        try (Stream<Path> listing = Files.list(Path.of("data"))) {
+            datasets = listing.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+        }
+        for (Path dataset : datasets) {
+            Files.copy(dataset, inputs.resolve(dataset.getFileName()));
+        }
+        BinaryGraphFormat.write(StreamingTaskLoader.load(datasets.get(0).toString()), inputs.resolve("binary.sccg"));
+        Files.writeString(inputs.resolve("broken.json"), "[{\"id\": \"T1\", ");
+        Files.writeString(inputs.resolve("notes.txt"), "not a graph");
+        
+        // When: Run with a single file in flight, so every submission waits for the previous file
+        List<Path> files = BatchAnalyzer.resolveInputs(inputs.toString());
+        Path outputs = tempDir.resolve("results");
+        BatchAnalyzer.Summary summary = new BatchAnalyzer(2, 2, 1).run(files, outputs, ResultJsonWriter.Format.JSON);
+        
+        // Then: Each good input has a matching result, and only the broken one failed
+        assertEquals(datasets.size() + 2, files.size());
+        assertEquals(1, summary.failed());
+        assertTrue(summary.failures().containsKey(inputs.resolve("broken.json")));
+        assertEquals(1, summary.peakInFlight());
+        for (Path dataset : datasets) {
+            AnalysisResult expected = CompactAnalyzer.analyze(StreamingTaskLoader.load(dataset.toString()));
+            JsonObject json = JsonParser.parseString(
+                Files.readString(outputs.resolve(dataset.getFileName() + ".result.json"))).getAsJsonObject();
+            assertEquals(expected.taskCount(), json.get("tasks").getAsInt());
+            assertEquals(expected.criticalPathLength(), json.getAsJsonObject("critical_path").get("length").getAsLong());
+        }
+        assertTrue(Files.exists(outputs.resolve("binary.sccg.result.json")));
+        assertTrue(summary.getReport().contains("FAILED"));
+    }
+    
+    @Test
+    void testGlobSelectsMatchingFiles() throws IOException {
+        // Given: Files in nested district directories
+        Path north = Files.createDirectories(tempDir.resolve("plans/north"));
+        Path south = Files.createDirectories(tempDir.resolve("plans/south"));
+        Files.writeString(north.resolve("district-1.json"), "[]");
+        Files.writeString(south.resolve("district-2.json"), "[]");
+        Files.writeString(south.resolve("summary.json"), "[]");
+        
+        // When: Expanded with a recursive glob
+        List<Path> files = BatchAnalyzer.resolveInputs(tempDir + "/plans/**/district-*.json");
+        
+        // Then: Only district files match, in path order
+        assertEquals(List.of(north.resolve("district-1.json"), south.resolve("district-2.json")), files);
+    }
+    
+    @Test
+    void testSameNamedInputsGetSeparateResults() throws Exception {
+        // Given: Two district files with the same name in different directories
+        Path north = Files.createDirectories(tempDir.resolve("plans/north"));
+        Path south = Files.createDirectories(tempDir.resolve("plans/south"));
+        Files.writeString(north.resolve("district.json"), "[{\"id\":\"A\",\"duration\":1}]");
+        Files.writeString(south.resolve("district.json"),
+            "[{\"id\":\"A\",\"duration\":1},{\"id\":\"B\",\"duration\":2,\"dependencies\":[\"A\"]}]");
+        
+        // When: Both are analyzed in parallel through a recursive glob
+        String glob = tempDir + "/plans/**/district.json";
+        Path outputs = tempDir.resolve("results");
+        BatchAnalyzer.Summary summary = new BatchAnalyzer(2, 2, 2)
+            .run(BatchAnalyzer.resolveInputs(glob), BatchAnalyzer.inputBase(glob), outputs, ResultJsonWriter.Format.JSON);
+        
+        // Then: Results mirror the subdirectories and neither overwrites the other
+        assertEquals(0, summary.failed());
+        JsonObject first = JsonParser.parseString(
+            Files.readString(outputs.resolve("north/district.json.result.json"))).getAsJsonObject();
+        JsonObject second = JsonParser.parseString(
+            Files.readString(outputs.resolve("south/district.json.result.json"))).getAsJsonObject();
+        assertEquals(1, first.get("tasks").getAsInt());
+        assertEquals(2, second.get("tasks").getAsInt());
+        try (Stream<Path> leftovers = Files.walk(outputs)) {
+            assertTrue(leftovers.noneMatch(p -> p.toString().endsWith(".tmp")));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.MappedGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the binary graph format writer and mapped reader.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class BinaryGraphFormatTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testRoundTripPreservesGraph() throws IOException {
+        // Given: A dataset converted to binary
+        Path output = tempDir.resolve("graph.sccg");
+        CompactGraph original = JsonToBinaryConverter.convert(Path.of("data/large_mixed.json"), output);
+        
+        // When: The file is mapped
+        MappedGraph mapped = BinaryGraphFormat.map(output);
+        
+        // Then: Every id, name, duration and edge matches
+        assertEquals(original.vertexCount(), mapped.vertexCount());
+        assertEquals(original.edgeCount(), mapped.edgeCount());
+        for (int v = 0; v < original.vertexCount(); v++) {
+            assertEquals(original.id(v), mapped.id(v));
+            assertEquals(original.name(v), mapped.name(v));
+            assertEquals(original.duration(v), mapped.duration(v));
+            assertEquals(original.outDegree(v), mapped.outDegree(v));
+            for (int i = 0; i < original.outDegree(v); i++) {
+                assertEquals(original.outNeighbor(v, i), mapped.outNeighbor(v, i));
+            }
+            assertEquals(original.inDegree(v), mapped.inDegree(v));
+            for (int i = 0; i < original.inDegree(v); i++) {
+                assertEquals(original.inNeighbor(v, i), mapped.inNeighbor(v, i));
+            }
+        }
+        assertEquals(original.indexOf("T7"), mapped.indexOf("T7"));
+    }
+    
+    @Test
+    void testNonAsciiAndMissingNames() throws IOException {
+        // Given: Ids outside ASCII and a task with no name
+        String json = "[{\"id\":\"Straße-1\",\"duration\":3},"
+            + "{\"id\":\"街区-2\",\"name\":\"Ремонт 🚧\",\"duration\":4,\"dependencies\":[\"Straße-1\"]}]";
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader(json));
+        Path output = tempDir.resolve("unicode.sccg");
+        
+        // When: Written and mapped back
+        BinaryGraphFormat.write(graph, output);
+        MappedGraph mapped = BinaryGraphFormat.map(output);
+        
+        // Then: Strings survive and the missing name stays missing
+        assertEquals("Straße-1", mapped.id(0));
+        assertNull(mapped.name(0));
+        assertEquals("Ремонт 🚧", mapped.name(1));
+        assertEquals(1, mapped.indexOf("街区-2"));
+    }
+    
+    @Test
+    void testUnpairedSurrogateKeepsLaterStringsAligned() throws IOException {
+        // Given: An id with a lone high surrogate, legal as a JSON escape, followed by more tasks
+        String json = "[{\"id\":\"A\\ud800B\",\"name\":\"first\",\"duration\":1},"
+            + "{\"id\":\"C\",\"name\":\"Ремонт\",\"duration\":2,\"dependencies\":[\"A\\ud800B\"]}]";
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader(json));
+        Path output = tempDir.resolve("surrogate.sccg");
+        
+        // When: Written and mapped back
+        BinaryGraphFormat.write(graph, output);
+        MappedGraph mapped = BinaryGraphFormat.map(output);
+        
+        // Then: The surrogate is written as '?' and every later string decodes intact
+        assertEquals("A?B", mapped.id(0));
+        assertEquals("first", mapped.name(0));
+        assertEquals("C", mapped.id(1));
+        assertEquals("Ремонт", mapped.name(1));
+        assertEquals(1, mapped.indexOf("C"));
+    }
+    
+    @Test
+    void testConcurrentWritersOfOneFile() throws Exception {
+        // Given: Two different graphs
+        CompactGraph large = StreamingTaskLoader.load("data/large_mixed.json");
+        CompactGraph small = StreamingTaskLoader.load("data/small_dag_sparse.json");
+        Path output = tempDir.resolve("shared.sccg");
+        
+        // When: Both are written to the same file at the same time, repeatedly
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                Future<?> first = pool.submit(() -> write(large, output));
+                Future<?> second = pool.submit(() -> write(small, output));
+                first.get();
+                second.get();
+                
+                // Then: The file is always one of them, whole, and no staging file is left
+                MappedGraph mapped = BinaryGraphFormat.map(output);
+                CompactGraph expected = mapped.vertexCount() == large.vertexCount() ? large : small;
+                assertEquals(expected.edgeCount(), mapped.edgeCount());
+                assertEquals(expected.id(expected.vertexCount() - 1), mapped.id(mapped.vertexCount() - 1));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(output), files.toList());
+        }
+    }
+    
+    @Test
+    void testRefusesSectionsOverTwoGigabytes() {
+        // Given: A graph whose edge sections would not fit one mapped buffer
+        long edges = Integer.MAX_VALUE / Integer.BYTES + 1L;
+        Path output = tempDir.resolve("huge.sccg");
+        
+        // When/Then: The writer fails before writing anything
+        IOException e = assertThrows(IOException.class, () -> BinaryGraphFormat.writeSections(output, 1, edges,
+            v -> "T" + v, v -> null, v -> 1, v -> 0, () -> 0, v -> 0, () -> 0));
+        assertTrue(e.getMessage().contains("2 GB"));
+        assertFalse(Files.exists(output));
+    }
+    
+    private static Void write(CompactGraph graph, Path output) throws IOException {
+        BinaryGraphFormat.write(graph, output);
+        return null;
+    }
+    
+    @Test
+    void testRejectsUnknownVersionAndForeignFiles() throws IOException {
+        // Given: A valid file with its version bumped, and a JSON file
+        Path output = tempDir.resolve("future.sccg");
+        JsonToBinaryConverter.convert(Path.of("data/small_dag_sparse.json"), output);
+        byte[] bytes = Files.readAllBytes(output);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, BinaryGraphFormat.VERSION + 1);
+        Files.write(output, bytes);
+        
+        // When/Then: Both are refused with an explanation
+        IOException error = assertThrows(IOException.class, () -> BinaryGraphFormat.map(output));
+        assertTrue(error.getMessage().contains("Unsupported binary graph version"));
+        assertThrows(IOException.class, () -> BinaryGraphFormat.map(Path.of("data/large_dense.json")));
+    }
+}
@@ -0,0 +1,127 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the byte-level CSV task and edge loader.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class CsvGraphLoaderTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testMatchesJsonOnDataset() throws IOException {
+        // Given: A dataset exported as task and edge lists
+        CompactGraph expected = StreamingTaskLoader.load("data/large_mixed.json");
+        Path tasks = tempDir.resolve("tasks.csv");
+        Path edges = tempDir.resolve("edges.csv");
+        writeCsv(expected, tasks, edges);
+        
+        // When: Loaded from CSV
+        CompactGraph graph = CsvGraphLoader.load(tasks, edges);
+        
+        // Then: It is the same graph, vertex for vertex
+        assertSameGraph(expected, graph);
+    }
+    
+    @Test
+    void testLinesSpanningBufferRefills() throws IOException {
+        // Given: A graph whose edge file is several times the read buffer
+        Random random = new Random(7);
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        int n = 200_000;
+        for (int v = 0; v < n; v++) {
+            int task = builder.addTask("district-" + (v % 17) + "/task-" + v, null, 1 + random.nextInt(20));
+            for (int d = 0; d < 3 && v > 0; d++) {
+                builder.addDependency(task, random.nextInt(v));
+            }
+        }
+        CompactGraph expected = builder.build();
+        Path tasks = tempDir.resolve("tasks.csv");
+        Path edges = tempDir.resolve("edges.csv");
+        writeCsv(expected, tasks, edges);
+        assertTrue(Files.size(edges) > 3 * (1 << 22));
+        
+        // When: Loaded from CSV
+        CompactGraph graph = CsvGraphLoader.load(tasks, edges);
+        
+        // Then: No line was split or lost at a buffer boundary
+        assertSameGraph(expected, graph);
+    }
+    
+    @Test
+    void testHeadersNamesAndUnknownIds() throws IOException {
+        // Given: Headers, CRLF endings, padding, a name column, a redeclared task and an unknown id
+        Path tasks = tempDir.resolve("tasks.csv");
+        Path edges = tempDir.resolve("edges.csv");
+        Files.writeString(tasks, "task,duration\r\nA, 2\r\n\r\n B ,3,Bridge Check\r\nA,4\r\n");
+        Files.writeString(edges, "from,to\nA,B\nGHOST,B\nB , A");
+        
+        // When: Loaded
+        CompactGraph graph = CsvGraphLoader.load(tasks, edges);
+        
+        // Then: Both real edges are kept, the last duration wins, the unknown edge is dropped
+        assertEquals(2, graph.vertexCount());
+        assertEquals(2, graph.edgeCount());
+        assertEquals("A", graph.id(0));
+        assertEquals(4, graph.duration(0));
+        assertEquals("Bridge Check", graph.name(1));
+        assertEquals(1, graph.outNeighbor(0, 0));
+        assertEquals(0, graph.outNeighbor(1, 0));
+        
+        // And: A bad duration after the first line is an error
+        Files.writeString(tasks, "A,2\nB,three\n");
+        IOException error = assertThrows(IOException.class, () -> CsvGraphLoader.load(tasks, edges));
+        assertTrue(error.getMessage().contains("line 2"));
+    }
+    
+    private static void writeCsv(CompactGraph graph, Path tasks, Path edges) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(tasks)) {
+            out.write("task,duration\n");
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                out.write(graph.id(v) + "," + graph.duration(v)
+                    + (graph.name(v) != null ? "," + graph.name(v) : "") + "\n");
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(edges)) {
+            out.write("from,to\n");
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                for (int i = 0; i < graph.inDegree(v); i++) {
+                    out.write(graph.id(graph.inNeighbor(v, i)) + "," + graph.id(v) + "\n");
+                }
+            }
+        }
+    }
+    
+    private static void assertSameGraph(CompactGraph expected, CompactGraph actual) {
+        assertEquals(expected.vertexCount(), actual.vertexCount());
+        assertEquals(expected.edgeCount(), actual.edgeCount());
+        for (int v = 0; v < expected.vertexCount(); v++) {
+            assertEquals(expected.id(v), actual.id(v));
+            assertEquals(expected.name(v), actual.name(v));
+            assertEquals(expected.duration(v), actual.duration(v));
+            assertEquals(expected.inDegree(v), actual.inDegree(v));
+            for (int i = 0; i < expected.inDegree(v); i++) {
+                assertEquals(expected.inNeighbor(v, i), actual.inNeighbor(v, i));
+            }
+            assertEquals(expected.outDegree(v), actual.outDegree(v));
+            for (int i = 0; i < expected.outDegree(v); i++) {
+                assertEquals(expected.outNeighbor(v, i), actual.outNeighbor(v, i));
+            }
+        }
+    }
+}
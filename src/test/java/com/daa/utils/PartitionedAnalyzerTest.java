@@ -0,0 +1,91 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.IntArray;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for analysis split across worker processes.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class PartitionedAnalyzerTest {
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void testCycleThroughEveryPartitionIsMerged() throws IOException {
+        // Given: A ring A -> B -> C -> D -> E -> A, one task per worker, and F after the ring
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader("[{\"id\":\"A\",\"duration\":1,\"dependencies\":[\"E\"]},"
+            + "{\"id\":\"B\",\"duration\":2,\"dependencies\":[\"A\"]},"
+            + "{\"id\":\"C\",\"duration\":3,\"dependencies\":[\"B\"]},"
+            + "{\"id\":\"D\",\"duration\":4,\"dependencies\":[\"C\"]},"
+            + "{\"id\":\"E\",\"duration\":5,\"dependencies\":[\"D\"]},"
+            + "{\"id\":\"F\",\"duration\":6,\"dependencies\":[\"C\"]}]"));
+        Path file = dir.resolve("ring.sccg");
+        BinaryGraphFormat.write(graph, file);
+        
+        // When: Six workers analyze it
+        AnalysisResult result = new PartitionedAnalyzer(6).analyze(file);
+        
+        // Then: The ring is one component, followed by F
+        assertEquals(2, result.componentCount());
+        assertEquals(5 + 6, result.criticalPathLength());
+        assertEquals(List.of(List.of("A", "B", "C", "D", "E"), List.of("F")),
+            result.criticalPathTasks().stream().map(ids -> ids.stream().sorted().toList()).toList());
+        assertEquals(4, result.getPhaseMetrics().size());
+    }
+    
+    @Test
+    void testDatasetMatchesSingleProcessAnalysis() throws IOException {
+        // Given: A cyclic dataset as a binary graph file
+        CompactGraph graph = StreamingTaskLoader.load("data/medium_cyclic_dense.json");
+        Path file = dir.resolve("medium.sccg");
+        BinaryGraphFormat.write(graph, file);
+        AnalysisResult expected = CompactAnalyzer.analyze(graph);
+        
+        // When: Three workers analyze it
+        AnalysisResult result = new PartitionedAnalyzer(3).analyze(file);
+        
+        // Then: Components and critical path agree, every task is a member of its component
+        assertEquals(expected.componentCount(), result.componentCount());
+        assertEquals(expected.criticalPathLength(), result.criticalPathLength());
+        IntArray a = expected.getComponentOf();
+        IntArray b = result.getComponentOf();
+        Map<Integer, Integer> mapping = new HashMap<>();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            Integer previous = mapping.putIfAbsent(a.get(v), b.get(v));
+            assertEquals(previous == null ? b.get(v) : previous, b.get(v), "vertex " + v);
+        }
+        for (int c = 0; c < result.componentCount(); c++) {
+            for (int i = 0; i < result.getCondensation().size(c); i++) {
+                assertEquals(c, b.get(result.getCondensation().member(c, i)));
+            }
+        }
+    }
+    
+    @Test
+    void testWorkerFailureIsReported() throws IOException {
+        // Given: A file that is not a binary graph
+        Path file = dir.resolve("broken.sccg");
+        Files.writeString(file, "not a graph");
+        
+        // When/Then: Analysis fails with the reason
+        IOException error = assertThrows(IOException.class, () -> new PartitionedAnalyzer(2).analyze(file));
+        assertTrue(error.getMessage().contains("Not a binary graph file"));
+    }
+}
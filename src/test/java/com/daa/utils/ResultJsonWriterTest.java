@@ -0,0 +1,128 @@
+package com.daa.utils;
+
+import com.daa.model.CompactCondensation;
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the JSON and NDJSON result writer.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class ResultJsonWriterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testJsonMatchesResult() throws IOException {
+        // Given: An analyzed dataset with cycles
+        AnalysisResult result = CompactAnalyzer.analyze(StreamingTaskLoader.load("data/large_mixed.json"));
+        CompactCondensation dag = result.getCondensation();
+        
+        // When: Written as JSON and parsed back
+        Path file = tempDir.resolve("results.json");
+        ResultJsonWriter.write(result, file, ResultJsonWriter.Format.forPath(file.toString()));
+        JsonObject json = JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+        
+        // Then: Counts, order and critical path agree with the result
+        assertEquals(result.taskCount(), json.get("tasks").getAsInt());
+        assertEquals(dag.edgeCount(), json.getAsJsonArray("condensation_edges").size());
+        assertEquals(result.componentCount(), json.getAsJsonArray("topological_order").size());
+        JsonObject path = json.getAsJsonObject("critical_path");
+        assertEquals(result.criticalPathLength(), path.get("length").getAsLong());
+        assertEquals(result.criticalPathTasks().get(0).get(0), path.getAsJsonArray("tasks").get(0).getAsJsonArray().get(0).getAsString());
+        
+        // And: Slack is never negative, zero along the critical path, and successors start after predecessors finish
+        JsonArray components = json.getAsJsonArray("components");
+        int tasks = 0;
+        for (JsonElement element : components) {
+            JsonObject component = element.getAsJsonObject();
+            tasks += component.getAsJsonArray("tasks").size();
+            assertTrue(component.get("slack").getAsLong() >= 0);
+        }
+        assertEquals(result.taskCount(), tasks);
+        for (JsonElement c : path.getAsJsonArray("components")) {
+            assertEquals(0, components.get(c.getAsInt()).getAsJsonObject().get("slack").getAsLong());
+        }
+        for (JsonElement edge : json.getAsJsonArray("condensation_edges")) {
+            JsonObject from = components.get(edge.getAsJsonArray().get(0).getAsInt()).getAsJsonObject();
+            JsonObject to = components.get(edge.getAsJsonArray().get(1).getAsInt()).getAsJsonObject();
+            assertTrue(from.get("earliest_start").getAsLong() + from.get("duration").getAsLong()
+                <= to.get("earliest_start").getAsLong());
+            assertTrue(from.get("latest_start").getAsLong() + from.get("duration").getAsLong()
+                <= to.get("latest_start").getAsLong());
+        }
+    }
+    
+    @Test
+    void testNdjsonRecords() throws IOException {
+        // Given: An analyzed dataset
+        AnalysisResult result = CompactAnalyzer.analyze(StreamingTaskLoader.load("data/medium_cyclic_dense.json"));
+        
+        // When: Written as NDJSON to a stream
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultJsonWriter.write(result, Channels.newChannel(out), ResultJsonWriter.Format.NDJSON);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        
+        // Then: Every line is an object; components come in topological order
+        Map<String, Integer> types = new HashMap<>();
+        for (String line : lines) {
+            JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+            String type = record.get("type").getAsString();
+            if (type.equals("component")) {
+                long position = record.get("position").getAsLong();
+                assertEquals(result.getTopologicalOrder().get(position), record.get("id").getAsInt());
+            }
+            types.merge(type, 1, Integer::sum);
+        }
+        assertEquals("summary", JsonParser.parseString(lines.get(0)).getAsJsonObject().get("type").getAsString());
+        assertEquals(result.componentCount(), types.get("component"));
+        assertEquals((int) result.getCondensation().edgeCount(), types.getOrDefault("edge", 0));
+        assertEquals(1, types.get("critical_path"));
+    }
+    
+    @Test
+    void testIdsAreEscaped() throws IOException {
+        // Given: Ids with quotes, backslashes, control characters and non-ASCII text
+        String[] ids = {"say \"hi\"", "back\\slash", "tab\there", "Žižkov-Ω", "emoji-🚀"};
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        for (String id : ids) {
+            builder.addTask(id, null, 1);
+        }
+        CompactGraph graph = builder.build();
+        
+        // When: Written and parsed back
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultJsonWriter.write(CompactAnalyzer.analyze(graph), Channels.newChannel(out), ResultJsonWriter.Format.JSON);
+        JsonArray components = JsonParser.parseString(out.toString(StandardCharsets.UTF_8))
+            .getAsJsonObject().getAsJsonArray("components");
+        
+        // Then: Every id survives the round trip
+        assertEquals(ids.length, components.size());
+        for (JsonElement component : components) {
+            String id = component.getAsJsonObject().getAsJsonArray("tasks").get(0).getAsString();
+            assertTrue(List.of(ids).contains(id), id);
+        }
+    }
+}
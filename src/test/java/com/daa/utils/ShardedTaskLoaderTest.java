@@ -0,0 +1,115 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for parallel loading of sharded JSON exports.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class ShardedTaskLoaderTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testShardsMatchSingleFile() throws IOException {
+        // Given: A dataset split into three shards, with dependencies crossing them both ways
+        Path source = Path.of("data/large_mixed.json");
+        JsonArray tasks;
+        try (Reader reader = Files.newBufferedReader(source)) {
+            tasks = JsonParser.parseReader(reader).getAsJsonArray();
+        }
+        List<Path> shards = new ArrayList<>();
+        for (int s = 0; s < 3; s++) {
+            JsonArray shard = new JsonArray();
+            for (int i = tasks.size() * s / 3; i < tasks.size() * (s + 1) / 3; i++) {
+                shard.add(tasks.get(i));
+            }
+            Path file = tempDir.resolve("district-" + s + ".json");
+            Files.writeString(file, shard.toString());
+            shards.add(file);
+        }
+        
+        // When: Loaded in parallel and as one file
+        CompactGraph expected = StreamingTaskLoader.load(source.toString());
+        CompactGraph merged = ShardedTaskLoader.load(shards, 3);
+        
+        // Then: Numbering, durations and both adjacency directions are identical
+        assertEquals(expected.vertexCount(), merged.vertexCount());
+        assertEquals(expected.edgeCount(), merged.edgeCount());
+        for (int v = 0; v < expected.vertexCount(); v++) {
+            assertEquals(expected.id(v), merged.id(v));
+            assertEquals(expected.name(v), merged.name(v));
+            assertEquals(expected.duration(v), merged.duration(v));
+            assertEquals(outList(expected, v), outList(merged, v), expected.id(v));
+            assertEquals(inList(expected, v), inList(merged, v), expected.id(v));
+        }
+    }
+    
+    @Test
+    void testCrossShardReferences() throws IOException {
+        // Given: A depends on C in a later shard, C depends on A, B depends on an unknown task
+        Path first = tempDir.resolve("a.json");
+        Path second = tempDir.resolve("b.json");
+        Files.writeString(first, "[{\"id\":\"A\",\"duration\":2,\"dependencies\":[\"C\"]},"
+            + "{\"id\":\"B\",\"duration\":3,\"dependencies\":[\"A\",\"GHOST\"]}]");
+        Files.writeString(second, "[{\"id\":\"C\",\"duration\":4,\"dependencies\":[\"A\"]}]");
+        
+        // When: Loaded from the directory listing
+        List<Path> shards = ShardedTaskLoader.listShards(tempDir);
+        CompactGraph graph = ShardedTaskLoader.load(shards, 2);
+        
+        // Then: Both cross-shard edges resolve and the unknown dependency is dropped
+        assertEquals(List.of(first, second), shards);
+        assertEquals(3, graph.vertexCount());
+        assertEquals(3, graph.edgeCount());
+        assertEquals(2, graph.indexOf("C"));
+        assertEquals(List.of(2), inList(graph, 0));
+        assertEquals(List.of(1, 2), outList(graph, 0));
+        assertEquals(List.of(0), inList(graph, 2));
+    }
+    
+    @Test
+    void testDuplicateAcrossShardsRejected() throws IOException {
+        // Given: Two shards that both declare T1
+        Path first = tempDir.resolve("a.json");
+        Path second = tempDir.resolve("b.json");
+        Files.writeString(first, "[{\"id\":\"T1\",\"duration\":2}]");
+        Files.writeString(second, "[{\"id\":\"T1\",\"duration\":5}]");
+        
+        // When / Then: Loading fails naming the task
+        IOException error = assertThrows(IOException.class,
+            () -> ShardedTaskLoader.load(List.of(first, second), 2));
+        assertTrue(error.getMessage().contains("T1"));
+    }
+    
+    private static List<Integer> outList(CompactGraph graph, int v) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < graph.outDegree(v); i++) {
+            list.add(graph.outNeighbor(v, i));
+        }
+        return list;
+    }
+    
+    private static List<Integer> inList(CompactGraph graph, int v) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < graph.inDegree(v); i++) {
+            list.add(graph.inNeighbor(v, i));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,90 @@
+package com.daa.utils;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.TaskGraph;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the streaming JSON loader and compact graph.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class StreamingTaskLoaderTest {
+    
+    @Test
+    void testMatchesGsonLoaderOnDatasets() throws IOException {
+        // Given: Every bundled dataset
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(Path.of("data"))) {
+            files = listing.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+        }
+        assertFalse(files.isEmpty());
+        
+        for (Path file : files) {
+            // When: Loaded both ways
+            TaskGraph expected = TaskJsonParser.loadFromJson(file.toString(), false);
+            TaskGraph streamed = StreamingTaskLoader.loadTaskGraph(file.toString());
+            
+            // Then: Tasks, durations and adjacency lists are identical
+            assertEquals(expected.getTasks().keySet(), streamed.getTasks().keySet(), file.toString());
+            assertEquals(expected.edgeCount(), streamed.edgeCount(), file.toString());
+            for (String id : expected.getVertices()) {
+                assertEquals(expected.getTask(id).getDuration(), streamed.getTask(id).getDuration());
+                assertEquals(expected.getAdjacencyList().get(id), streamed.getAdjacencyList().get(id), file + " " + id);
+            }
+        }
+    }
+    
+    @Test
+    void testForwardReferencesAndUnknownDependencies() throws IOException {
+        // Given: A task depending on one declared later and on one never declared
+        String json = "[{\"dependencies\":[\"B\",\"GHOST\"],\"id\":\"A\",\"duration\":2,\"extra\":{\"x\":1}},"
+            + "{\"id\":\"B\",\"name\":\"Bee\",\"duration\":5,\"dependencies\":null}]";
+        
+        // When: Loaded
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader(json));
+        
+        // Then: Declaration order is kept, B -> A resolved, GHOST dropped
+        assertEquals(2, graph.vertexCount());
+        assertEquals(1, graph.edgeCount());
+        assertEquals("A", graph.id(0));
+        assertEquals("Bee", graph.name(1));
+        assertEquals(5, graph.duration(graph.indexOf("B")));
+        assertEquals(0, graph.outNeighbor(graph.indexOf("B"), 0));
+        assertEquals(-1, graph.indexOf("GHOST"));
+    }
+    
+    @Test
+    void testDuplicateIdKeepsLastDeclaration() throws IOException {
+        // Given: Task C declared twice with different dependencies
+        String json = "[{\"id\":\"A\",\"duration\":1},{\"id\":\"B\",\"duration\":1},"
+            + "{\"id\":\"C\",\"duration\":1,\"dependencies\":[\"A\"]},"
+            + "{\"id\":\"C\",\"duration\":9,\"dependencies\":[\"B\"]}]";
+        
+        // When: Loaded
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader(json));
+        
+        // Then: Only the second declaration counts
+        int c = graph.indexOf("C");
+        assertEquals(3, graph.vertexCount());
+        assertEquals(9, graph.duration(c));
+        assertEquals(1, graph.inDegree(c));
+        assertEquals("B", graph.id(graph.inNeighbor(c, 0)));
+    }
+    
+    @Test
+    void testEmptyInputRejected() {
+        // Given/When/Then: An empty array and a task without an id both fail
+        assertThrows(IOException.class, () -> StreamingTaskLoader.load(new StringReader("[]")));
+        assertThrows(IOException.class, () -> StreamingTaskLoader.load(new StringReader("[{\"duration\":1}]")));
+    }
+}
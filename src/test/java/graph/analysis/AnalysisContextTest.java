@@ -0,0 +1,107 @@
+package graph.analysis;
+
+import com.daa.model.Task;
+import com.daa.model.TaskGraph;
+import com.daa.utils.StreamingTaskLoader;
+import graph.dagsp.DAGShortestPath;
+import graph.metrics.Phase;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the memoized analysis context over a task graph.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class AnalysisContextTest {
+    
+    // A -> {B <-> C} -> D, plus A -> E -> D
+    private TaskGraph createGraph() {
+        TaskGraph graph = new TaskGraph();
+        Task a = new Task("A", "A", 1);
+        Task b = new Task("B", "B", 2);
+        Task c = new Task("C", "C", 7);
+        Task d = new Task("D", "D", 3);
+        Task e = new Task("E", "E", 4);
+        b.setDependencies(List.of("A", "C"));
+        c.setDependencies(List.of("B"));
+        d.setDependencies(List.of("C", "E"));
+        e.setDependencies(List.of("A"));
+        for (Task task : List.of(a, b, c, d, e)) {
+            graph.addTask(task);
+        }
+        graph.buildFromTasks();
+        return graph;
+    }
+    
+    @Test
+    void testArtifactsAreComputedOnceAndShared() {
+        // Given: A context over a graph with one cycle
+        AnalysisContext context = new AnalysisContext(createGraph());
+        
+        // When: Artifacts are requested repeatedly, later ones first
+        DAGShortestPath.PathResult critical = context.getCriticalPath();
+        List<Integer> order = context.getTopologicalOrder();
+        
+        // Then: The same objects come back, path finders are per caller, and every phase ran
+        assertSame(critical, context.getCriticalPath());
+        assertSame(order, context.getTopologicalOrder());
+        assertSame(context.getComponents(), context.getComponents());
+        assertSame(context.getCondensation(), context.getCondensation());
+        assertNotSame(context.getPathFinder(), context.getPathFinder());
+        assertEquals(4, context.getComponents().size());
+        assertEquals(1 + 7 + 3, critical.length());
+        assertTrue(context.getPhaseMetrics().keySet().containsAll(
+            List.of(Phase.SCC, Phase.CONDENSATION, Phase.TOPO, Phase.PATHS)));
+        assertEquals(context.getPhaseMetrics().keySet(), context.getPhaseNanos().keySet());
+    }
+    
+    @Test
+    void testLevelsAndStartTimes() {
+        // Given: A context over the same graph
+        AnalysisContext context = new AnalysisContext(createGraph());
+        Map<String, Integer> componentOf = context.getTaskToComponentMap();
+        int a = componentOf.get("A");
+        int bc = componentOf.get("B");
+        int d = componentOf.get("D");
+        int e = componentOf.get("E");
+        
+        // When: Levels and CPM values are read
+        Map<Integer, Integer> levels = context.getLevels();
+        Map<Integer, Integer> earliest = context.getEarliestStarts();
+        Map<Integer, Integer> latest = context.getLatestStarts();
+        
+        // Then: D waits for the cycle, which is critical; E has slack
+        assertEquals(componentOf.get("C"), bc);
+        assertEquals(0, levels.get(a));
+        assertEquals(1, levels.get(bc));
+        assertEquals(2, levels.get(d));
+        assertEquals(8, earliest.get(d));
+        assertEquals(earliest.get(bc), latest.get(bc));
+        assertEquals(8 - 4 - 1, latest.get(e) - earliest.get(e));
+        assertEquals(context.getTopologicalOrder().size(), levels.size());
+    }
+    
+    @Test
+    void testGraphChangeInvalidates() throws IOException {
+        // Given: A context that has already analyzed its graph
+        TaskGraph graph = StreamingTaskLoader.load("data/medium_cyclic_dense.json").toTaskGraph();
+        AnalysisContext context = new AnalysisContext(graph);
+        List<Integer> before = context.getTopologicalOrder();
+        int length = context.getCriticalPath().length();
+        
+        // When: A duration on the critical path grows
+        int first = context.getCriticalPath().path().get(0);
+        String task = context.getComponents().get(first).getTaskIds().get(0);
+        graph.setDuration(task, context.getCondensation().getComponentDuration(first) + 100);
+        
+        // Then: Everything is recomputed for the new version
+        assertNotSame(before, context.getTopologicalOrder());
+        assertEquals(length + 100, context.getCriticalPath().length());
+    }
+}
@@ -0,0 +1,130 @@
+package graph.analysis;
+
+import com.daa.model.ArrayStorage;
+import com.daa.model.CompactGraph;
+import com.daa.model.Component;
+import com.daa.model.CondensationGraph;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.OffHeapGraph;
+import com.daa.model.TaskGraph;
+import com.daa.utils.StreamingTaskLoader;
+import graph.dagsp.DAGShortestPath;
+import graph.scc.TarjanSCC;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the int-based pipeline agrees with the map-based one.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class CompactAnalyzerTest {
+    
+    @Test
+    void testMatchesMapBasedPipelineOnDatasets() throws IOException {
+        // Given: Every bundled dataset
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(Path.of("data"))) {
+            files = listing.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+        }
+        
+        for (Path file : files) {
+            CompactGraph compact = StreamingTaskLoader.load(file.toString());
+            TaskGraph graph = compact.toTaskGraph();
+            
+            // When: Both pipelines run
+            AnalysisResult result = CompactAnalyzer.analyze(compact);
+            TarjanSCC tarjan = new TarjanSCC(graph);
+            List<Component> sccs = tarjan.findSCCs();
+            CondensationGraph dag = new CondensationGraph(sccs, graph);
+            dag.build(tarjan.getTaskToComponentMap());
+            DAGShortestPath.PathResult expected = new DAGShortestPath(dag).longestPath();
+            
+            // Then: Same partition, same condensation size, same critical path length
+            assertEquals(partition(sccs), partition(compact, result.getComponentOf()), file.toString());
+            assertEquals(dag.edgeCount(), result.getCondensation().edgeCount(), file.toString());
+            assertEquals(expected.length(), result.criticalPathLength(), file.toString());
+        }
+    }
+    
+    @Test
+    void testTopologicalOrderRespectsEdges() throws IOException {
+        // Given: A cycle B <-> C between A and D
+        String json = "[{\"id\":\"A\",\"duration\":1},"
+            + "{\"id\":\"B\",\"duration\":2,\"dependencies\":[\"A\",\"C\"]},"
+            + "{\"id\":\"C\",\"duration\":7,\"dependencies\":[\"B\"]},"
+            + "{\"id\":\"D\",\"duration\":3,\"dependencies\":[\"C\"]}]";
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader(json));
+        
+        // When: Analyzed
+        AnalysisResult result = CompactAnalyzer.analyze(graph);
+        
+        // Then: B and C collapse, order is valid and the path is A, {B,C}, D = 1 + 7 + 3
+        assertEquals(3, result.componentCount());
+        assertEquals(1, result.cyclicComponentCount());
+        int[] position = new int[result.componentCount()];
+        IntArray order = result.getTopologicalOrder();
+        for (int i = 0; i < order.length(); i++) {
+            position[order.get(i)] = i;
+        }
+        for (int c = 0; c < result.getCondensation().vertexCount(); c++) {
+            for (int i = 0; i < result.getCondensation().outDegree(c); i++) {
+                assertTrue(position[c] < position[result.getCondensation().outNeighbor(c, i)]);
+            }
+        }
+        assertEquals(11, result.criticalPathLength());
+        assertEquals(3, result.getCriticalPath().length);
+    }
+    
+    @Test
+    void testOffHeapGraphAndStorageGiveSameResult() throws IOException {
+        // Given: A dataset with cycles, on the heap and copied off it
+        CompactGraph heap = StreamingTaskLoader.load("data/medium_cyclic_dense.json");
+        OffHeapGraph offHeap = OffHeapGraph.copyOf(heap);
+        
+        // When: Analyzed with heap and off-heap working arrays
+        AnalysisResult expected = CompactAnalyzer.analyze(heap);
+        AnalysisResult actual = CompactAnalyzer.analyze(offHeap, ArrayStorage.OFF_HEAP);
+        
+        // Then: Graph contents and every result agree
+        for (int v = 0; v < heap.vertexCount(); v++) {
+            assertEquals(heap.id(v), offHeap.id(v));
+            assertEquals(heap.name(v), offHeap.name(v));
+            assertEquals(heap.inDegree(v), offHeap.inDegree(v));
+            assertEquals(v, offHeap.indexOf(heap.id(v)));
+        }
+        assertEquals(partition(heap, expected.getComponentOf()), partition(offHeap, actual.getComponentOf()));
+        assertEquals(expected.getCondensation().edgeCount(), actual.getCondensation().edgeCount());
+        assertEquals(expected.criticalPathLength(), actual.criticalPathLength());
+        assertArrayEquals(expected.getCriticalPath(), actual.getCriticalPath());
+    }
+    
+    private static Set<Set<String>> partition(List<Component> sccs) {
+        Set<Set<String>> parts = new HashSet<>();
+        for (Component component : sccs) {
+            parts.add(new HashSet<>(component.getTaskIds()));
+        }
+        return parts;
+    }
+    
+    private static Set<Set<String>> partition(IntGraph graph, IntArray componentOf) {
+        Map<Integer, Set<String>> parts = new HashMap<>();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            parts.computeIfAbsent(componentOf.get(v), c -> new HashSet<>()).add(graph.id(v));
+        }
+        return new HashSet<>(parts.values());
+    }
+}
@@ -0,0 +1,118 @@
+package graph.analysis;
+
+import com.daa.model.CompactGraph;
+import com.daa.utils.StreamingTaskLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for hash-keyed reuse of path values between related plans.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class IncrementalAnalyzerTest {
+    
+    @Test
+    void testMatchesFullAnalysisAndReusesRepeatedPlans() throws IOException {
+        // Given: Every bundled dataset and a fresh analyzer
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(Path.of("data"))) {
+            files = listing.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+        }
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(1 << 20);
+        
+        for (Path file : files) {
+            CompactGraph graph = StreamingTaskLoader.load(file.toString());
+            
+            // When: Each is analyzed twice
+            IncrementalAnalyzer.Run first = analyzer.analyze(graph);
+            IncrementalAnalyzer.Run second = analyzer.analyze(graph);
+            
+            // Then: Both match the full analysis, and the second is answered from the cache
+            assertSameSchedule(CompactAnalyzer.analyze(graph), first.result(), file.toString());
+            assertSameSchedule(first.result(), second.result(), file.toString());
+            assertEquals(1.0, second.reuse().ratio(), file.toString());
+            assertEquals(first.reuse().root(), second.reuse().root());
+        }
+    }
+    
+    @Test
+    void testChangedTaskOnlyInvalidatesItsRegions() throws IOException {
+        // Given: Yesterday's plan has been analyzed
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(1 << 20);
+        analyzer.analyze(StreamingTaskLoader.load(new StringReader(plan(500, -1))));
+        
+        // When: Today's plan changes one task in the middle
+        CompactGraph today = StreamingTaskLoader.load(new StringReader(plan(500, 250)));
+        IncrementalAnalyzer.Run run = analyzer.analyze(today);
+        
+        // Then: The result is exact, and part of it was reused
+        assertSameSchedule(CompactAnalyzer.analyze(today), run.result(), "changed plan");
+        assertTrue(run.reuse().ratio() > 0.2, run.reuse().toString());
+        assertTrue(run.reuse().ratio() < 1.0, run.reuse().toString());
+    }
+    
+    @Test
+    void testHashesIgnoreNumbering() throws IOException {
+        // Given: The same tasks listed in two different orders
+        String forward = "[{\"id\":\"A\",\"duration\":1},"
+            + "{\"id\":\"B\",\"duration\":2,\"dependencies\":[\"A\",\"C\"]},"
+            + "{\"id\":\"C\",\"duration\":7,\"dependencies\":[\"B\"]},"
+            + "{\"id\":\"D\",\"duration\":3,\"dependencies\":[\"C\"]}]";
+        String backward = "[{\"id\":\"D\",\"duration\":3,\"dependencies\":[\"C\"]},"
+            + "{\"id\":\"C\",\"duration\":7,\"dependencies\":[\"B\"]},"
+            + "{\"id\":\"B\",\"duration\":2,\"dependencies\":[\"A\",\"C\"]},"
+            + "{\"id\":\"A\",\"duration\":1}]";
+        
+        // When: Both are hashed
+        long one = new IncrementalAnalyzer(64).analyze(StreamingTaskLoader.load(new StringReader(forward))).reuse().root();
+        long two = new IncrementalAnalyzer(64).analyze(StreamingTaskLoader.load(new StringReader(backward))).reuse().root();
+        long changed = new IncrementalAnalyzer(64).analyze(StreamingTaskLoader.load(
+            new StringReader(forward.replace("\"duration\":7", "\"duration\":8")))).reuse().root();
+        
+        // Then: The Merkle root depends on content only
+        assertEquals(one, two);
+        assertNotEquals(one, changed);
+    }
+    
+    private static void assertSameSchedule(AnalysisResult expected, AnalysisResult actual, String label) {
+        assertEquals(expected.criticalPathLength(), actual.criticalPathLength(), label);
+        assertEquals(expected.componentCount(), actual.componentCount(), label);
+        for (int c = 0; c < expected.componentCount(); c++) {
+            assertEquals(expected.getEarliestStarts().get(c), actual.getEarliestStarts().get(c), label);
+            assertEquals(expected.getLatestStarts().get(c), actual.getLatestStarts().get(c), label);
+        }
+        long pathLength = 0;
+        for (int c : actual.getCriticalPath()) {
+            pathLength += actual.getCondensation().duration(c);
+        }
+        assertEquals(actual.criticalPathLength(), pathLength, label);
+    }
+    
+    // Random layered plan with a few cycles; the changed task, if any, gets a much longer duration
+    private static String plan(int tasks, int changed) {
+        Random random = new Random(7);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= tasks; i++) {
+            int duration = 1 + random.nextInt(9);
+            json.append(i > 1 ? "," : "").append("{\"id\":\"T").append(i).append("\",\"duration\":")
+                .append(i == changed ? duration + 50 : duration).append(",\"dependencies\":[");
+            for (int d = 0; d < 2 && i > 1; d++) {
+                int target = random.nextInt(30) == 0 ? Math.min(tasks, i + 1 + random.nextInt(3))
+                    : Math.max(1, i - 1 - random.nextInt(20));
+                json.append(d > 0 ? "," : "").append("\"T").append(target).append('"');
+            }
+            json.append("]}");
+        }
+        return json.append(']').toString();
+    }
+}
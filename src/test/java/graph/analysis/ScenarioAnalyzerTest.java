@@ -0,0 +1,133 @@
+package graph.analysis;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.GraphOverlay;
+import com.daa.utils.StreamingTaskLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for what-if scenarios evaluated as overlays on a shared base plan.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class ScenarioAnalyzerTest {
+    
+    // A -> {B <-> C} -> D, plus A -> E -> D
+    private static final String PLAN = "[{\"id\":\"A\",\"duration\":1},"
+        + "{\"id\":\"B\",\"duration\":2,\"dependencies\":[\"A\",\"C\"]},"
+        + "{\"id\":\"C\",\"duration\":7,\"dependencies\":[\"B\"]},"
+        + "{\"id\":\"D\",\"duration\":3,\"dependencies\":[\"C\",\"E\"]},"
+        + "{\"id\":\"E\",\"duration\":4,\"dependencies\":[\"A\"]}]";
+    
+    @Test
+    void testDurationScenariosReuseBaseComponents() throws IOException {
+        // Given: The analyzed base plan, with makespan 1 + 7 + 3
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader(PLAN));
+        AnalysisResult base = CompactAnalyzer.analyze(graph);
+        ScenarioAnalyzer analyzer = new ScenarioAnalyzer(base);
+        
+        // When: Three duration-only scenarios are evaluated together
+        GraphOverlay slowCycle = analyzer.newScenario("slow cycle").delay("B", 10);
+        GraphOverlay fastCycle = analyzer.newScenario("fast cycle").setDuration("C", 1);
+        GraphOverlay slowSide = analyzer.newScenario("slow side").delay("E", 20);
+        List<ScenarioAnalyzer.Outcome> outcomes = analyzer.evaluateAll(List.of(slowCycle, fastCycle, slowSide), 2);
+        
+        // Then: Each matches a full analysis, shares the base SCCs, and the base is untouched
+        assertEquals(List.of(12L - 7, 1L + 4 + 3 - 11, 1L + 24 + 3 - 11),
+            outcomes.stream().map(ScenarioAnalyzer.Outcome::makespanChange).toList());
+        for (ScenarioAnalyzer.Outcome outcome : outcomes) {
+            assertTrue(outcome.componentsReused());
+            assertSame(base.getComponentOf(), outcome.result().getComponentOf());
+            GraphOverlay scenario = (GraphOverlay) outcome.result().getGraph();
+            assertEquals(CompactAnalyzer.analyze(scenario).criticalPathLength(), outcome.result().criticalPathLength());
+        }
+        assertEquals(List.of(List.of("E")), outcomes.get(2).result().criticalPathTasks().subList(1, 2));
+        assertEquals(2, graph.duration(graph.indexOf("B")));
+        assertEquals(11, base.criticalPathLength());
+    }
+    
+    @Test
+    void testStructuralScenarioReadsThroughOverlay() throws IOException {
+        // Given: The same base plan
+        CompactGraph graph = StreamingTaskLoader.load(new StringReader(PLAN));
+        ScenarioAnalyzer analyzer = new ScenarioAnalyzer(CompactAnalyzer.analyze(graph));
+        
+        // When: The cycle is broken and a new task is added in front of D
+        GraphOverlay scenario = analyzer.newScenario("rework");
+        assertTrue(scenario.removeEdge("C", "B"));
+        scenario.addTask("F", "Inspection", 5);
+        scenario.addEdge("E", "F").addEdge("F", "D");
+        ScenarioAnalyzer.Outcome outcome = analyzer.evaluate(scenario);
+        
+        // Then: The SCCs are recomputed on the overlay, and the base graph has not changed
+        assertFalse(outcome.componentsReused());
+        assertEquals(graph.vertexCount() + 1, outcome.result().taskCount());
+        assertEquals(outcome.result().taskCount(), outcome.result().componentCount());
+        assertEquals(1 + 4 + 5 + 3, outcome.result().criticalPathLength());
+        assertEquals(graph.edgeCount() + 1, scenario.edgeCount());
+        assertEquals(6, graph.edgeCount());
+        assertEquals(-1, graph.indexOf("F"));
+        assertThrows(IllegalArgumentException.class, () -> scenario.addEdge("F", "missing"));
+    }
+    
+    @Test
+    void testOverlaysOfDatasetMatchFullAnalysis() throws IOException {
+        // Given: A larger cyclic dataset
+        CompactGraph graph = StreamingTaskLoader.load("data/medium_cyclic_dense.json");
+        ScenarioAnalyzer analyzer = new ScenarioAnalyzer(CompactAnalyzer.analyze(graph));
+        
+        // When: Every task is delayed in its own scenario
+        List<GraphOverlay> scenarios = new ArrayList<>();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            scenarios.add(analyzer.newScenario(graph.id(v)).delay(graph.id(v), 25));
+        }
+        List<ScenarioAnalyzer.Outcome> outcomes = analyzer.evaluateAll(scenarios, 4);
+        
+        // Then: Every outcome equals a full analysis of the same change
+        for (int i = 0; i < scenarios.size(); i++) {
+            assertEquals(CompactAnalyzer.analyze(scenarios.get(i)).criticalPathLength(),
+                outcomes.get(i).result().criticalPathLength(), scenarios.get(i).getLabel());
+            assertTrue(outcomes.get(i).makespanChange() >= 0);
+        }
+    }
+    
+    @Test
+    void testScenarioChangingManyComponentsMatchesFullAnalysis() throws IOException {
+        // Given: A larger cyclic dataset
+        CompactGraph graph = StreamingTaskLoader.load("data/medium_cyclic_dense.json");
+        ScenarioAnalyzer analyzer = new ScenarioAnalyzer(CompactAnalyzer.analyze(graph));
+        int[] baseDurations = new int[graph.vertexCount()];
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            baseDurations[v] = graph.duration(v);
+        }
+        
+        // When: One scenario changes every task, in descending order, some twice
+        GraphOverlay scenario = analyzer.newScenario("everything");
+        for (int v = graph.vertexCount() - 1; v >= 0; v--) {
+            scenario.setDuration(graph.id(v), v % 3 == 0 ? 0 : v + 1);
+        }
+        for (int v = 0; v < graph.vertexCount(); v += 2) {
+            scenario.delay(graph.id(v), 5);
+        }
+        ScenarioAnalyzer.Outcome outcome = analyzer.evaluate(scenario);
+        
+        // Then: Every read goes through the overlay, the result equals a full analysis, and the base is untouched
+        assertTrue(outcome.componentsReused());
+        assertEquals(graph.vertexCount(), scenario.changedDurations().length);
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            assertEquals(v, scenario.changedDurations()[v]);
+            assertEquals((v % 3 == 0 ? 0 : v + 1) + (v % 2 == 0 ? 5 : 0), scenario.duration(v));
+        }
+        assertEquals(CompactAnalyzer.analyze(scenario).criticalPathLength(), outcome.result().criticalPathLength());
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            assertEquals(baseDurations[v], graph.duration(v));
+        }
+    }
+}
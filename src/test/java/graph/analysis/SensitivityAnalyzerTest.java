@@ -0,0 +1,107 @@
+package graph.analysis;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.GraphOverlay;
+import com.daa.utils.StreamingTaskLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for makespan sensitivity of every task from one set of passes.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class SensitivityAnalyzerTest {
+    
+    @Test
+    void testMatchesRecomputingEveryRemoval() throws IOException {
+        // Given: Every bundled dataset
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(Path.of("data"))) {
+            files = listing.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+        }
+        for (Path file : files) {
+            CompactGraph graph = StreamingTaskLoader.load(file.toString());
+            AnalysisResult result = CompactAnalyzer.analyze(graph);
+            
+            // When: Sensitivity is computed once
+            SensitivityAnalyzer sensitivity = SensitivityAnalyzer.analyze(result);
+            
+            // Then: It agrees with a full re-analysis with each task removed or shortened
+            for (int v = 0; v < graph.vertexCount(); v++) {
+                GraphOverlay removed = new GraphOverlay(graph, "without").setDuration(graph.id(v), 0);
+                assertEquals(CompactAnalyzer.analyze(removed).criticalPathLength(), sensitivity.makespanWithoutTask(v),
+                    file + " " + graph.id(v));
+                GraphOverlay shortened = new GraphOverlay(graph, "shorter").delay(graph.id(v), -2);
+                assertEquals(CompactAnalyzer.analyze(shortened).criticalPathLength(),
+                    sensitivity.makespanIfTaskShortened(v, 2), file + " " + graph.id(v));
+            }
+        }
+    }
+    
+    @Test
+    void testJumpingEdgesOnRandomPlans() throws IOException {
+        // Given: Random plans with long-range dependencies and some cycles
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            StringBuilder json = new StringBuilder("[");
+            int tasks = 40;
+            for (int i = 0; i < tasks; i++) {
+                json.append(i > 0 ? "," : "").append("{\"id\":\"T").append(i).append("\",\"duration\":")
+                    .append(random.nextInt(10)).append(",\"dependencies\":[");
+                for (int d = 0; d < 3 && i > 0; d++) {
+                    int target = random.nextInt(12) == 0 ? random.nextInt(tasks) : random.nextInt(i);
+                    json.append(d > 0 ? "," : "").append("\"T").append(target).append('"');
+                }
+                json.append("]}");
+            }
+            CompactGraph graph = StreamingTaskLoader.load(new StringReader(json.append(']').toString()));
+            AnalysisResult result = CompactAnalyzer.analyze(graph);
+            
+            // When: Sensitivity is computed
+            SensitivityAnalyzer sensitivity = SensitivityAnalyzer.analyze(result);
+            
+            // Then: The longest path avoiding each component matches removing it outright
+            for (int c = 0; c < result.componentCount(); c++) {
+                GraphOverlay without = new GraphOverlay(graph, "without");
+                for (int i = 0; i < result.getCondensation().size(c); i++) {
+                    without.setDuration(graph.id(result.getCondensation().member(c, i)), 0);
+                }
+                long expected = CompactAnalyzer.analyze(without).criticalPathLength();
+                assertEquals(expected, sensitivity.makespanIfShortened(c, Integer.MAX_VALUE), "round " + round);
+                assertTrue(sensitivity.longestAvoiding(c) <= expected);
+                assertTrue(sensitivity.longestThrough(c) <= result.criticalPathLength());
+            }
+        }
+    }
+    
+    @Test
+    void testBottlenecksRankedBySaving() throws IOException {
+        // Given: A -> {B <-> C} -> D, plus A -> E -> D, where C dominates the cycle
+        String plan = "[{\"id\":\"A\",\"duration\":1},"
+            + "{\"id\":\"B\",\"duration\":2,\"dependencies\":[\"A\",\"C\"]},"
+            + "{\"id\":\"C\",\"duration\":7,\"dependencies\":[\"B\"]},"
+            + "{\"id\":\"D\",\"duration\":3,\"dependencies\":[\"C\",\"E\"]},"
+            + "{\"id\":\"E\",\"duration\":4,\"dependencies\":[\"A\"]}]";
+        AnalysisResult result = CompactAnalyzer.analyze(StreamingTaskLoader.load(new StringReader(plan)));
+        
+        // When: The bottlenecks are ranked
+        List<SensitivityAnalyzer.Bottleneck> bottlenecks = SensitivityAnalyzer.analyze(result).bottlenecks(10);
+        
+        // Then: C saves the most, falling back to E's path; B is hidden behind C
+        assertEquals(List.of("C", "D", "A"), bottlenecks.stream().map(SensitivityAnalyzer.Bottleneck::taskId).toList());
+        assertEquals(11 - 8, bottlenecks.get(0).makespanSaving());
+        assertEquals(3, bottlenecks.get(1).makespanSaving());
+        assertEquals(1, bottlenecks.get(2).makespanSaving());
+        assertTrue(SensitivityAnalyzer.analyze(result).getReport(2).contains("C"));
+    }
+}
@@ -0,0 +1,138 @@
+package graph.analysis;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import com.daa.model.IntArray;
+import com.daa.utils.StreamingTaskLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for analysis split into weakly connected shards.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class ShardedAnalyzerTest {
+    
+    @Test
+    void testWeakComponentsLabelledWithSmallestVertex() {
+        // Given: Three districts, each a chain with one back edge, interleaved in vertex order
+        CompactGraphBuilder builder = new CompactGraphBuilder(30, 30);
+        for (int i = 0; i < 30; i++) {
+            int v = builder.addTask("T" + i, null, 1);
+            if (i >= 3) {
+                builder.addDependency(v, "T" + (i - 3));
+            }
+            if (i == 0) {
+                builder.addDependency(v, "T27");
+            }
+        }
+        CompactGraph graph = builder.build();
+        
+        // When: The union-find runs on several threads
+        int[] root = ShardedAnalyzer.weakComponents(graph, 4);
+        
+        // Then: Every vertex is labelled with the smallest vertex of its district
+        for (int i = 0; i < 30; i++) {
+            int smallest = Integer.MAX_VALUE;
+            for (int j = i % 3; j < 30; j += 3) {
+                smallest = Math.min(smallest, graph.indexOf("T" + j));
+            }
+            assertEquals(smallest, root[graph.indexOf("T" + i)], "T" + i);
+        }
+    }
+    
+    @Test
+    void testShardedMatchesWholeGraphAnalysis() {
+        // Given: Many small districts with cycles, packed several to a shard
+        CompactGraph graph = districts(200, 40, new Random(7));
+        AnalysisResult expected = CompactAnalyzer.analyze(graph);
+        
+        // When: The graph is analyzed in shards of at least 100 tasks
+        AnalysisResult result = new ShardedAnalyzer(4, 100).analyze(graph);
+        
+        // Then: Components, order and critical path agree with the sequential pipeline
+        assertEquals(expected.componentCount(), result.componentCount());
+        assertEquals(expected.criticalPathLength(), result.criticalPathLength());
+        assertSameComponents(expected, result);
+        assertValidOrder(result);
+        long length = 0;
+        for (int c : result.getCriticalPath()) {
+            length += result.getCondensation().duration(c);
+        }
+        assertEquals(result.criticalPathLength(), length);
+        for (int c = 0; c < result.componentCount(); c++) {
+            for (int i = 0; i < result.getCondensation().size(c); i++) {
+                assertEquals(c, result.getComponentOf().get(result.getCondensation().member(c, i)));
+            }
+        }
+        assertEquals(expected.getCondensation().edgeCount(), result.getCondensation().edgeCount());
+    }
+    
+    @Test
+    void testDatasetFormingOneShardIsAnalyzedWhole() throws IOException {
+        // Given: A dataset and the default shard size, larger than the dataset
+        CompactGraph graph = StreamingTaskLoader.load("data/medium_cyclic_dense.json");
+        AnalysisResult expected = CompactAnalyzer.analyze(graph);
+        
+        // When: It is analyzed with one-task shards allowed and with the default shard size
+        AnalysisResult tiny = new ShardedAnalyzer(3, 1).analyze(graph);
+        AnalysisResult whole = new ShardedAnalyzer(3).analyze(graph);
+        
+        // Then: Both agree with the sequential pipeline
+        for (AnalysisResult result : new AnalysisResult[] {tiny, whole}) {
+            assertEquals(expected.componentCount(), result.componentCount());
+            assertEquals(expected.criticalPathLength(), result.criticalPathLength());
+            assertSameComponents(expected, result);
+            assertValidOrder(result);
+        }
+    }
+    
+    // A random plan of separate districts, each a layered chain with a few backward edges
+    private static CompactGraph districts(int count, int size, Random random) {
+        int tasks = count * size;
+        CompactGraphBuilder builder = new CompactGraphBuilder(tasks, tasks * 2);
+        for (int i = 0; i < tasks; i++) {
+            int district = i % count;
+            int local = i / count;
+            int v = builder.addTask("T" + i, null, 1 + random.nextInt(9));
+            if (local > 0) {
+                builder.addDependency(v, "T" + ((local - 1 - random.nextInt(Math.min(local, 5))) * count + district));
+            }
+            if (local + 2 < size && random.nextInt(8) == 0) {
+                builder.addDependency(v, "T" + ((local + 2) * count + district));
+            }
+        }
+        return builder.build();
+    }
+    
+    // Two vertices share a component in one result exactly when they do in the other
+    private static void assertSameComponents(AnalysisResult expected, AnalysisResult actual) {
+        IntArray a = expected.getComponentOf();
+        IntArray b = actual.getComponentOf();
+        Map<Integer, Integer> mapping = new HashMap<>();
+        for (int v = 0; v < expected.taskCount(); v++) {
+            Integer previous = mapping.putIfAbsent(a.get(v), b.get(v));
+            assertEquals(previous == null ? b.get(v) : previous, b.get(v), "vertex " + v);
+        }
+        assertEquals(expected.componentCount(), mapping.values().stream().distinct().count());
+    }
+    
+    private static void assertValidOrder(AnalysisResult result) {
+        int[] position = new int[result.componentCount()];
+        for (int k = 0; k < position.length; k++) {
+            position[result.getTopologicalOrder().get(k)] = k;
+        }
+        for (int c = 0; c < position.length; c++) {
+            for (int i = 0; i < result.getCondensation().outDegree(c); i++) {
+                assertTrue(position[c] < position[result.getCondensation().outNeighbor(c, i)]);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package graph.metrics;
+
+import com.daa.model.Task;
+import com.daa.model.TaskGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for counter handles in DefaultMetrics.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class DefaultMetricsTest {
+    
+    @Test
+    void testHandleAndNameShareCounter() {
+        // Given: A handle and a name-based increment on the same counter
+        DefaultMetrics metrics = new DefaultMetrics();
+        Counter edges = metrics.counter("edges_explored");
+        
+        // When: Both paths increment
+        edges.increment();
+        edges.add(4);
+        metrics.incrementCounter("edges_explored");
+        
+        // Then: They see the same value
+        assertSame(edges, metrics.counter("edges_explored"));
+        assertEquals(6, metrics.getCounter("edges_explored"));
+        assertEquals(6, edges.get());
+    }
+    
+    @Test
+    void testHandleSurvivesReset() {
+        // Given: A handle with a value
+        DefaultMetrics metrics = new DefaultMetrics();
+        Counter pushes = metrics.counter("queue_pushes");
+        metrics.counter("queue_pops");
+        pushes.add(10);
+        
+        // When: Metrics are reset and the handle is reused
+        metrics.reset();
+        pushes.increment();
+        
+        // Then: Counting restarts from zero and untouched counters stay out of the report
+        assertEquals(1, metrics.getCounter("queue_pushes"));
+        assertFalse(metrics.getReport().contains("queue_pops"));
+    }
+    
+    @Test
+    void testConcurrentIncrements() throws InterruptedException {
+        // Given: One handle shared by several threads
+        DefaultMetrics metrics = new DefaultMetrics();
+        Counter relaxations = metrics.counter("relaxations");
+        int threads = 4;
+        int perThread = 100_000;
+        
+        // When: All threads increment concurrently
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    relaxations.increment();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        
+        // Then: No increments are lost
+        assertEquals((long) threads * perThread, metrics.getCounter("relaxations"));
+    }
+    
+    @Test
+    void testAllocationAndFootprintReported() {
+        // Given: A phase that allocates and a graph to size
+        DefaultMetrics metrics = new DefaultMetrics();
+        TaskGraph small = chain(10);
+        TaskGraph large = chain(1000);
+        
+        // When: The phase is timed and footprints recorded
+        metrics.startTimer();
+        long[] garbage = new long[100_000];
+        metrics.stopTimer();
+        metrics.recordFootprint("task_graph", MemoryFootprint.estimate(large));
+        
+        // Then: Allocation covers the array and footprints scale with the graph
+        if (AllocationTracker.isSupported()) {
+            assertTrue(metrics.getAllocatedBytes() >= garbage.length * 8L);
+        }
+        assertTrue(MemoryFootprint.estimate(large) > 50 * MemoryFootprint.estimate(small));
+        assertTrue(metrics.getReport().contains("task_graph"));
+        assertTrue(metrics.toJson().contains("\"footprint_bytes\":{\"task_graph\":"));
+    }
+    
+    private static TaskGraph chain(int n) {
+        TaskGraph graph = new TaskGraph();
+        for (int i = 0; i < n; i++) {
+            Task task = new Task("T" + (i + 1), "Task " + (i + 1), 3);
+            if (i > 0) {
+                task.getDependencies().add("T" + i);
+            }
+            graph.addTask(task);
+        }
+        graph.buildFromTasks();
+        return graph;
+    }
+}
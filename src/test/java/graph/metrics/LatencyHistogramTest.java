@@ -0,0 +1,79 @@
+package graph.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the log-linear latency histogram and the phase recorder.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class LatencyHistogramTest {
+    
+    @Test
+    void testPercentilesWithinBucketError() {
+        // Given: Samples 1..100,000 ns recorded once each
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v);
+        }
+        
+        // When/Then: Percentiles are within 1/64 of the exact value, max is exact
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertWithinError(50_000, histogram.getValueAtPercentile(50.0));
+        assertWithinError(99_000, histogram.getValueAtPercentile(99.0));
+        assertWithinError(99_900, histogram.getValueAtPercentile(99.9));
+        assertEquals(100_000, histogram.getValueAtPercentile(100.0));
+    }
+    
+    @Test
+    void testSmallValuesAreExact() {
+        // Given: Values below the first log bucket
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(7);
+        histogram.record(100);
+        
+        // Then: They are reported exactly
+        assertEquals(3, histogram.getValueAtPercentile(10.0));
+        assertEquals(7, histogram.getValueAtPercentile(50.0));
+        assertEquals(100, histogram.getValueAtPercentile(99.0));
+    }
+    
+    @Test
+    void testBucketsAreContiguous() {
+        // Every value maps into a bucket whose upper edge is not below it
+        for (long v = 0; v < 1_000_000; v += 7) {
+            int index = LatencyHistogram.bucketIndex(v);
+            assertTrue(LatencyHistogram.highestValueInBucket(index) >= v);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueInBucket(index - 1) < v);
+            }
+        }
+    }
+    
+    @Test
+    void testRecorderAggregatesAcrossRuns() {
+        // Given: 1000 runs of two phases
+        PhaseLatencyRecorder recorder = new PhaseLatencyRecorder();
+        for (int run = 0; run < 1000; run++) {
+            recorder.record(Phase.SCC, 1_000_000 + run);
+            recorder.record(Phase.TOPO, 500_000);
+        }
+        
+        // Then: Each phase kept every sample and the report lists only recorded phases
+        assertEquals(1000, recorder.histogram(Phase.SCC).getCount());
+        assertEquals(1000, recorder.histogram(Phase.TOPO).getCount());
+        assertEquals(0, recorder.histogram(Phase.PARSE).getCount());
+        String report = recorder.getReport();
+        assertTrue(report.contains("scc"));
+        assertFalse(report.contains("parse"));
+    }
+    
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 64 + 1,
+            "expected ~" + expected + " but was " + actual);
+    }
+}
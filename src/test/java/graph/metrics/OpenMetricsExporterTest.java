@@ -0,0 +1,153 @@
+package graph.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the metrics registry and its OpenMetrics exposition.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class OpenMetricsExporterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testRegistryAggregatesAcrossAnalyses() {
+        // Given: Two analyses recorded into one registry
+        MetricsRegistry registry = new MetricsRegistry();
+        for (int run = 0; run < 2; run++) {
+            DefaultMetrics metrics = new DefaultMetrics();
+            metrics.counter("edges_explored").add(10);
+            registry.record(Phase.SCC, 2_000_000, metrics);
+            registry.recordAnalysis();
+        }
+        
+        // When: The registry is scraped
+        String text = OpenMetricsExporter.scrape(registry);
+        
+        // Then: Counters and timers are summed and the exposition is terminated
+        assertTrue(text.contains("scheduler_analyses_total 2\n"));
+        assertTrue(text.contains("scheduler_operations_total{phase=\"scc\",operation=\"edges_explored\"} 20\n"));
+        assertTrue(text.contains("scheduler_phase_duration_seconds_count{phase=\"scc\"} 2\n"));
+        assertTrue(text.contains("scheduler_phase_duration_seconds_sum{phase=\"scc\"} 0.004\n"));
+        assertFalse(text.contains("phase_duration_seconds_count{phase=\"topo\"}"));
+        assertTrue(text.endsWith("# EOF\n"));
+    }
+    
+    @Test
+    void testRecordPhasesSkipsMetricsThatKeepNoTime() {
+        // Given: One phase timed by real metrics and one run with NoOpMetrics
+        MetricsRegistry registry = new MetricsRegistry();
+        DefaultMetrics timed = new DefaultMetrics();
+        timed.startTimer();
+        timed.stopTimer();
+        Map<Phase, Metrics> phaseMetrics = new EnumMap<>(Phase.class);
+        phaseMetrics.put(Phase.SCC, timed);
+        phaseMetrics.put(Phase.TOPO, NoOpMetrics.INSTANCE);
+        
+        // When: Both are folded in
+        registry.recordPhases(phaseMetrics);
+        
+        // Then: Only the timed phase is recorded, so no phase reads as instant
+        assertEquals(1, registry.getLatencies().histogram(Phase.SCC).getCount());
+        assertEquals(0, registry.getLatencies().histogram(Phase.TOPO).getCount());
+        assertFalse(OpenMetricsExporter.scrape(registry).contains("phase_duration_seconds_count{phase=\"topo\"}"));
+    }
+    
+    @Test
+    void testScrapeSizeIndependentOfAnalysisCount() {
+        // Given: The same phases recorded 10 and 10,000 times
+        MetricsRegistry few = new MetricsRegistry();
+        MetricsRegistry many = new MetricsRegistry();
+        record(few, 10);
+        record(many, 10_000);
+        
+        // Then: Both expositions have the same series
+        assertEquals(OpenMetricsExporter.scrape(few).lines().count(),
+            OpenMetricsExporter.scrape(many).lines().count());
+    }
+    
+    @Test
+    void testHttpEndpoint() throws Exception {
+        // Given: A server on a free local port
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.recordAnalysis();
+        try (MetricsHttpServer server = MetricsHttpServer.start(registry, 0)) {
+            // When: /metrics is scraped
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/metrics")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            
+            // Then: It returns OpenMetrics text
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/openmetrics-text"));
+            assertTrue(response.body().contains("scheduler_analyses_total 1"));
+        }
+    }
+    
+    @Test
+    void testConcurrentWritersOfOneTextfile() throws Exception {
+        // Given: Two registries exported to the same textfile-collector path
+        MetricsRegistry few = new MetricsRegistry();
+        MetricsRegistry many = new MetricsRegistry();
+        record(few, 1);
+        record(many, 3);
+        Path file = tempDir.resolve("scheduler.prom");
+        
+        // When: Both write it at the same time, repeatedly
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 50; round++) {
+                Future<?> first = pool.submit((Callable<Void>) () -> {
+                    OpenMetricsExporter.writeToFile(few, file);
+                    return null;
+                });
+                Future<?> second = pool.submit((Callable<Void>) () -> {
+                    OpenMetricsExporter.writeToFile(many, file);
+                    return null;
+                });
+                first.get();
+                second.get();
+                
+                // Then: The file is always one whole exposition, and no staging file is left
+                String text = Files.readString(file);
+                assertTrue(text.equals(OpenMetricsExporter.scrape(few)) || text.equals(OpenMetricsExporter.scrape(many)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+    
+    private static void record(MetricsRegistry registry, int runs) {
+        for (int run = 0; run < runs; run++) {
+            DefaultMetrics metrics = new DefaultMetrics();
+            metrics.counter("queue_pops").add(run);
+            for (Phase phase : Phase.values()) {
+                registry.record(phase, 1000 + run, metrics);
+            }
+            registry.recordAnalysis();
+        }
+    }
+}
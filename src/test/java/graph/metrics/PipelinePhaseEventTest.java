@@ -0,0 +1,72 @@
+package graph.metrics;
+
+import com.daa.model.Component;
+import com.daa.model.CondensationGraph;
+import com.daa.model.Task;
+import com.daa.model.TaskGraph;
+import graph.dagsp.DAGShortestPath;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that every pipeline phase emits a JFR event with graph sizes.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class PipelinePhaseEventTest {
+    
+    @Test
+    void testEventsForEveryAlgorithmPhase() {
+        // Given: A graph with one 2-cycle feeding a third task
+        TaskGraph graph = new TaskGraph();
+        Task t1 = new Task("T1", "Task 1", 5);
+        Task t2 = new Task("T2", "Task 2", 3);
+        Task t3 = new Task("T3", "Task 3", 4);
+        t1.getDependencies().add("T2");
+        t2.getDependencies().add("T1");
+        t3.getDependencies().add("T2");
+        graph.addTask(t1);
+        graph.addTask(t2);
+        graph.addTask(t3);
+        graph.buildFromTasks();
+        
+        Map<String, RecordedEvent> byPhase = new ConcurrentHashMap<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable(PipelinePhaseEvent.NAME);
+            recording.onEvent(PipelinePhaseEvent.NAME,
+                event -> byPhase.putIfAbsent(event.getString("phase"), event));
+            recording.startAsync();
+            
+            // When: The pipeline runs while recording
+            TarjanSCC tarjan = new TarjanSCC(graph);
+            List<Component> sccs = tarjan.findSCCs();
+            CondensationGraph dag = new CondensationGraph(sccs, graph);
+            dag.build(tarjan.getTaskToComponentMap());
+            new TopologicalSort(dag).sortComponents();
+            new DAGShortestPath(dag).longestPath();
+            
+            recording.stop();
+        }
+        
+        // Then: Each algorithm phase was recorded with sizes and counters
+        RecordedEvent scc = byPhase.get("scc");
+        assertNotNull(scc);
+        assertEquals(3, scc.getInt("tasks"));
+        assertEquals(3, scc.getLong("edges"));
+        assertEquals(2, scc.getInt("components"));
+        assertTrue(scc.getString("counters").contains("edges_explored=3"));
+        
+        assertEquals(1, byPhase.get("condensation").getLong("edges"));
+        assertNotNull(byPhase.get("topo"));
+        assertTrue(byPhase.get("paths").getString("detail").startsWith("longestPath"));
+    }
+}
@@ -0,0 +1,204 @@
+package graph.scc;
+
+import com.daa.model.CompactGraph;
+import com.daa.model.CompactGraphBuilder;
+import com.daa.model.IntArray;
+import com.daa.model.IntGraph;
+import com.daa.model.MappedGraph;
+import com.daa.utils.BinaryGraphFormat;
+import com.daa.utils.EdgeListFile;
+import com.daa.utils.StreamingCondensationBuilder;
+import com.daa.utils.StreamingTaskLoader;
+import graph.analysis.AnalysisResult;
+import graph.analysis.CompactAnalyzer;
+import graph.dagsp.CompactCriticalPath;
+import graph.topo.CompactTopologicalSort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for semi-external SCC detection and the streaming condensation builder.
+ * 
+ * @author Smart City Scheduling Team
+ */
+class SemiExternalSCCTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testSamePartitionAsTarjan() throws IOException {
+        // Given: Bundled datasets and a random graph with many cycles
+        for (String dataset : new String[] {"data/large_mixed.json", "data/medium_cyclic_dense.json"}) {
+            assertSamePartition(StreamingTaskLoader.load(dataset));
+        }
+        assertSamePartition(randomGraph(3000, new Random(7)));
+    }
+    
+    @Test
+    void testLongChainAgainstVertexOrder() throws IOException {
+        // Given: A chain T(n-1) -> ... -> T0 closed into one big cycle every 100 tasks
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        int n = 2000;
+        for (int i = 0; i < n; i++) {
+            int v = builder.addTask("T" + i, null, 1);
+            if (i + 1 < n) {
+                builder.addDependency(v, "T" + (i + 1));
+            }
+            if (i % 100 == 99) {
+                builder.addDependency(v, "T" + (i - 99));
+            }
+        }
+        
+        // When/Then: Still the Tarjan partition, in a handful of scans
+        SemiExternalSCC scc = assertSamePartition(builder.build());
+        assertTrue(scc.getMetrics().getCounter("edge_scans") < 50);
+    }
+    
+    @Test
+    void testStreamingCondensationMatchesInMemory() throws IOException {
+        // Given: A cyclic graph, its semi-external SCCs, and a tiny run size to force spills
+        CompactGraph graph = randomGraph(2000, new Random(11));
+        Path edgeFile = tempDir.resolve("graph.edges");
+        EdgeListFile.write(graph, edgeFile);
+        EdgeListFile edges = EdgeListFile.open(edgeFile);
+        SemiExternalSCC scc = new SemiExternalSCC(edges);
+        IntArray componentOf = scc.findSCCs();
+        
+        // When: The condensation is built on disk and analyzed from its mapping
+        Path output = tempDir.resolve("condensation.sccg");
+        long condensationEdges = new StreamingCondensationBuilder(tempDir, 500)
+            .build(edges, componentOf, scc.getComponentCount(), output);
+        MappedGraph dag = BinaryGraphFormat.map(output);
+        CompactCriticalPath.CriticalPath path =
+            new CompactCriticalPath(dag, new CompactTopologicalSort(dag).sort()).longestPath();
+        
+        // Then: Same size and critical path as the in-memory pipeline
+        AnalysisResult expected = CompactAnalyzer.analyze(graph);
+        assertEquals(expected.componentCount(), dag.vertexCount());
+        assertEquals(expected.getCondensation().edgeCount(), condensationEdges);
+        assertEquals(expected.criticalPathLength(), path.length());
+    }
+    
+    @Test
+    void testConcurrentCondensationsShareWorkDirectory() throws Exception {
+        // Given: Two different graphs whose edge lists sit in the same directory
+        CompactGraph[] graphs = {randomGraph(1500, new Random(3)), randomGraph(2500, new Random(4))};
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            // When: Both condensations are built at once with spilling runs in that directory
+            Future<?>[] builds = new Future<?>[graphs.length];
+            for (int g = 0; g < graphs.length; g++) {
+                int index = g;
+                builds[g] = pool.submit((Callable<Long>) () -> {
+                    Path edgeFile = tempDir.resolve("plan-" + index + ".edges");
+                    EdgeListFile.write(graphs[index], edgeFile);
+                    EdgeListFile edges = EdgeListFile.open(edgeFile);
+                    SemiExternalSCC scc = new SemiExternalSCC(edges);
+                    IntArray componentOf = scc.findSCCs();
+                    return new StreamingCondensationBuilder(tempDir, 200).build(edges, componentOf,
+                        scc.getComponentCount(), tempDir.resolve("plan-" + index + ".sccg"));
+                });
+            }
+            
+            // Then: Each matches its in-memory condensation, and no work files are left behind
+            for (int g = 0; g < graphs.length; g++) {
+                AnalysisResult expected = CompactAnalyzer.analyze(graphs[g]);
+                assertEquals(expected.getCondensation().edgeCount(), builds[g].get());
+                MappedGraph dag = BinaryGraphFormat.map(tempDir.resolve("plan-" + g + ".sccg"));
+                assertEquals(expected.componentCount(), dag.vertexCount());
+            }
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertTrue(files.noneMatch(p -> p.getFileName().toString().startsWith("condense-")));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    void testConcurrentWritersOfOneEdgeList() throws Exception {
+        // Given: Two different graphs
+        CompactGraph large = randomGraph(20000, new Random(5));
+        CompactGraph small = randomGraph(300, new Random(6));
+        Path edgeFile = tempDir.resolve("shared.edges");
+        
+        // When: Both are written to the same file at the same time, repeatedly
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                Future<?> first = pool.submit((Callable<Void>) () -> {
+                    EdgeListFile.write(large, edgeFile);
+                    return null;
+                });
+                Future<?> second = pool.submit((Callable<Void>) () -> {
+                    EdgeListFile.write(small, edgeFile);
+                    return null;
+                });
+                first.get();
+                second.get();
+                
+                // Then: The file is always one of them, whole, and no staging file is left
+                EdgeListFile edges = EdgeListFile.open(edgeFile);
+                CompactGraph expected = edges.vertexCount() == large.vertexCount() ? large : small;
+                assertEquals(expected.edgeCount(), edges.edgeCount());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of(edgeFile), files.toList());
+        }
+    }
+    
+    private SemiExternalSCC assertSamePartition(IntGraph graph) throws IOException {
+        Path edgeFile = tempDir.resolve("partition.edges");
+        EdgeListFile.write(graph, edgeFile);
+        SemiExternalSCC scc = new SemiExternalSCC(EdgeListFile.open(edgeFile));
+        IntArray actual = scc.findSCCs();
+        
+        CompactTarjanSCC tarjan = new CompactTarjanSCC(graph);
+        IntArray expected = tarjan.findSCCs();
+        assertEquals(tarjan.getComponentCount(), scc.getComponentCount());
+        
+        // same partition: the id mapping between the two numberings is a bijection
+        Map<Integer, Integer> mapping = new HashMap<>();
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            Integer previous = mapping.putIfAbsent(expected.get(v), actual.get(v));
+            assertEquals(previous == null ? actual.get(v) : previous, actual.get(v));
+        }
+        assertEquals(mapping.size(), new HashSet<>(mapping.values()).size());
+        return scc;
+    }
+    
+    // Mostly forward edges with a sprinkling of back edges
+    private static CompactGraph randomGraph(int n, Random random) {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        for (int i = 0; i < n; i++) {
+            int v = builder.addTask("T" + i, null, 1 + random.nextInt(9));
+            for (int d = 0; d < 3 && i > 0; d++) {
+                builder.addDependency(v, "T" + random.nextInt(i));
+            }
+            if (random.nextInt(10) == 0) {
+                builder.addDependency(v, "T" + random.nextInt(n));
+            }
+        }
+        return builder.build();
+    }
+}
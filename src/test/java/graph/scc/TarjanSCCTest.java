@@ -166,9 +166,11 @@ class TarjanSCCTest {
         tarjan.findSCCs();
         var mapping = tarjan.getTaskToComponentMap();
         
-        // Then: T1 and T2 in same component, T3 in different component
+        // Then: T1 and T2 in same component, T3 in different component; the shared map is read-only
         assertEquals(mapping.get("T1"), mapping.get("T2"));
         assertNotEquals(mapping.get("T1"), mapping.get("T3"));
+        assertThrows(UnsupportedOperationException.class, () -> mapping.put("T3", mapping.get("T1")));
+        assertSame(mapping, tarjan.getTaskToComponentMap());
     }
     
     // Helper method